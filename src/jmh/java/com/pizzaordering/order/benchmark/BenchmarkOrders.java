@@ -0,0 +1,66 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.benchmark;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+
+/**
+ * Factory of orders shared by benchmarks.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+final class BenchmarkOrders {
+	
+	/**
+	 * Constructor.
+	 */
+	private BenchmarkOrders() {
+	}
+	
+	/**
+	 * Build an order adding two portions of each of the first ingredients.
+	 * 
+	 * @param id Id of order, or null for a new order.
+	 * @param orderCustomizationQuantity Quantity of customized ingredients.
+	 * @return Order with customized ingredients.
+	 */
+	static Order newOrder(Long id, int orderCustomizationQuantity) {
+		Order order = new Order();
+		Map<Long, OrderCustomization> orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+		OrderCustomization orderCustomization = null;
+		
+		order.setId(id);
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		order.setPrice(id == null ? null : new BigDecimal("12.50"));
+		
+		for (long ingredientId = 1L; ingredientId <= orderCustomizationQuantity; ingredientId++) {
+			orderCustomization = new OrderCustomization();
+			orderCustomization.setType('A');
+			orderCustomization.setPortionQuantity(2);
+			orderCustomization.setObservation("Benchmark.");
+			
+			orderCustomizationMap.put(ingredientId, orderCustomization);
+		}
+		
+		order.setOrderCustomizationMap(orderCustomizationMap);
+		
+		return order;
+	}
+}
\ No newline at end of file
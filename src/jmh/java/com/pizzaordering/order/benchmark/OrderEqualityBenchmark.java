@@ -0,0 +1,121 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomizationId;
+
+/**
+ * Benchmark of hash code and equality of orders and of order customization composite keys, which hash and compare
+ * 		their order as well.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderEqualityBenchmark {
+	
+	/**
+	 * Order compared.
+	 */
+	Order order;
+	
+	/**
+	 * Distinct order equal to the order compared.
+	 */
+	Order equalOrder;
+	
+	/**
+	 * Order customization composite key compared.
+	 */
+	OrderCustomizationId orderCustomizationId;
+	
+	/**
+	 * Distinct order customization composite key equal to the one compared.
+	 */
+	OrderCustomizationId equalOrderCustomizationId;
+	
+	/**
+	 * Build equal pairs of orders and of order customization composite keys.
+	 */
+	@Setup
+	public void setUp() {
+		order = BenchmarkOrders.newOrder(1L, 0);
+		equalOrder = BenchmarkOrders.newOrder(1L, 0);
+		
+		orderCustomizationId = new OrderCustomizationId();
+		orderCustomizationId.setIngredientId(1L);
+		orderCustomizationId.setOrder(order);
+		
+		equalOrderCustomizationId = new OrderCustomizationId();
+		equalOrderCustomizationId.setIngredientId(1L);
+		equalOrderCustomizationId.setOrder(equalOrder);
+	}
+	
+	/**
+	 * Hash the order.
+	 * 
+	 * @return Hash code of the order.
+	 */
+	@Benchmark
+	public int orderHashCode() {
+		return order.hashCode();
+	}
+	
+	/**
+	 * Compare the order with an equal one.
+	 * 
+	 * @return Result of equality.
+	 */
+	@Benchmark
+	public boolean orderEquals() {
+		return order.equals(equalOrder);
+	}
+	
+	/**
+	 * Hash the order customization composite key.
+	 * 
+	 * @return Hash code of the order customization composite key.
+	 */
+	@Benchmark
+	public int orderCustomizationIdHashCode() {
+		return orderCustomizationId.hashCode();
+	}
+	
+	/**
+	 * Compare the order customization composite key with an equal one.
+	 * 
+	 * @return Result of equality.
+	 */
+	@Benchmark
+	public boolean orderCustomizationIdEquals() {
+		return orderCustomizationId.equals(equalOrderCustomizationId);
+	}
+}
\ No newline at end of file
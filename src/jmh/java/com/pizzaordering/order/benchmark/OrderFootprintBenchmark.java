@@ -0,0 +1,117 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pizzaordering.order.dto.CompactOrder;
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Benchmark of order in-memory representations as kept by the order cache, order entities and compact orders.
+ * 		Building an order is measured, with its allocation reported by the gc profiler (-prof gc), and the retained
+ * 		heap per order is printed once per fork, as the difference of used heap after full collections.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderFootprintBenchmark {
+	
+	/**
+	 * Quantity of orders retained to measure retained heap.
+	 */
+	private static final int ORDER_QUANTITY = 20000;
+	
+	/**
+	 * Quantity of customized ingredients of each order.
+	 */
+	private static final int ORDER_CUSTOMIZATION_QUANTITY = 5;
+	
+	/**
+	 * In-memory representation.
+	 */
+	@Param({"entity", "compact"})
+	String representation;
+	
+	/**
+	 * Measure retained heap of the representation and print it per order.
+	 */
+	@Setup
+	public void setUp() {
+		List<Object> retainedList = new ArrayList<Object>(ORDER_QUANTITY);
+		long usedBefore = usedHeap();
+		
+		for (long id = 0L; id < ORDER_QUANTITY; id++) {
+			retainedList.add(newOrder(id));
+		}
+		
+		System.out.println(String.format("%s bytes/order=%d orders=%d", representation,
+				(usedHeap() - usedBefore) / ORDER_QUANTITY, retainedList.size()));
+	}
+	
+	/**
+	 * Build an order in the representation, a compact order being converted from the entity loaded from database.
+	 * 
+	 * @return Order built.
+	 */
+	@Benchmark
+	public Object build() {
+		return newOrder(1L);
+	}
+	
+	/**
+	 * Build a priced order with customized ingredients in the representation.
+	 * 
+	 * @param id Id of order.
+	 * @return Order in the representation.
+	 */
+	private Object newOrder(long id) {
+		Order order = BenchmarkOrders.newOrder(1000L + id, ORDER_CUSTOMIZATION_QUANTITY);
+		
+		return "compact".equals(representation) ? CompactOrder.of(order) : order;
+	}
+	
+	/**
+	 * Get used heap after full collections.
+	 * 
+	 * @return Used heap, in bytes.
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
\ No newline at end of file
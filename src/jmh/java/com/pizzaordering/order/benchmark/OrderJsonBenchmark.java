@@ -0,0 +1,108 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Benchmark of JSON serialization and deserialization of orders by size of the map of order customizations, with
+ * 		the mapper configured as by Spring.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderJsonBenchmark {
+	
+	/**
+	 * Quantity of customized ingredients of the order.
+	 */
+	@Param({"0", "4", "16", "64"})
+	int orderCustomizationQuantity;
+	
+	/**
+	 * Writer of orders as JSON.
+	 */
+	ObjectWriter orderWriter;
+	
+	/**
+	 * Reader of orders from JSON.
+	 */
+	ObjectReader orderReader;
+	
+	/**
+	 * Order serialized.
+	 */
+	Order order;
+	
+	/**
+	 * Order as JSON, deserialized.
+	 */
+	byte[] orderJson;
+	
+	/**
+	 * Build the mapper and the order.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		
+		orderWriter = objectMapper.writerFor(Order.class);
+		orderReader = objectMapper.readerFor(Order.class);
+		order = BenchmarkOrders.newOrder(1L, orderCustomizationQuantity);
+		orderJson = orderWriter.writeValueAsBytes(order);
+	}
+	
+	/**
+	 * Serialize the order as JSON.
+	 * 
+	 * @return Order as JSON.
+	 */
+	@Benchmark
+	public byte[] serialize() throws IOException {
+		return orderWriter.writeValueAsBytes(order);
+	}
+	
+	/**
+	 * Deserialize the order from JSON.
+	 * 
+	 * @return Order deserialized.
+	 */
+	@Benchmark
+	public Order deserialize() throws IOException {
+		return orderReader.readValue(orderJson);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,227 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pizzaordering.order.OrderResourceApplication;
+import com.pizzaordering.order.data.OrderCustomizationRepository;
+import com.pizzaordering.order.data.OrderRepository;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+import com.pizzaordering.order.entity.OrderCustomizationId;
+import com.pizzaordering.order.service.OrderPriceCacheService;
+import com.pizzaordering.order.service.OrderService;
+import com.pizzaordering.order.service.OrderShardService;
+
+/**
+ * Benchmark of order persistence on the embedded database of the tests, comparing the former two step save path,
+ * 		the transactional add order and the batch add order list. Scores are per order. The price of the orders is
+ * 		cached beforehand, so ingredient resource is never called, and orders are deleted after every iteration.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderPersistenceBenchmark {
+	
+	/**
+	 * Quantity of orders saved on every operation, the size of each list sent to add order list.
+	 */
+	private static final int ORDER_LIST_SIZE = 50;
+	
+	/**
+	 * Quantity of customized ingredients of each order.
+	 */
+	private static final int ORDER_CUSTOMIZATION_QUANTITY = 3;
+	
+	/**
+	 * Application context.
+	 */
+	ConfigurableApplicationContext applicationContext;
+	
+	/**
+	 * Interface of order service layer.
+	 */
+	OrderService orderService;
+	
+	/**
+	 * Interface of order price cache service layer.
+	 */
+	OrderPriceCacheService orderPriceCacheService;
+	
+	/**
+	 * Interface of order repository layer.
+	 */
+	OrderRepository orderRepository;
+	
+	/**
+	 * Interface of order customization repository layer.
+	 */
+	OrderCustomizationRepository orderCustomizationRepository;
+	
+	/**
+	 * Interface of order shard service layer.
+	 */
+	OrderShardService orderShardService;
+	
+	/**
+	 * Spring JDBC template over the data source of orders.
+	 */
+	JdbcTemplate jdbcTemplate;
+	
+	/**
+	 * Start the application without web server and cache the price of the orders.
+	 */
+	@Setup
+	public void setUp() {
+		applicationContext = new SpringApplicationBuilder(OrderResourceApplication.class)
+				.web(WebApplicationType.NONE)
+				.run();
+		
+		orderService = applicationContext.getBean(OrderService.class);
+		orderPriceCacheService = applicationContext.getBean(OrderPriceCacheService.class);
+		orderRepository = applicationContext.getBean(OrderRepository.class);
+		orderCustomizationRepository = applicationContext.getBean(OrderCustomizationRepository.class);
+		orderShardService = applicationContext.getBean(OrderShardService.class);
+		jdbcTemplate = new JdbcTemplate(applicationContext.getBean(DataSource.class));
+		
+		orderPriceCacheService.putOrderPrice(newOrder(), BigDecimal.TEN);
+	}
+	
+	/**
+	 * Delete every order saved on the iteration, so the database does not grow along the run.
+	 */
+	@TearDown(Level.Iteration)
+	public void deleteOrders() {
+		orderShardService.routeToEveryShard(() -> {
+			jdbcTemplate.update("DELETE FROM ord_order_customization");
+			
+			return jdbcTemplate.update("DELETE FROM ord_order");
+		});
+	}
+	
+	/**
+	 * Stop the application.
+	 */
+	@TearDown
+	public void tearDown() {
+		applicationContext.close();
+	}
+	
+	/**
+	 * Save orders as add order did before being transactional: order and customizations saved on their own
+	 * 		repository calls, each one committed separately.
+	 * 
+	 * @return Last order saved.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(ORDER_LIST_SIZE)
+	public Order saveTwoStep() {
+		Order order = null;
+		Map<Long, OrderCustomization> orderCustomizationMap = null;
+		OrderCustomization orderCustomization = null;
+		
+		for (int i = 0; i < ORDER_LIST_SIZE; i++) {
+			order = newOrder();
+			order.setPrice(orderPriceCacheService.calculateOrderPrice(order));
+			
+			orderCustomizationMap = order.getOrderCustomizationMap();
+			
+			order.setOrderCustomizationMap(null);
+			order = orderRepository.save(order);
+			
+			for (Long ingredientId : orderCustomizationMap.keySet()) {
+				orderCustomization = orderCustomizationMap.get(ingredientId);
+				orderCustomization.setOrderCustomizationId(new OrderCustomizationId());
+				orderCustomization.getOrderCustomizationId().setIngredientId(ingredientId);
+				orderCustomization.getOrderCustomizationId().setOrder(order);
+			}
+			
+			orderCustomizationRepository.saveAll(orderCustomizationMap.values());
+		}
+		
+		return order;
+	}
+	
+	/**
+	 * Save orders one by one with add order.
+	 * 
+	 * @return Last order saved.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(ORDER_LIST_SIZE)
+	public Order addOrder() {
+		Order order = null;
+		
+		for (int i = 0; i < ORDER_LIST_SIZE; i++) {
+			order = orderService.addOrder(newOrder());
+		}
+		
+		return order;
+	}
+	
+	/**
+	 * Save orders at once with add order list.
+	 * 
+	 * @return List of orders saved.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(ORDER_LIST_SIZE)
+	public List<Order> addOrderList() {
+		List<Order> orderList = new ArrayList<Order>(ORDER_LIST_SIZE);
+		
+		for (int i = 0; i < ORDER_LIST_SIZE; i++) {
+			orderList.add(newOrder());
+		}
+		
+		return orderService.addOrderList(orderList);
+	}
+	
+	/**
+	 * Build a new order with customized ingredients.
+	 * 
+	 * @return Order.
+	 */
+	private static Order newOrder() {
+		return BenchmarkOrders.newOrder(null, ORDER_CUSTOMIZATION_QUANTITY);
+	}
+}
\ No newline at end of file
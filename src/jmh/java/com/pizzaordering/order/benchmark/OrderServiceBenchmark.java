@@ -0,0 +1,128 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pizzaordering.order.data.OrderCustomizationRepository;
+import com.pizzaordering.order.data.OrderRepository;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.OrderCacheService;
+import com.pizzaordering.order.service.OrderOutboxService;
+import com.pizzaordering.order.service.OrderPriceCacheService;
+import com.pizzaordering.order.service.OrderReadRoutingService;
+import com.pizzaordering.order.service.OrderShardService;
+import com.pizzaordering.order.serviceImpl.OrderServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmark of add order operation of order service layer, with price and repositories stubbed so only the work of
+ * 		the service itself is measured. Building the order is part of every operation.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderServiceBenchmark {
+	
+	/**
+	 * Quantity of customized ingredients of every order.
+	 */
+	@Param({"0", "4", "16"})
+	int orderCustomizationQuantity;
+	
+	/**
+	 * Order service under benchmark.
+	 */
+	OrderServiceImpl orderService;
+	
+	/**
+	 * Build the service over stubs that record no invocations, so memory stays flat along the run, running
+	 * 		transactions and shard routing in place.
+	 */
+	@Setup
+	public void setUp() {
+		OrderPriceCacheService orderPriceCacheService = Mockito.mock(OrderPriceCacheService.class,
+				Mockito.withSettings().stubOnly());
+		OrderRepository orderRepository = Mockito.mock(OrderRepository.class, Mockito.withSettings().stubOnly());
+		OrderCustomizationRepository orderCustomizationRepository = Mockito.mock(OrderCustomizationRepository.class,
+				Mockito.withSettings().stubOnly());
+		OrderShardService orderShardService = Mockito.mock(OrderShardService.class, Mockito.withSettings().stubOnly());
+		AtomicLong idSequence = new AtomicLong();
+		
+		Mockito.when(orderPriceCacheService.calculateOrderPrice(Mockito.any(Order.class)))
+				.thenReturn(new BigDecimal("12.50"));
+		Mockito.when(orderRepository.save(Mockito.any(Order.class))).thenAnswer(invocation -> {
+			Order order = invocation.getArgument(0);
+			order.setId(idSequence.incrementAndGet());
+			
+			return order;
+		});
+		Mockito.when(orderShardService.routeToNewOrders(Mockito.any()))
+				.thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+		Mockito.when(orderCustomizationRepository.saveAll(Mockito.anyIterable()))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+		
+		orderService = new OrderServiceImpl();
+		
+		ReflectionTestUtils.setField(orderService, "orderPriceCacheService", orderPriceCacheService);
+		ReflectionTestUtils.setField(orderService, "orderCacheService",
+				Mockito.mock(OrderCacheService.class, Mockito.withSettings().stubOnly()));
+		ReflectionTestUtils.setField(orderService, "orderOutboxService",
+				Mockito.mock(OrderOutboxService.class, Mockito.withSettings().stubOnly()));
+		ReflectionTestUtils.setField(orderService, "orderReadRoutingService",
+				Mockito.mock(OrderReadRoutingService.class, Mockito.withSettings().stubOnly()));
+		ReflectionTestUtils.setField(orderService, "orderShardService", orderShardService);
+		ReflectionTestUtils.setField(orderService, "transactionTemplate", new TransactionTemplate(
+				Mockito.mock(PlatformTransactionManager.class, Mockito.withSettings().stubOnly())));
+		ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+		ReflectionTestUtils.setField(orderService, "orderCustomizationRepository", orderCustomizationRepository);
+		ReflectionTestUtils.setField(orderService, "meterRegistry", new SimpleMeterRegistry());
+		
+		orderService.registerMeters();
+	}
+	
+	/**
+	 * Add a new order.
+	 * 
+	 * @return Order saved, returned so it is not eliminated as dead code.
+	 */
+	@Benchmark
+	public Order addOrder() {
+		return orderService.addOrder(BenchmarkOrders.newOrder(null, orderCustomizationQuantity));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Benchmark of order wire formats, writing and reading the bodies exchanged with order and ingredient resources
+ * 		as JSON and as Smile, with the mappers built as Spring builds the mappers of its message converters. The
+ * 		payload size of every format is printed once per fork.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderWireFormatBenchmark {
+	
+	/**
+	 * Quantity of orders on each body, as sent to calculate order price list.
+	 */
+	private static final int ORDER_QUANTITY = 50;
+	
+	/**
+	 * Quantity of customized ingredients of each order.
+	 */
+	private static final int ORDER_CUSTOMIZATION_QUANTITY = 3;
+	
+	/**
+	 * Type of bodies written and read.
+	 */
+	private static final TypeReference<List<Order>> ORDER_LIST_TYPE = new TypeReference<List<Order>>() {
+	};
+	
+	/**
+	 * Wire format.
+	 */
+	@Param({"json", "smile"})
+	String format;
+	
+	/**
+	 * Writer of bodies in the wire format.
+	 */
+	ObjectWriter orderListWriter;
+	
+	/**
+	 * Reader of bodies in the wire format.
+	 */
+	ObjectReader orderListReader;
+	
+	/**
+	 * List of orders of the body.
+	 */
+	List<Order> orderList;
+	
+	/**
+	 * Body in the wire format, read.
+	 */
+	byte[] body;
+	
+	/**
+	 * Build the mapper of the wire format and the body, and print its size per order.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper objectMapper = "smile".equals(format) ? Jackson2ObjectMapperBuilder.smile().build()
+				: Jackson2ObjectMapperBuilder.json().build();
+		
+		orderList = new ArrayList<Order>(ORDER_QUANTITY);
+		
+		for (long id = 1L; id <= ORDER_QUANTITY; id++) {
+			orderList.add(BenchmarkOrders.newOrder(1000L + id, ORDER_CUSTOMIZATION_QUANTITY));
+		}
+		
+		orderListWriter = objectMapper.writerFor(ORDER_LIST_TYPE);
+		orderListReader = objectMapper.readerFor(ORDER_LIST_TYPE);
+		body = orderListWriter.writeValueAsBytes(orderList);
+		
+		System.out.println(String.format("%s bytes/order=%.1f", format, (double) body.length / ORDER_QUANTITY));
+	}
+	
+	/**
+	 * Write the body in the wire format.
+	 * 
+	 * @return Body written.
+	 */
+	@Benchmark
+	public byte[] write() throws IOException {
+		return orderListWriter.writeValueAsBytes(orderList);
+	}
+	
+	/**
+	 * Read the body from the wire format.
+	 * 
+	 * @return List of orders read.
+	 */
+	@Benchmark
+	public List<Order> read() throws IOException {
+		return orderListReader.readValue(body);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,245 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.pizzaordering.order.data.OrderRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuration of the data source of orders, a pool of the primary database taking every write and a pool
+ * 		per read replica given on order.datasource.replica-urls, taking reads routed to replicas. Further shards
+ * 		of orders are given on order.datasource.shards, each with its primary database and read replicas.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Configuration
+public class OrderDataSourceConfiguration {
+	
+	/**
+	 * Name of the pool of the primary database.
+	 */
+	public static final String PRIMARY_POOL_NAME = "order-primary";
+	
+	/**
+	 * Prefix of the names of the pools of read replicas, followed by their position from 1.
+	 */
+	public static final String REPLICA_POOL_NAME_PREFIX = "order-replica-";
+	
+	/**
+	 * Prefix of the names of the pools of further shards, followed by their position from 1 and by primary, or by
+	 * 		replica- and the position of the read replica from 1.
+	 */
+	public static final String SHARD_POOL_NAME_PREFIX = "order-shard-";
+	
+	/**
+	 * Build a pool of every database of every shard, all with the settings of spring.datasource.hikari and with
+	 * 		Micrometer pool metrics tagged by pool name, and route connections among them, so JPA and JDBC of orders
+	 * 		use them all. Shard 0 is the database of spring.datasource.
+	 * 
+	 * @param dataSourceProperties Properties of the primary database.
+	 * @param environment Environment holding the pool settings.
+	 * @param meterRegistry Registry of meters.
+	 * @param replicaUrls JDBC URLs of read replicas, possibly none.
+	 * @param replicaUsername User name of read replicas.
+	 * @param replicaPassword Password of read replicas.
+	 * @return Routing data source of orders.
+	 */
+	@Bean
+	public OrderRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+			Environment environment, MeterRegistry meterRegistry,
+			@Value("${order.datasource.replica-urls:}") String[] replicaUrls,
+			@Value("${order.datasource.replica-username:${spring.datasource.username:}}") String replicaUsername,
+			@Value("${order.datasource.replica-password:${spring.datasource.password:}}") String replicaPassword) {
+		List<HikariDataSource> primaryDataSourceList = new ArrayList<HikariDataSource>();
+		List<List<HikariDataSource>> replicaDataSourceListList = new ArrayList<List<HikariDataSource>>();
+		List<HikariDataSource> replicaDataSourceList = new ArrayList<HikariDataSource>();
+		List<ShardProperties> shardPropertiesList = Binder.get(environment)
+				.bind("order.datasource.shards", Bindable.listOf(ShardProperties.class))
+				.orElse(new ArrayList<ShardProperties>());
+		ShardProperties shardProperties = null;
+		String shardPoolNamePrefix = null;
+		String username = null;
+		String password = null;
+		
+		primaryDataSourceList.add(createPool(PRIMARY_POOL_NAME, dataSourceProperties.determineUrl(),
+				dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(), environment,
+				meterRegistry));
+		
+		for (int i = 0; i < replicaUrls.length; i++) {
+			replicaDataSourceList.add(createPool(REPLICA_POOL_NAME_PREFIX + (i + 1), replicaUrls[i].trim(),
+					replicaUsername, replicaPassword, environment, meterRegistry));
+		}
+		
+		replicaDataSourceListList.add(replicaDataSourceList);
+		
+		for (int shard = 1; shard <= shardPropertiesList.size(); shard++) {
+			shardProperties = shardPropertiesList.get(shard - 1);
+			shardPoolNamePrefix = SHARD_POOL_NAME_PREFIX + shard + "-";
+			username = shardProperties.getUsername() == null ? dataSourceProperties.determineUsername()
+					: shardProperties.getUsername();
+			password = shardProperties.getPassword() == null ? dataSourceProperties.determinePassword()
+					: shardProperties.getPassword();
+			replicaDataSourceList = new ArrayList<HikariDataSource>();
+			
+			primaryDataSourceList.add(createPool(shardPoolNamePrefix + "primary", shardProperties.getUrl(),
+					username, password, environment, meterRegistry));
+			
+			for (int i = 0; i < shardProperties.getReplicaUrls().size(); i++) {
+				replicaDataSourceList.add(createPool(shardPoolNamePrefix + "replica-" + (i + 1),
+						shardProperties.getReplicaUrls().get(i).trim(), username, password, environment, meterRegistry));
+			}
+			
+			replicaDataSourceListList.add(replicaDataSourceList);
+		}
+		
+		return new OrderRoutingDataSource(primaryDataSourceList, replicaDataSourceListList);
+	}
+	
+	/**
+	 * Create the pool of a database.
+	 * 
+	 * @param poolName Name of the pool.
+	 * @param url JDBC URL of the database.
+	 * @param username User name of the database.
+	 * @param password Password of the database.
+	 * @param environment Environment holding the pool settings.
+	 * @param meterRegistry Registry of meters.
+	 * @return Pool of the database.
+	 */
+	private HikariDataSource createPool(String poolName, String url, String username, String password,
+			Environment environment, MeterRegistry meterRegistry) {
+		HikariDataSource hikariDataSource = new HikariDataSource();
+		
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(hikariDataSource));
+		
+		hikariDataSource.setPoolName(poolName);
+		hikariDataSource.setJdbcUrl(url);
+		hikariDataSource.setUsername(username);
+		hikariDataSource.setPassword(password);
+		hikariDataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+		
+		return hikariDataSource;
+	}
+	
+	/**
+	 * Properties of a further shard of orders.
+	 */
+	public static class ShardProperties {
+		
+		/**
+		 * JDBC URL of the primary database of the shard.
+		 */
+		private String url;
+		
+		/**
+		 * User name of the databases of the shard, the one of spring.datasource when not given.
+		 */
+		private String username;
+		
+		/**
+		 * Password of the databases of the shard, the one of spring.datasource when not given.
+		 */
+		private String password;
+		
+		/**
+		 * JDBC URLs of the read replicas of the shard, possibly none.
+		 */
+		private List<String> replicaUrls = new ArrayList<String>();
+		
+		/**
+		 * Get JDBC URL of the primary database of the shard.
+		 * 
+		 * @return JDBC URL of the primary database of the shard.
+		 */
+		public String getUrl() {
+			return url;
+		}
+		
+		/**
+		 * Set JDBC URL of the primary database of the shard.
+		 * 
+		 * @param url JDBC URL of the primary database of the shard.
+		 */
+		public void setUrl(String url) {
+			this.url = url;
+		}
+		
+		/**
+		 * Get user name of the databases of the shard.
+		 * 
+		 * @return User name of the databases of the shard.
+		 */
+		public String getUsername() {
+			return username;
+		}
+		
+		/**
+		 * Set user name of the databases of the shard.
+		 * 
+		 * @param username User name of the databases of the shard.
+		 */
+		public void setUsername(String username) {
+			this.username = username;
+		}
+		
+		/**
+		 * Get password of the databases of the shard.
+		 * 
+		 * @return Password of the databases of the shard.
+		 */
+		public String getPassword() {
+			return password;
+		}
+		
+		/**
+		 * Set password of the databases of the shard.
+		 * 
+		 * @param password Password of the databases of the shard.
+		 */
+		public void setPassword(String password) {
+			this.password = password;
+		}
+		
+		/**
+		 * Get JDBC URLs of the read replicas of the shard.
+		 * 
+		 * @return JDBC URLs of the read replicas of the shard.
+		 */
+		public List<String> getReplicaUrls() {
+			return replicaUrls;
+		}
+		
+		/**
+		 * Set JDBC URLs of the read replicas of the shard.
+		 * 
+		 * @param replicaUrls JDBC URLs of the read replicas of the shard.
+		 */
+		public void setReplicaUrls(List<String> replicaUrls) {
+			this.replicaUrls = replicaUrls;
+		}
+	}
+}
\ No newline at end of file
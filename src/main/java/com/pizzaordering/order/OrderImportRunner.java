@@ -0,0 +1,120 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.pizzaordering.order.dto.OrderImportResult;
+import com.pizzaordering.order.service.OrderImportService;
+
+/**
+ * One-shot command importing historical orders from a local file, enabled by the order.import.file property. The
+ * 		format is taken from the file extension, .csv or .ndjson, optionally followed by .gz. The application exits
+ * 		once the file is imported, with status 0, or 1 when the import fails, so it is run once on purpose, for
+ * 		instance with --order.import.file=orders.csv.gz --spring.main.web-application-type=none, and never as part
+ * 		of the start up of nodes serving requests. Orders of files which are not priced yet are priced on import.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Component
+@ConditionalOnProperty("order.import.file")
+public class OrderImportRunner implements ApplicationRunner {
+	
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderImportRunner.class);
+	
+	/**
+	 * Size of read buffer of the file.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	/**
+	 * Interface of order import service layer.
+	 */
+	@Autowired
+	OrderImportService orderImportService;
+	
+	/**
+	 * Context of the application, closed once the file is imported.
+	 */
+	@Autowired
+	ApplicationContext applicationContext;
+	
+	/**
+	 * Path of the file to be imported.
+	 */
+	@Value("${order.import.file}")
+	String file;
+	
+	/**
+	 * Import every order of the file and exit the application.
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		int exitCode = 0;
+		
+		try {
+			importFile();
+		} catch (Exception e) {
+			LOGGER.error("Failed to import orders from " + file, e);
+			
+			exitCode = 1;
+		}
+		
+		System.exit(SpringApplication.exit(applicationContext, exitCode == 0 ? () -> 0 : () -> 1));
+	}
+	
+	/**
+	 * Import every order of the file.
+	 * 
+	 * @throws Exception When the file cannot be read or its orders cannot be imported.
+	 */
+	private void importFile() throws Exception {
+		String name = file.toLowerCase();
+		InputStream inputStream = null;
+		OrderImportResult orderImportResult = null;
+		
+		if (name.endsWith(".gz")) {
+			name = name.substring(0, name.length() - 3);
+		}
+		
+		try (InputStream fileInputStream = new BufferedInputStream(Files.newInputStream(Paths.get(file)), BUFFER_SIZE)) {
+			inputStream = file.toLowerCase().endsWith(".gz") ? new GZIPInputStream(fileInputStream, BUFFER_SIZE)
+					: fileInputStream;
+			
+			orderImportResult = orderImportService.importOrders(inputStream, name.endsWith(".csv")
+					? OrderImportService.FORMAT_CSV : OrderImportService.FORMAT_NDJSON);
+		}
+		
+		LOGGER.info("Imported " + orderImportResult.getOrderQuantity() + " orders from " + file + " in "
+				+ orderImportResult.getElapsedMillis() + " ms, " + orderImportResult.getRowsPerSecond() + " rows/sec");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the reactive runtime, selected with spring.main.web-application-type=reactive.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Configuration
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class OrderReactiveConfiguration {
+	
+	/**
+	 * Serve the reactive runtime on Netty rather than Tomcat, which would be picked first since it is on the
+	 * 		classpath for the servlet runtime, so connections waiting on pricing hold no thread.
+	 * 
+	 * @return Factory of the Netty server.
+	 */
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.controller;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.pizzaordering.order.service.OrderConcurrencyLimitService;
+
+/**
+ * Filter limiting the order requests in flight in front of {@link OrderController}, rejecting excess requests at
+ * 		once with 503 Service Unavailable and a Retry-After header. Reads take priority over writes, which are
+ * 		limited to a share of the limit. Asynchronous requests, bounded by their own queues, and streams of exports
+ * 		and imports, whose latency depends on their size, are not limited. Batches are limited as writes, but their
+ * 		latency, which depends on their size too, does not adapt the limit. Ordered after the filters of metrics,
+ * 		so rejected requests are still measured.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Component
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class OrderConcurrencyLimitFilter extends OncePerRequestFilter {
+	
+	/**
+	 * Path of order resource.
+	 */
+	private static final String PATH_ORDERS = "/orders";
+	
+	/**
+	 * Paths of order resource not limited.
+	 */
+	private static final String[] PATH_UNLIMITED_ARRAY = {"/orders/async", "/orders/export", "/orders/import"};
+	
+	/**
+	 * Path of order batches, whose latency is not sampled.
+	 */
+	private static final String PATH_BATCH = "/orders/batch";
+	
+	/**
+	 * Interface of order concurrency limit service layer.
+	 */
+	private final OrderConcurrencyLimitService orderConcurrencyLimitService;
+	
+	/**
+	 * Value of the Retry-After header of rejected requests, in seconds.
+	 */
+	private final String retryAfterSeconds;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param orderConcurrencyLimitService Interface of order concurrency limit service layer.
+	 * @param retryAfterSeconds Time clients are asked to wait before retrying a rejected request, in seconds.
+	 */
+	public OrderConcurrencyLimitFilter(OrderConcurrencyLimitService orderConcurrencyLimitService,
+			@Value("${order.concurrency-limit.retry-after-seconds:1}") int retryAfterSeconds) {
+		this.orderConcurrencyLimitService = orderConcurrencyLimitService;
+		this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+	}
+	
+	/*
+	 * Limit requests of order resource only, except asynchronous requests and streams.
+	 */
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String path = getPath(request);
+		
+		if (!path.equals(PATH_ORDERS) && !path.startsWith(PATH_ORDERS + "/")) {
+			return true;
+		}
+		
+		for (String pathUnlimited : PATH_UNLIMITED_ARRAY) {
+			if (path.startsWith(pathUnlimited)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/*
+	 * > Admit the request, as a write unless it is a GET or HEAD, or reject it with 503 and Retry-After.
+	 * > Release it once handled, with its latency unless it is a batch.
+	 */
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		boolean write = !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod());
+		boolean sampled = !getPath(request).equals(PATH_BATCH);
+		long startNanos = 0L;
+		
+		if (!orderConcurrencyLimitService.tryAcquire(write)) {
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+			
+			return;
+		}
+		
+		startNanos = System.nanoTime();
+		
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			if (sampled) {
+				orderConcurrencyLimitService.release(write, System.nanoTime() - startNanos);
+			} else {
+				orderConcurrencyLimitService.release();
+			}
+		}
+	}
+	
+	/**
+	 * Get the path of a request within the application.
+	 * 
+	 * @param request Request.
+	 * @return Path of the request, without context path.
+	 */
+	private static String getPath(HttpServletRequest request) {
+		return request.getRequestURI().substring(request.getContextPath().length());
+	}
+}
\ No newline at end of file
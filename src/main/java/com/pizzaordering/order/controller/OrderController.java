@@ -12,26 +12,63 @@
 
 package com.pizzaordering.order.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.pizzaordering.order.dto.OrderImportResult;
+import com.pizzaordering.order.dto.OrderPage;
 import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.OrderAsyncService;
+import com.pizzaordering.order.service.OrderIdempotencyService;
+import com.pizzaordering.order.service.OrderImportService;
 import com.pizzaordering.order.service.OrderService;
 
 /**
- * Resource to expose order operations and handle order requests.
+ * Resource to expose order operations and handle order requests on the servlet runtime.
  * 
  * @author Rafael Lima Costa
  *
  */
 @RestController
 @RequestMapping("/orders")
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class OrderController {
 	
+	/**
+	 * Content type of newline delimited JSON.
+	 */
+	private static final String CONTENT_TYPE_NDJSON = "application/x-ndjson";
+	
+	/**
+	 * Header of idempotency key of add order requests.
+	 */
+	private static final String HEADER_IDEMPOTENCY_KEY = "Idempotency-Key";
+	
+	/**
+	 * Size of compression buffer of exports and imports.
+	 */
+	private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+	
 	/**
 	 * Interface of order service layer.
 	 */
@@ -39,16 +76,72 @@ public class OrderController {
 	OrderService orderService;
 	
 	/**
-	 * Operation for adding an order with customized ingredients.
+	 * Interface of asynchronous order service layer.
+	 */
+	@Autowired
+	OrderAsyncService orderAsyncService;
+	
+	/**
+	 * Interface of order idempotency service layer.
+	 */
+	@Autowired
+	OrderIdempotencyService orderIdempotencyService;
+	
+	/**
+	 * Interface of order import service layer.
+	 */
+	@Autowired
+	OrderImportService orderImportService;
+	
+	/**
+	 * Operation for adding an order with customized ingredients. Requests retried with the same idempotency key
+	 * 		return the order added by the first one.
 	 * 
+	 * @param idempotencyKey Optional idempotency key, unique per order submission.
 	 * @param order Order with customized ingredients to be inserted on database.
 	 * @return Order with customized ingredients inserted on database.
 	 */
 	@RequestMapping(method = RequestMethod.POST)
-	public Order addOrder(@RequestBody Order order) {
+	public Order addOrder(@RequestHeader(value = HEADER_IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+			@RequestBody Order order) {
+		if (idempotencyKey != null) {
+			return orderIdempotencyService.addOrder(idempotencyKey, order);
+		}
+		
 		return orderService.addOrder(order);
 	}
 	
+	/**
+	 * Operation for adding an order with customized ingredients asynchronously, releasing the request thread while
+	 * 		the order is priced and saved. Requests retried with the same idempotency key return the order added by
+	 * 		the first one. Answered with 503 Service Unavailable when the queue of pricing or persistence is full.
+	 * 
+	 * @param idempotencyKey Optional idempotency key, unique per order submission.
+	 * @param order Order with customized ingredients to be inserted on database.
+	 * @return Future of the order with customized ingredients inserted on database.
+	 */
+	@RequestMapping(value = "/async", method = RequestMethod.POST)
+	public CompletableFuture<Order> addOrderAsync(
+			@RequestHeader(value = HEADER_IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+			@RequestBody Order order) {
+		if (idempotencyKey != null) {
+			return orderAsyncService.addOrder(idempotencyKey, order);
+		}
+		
+		return orderAsyncService.addOrder(order);
+	}
+	
+	/**
+	 * Operation for adding a list of orders with customized ingredients at once.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be inserted on database.
+	 * @return List of orders with customized ingredients inserted on database.
+	 */
+	@RequestMapping(value = "/batch", method = RequestMethod.POST)
+	public List<Order> addOrderList(@RequestBody List<Order> orderList) {
+		return orderService.addOrderList(orderList);
+	}
+	
 	/**
 	 * Operation for getting an order with customized ingredients.
 	 * 
@@ -60,6 +153,68 @@ public class OrderController {
 		return orderService.getOrder(id);
 	}
 	
+	/**
+	 * Operation for listing orders with customized ingredients page by page, sorted by id.
+	 * 
+	 * @param after Id after which the page starts, the next page cursor returned by the previous page.
+	 * @param limit Maximum quantity of orders on the page.
+	 * @return Page of orders with customized ingredients and cursor of the next page.
+	 */
+	@RequestMapping(method = RequestMethod.GET)
+	public OrderPage getOrderPage(@RequestParam(value = "after", defaultValue = "0") Long after,
+			@RequestParam(value = "limit", defaultValue = "50") int limit) {
+		return orderService.getOrderPage(after, limit);
+	}
+	
+	/**
+	 * Operation for exporting every order with customized ingredients as newline delimited JSON, streamed straight
+	 * 		to the response.
+	 * 
+	 * @param gzip Compress the response with gzip.
+	 * @param response HTTP response to write orders to.
+	 * @throws IOException When orders cannot be written to the response.
+	 */
+	@RequestMapping(value = "/export", method = RequestMethod.GET)
+	public void exportOrders(@RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+			HttpServletResponse response) throws IOException {
+		OutputStream outputStream = null;
+		
+		response.setContentType(CONTENT_TYPE_NDJSON);
+		
+		if (gzip) {
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+			outputStream = new GZIPOutputStream(response.getOutputStream(), COMPRESSION_BUFFER_SIZE);
+		} else {
+			outputStream = response.getOutputStream();
+		}
+		
+		orderService.exportOrders(outputStream);
+		
+		outputStream.close();
+	}
+	
+	/**
+	 * Operation for importing historical orders with customized ingredients in bulk, streamed from the request body
+	 * 		as newline delimited JSON or CSV, optionally gzip compressed.
+	 * 
+	 * @param format Format of the request body, ndjson or csv.
+	 * @param request HTTP request to read orders from.
+	 * @return Summary of the import.
+	 * @throws IOException When orders cannot be read from the request.
+	 */
+	@RequestMapping(value = "/import", method = RequestMethod.POST)
+	public OrderImportResult importOrders(
+			@RequestParam(value = "format", defaultValue = OrderImportService.FORMAT_NDJSON) String format,
+			HttpServletRequest request) throws IOException {
+		InputStream inputStream = request.getInputStream();
+		
+		if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+			inputStream = new GZIPInputStream(inputStream, COMPRESSION_BUFFER_SIZE);
+		}
+		
+		return orderImportService.importOrders(inputStream, format);
+	}
+	
 	/**
 	 * Operation for deleting an order with customized ingredients.
 	 * 
@@ -69,4 +224,16 @@ public class OrderController {
 	public void deleteOrder(@PathVariable Long id) {
 		orderService.deleteOrder(id);
 	}
+	
+	/**
+	 * Operation for deleting an order with customized ingredients asynchronously, releasing the request thread
+	 * 		while the order is deleted. Answered with 503 Service Unavailable when the queue of persistence is full.
+	 * 
+	 * @param id Id of order with customized ingredients to be deleted from database.
+	 * @return Future completed when the order is deleted.
+	 */
+	@RequestMapping(value = "/async/{id}", method = RequestMethod.DELETE)
+	public CompletableFuture<Void> deleteOrderAsync(@PathVariable Long id) {
+		return orderAsyncService.deleteOrder(id);
+	}
 }
\ No newline at end of file
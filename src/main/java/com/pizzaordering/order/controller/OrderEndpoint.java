@@ -0,0 +1,203 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.stereotype.Component;
+
+import com.pizzaordering.order.service.OrderAsyncService;
+import com.pizzaordering.order.service.OrderCacheService;
+import com.pizzaordering.order.service.OrderConcurrencyLimitService;
+import com.pizzaordering.order.service.OrderOutboxService;
+import com.pizzaordering.order.service.OrderPriceBatchService;
+import com.pizzaordering.order.service.OrderPriceCacheService;
+import com.pizzaordering.order.service.OrderPriceSingleFlightService;
+import com.pizzaordering.order.service.OrderReadRoutingService;
+import com.pizzaordering.order.service.OrderShardService;
+
+/**
+ * Web actuator endpoint exposing the statistics of every order component at /actuator/orders, or of a single one at
+ * 		/actuator/orders/{component}, with invalidation of caches and rebalancing of shards as its only operations.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Component
+@WebEndpoint(id = "orders")
+public class OrderEndpoint {
+	
+	/**
+	 * Component of order cache.
+	 */
+	public static final String COMPONENT_CACHE = "cache";
+	
+	/**
+	 * Component of order price cache.
+	 */
+	public static final String COMPONENT_PRICE_CACHE = "priceCache";
+	
+	/**
+	 * Component of order shards.
+	 */
+	public static final String COMPONENT_SHARDS = "shards";
+	
+	/**
+	 * Interface of order cache service layer.
+	 */
+	@Autowired
+	OrderCacheService orderCacheService;
+	
+	/**
+	 * Interface of order price cache service layer.
+	 */
+	@Autowired
+	OrderPriceCacheService orderPriceCacheService;
+	
+	/**
+	 * Interface of order price single flight service layer.
+	 */
+	@Autowired
+	OrderPriceSingleFlightService orderPriceSingleFlightService;
+	
+	/**
+	 * Interface of order price batch service layer.
+	 */
+	@Autowired
+	OrderPriceBatchService orderPriceBatchService;
+	
+	/**
+	 * Interface of order outbox service layer.
+	 */
+	@Autowired
+	OrderOutboxService orderOutboxService;
+	
+	/**
+	 * Interface of asynchronous order service layer.
+	 */
+	@Autowired
+	OrderAsyncService orderAsyncService;
+	
+	/**
+	 * Interface of order read routing service layer.
+	 */
+	@Autowired
+	OrderReadRoutingService orderReadRoutingService;
+	
+	/**
+	 * Interface of order shard service layer.
+	 */
+	@Autowired
+	OrderShardService orderShardService;
+	
+	/**
+	 * Interface of order concurrency limit service layer.
+	 */
+	@Autowired
+	OrderConcurrencyLimitService orderConcurrencyLimitService;
+	
+	/**
+	 * Statistics of every component, using component name as key.
+	 */
+	private final Map<String, Supplier<Map<String, Number>>> statisticsMap =
+			new LinkedHashMap<String, Supplier<Map<String, Number>>>();
+	
+	/**
+	 * Register the statistics of every component.
+	 */
+	@PostConstruct
+	public void registerComponents() {
+		statisticsMap.put(COMPONENT_CACHE, orderCacheService::getStatistics);
+		statisticsMap.put(COMPONENT_PRICE_CACHE, orderPriceCacheService::getStatistics);
+		statisticsMap.put("priceSingleFlight", orderPriceSingleFlightService::getStatistics);
+		statisticsMap.put("priceBatch", orderPriceBatchService::getStatistics);
+		statisticsMap.put("outbox", orderOutboxService::getStatistics);
+		statisticsMap.put("async", orderAsyncService::getStatistics);
+		statisticsMap.put("readRouting", orderReadRoutingService::getStatistics);
+		statisticsMap.put(COMPONENT_SHARDS, orderShardService::getStatistics);
+		statisticsMap.put("concurrencyLimit", orderConcurrencyLimitService::getStatistics);
+	}
+	
+	/**
+	 * Operation for getting statistics of every component.
+	 * 
+	 * @return Map of statistics of every component, using component name as key.
+	 */
+	@ReadOperation
+	public Map<String, Map<String, Number>> getStatistics() {
+		Map<String, Map<String, Number>> statistics = new LinkedHashMap<String, Map<String, Number>>();
+		
+		statisticsMap.forEach((component, supplier) -> statistics.put(component, supplier.get()));
+		
+		return statistics;
+	}
+	
+	/**
+	 * Operation for getting statistics of a component.
+	 * 
+	 * @param component Name of component.
+	 * @return Map of statistics, using statistic name as key, or null, answered with 404, for an unknown component.
+	 */
+	@ReadOperation
+	public Map<String, Number> getComponentStatistics(@Selector String component) {
+		Supplier<Map<String, Number>> supplier = statisticsMap.get(component);
+		
+		return supplier == null ? null : supplier.get();
+	}
+	
+	/**
+	 * Operation for invalidating every entry of a cache, the order cache or the order price cache, called for
+	 * 		instance when ingredient prices change.
+	 * 
+	 * @param component Name of component, cache or priceCache.
+	 * @return Map of statistics of the cache, or 404 for a component which is not a cache.
+	 */
+	@DeleteOperation
+	public WebEndpointResponse<Map<String, Number>> invalidateAll(@Selector String component) {
+		if (COMPONENT_CACHE.equals(component)) {
+			orderCacheService.invalidateAll();
+		} else if (COMPONENT_PRICE_CACHE.equals(component)) {
+			orderPriceCacheService.invalidateAll();
+		} else {
+			return new WebEndpointResponse<Map<String, Number>>(WebEndpointResponse.STATUS_NOT_FOUND);
+		}
+		
+		return new WebEndpointResponse<Map<String, Number>>(getComponentStatistics(component));
+	}
+	
+	/**
+	 * Operation for moving orders and idempotency keys left on a shard which no longer owns their bucket, as after
+	 * 		shards are added, to the shard which owns it.
+	 * 
+	 * @param component Name of component, shards.
+	 * @return Map of statistics of the run, or 404 for a component other than shards.
+	 */
+	@WriteOperation
+	public WebEndpointResponse<Map<String, Number>> rebalance(@Selector String component) {
+		if (!COMPONENT_SHARDS.equals(component)) {
+			return new WebEndpointResponse<Map<String, Number>>(WebEndpointResponse.STATUS_NOT_FOUND);
+		}
+		
+		return new WebEndpointResponse<Map<String, Number>>(orderShardService.rebalance());
+	}
+}
\ No newline at end of file
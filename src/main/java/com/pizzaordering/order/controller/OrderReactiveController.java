@@ -0,0 +1,138 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.pizzaordering.order.dto.OrderPage;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.OrderReactiveService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Resource to expose order operations and handle order requests on the reactive runtime, selected with
+ * 		spring.main.web-application-type=reactive in place of {@link OrderController}. Imports, compressed exports
+ * 		and the asynchronous endpoints of the servlet runtime are not mirrored.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@RestController
+@RequestMapping("/orders")
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class OrderReactiveController {
+	
+	/**
+	 * Content type of newline delimited JSON.
+	 */
+	private static final String CONTENT_TYPE_NDJSON = "application/x-ndjson";
+	
+	/**
+	 * Header of idempotency key of add order requests.
+	 */
+	private static final String HEADER_IDEMPOTENCY_KEY = "Idempotency-Key";
+	
+	/**
+	 * Interface of reactive order service layer.
+	 */
+	@Autowired
+	OrderReactiveService orderReactiveService;
+	
+	/**
+	 * Operation for adding an order with customized ingredients. Requests retried with the same idempotency key
+	 * 		return the order added by the first one.
+	 * 
+	 * @param idempotencyKey Optional idempotency key, unique per order submission.
+	 * @param order Order with customized ingredients to be inserted on database.
+	 * @return Order with customized ingredients inserted on database.
+	 */
+	@RequestMapping(method = RequestMethod.POST)
+	public Mono<Order> addOrder(@RequestHeader(value = HEADER_IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+			@RequestBody Order order) {
+		if (idempotencyKey != null) {
+			return orderReactiveService.addOrder(idempotencyKey, order);
+		}
+		
+		return orderReactiveService.addOrder(order);
+	}
+	
+	/**
+	 * Operation for adding a list of orders with customized ingredients at once.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be inserted on database.
+	 * @return List of orders with customized ingredients inserted on database.
+	 */
+	@RequestMapping(value = "/batch", method = RequestMethod.POST)
+	public Mono<List<Order>> addOrderList(@RequestBody List<Order> orderList) {
+		return orderReactiveService.addOrderList(orderList);
+	}
+	
+	/**
+	 * Operation for getting an order with customized ingredients.
+	 * 
+	 * @param id Id of order with customized ingredients to be gotten from database.
+	 * @return Order with customized ingredients gotten from database.
+	 */
+	@RequestMapping(value = "/{id}", method = RequestMethod.GET)
+	public Mono<Order> getOrder(@PathVariable Long id) {
+		return orderReactiveService.getOrder(id);
+	}
+	
+	/**
+	 * Operation for listing orders with customized ingredients page by page, sorted by id.
+	 * 
+	 * @param after Id after which the page starts, the next page cursor returned by the previous page.
+	 * @param limit Maximum quantity of orders on the page.
+	 * @return Page of orders with customized ingredients and cursor of the next page.
+	 */
+	@RequestMapping(method = RequestMethod.GET)
+	public Mono<OrderPage> getOrderPage(@RequestParam(value = "after", defaultValue = "0") Long after,
+			@RequestParam(value = "limit", defaultValue = "50") int limit) {
+		return orderReactiveService.getOrderPage(after, limit);
+	}
+	
+	/**
+	 * Operation for exporting every order with customized ingredients as newline delimited JSON, streamed as fast
+	 * 		as the client reads it.
+	 * 
+	 * @return Lines of JSON, one order per line.
+	 */
+	@RequestMapping(value = "/export", method = RequestMethod.GET, produces = CONTENT_TYPE_NDJSON)
+	public Flux<String> exportOrders() {
+		return orderReactiveService.exportOrders();
+	}
+	
+	/**
+	 * Operation for deleting an order with customized ingredients.
+	 * 
+	 * @param id Id of order with customized ingredients to be deleted from database.
+	 * @return Completion when the order is deleted.
+	 */
+	@RequestMapping(value = "/{id}", method = RequestMethod.DELETE)
+	public Mono<Void> deleteOrder(@PathVariable Long id) {
+		return orderReactiveService.deleteOrder(id);
+	}
+}
\ No newline at end of file
@@ -12,8 +12,14 @@
 
 package com.pizzaordering.order.data;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import com.pizzaordering.order.dto.OrderCustomizationRow;
 import com.pizzaordering.order.entity.OrderCustomization;
 import com.pizzaordering.order.entity.OrderCustomizationId;
 
@@ -24,4 +30,16 @@ import com.pizzaordering.order.entity.OrderCustomizationId;
  *
  */
 public interface OrderCustomizationRepository extends CrudRepository<OrderCustomization, OrderCustomizationId> {
+	
+	/**
+	 * Find customized ingredients of a set of orders as rows in a single query, without managed entities.
+	 * 
+	 * @param orderIdCollection Ids of orders.
+	 * @return List of rows, one per customized ingredient.
+	 */
+	@Query("select new com.pizzaordering.order.dto.OrderCustomizationRow(c.orderCustomizationId.order.id, "
+			+ "c.orderCustomizationId.ingredientId, c.type, c.portionQuantity, c.observation) "
+			+ "from OrderCustomization c where c.orderCustomizationId.order.id in :orderIdCollection")
+	public List<OrderCustomizationRow> findOrderCustomizationRowListByOrderIdIn(
+			@Param("orderIdCollection") Collection<Long> orderIdCollection);
 }
\ No newline at end of file
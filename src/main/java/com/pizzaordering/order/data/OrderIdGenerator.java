@@ -0,0 +1,37 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.data;
+
+import java.io.Serializable;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Generator of order ids, encoding the bucket of the order in the lowest digits of a sequence value unique across
+ * 		shards, so the shard of an order follows from its id and ids stay unique when buckets move among shards.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class OrderIdGenerator extends ShardSequenceGenerator {
+	
+	/*
+	 * Encode the bucket routed on the current thread, or bucket 0 when there is none, in the next sequence value.
+	 */
+	@Override
+	public Serializable generate(SharedSessionContractImplementor session, Object object) {
+		Integer bucket = OrderRoutingDataSource.getCurrentBucket();
+		
+		return ((Long) super.generate(session, object)) * OrderRoutingDataSource.BUCKET_COUNT
+				+ (bucket == null ? 0 : bucket);
+	}
+}
\ No newline at end of file
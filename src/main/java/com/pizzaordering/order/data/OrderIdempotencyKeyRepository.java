@@ -0,0 +1,57 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.data;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pizzaordering.order.entity.OrderIdempotencyKey;
+
+/**
+ * Interface of order idempotency key repository layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@RepositoryRestResource(exported = false)
+public interface OrderIdempotencyKeyRepository extends CrudRepository<OrderIdempotencyKey, String> {
+	
+	/**
+	 * Find a page of keys after a key, sorted by key.
+	 * 
+	 * @param idempotencyKey Key after which keys are found.
+	 * @param pageable Page of keys, limiting the quantity of keys found.
+	 * @return List of keys.
+	 */
+	public List<OrderIdempotencyKey> findByIdempotencyKeyGreaterThanOrderByIdempotencyKeyAsc(String idempotencyKey,
+			Pageable pageable);
+	
+	/**
+	 * Delete expired keys in a single statement.
+	 * 
+	 * @param date Current date.
+	 * @return Quantity of keys deleted.
+	 */
+	@Modifying
+	@Transactional
+	@Query("delete from OrderIdempotencyKey k where k.expirationDate < :date")
+	public int deleteByExpirationDateBefore(@Param("date") Date date);
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.data;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pizzaordering.order.entity.OrderOutboxEvent;
+
+/**
+ * Interface of order outbox event repository layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@RepositoryRestResource(exported = false)
+public interface OrderOutboxEventRepository extends CrudRepository<OrderOutboxEvent, Long> {
+	
+	/**
+	 * Find ids of events of a status ready to be dispatched, oldest first.
+	 * 
+	 * @param status Status of events.
+	 * @param date Current date.
+	 * @param pageable Maximum quantity of events.
+	 * @return List of ids of events ready to be dispatched.
+	 */
+	@Query("select e.id from OrderOutboxEvent e where e.status = :status and e.nextAttemptDate <= :date order by e.id")
+	public List<Long> findIdListByStatusAndNextAttemptDate(@Param("status") Character status, @Param("date") Date date,
+			Pageable pageable);
+	
+	/**
+	 * Claim events in a single statement, only those still of the status and ready to be dispatched, so an event
+	 * 		is claimed by a single dispatch until its lease ends, even when several nodes dispatch at once.
+	 * 
+	 * @param claimToken Token of the dispatch.
+	 * @param leaseDate Date the claim ends, set as next attempt date of the events claimed.
+	 * @param idList List of ids of events.
+	 * @param status Status of events.
+	 * @param date Current date.
+	 * @return Quantity of events claimed.
+	 */
+	@Modifying
+	@Transactional
+	@Query("update OrderOutboxEvent e set e.claimToken = :claimToken, e.nextAttemptDate = :leaseDate "
+			+ "where e.id in :idList and e.status = :status and e.nextAttemptDate <= :date")
+	public int claimByIdList(@Param("claimToken") String claimToken, @Param("leaseDate") Date leaseDate,
+			@Param("idList") List<Long> idList, @Param("status") Character status, @Param("date") Date date);
+	
+	/**
+	 * Find events claimed by a dispatch, oldest first.
+	 * 
+	 * @param claimToken Token of the dispatch.
+	 * @return List of events claimed.
+	 */
+	public List<OrderOutboxEvent> findByClaimTokenOrderByIdAsc(String claimToken);
+	
+	/**
+	 * Find oldest event of a status.
+	 * 
+	 * @param status Status of event.
+	 * @return Oldest event, or null when there is no event of the status.
+	 */
+	public OrderOutboxEvent findFirstByStatusOrderByIdAsc(Character status);
+	
+	/**
+	 * Count events of a status.
+	 * 
+	 * @param status Status of events.
+	 * @return Quantity of events of the status.
+	 */
+	public long countByStatus(Character status);
+	
+	/**
+	 * Release events in a single statement, only those still claimed by the dispatch, so an event taken over by
+	 * 		another dispatch once the lease ended is left to it.
+	 * 
+	 * @param claimToken Token of the dispatch.
+	 * @param idList List of ids of events.
+	 * @param status Status the events are released as.
+	 * @param attemptQuantity Quantity of dispatch attempts of the events.
+	 * @param nextAttemptDate Date the events are ready to be dispatched again.
+	 * @return Quantity of events released.
+	 */
+	@Modifying
+	@Transactional
+	@Query("update OrderOutboxEvent e set e.claimToken = null, e.status = :status, "
+			+ "e.attemptQuantity = :attemptQuantity, e.nextAttemptDate = :nextAttemptDate "
+			+ "where e.id in :idList and e.claimToken = :claimToken")
+	public int releaseByIdList(@Param("claimToken") String claimToken, @Param("idList") List<Long> idList,
+			@Param("status") Character status, @Param("attemptQuantity") Integer attemptQuantity,
+			@Param("nextAttemptDate") Date nextAttemptDate);
+	
+	/**
+	 * Delete dispatched events in a single statement.
+	 * 
+	 * @param idList List of ids of events.
+	 */
+	@Modifying
+	@Transactional
+	@Query("delete from OrderOutboxEvent e where e.id in :idList")
+	public void deleteByIdList(@Param("idList") List<Long> idList);
+}
\ No newline at end of file
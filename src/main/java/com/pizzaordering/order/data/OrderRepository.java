@@ -12,8 +12,16 @@
 
 package com.pizzaordering.order.data;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import com.pizzaordering.order.dto.OrderRow;
 import com.pizzaordering.order.entity.Order;
 
 /**
@@ -22,5 +30,37 @@ import com.pizzaordering.order.entity.Order;
  * @author Rafael Lima Costa
  *
  */
-public interface OrderRepository extends CrudRepository<Order, Long> {
+public interface OrderRepository extends CrudRepository<Order, Long>, OrderRepositoryCustom {
+	
+	/**
+	 * Find an order with its customized ingredients loaded in a single join query.
+	 * 
+	 * @param id Id of order.
+	 * @return Order with customized ingredients.
+	 */
+	@EntityGraph(attributePaths = "orderCustomizationMap")
+	public Optional<Order> findWithOrderCustomizationMapById(Long id);
+	
+	/**
+	 * Find an order and its customized ingredients as flat rows in a single join query, without managed entities.
+	 * 
+	 * @param id Id of order.
+	 * @return List of rows, one per customized ingredient or a single one when there is no customization.
+	 */
+	@Query("select new com.pizzaordering.order.dto.OrderRow(o.id, o.closedRecipeId, o.size, o.breadThickness, o.price, "
+			+ "c.orderCustomizationId.ingredientId, c.type, c.portionQuantity, c.observation) "
+			+ "from Order o left join o.orderCustomizationMap c where o.id = :id")
+	public List<OrderRow> findOrderRowListById(@Param("id") Long id);
+	
+	/**
+	 * Find a page of orders after an id, sorted by id, as rows without customized ingredients. Filtering by the
+	 * 		last id seen instead of an offset keeps the cost of every page constant.
+	 * 
+	 * @param after Id after which the page starts.
+	 * @param pageable Maximum quantity of orders.
+	 * @return List of rows, one per order.
+	 */
+	@Query("select new com.pizzaordering.order.dto.OrderRow(o.id, o.closedRecipeId, o.size, o.breadThickness, o.price) "
+			+ "from Order o where o.id > :after order by o.id")
+	public List<OrderRow> findOrderRowListByIdGreaterThan(@Param("after") Long after, Pageable pageable);
 }
\ No newline at end of file
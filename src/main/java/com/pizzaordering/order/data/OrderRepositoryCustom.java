@@ -0,0 +1,74 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.data;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.pizzaordering.order.dto.CompactOrder;
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Interface of order repository layer operations implemented without Spring Data query derivation.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderRepositoryCustom {
+	
+	/**
+	 * Stream every order with its customized ingredients, sorted by id, through a server side cursor. Orders
+	 * 		are handed over one by one in a single compact order reused for every order, so memory does not grow
+	 * 		with the size of the table and it is only valid until the consumer returns.
+	 * 
+	 * @param compactOrderConsumer Consumer of every order with customized ingredients.
+	 */
+	public void streamOrders(Consumer<CompactOrder> compactOrderConsumer);
+	
+	/**
+	 * Read a chunk of orders after an id with their customized ingredients, sorted by id, in a single query which
+	 * 		holds no cursor once it returns. Filtering by the last id seen instead of an offset keeps the cost of
+	 * 		every chunk constant. Orders are handed over as by streamOrders.
+	 * 
+	 * @param after Id after which the chunk starts.
+	 * @param limit Maximum quantity of orders on the chunk.
+	 * @param compactOrderConsumer Consumer of every order of the chunk with customized ingredients.
+	 */
+	public void readOrderChunk(Long after, int limit, Consumer<CompactOrder> compactOrderConsumer);
+	
+	/**
+	 * Insert orders with their customized ingredients keeping their ids, in JDBC batches, as orders moved among
+	 * 		shards are inserted.
+	 * 
+	 * @param orderList List of orders with customized ingredients and ids.
+	 */
+	public void insertOrderList(List<Order> orderList);
+	
+	/**
+	 * Lock orders until the transaction of the caller ends, so they are neither deleted nor moved meanwhile, waiting
+	 * 		for the transactions already holding them.
+	 * 
+	 * @param idCollection Ids of orders.
+	 * @return List of ids of the orders which still exist, now locked.
+	 */
+	public List<Long> lockOrderIdList(Collection<Long> idCollection);
+	
+	/**
+	 * Delete orders with their customized ingredients in a single statement per table, if they exist.
+	 * 
+	 * @param idCollection Ids of orders.
+	 * @return Quantity of orders deleted.
+	 */
+	public int deleteOrderList(Collection<Long> idCollection);
+}
\ No newline at end of file
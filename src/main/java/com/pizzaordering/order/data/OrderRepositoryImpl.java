@@ -0,0 +1,304 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.data;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.pizzaordering.order.dto.CompactOrder;
+import com.pizzaordering.order.dto.OrderCustomizationTable;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+
+/**
+ * Implementation of order repository layer operations implemented without Spring Data query derivation.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+	
+	/**
+	 * Query of every order joined to its customized ingredients, sorted by order id.
+	 */
+	private static final String SQL_STREAM_ORDERS = "SELECT o.id, o.closed_recipe_id, o.size, o.bread_thickness, o.price, "
+			+ "c.ingredient_id, c.type, c.portion_quantity, c.observation "
+			+ "FROM ord_order o LEFT JOIN ord_order_customization c ON c.order_id = o.id "
+			+ "ORDER BY o.id";
+	
+	/**
+	 * Query of a chunk of orders after an id joined to their customized ingredients, sorted by order id.
+	 */
+	private static final String SQL_READ_ORDER_CHUNK = "SELECT o.id, o.closed_recipe_id, o.size, o.bread_thickness, "
+			+ "o.price, c.ingredient_id, c.type, c.portion_quantity, c.observation "
+			+ "FROM (SELECT id, closed_recipe_id, size, bread_thickness, price FROM ord_order WHERE id > :after "
+			+ "ORDER BY id LIMIT :limit) o LEFT JOIN ord_order_customization c ON c.order_id = o.id "
+			+ "ORDER BY o.id";
+	
+	/**
+	 * Insertion of an order keeping its id.
+	 */
+	private static final String SQL_INSERT_ORDER = "INSERT INTO ord_order (id, closed_recipe_id, size, bread_thickness, "
+			+ "price) VALUES (?, ?, ?, ?, ?)";
+	
+	/**
+	 * Insertion of a customized ingredient of an order.
+	 */
+	private static final String SQL_INSERT_ORDER_CUSTOMIZATION = "INSERT INTO ord_order_customization (order_id, "
+			+ "ingredient_id, type, portion_quantity, observation) VALUES (?, ?, ?, ?, ?)";
+	
+	/**
+	 * Lock of orders which still exist.
+	 */
+	private static final String SQL_LOCK_ORDERS = "SELECT id FROM ord_order WHERE id IN (:idCollection) FOR UPDATE";
+	
+	/**
+	 * Deletion of customized ingredients of orders.
+	 */
+	private static final String SQL_DELETE_ORDER_CUSTOMIZATIONS = "DELETE FROM ord_order_customization "
+			+ "WHERE order_id IN (:idCollection)";
+	
+	/**
+	 * Deletion of orders.
+	 */
+	private static final String SQL_DELETE_ORDERS = "DELETE FROM ord_order WHERE id IN (:idCollection)";
+	
+	/**
+	 * Spring JDBC template with streaming fetch size.
+	 */
+	private final JdbcTemplate streamingJdbcTemplate;
+	
+	/**
+	 * Spring JDBC template with named parameters.
+	 */
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param dataSource Data source of orders.
+	 * @param fetchSize Fetch size of streaming queries, Integer.MIN_VALUE for MySQL to stream row by row.
+	 */
+	public OrderRepositoryImpl(DataSource dataSource,
+			@Value("${order.export.fetch-size:-2147483648}") int fetchSize) {
+		streamingJdbcTemplate = new JdbcTemplate(dataSource);
+		streamingJdbcTemplate.setFetchSize(fetchSize);
+		namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+	}
+	
+	/*
+	 * Read joined rows through a forward only cursor, grouping consecutive rows of the same order.
+	 */
+	@Override
+	public void streamOrders(Consumer<CompactOrder> compactOrderConsumer) {
+		OrderRowCallbackHandler orderRowCallbackHandler = new OrderRowCallbackHandler(compactOrderConsumer);
+		
+		streamingJdbcTemplate.query(SQL_STREAM_ORDERS, orderRowCallbackHandler);
+		
+		orderRowCallbackHandler.finish();
+	}
+	
+	/*
+	 * Read joined rows of the chunk at once, grouping consecutive rows of the same order.
+	 */
+	@Override
+	public void readOrderChunk(Long after, int limit, Consumer<CompactOrder> compactOrderConsumer) {
+		OrderRowCallbackHandler orderRowCallbackHandler = new OrderRowCallbackHandler(compactOrderConsumer);
+		
+		namedParameterJdbcTemplate.query(SQL_READ_ORDER_CHUNK,
+				new MapSqlParameterSource("after", after).addValue("limit", limit), orderRowCallbackHandler);
+		
+		orderRowCallbackHandler.finish();
+	}
+	
+	/*
+	 * > Insert orders in a single JDBC batch.
+	 * > Insert customized ingredients of all orders in a single JDBC batch.
+	 */
+	@Override
+	public void insertOrderList(List<Order> orderList) {
+		List<Object[]> orderArgumentList = new ArrayList<Object[]>(orderList.size());
+		List<Object[]> orderCustomizationArgumentList = new ArrayList<Object[]>();
+		OrderCustomization orderCustomization = null;
+		
+		for (Order order : orderList) {
+			orderArgumentList.add(new Object[] {order.getId(), order.getClosedRecipeId(), toColumn(order.getSize()),
+					toColumn(order.getBreadThickness()), order.getPrice()});
+			
+			if (order.getOrderCustomizationMap() != null) {
+				for (Map.Entry<Long, OrderCustomization> entry : order.getOrderCustomizationMap().entrySet()) {
+					orderCustomization = entry.getValue();
+					
+					orderCustomizationArgumentList.add(new Object[] {order.getId(), entry.getKey(),
+							toColumn(orderCustomization.getType()), orderCustomization.getPortionQuantity(),
+							orderCustomization.getObservation()});
+				}
+			}
+		}
+		
+		namedParameterJdbcTemplate.getJdbcOperations().batchUpdate(SQL_INSERT_ORDER, orderArgumentList);
+		
+		if (!orderCustomizationArgumentList.isEmpty()) {
+			namedParameterJdbcTemplate.getJdbcOperations().batchUpdate(SQL_INSERT_ORDER_CUSTOMIZATION,
+					orderCustomizationArgumentList);
+		}
+	}
+	
+	/*
+	 * Select orders for update.
+	 */
+	@Override
+	public List<Long> lockOrderIdList(Collection<Long> idCollection) {
+		if (idCollection.isEmpty()) {
+			return new ArrayList<Long>();
+		}
+		
+		return namedParameterJdbcTemplate.queryForList(SQL_LOCK_ORDERS,
+				new MapSqlParameterSource("idCollection", idCollection), Long.class);
+	}
+	
+	/*
+	 * Delete customized ingredients before orders, which they reference.
+	 */
+	@Override
+	public int deleteOrderList(Collection<Long> idCollection) {
+		MapSqlParameterSource parameterSource = new MapSqlParameterSource("idCollection", idCollection);
+		
+		if (idCollection.isEmpty()) {
+			return 0;
+		}
+		
+		namedParameterJdbcTemplate.update(SQL_DELETE_ORDER_CUSTOMIZATIONS, parameterSource);
+		
+		return namedParameterJdbcTemplate.update(SQL_DELETE_ORDERS, parameterSource);
+	}
+	
+	/**
+	 * Convert a single character to its column value.
+	 * 
+	 * @param value Character.
+	 * @return Column value, or null when the character is null.
+	 */
+	private static String toColumn(Character value) {
+		return value == null ? null : value.toString();
+	}
+	
+	/**
+	 * Handler of joined rows, building one order at a time on a single compact order.
+	 */
+	private static class OrderRowCallbackHandler implements RowCallbackHandler {
+		
+		/**
+		 * Consumer of every order with customized ingredients.
+		 */
+		private final Consumer<CompactOrder> compactOrderConsumer;
+		
+		/**
+		 * Compact order reused for every order.
+		 */
+		private final CompactOrder compactOrder = new CompactOrder();
+		
+		/**
+		 * Table of customized ingredients reused for every order.
+		 */
+		private final OrderCustomizationTable orderCustomizationTable = new OrderCustomizationTable(16);
+		
+		/**
+		 * Whether an order is being built.
+		 */
+		private boolean building;
+		
+		/**
+		 * Id of order being built.
+		 */
+		private long buildingId;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param compactOrderConsumer Consumer of every order with customized ingredients.
+		 */
+		OrderRowCallbackHandler(Consumer<CompactOrder> compactOrderConsumer) {
+			this.compactOrderConsumer = compactOrderConsumer;
+			
+			compactOrder.setOrderCustomizationTable(orderCustomizationTable);
+		}
+		
+		@Override
+		public void processRow(ResultSet resultSet) throws SQLException {
+			long id = resultSet.getLong("id");
+			long ingredientId = 0L;
+			
+			if (!building || buildingId != id) {
+				finish();
+				
+				compactOrder.setId(id);
+				compactOrder.setClosedRecipeId(resultSet.getObject("closed_recipe_id") == null ? null
+						: resultSet.getInt("closed_recipe_id"));
+				compactOrder.setSize(getCharacter(resultSet, "size"));
+				compactOrder.setBreadThickness(getCharacter(resultSet, "bread_thickness"));
+				compactOrder.setPrice(resultSet.getBigDecimal("price"));
+				
+				building = true;
+				buildingId = id;
+			}
+			
+			ingredientId = resultSet.getLong("ingredient_id");
+			
+			if (!resultSet.wasNull()) {
+				orderCustomizationTable.put(ingredientId, getCharacter(resultSet, "type"),
+						resultSet.getObject("portion_quantity") == null ? null : resultSet.getInt("portion_quantity"),
+						resultSet.getString("observation"));
+			}
+		}
+		
+		/**
+		 * Hand over the order being built, if any, and clear its customized ingredients for the next one.
+		 */
+		void finish() {
+			if (building) {
+				compactOrderConsumer.accept(compactOrder);
+				
+				orderCustomizationTable.clear();
+				building = false;
+			}
+		}
+		
+		/**
+		 * Get a single character column.
+		 * 
+		 * @param resultSet Result set positioned on a row.
+		 * @param column Name of column.
+		 * @return Character, or null when the column is null.
+		 * @throws SQLException When the column cannot be read.
+		 */
+		private static Character getCharacter(ResultSet resultSet, String column) throws SQLException {
+			String value = resultSet.getString(column);
+			
+			return value == null || value.isEmpty() ? null : value.charAt(0);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,318 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.data;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Data source of orders routing connections among shards and, within a shard, to the pool of its primary database,
+ * 		which takes every write, or to the pools of its read replicas, in turns, for reads marked as replica reads
+ * 		on the current thread. Orders are spread over a fixed quantity of buckets, encoded in the lowest digits of
+ * 		their ids, and every shard owns a contiguous range of buckets, so the shard of an order follows from its id.
+ * 		Connections are handed over lazily, so the pool is chosen by the first statement of a transaction rather
+ * 		than by its beginning, and transactions with no statement take no connection.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class OrderRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+	
+	/**
+	 * Quantity of buckets of orders, shared among shards.
+	 */
+	public static final int BUCKET_COUNT = 1024;
+	
+	/**
+	 * Whether connections taken by the current thread are for replica reads.
+	 */
+	private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<Boolean>();
+	
+	/**
+	 * Bucket of the orders read or written by the current thread, choosing its shard.
+	 */
+	private static final ThreadLocal<Integer> BUCKET = new ThreadLocal<Integer>();
+	
+	/**
+	 * Pools of the primary database of every shard.
+	 */
+	private final List<HikariDataSource> primaryDataSourceList;
+	
+	/**
+	 * Pools of the read replicas of every shard, possibly empty.
+	 */
+	private final List<List<HikariDataSource>> replicaDataSourceListList;
+	
+	/**
+	 * Sequence of replica reads of every shard, choosing the replica of the next one.
+	 */
+	private final List<AtomicInteger> replicaSequenceList = new ArrayList<AtomicInteger>();
+	
+	/**
+	 * Quantity of connections taken from every pool, using pool name as key.
+	 */
+	private final Map<String, AtomicLong> connectionCountMap = new LinkedHashMap<String, AtomicLong>();
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param primaryDataSourceList Pools of the primary database of every shard, shard 0 first.
+	 * @param replicaDataSourceListList Pools of the read replicas of every shard, possibly empty.
+	 */
+	public OrderRoutingDataSource(List<HikariDataSource> primaryDataSourceList,
+			List<List<HikariDataSource>> replicaDataSourceListList) {
+		Map<Object, Object> targetDataSourceMap = new HashMap<Object, Object>();
+		PoolRoutingDataSource poolRoutingDataSource = new PoolRoutingDataSource(this);
+		
+		this.primaryDataSourceList = new ArrayList<HikariDataSource>(primaryDataSourceList);
+		this.replicaDataSourceListList = new ArrayList<List<HikariDataSource>>(replicaDataSourceListList);
+		
+		for (int shard = 0; shard < primaryDataSourceList.size(); shard++) {
+			replicaSequenceList.add(new AtomicInteger());
+			
+			for (HikariDataSource dataSource : getDataSourceList(shard)) {
+				targetDataSourceMap.put(dataSource.getPoolName(), dataSource);
+				connectionCountMap.put(dataSource.getPoolName(), new AtomicLong());
+			}
+		}
+		
+		poolRoutingDataSource.setTargetDataSources(targetDataSourceMap);
+		poolRoutingDataSource.setDefaultTargetDataSource(primaryDataSourceList.get(0));
+		poolRoutingDataSource.afterPropertiesSet();
+		
+		setTargetDataSource(poolRoutingDataSource);
+		afterPropertiesSet();
+	}
+	
+	/**
+	 * Run an operation taking its connections from a replica, or from the primary database, restoring the routing
+	 * 		of the caller once it ends.
+	 * 
+	 * @param replicaRead Whether connections are taken from a replica.
+	 * @param operation Operation to be run.
+	 * @return Result of the operation.
+	 */
+	public <T> T route(boolean replicaRead, Supplier<T> operation) {
+		Boolean callerReplicaRead = REPLICA_READ.get();
+		
+		REPLICA_READ.set(replicaRead);
+		
+		try {
+			return operation.get();
+		} finally {
+			if (callerReplicaRead == null) {
+				REPLICA_READ.remove();
+			} else {
+				REPLICA_READ.set(callerReplicaRead);
+			}
+		}
+	}
+	
+	/**
+	 * Run an operation on orders of a bucket, taking its connections from the shard which owns the bucket and
+	 * 		restoring the routing of the caller once it ends.
+	 * 
+	 * @param bucket Bucket of the orders.
+	 * @param operation Operation to be run.
+	 * @return Result of the operation.
+	 */
+	public <T> T routeToBucket(int bucket, Supplier<T> operation) {
+		Integer callerBucket = BUCKET.get();
+		
+		BUCKET.set(bucket);
+		
+		try {
+			return operation.get();
+		} finally {
+			if (callerBucket == null) {
+				BUCKET.remove();
+			} else {
+				BUCKET.set(callerBucket);
+			}
+		}
+	}
+	
+	/**
+	 * Run an operation taking its connections from a shard, restoring the routing of the caller once it ends.
+	 * 
+	 * @param shard Shard, from 0.
+	 * @param operation Operation to be run.
+	 * @return Result of the operation.
+	 */
+	public <T> T routeToShard(int shard, Supplier<T> operation) {
+		return routeToBucket((shard * BUCKET_COUNT + getShardCount() - 1) / getShardCount(), operation);
+	}
+	
+	/**
+	 * Get the bucket routed on the current thread.
+	 * 
+	 * @return Bucket, or null when connections are taken from shard 0 for no bucket in particular.
+	 */
+	public static Integer getCurrentBucket() {
+		return BUCKET.get();
+	}
+	
+	/**
+	 * Get the bucket of an order, encoded in the lowest digits of its id.
+	 * 
+	 * @param id Id of order.
+	 * @return Bucket of the order.
+	 */
+	public static int getBucket(long id) {
+		return (int) Math.floorMod(id, (long) BUCKET_COUNT);
+	}
+	
+	/**
+	 * Get the shard which owns a bucket, every shard owning a contiguous range of buckets of about the same size.
+	 * 
+	 * @param bucket Bucket of orders.
+	 * @return Shard, from 0.
+	 */
+	public int getShard(int bucket) {
+		return bucket * getShardCount() / BUCKET_COUNT;
+	}
+	
+	/**
+	 * Get the quantity of shards.
+	 * 
+	 * @return Quantity of shards.
+	 */
+	public int getShardCount() {
+		return primaryDataSourceList.size();
+	}
+	
+	/**
+	 * Check whether there is any read replica, otherwise every connection is taken from primary databases.
+	 * 
+	 * @return Whether there is any read replica.
+	 */
+	public boolean hasReplicas() {
+		return replicaDataSourceListList.stream().anyMatch(replicaDataSourceList -> !replicaDataSourceList.isEmpty());
+	}
+	
+	/**
+	 * Choose the pool of the connection being taken: the shard which owns the routed bucket, or shard 0 when there
+	 * 		is none, and within it a replica, in turns, for replica reads when it has any, otherwise its primary
+	 * 		database.
+	 * 
+	 * @return Name of the pool.
+	 */
+	private String determinePoolName() {
+		Integer bucket = BUCKET.get();
+		int shard = bucket == null ? 0 : getShard(bucket);
+		List<HikariDataSource> replicaDataSourceList = replicaDataSourceListList.get(shard);
+		String poolName = primaryDataSourceList.get(shard).getPoolName();
+		
+		if (Boolean.TRUE.equals(REPLICA_READ.get()) && !replicaDataSourceList.isEmpty()) {
+			poolName = replicaDataSourceList.get(Math.floorMod(replicaSequenceList.get(shard).getAndIncrement(),
+					replicaDataSourceList.size())).getPoolName();
+		}
+		
+		connectionCountMap.get(poolName).incrementAndGet();
+		
+		return poolName;
+	}
+	
+	/**
+	 * Get the statistics of every pool: connections taken by routing, active, idle and total connections and
+	 * 		threads waiting for a connection, using pool name and statistic name as key.
+	 * 
+	 * @return Map of statistics.
+	 */
+	public Map<String, Number> getPoolStatistics() {
+		Map<String, Number> statistics = new LinkedHashMap<String, Number>();
+		HikariPoolMXBean hikariPoolMXBean = null;
+		String poolName = null;
+		
+		for (int shard = 0; shard < getShardCount(); shard++) {
+			for (HikariDataSource dataSource : getDataSourceList(shard)) {
+				poolName = dataSource.getPoolName();
+				hikariPoolMXBean = dataSource.getHikariPoolMXBean();
+				
+				statistics.put(poolName + ".connectionCount", connectionCountMap.get(poolName).get());
+				statistics.put(poolName + ".activeConnections", hikariPoolMXBean == null ? 0
+						: hikariPoolMXBean.getActiveConnections());
+				statistics.put(poolName + ".idleConnections", hikariPoolMXBean == null ? 0
+						: hikariPoolMXBean.getIdleConnections());
+				statistics.put(poolName + ".totalConnections", hikariPoolMXBean == null ? 0
+						: hikariPoolMXBean.getTotalConnections());
+				statistics.put(poolName + ".threadsAwaitingConnection", hikariPoolMXBean == null ? 0
+						: hikariPoolMXBean.getThreadsAwaitingConnection());
+			}
+		}
+		
+		return statistics;
+	}
+	
+	/**
+	 * Close the pools of every shard.
+	 */
+	@Override
+	public void close() {
+		for (int shard = 0; shard < getShardCount(); shard++) {
+			getDataSourceList(shard).forEach(HikariDataSource::close);
+		}
+	}
+	
+	/**
+	 * Get the pools of a shard, its primary database first.
+	 * 
+	 * @param shard Shard, from 0.
+	 * @return List of pools of the shard.
+	 */
+	private List<HikariDataSource> getDataSourceList(int shard) {
+		List<HikariDataSource> dataSourceList = new ArrayList<HikariDataSource>();
+		
+		dataSourceList.add(primaryDataSourceList.get(shard));
+		dataSourceList.addAll(replicaDataSourceListList.get(shard));
+		
+		return dataSourceList;
+	}
+	
+	/**
+	 * Data source choosing the pool of every connection taken.
+	 */
+	private static class PoolRoutingDataSource extends AbstractRoutingDataSource {
+		
+		/**
+		 * Routing data source of orders which owns the pools.
+		 */
+		private final OrderRoutingDataSource orderRoutingDataSource;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param orderRoutingDataSource Routing data source of orders which owns the pools.
+		 */
+		public PoolRoutingDataSource(OrderRoutingDataSource orderRoutingDataSource) {
+			this.orderRoutingDataSource = orderRoutingDataSource;
+		}
+		
+		@Override
+		protected Object determineCurrentLookupKey() {
+			return orderRoutingDataSource.determinePoolName();
+		}
+	}
+}
\ No newline at end of file
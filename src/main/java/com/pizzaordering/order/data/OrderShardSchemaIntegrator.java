@@ -0,0 +1,69 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.data;
+
+import java.util.EnumSet;
+
+import javax.sql.DataSource;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.schema.TargetType;
+
+/**
+ * Hibernate integrator creating the schema on every shard of orders after shard 0, which Hibernate creates itself,
+ * 		when the schema is created on startup. Registered as a Java service, so it runs on every session factory.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class OrderShardSchemaIntegrator implements Integrator {
+	
+	/*
+	 * Drop and create the schema on every further shard when hibernate.hbm2ddl.auto is create or create-drop, with
+	 * 		no import script, since seed orders fall in buckets of shard 0 and are imported there only.
+	 */
+	@Override
+	public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+			SessionFactoryServiceRegistry serviceRegistry) {
+		Object action = sessionFactory.getProperties().get(AvailableSettings.HBM2DDL_AUTO);
+		DataSource dataSource = serviceRegistry.getService(ConnectionProvider.class).unwrap(DataSource.class);
+		OrderRoutingDataSource orderRoutingDataSource = null;
+		
+		if (!("create".equals(action) || "create-drop".equals(action))
+				|| !(dataSource instanceof OrderRoutingDataSource)) {
+			return;
+		}
+		
+		orderRoutingDataSource = (OrderRoutingDataSource) dataSource;
+		
+		for (int shard = 1; shard < orderRoutingDataSource.getShardCount(); shard++) {
+			orderRoutingDataSource.routeToShard(shard, () -> {
+				new SchemaExport().setImportFiles("").create(EnumSet.of(TargetType.DATABASE), metadata);
+				
+				return null;
+			});
+		}
+	}
+	
+	/*
+	 * Leave schemas of further shards as they are.
+	 */
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+	}
+}
\ No newline at end of file
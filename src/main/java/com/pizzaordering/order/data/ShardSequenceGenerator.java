@@ -0,0 +1,50 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.data;
+
+import java.io.Serializable;
+
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/**
+ * Pooled sequence generator drawing values from the sequence on shard 0 for entities of every shard. Values are
+ * 		pooled in memory by a single generator whatever shard the entity goes to, so drawing them from sequences
+ * 		of different shards would hand the same value over twice.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class ShardSequenceGenerator extends SequenceStyleGenerator {
+	
+	/*
+	 * Draw the next value on a stateless session of its own routed to shard 0, which takes a connection only when
+	 * 		the pool of values in memory runs out, leaving the connection of the caller to the shard of the entity.
+	 */
+	@Override
+	public Serializable generate(SharedSessionContractImplementor session, Object object) {
+		OrderRoutingDataSource orderRoutingDataSource = session.getFactory().getServiceRegistry()
+				.getService(ConnectionProvider.class).unwrap(OrderRoutingDataSource.class);
+		
+		return orderRoutingDataSource.routeToShard(0, () -> {
+			StatelessSession statelessSession = session.getFactory().openStatelessSession();
+			
+			try {
+				return super.generate((SharedSessionContractImplementor) statelessSession, object);
+			} finally {
+				statelessSession.close();
+			}
+		});
+	}
+}
\ No newline at end of file
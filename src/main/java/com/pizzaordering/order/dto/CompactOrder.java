@@ -0,0 +1,336 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.dto;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Compact in-memory representation of an order, with primitive fields and customized ingredients on an
+ * 		open addressing table instead of a map of entities. It converts to and from the order entity at the edges
+ * 		and writes the same JSON as the entity, so it can be kept in caches and reused while streaming.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public final class CompactOrder implements Serializable {
+	
+	/**
+	 * Serial version UID for serialization.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Flag of an id present.
+	 */
+	private static final byte FLAG_ID = 1;
+	
+	/**
+	 * Flag of a closed recipe id present.
+	 */
+	private static final byte FLAG_CLOSED_RECIPE_ID = 2;
+	
+	/**
+	 * Flag of a size present.
+	 */
+	private static final byte FLAG_SIZE = 4;
+	
+	/**
+	 * Flag of a thickness of bread present.
+	 */
+	private static final byte FLAG_BREAD_THICKNESS = 8;
+	
+	/**
+	 * Id.
+	 */
+	private long id;
+	
+	/**
+	 * Closed recipe id.
+	 */
+	private int closedRecipeId;
+	
+	/**
+	 * Size.
+	 */
+	private char size;
+	
+	/**
+	 * Thickness of bread.
+	 */
+	private char breadThickness;
+	
+	/**
+	 * Flags of fields present.
+	 */
+	private byte flags;
+	
+	/**
+	 * Price.
+	 */
+	private BigDecimal price;
+	
+	/**
+	 * Table of customized ingredients, or null when the order has no map of customizations.
+	 */
+	private OrderCustomizationTable orderCustomizationTable;
+	
+	/**
+	 * Constructor.
+	 */
+	public CompactOrder() {
+	}
+	
+	/**
+	 * Build the compact representation of an order.
+	 * 
+	 * @param order Order with customized ingredients.
+	 * @return Compact order.
+	 */
+	public static CompactOrder of(Order order) {
+		CompactOrder compactOrder = new CompactOrder();
+		
+		compactOrder.setId(order.getId());
+		compactOrder.setClosedRecipeId(order.getClosedRecipeId());
+		compactOrder.setSize(order.getSize());
+		compactOrder.setBreadThickness(order.getBreadThickness());
+		compactOrder.setPrice(order.getPrice());
+		compactOrder.setOrderCustomizationTable(order.getOrderCustomizationMap() == null ? null
+				: OrderCustomizationTable.of(order.getOrderCustomizationMap()));
+		
+		return compactOrder;
+	}
+	
+	/**
+	 * Build a detached order entity, with customized ingredients without composite ids, as loaded from database.
+	 * 
+	 * @return Order with customized ingredients.
+	 */
+	public Order toOrder() {
+		Order order = new Order();
+		
+		order.setId(getId());
+		order.setClosedRecipeId(getClosedRecipeId());
+		order.setSize(getSize());
+		order.setBreadThickness(getBreadThickness());
+		order.setPrice(price);
+		order.setOrderCustomizationMap(orderCustomizationTable == null ? null
+				: orderCustomizationTable.toOrderCustomizationMap());
+		
+		return order;
+	}
+	
+	/**
+	 * Write the order as a JSON object with the same properties of the order entity, without building it.
+	 * 
+	 * @param jsonGenerator JSON generator.
+	 * @throws IOException When the JSON cannot be written.
+	 */
+	public void writeJson(JsonGenerator jsonGenerator) throws IOException {
+		jsonGenerator.writeStartObject();
+		
+		jsonGenerator.writeFieldName("id");
+		
+		if ((flags & FLAG_ID) == 0) {
+			jsonGenerator.writeNull();
+		} else {
+			jsonGenerator.writeNumber(id);
+		}
+		
+		jsonGenerator.writeFieldName("closedRecipeId");
+		
+		if ((flags & FLAG_CLOSED_RECIPE_ID) == 0) {
+			jsonGenerator.writeNull();
+		} else {
+			jsonGenerator.writeNumber(closedRecipeId);
+		}
+		
+		writeCharacter(jsonGenerator, "size", (flags & FLAG_SIZE) == 0 ? null : size);
+		writeCharacter(jsonGenerator, "breadThickness", (flags & FLAG_BREAD_THICKNESS) == 0 ? null : breadThickness);
+		
+		jsonGenerator.writeFieldName("price");
+		
+		if (price == null) {
+			jsonGenerator.writeNull();
+		} else {
+			jsonGenerator.writeNumber(price);
+		}
+		
+		jsonGenerator.writeFieldName("orderCustomizationMap");
+		
+		if (orderCustomizationTable == null) {
+			jsonGenerator.writeNull();
+		} else {
+			jsonGenerator.writeStartObject();
+			
+			for (int slot = 0; slot < orderCustomizationTable.capacity(); slot++) {
+				if (orderCustomizationTable.isUsed(slot)) {
+					jsonGenerator.writeFieldName(Long.toString(orderCustomizationTable.getIngredientId(slot)));
+					jsonGenerator.writeStartObject();
+					
+					writeCharacter(jsonGenerator, "type", orderCustomizationTable.getType(slot));
+					
+					jsonGenerator.writeFieldName("portionQuantity");
+					
+					if (orderCustomizationTable.getPortionQuantity(slot) == null) {
+						jsonGenerator.writeNull();
+					} else {
+						jsonGenerator.writeNumber(orderCustomizationTable.getPortionQuantity(slot));
+					}
+					
+					jsonGenerator.writeStringField("observation", orderCustomizationTable.getObservation(slot));
+					jsonGenerator.writeEndObject();
+				}
+			}
+			
+			jsonGenerator.writeEndObject();
+		}
+		
+		jsonGenerator.writeEndObject();
+	}
+	
+	/**
+	 * Get id of order.
+	 * 
+	 * @return Id of order, or null.
+	 */
+	public Long getId() {
+		return (flags & FLAG_ID) == 0 ? null : id;
+	}
+	
+	/**
+	 * Set id of order.
+	 * 
+	 * @param id Id of order, or null.
+	 */
+	public void setId(Long id) {
+		this.id = id == null ? 0L : id;
+		flags = (byte) (id == null ? flags & ~FLAG_ID : flags | FLAG_ID);
+	}
+	
+	/**
+	 * Get closed recipe id of order.
+	 * 
+	 * @return Closed recipe id of order, or null.
+	 */
+	public Integer getClosedRecipeId() {
+		return (flags & FLAG_CLOSED_RECIPE_ID) == 0 ? null : closedRecipeId;
+	}
+	
+	/**
+	 * Set closed recipe id of order.
+	 * 
+	 * @param closedRecipeId Closed recipe id of order, or null.
+	 */
+	public void setClosedRecipeId(Integer closedRecipeId) {
+		this.closedRecipeId = closedRecipeId == null ? 0 : closedRecipeId;
+		flags = (byte) (closedRecipeId == null ? flags & ~FLAG_CLOSED_RECIPE_ID : flags | FLAG_CLOSED_RECIPE_ID);
+	}
+	
+	/**
+	 * Get size of order.
+	 * 
+	 * @return Size of order, or null.
+	 */
+	public Character getSize() {
+		return (flags & FLAG_SIZE) == 0 ? null : size;
+	}
+	
+	/**
+	 * Set size of order.
+	 * 
+	 * @param size Size of order, or null.
+	 */
+	public void setSize(Character size) {
+		this.size = size == null ? 0 : size;
+		flags = (byte) (size == null ? flags & ~FLAG_SIZE : flags | FLAG_SIZE);
+	}
+	
+	/**
+	 * Get thickness of bread of order.
+	 * 
+	 * @return Thickness of bread of order, or null.
+	 */
+	public Character getBreadThickness() {
+		return (flags & FLAG_BREAD_THICKNESS) == 0 ? null : breadThickness;
+	}
+	
+	/**
+	 * Set thickness of bread of order.
+	 * 
+	 * @param breadThickness Thickness of bread of order, or null.
+	 */
+	public void setBreadThickness(Character breadThickness) {
+		this.breadThickness = breadThickness == null ? 0 : breadThickness;
+		flags = (byte) (breadThickness == null ? flags & ~FLAG_BREAD_THICKNESS : flags | FLAG_BREAD_THICKNESS);
+	}
+	
+	/**
+	 * Get price of order.
+	 * 
+	 * @return Price of order.
+	 */
+	public BigDecimal getPrice() {
+		return price;
+	}
+	
+	/**
+	 * Set price of order.
+	 * 
+	 * @param price Price of order.
+	 */
+	public void setPrice(BigDecimal price) {
+		this.price = price;
+	}
+	
+	/**
+	 * Get table of customized ingredients of order.
+	 * 
+	 * @return Table of customized ingredients, or null.
+	 */
+	public OrderCustomizationTable getOrderCustomizationTable() {
+		return orderCustomizationTable;
+	}
+	
+	/**
+	 * Set table of customized ingredients of order.
+	 * 
+	 * @param orderCustomizationTable Table of customized ingredients, or null.
+	 */
+	public void setOrderCustomizationTable(OrderCustomizationTable orderCustomizationTable) {
+		this.orderCustomizationTable = orderCustomizationTable;
+	}
+	
+	/**
+	 * Write a single character field as a JSON string, or null.
+	 * 
+	 * @param jsonGenerator JSON generator.
+	 * @param fieldName Name of field.
+	 * @param value Character, or null.
+	 * @throws IOException When the JSON cannot be written.
+	 */
+	private static void writeCharacter(JsonGenerator jsonGenerator, String fieldName, Character value)
+			throws IOException {
+		jsonGenerator.writeFieldName(fieldName);
+		
+		if (value == null) {
+			jsonGenerator.writeNull();
+		} else {
+			jsonGenerator.writeString(String.valueOf(value.charValue()));
+		}
+	}
+}
\ No newline at end of file
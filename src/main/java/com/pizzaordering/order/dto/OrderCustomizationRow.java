@@ -0,0 +1,117 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+
+/**
+ * Flat projection of a customized ingredient of an order, read without managed entities.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class OrderCustomizationRow {
+	
+	/**
+	 * Id of order.
+	 */
+	private final Long orderId;
+	
+	/**
+	 * Id of customized ingredient.
+	 */
+	private final Long ingredientId;
+	
+	/**
+	 * Type of customization.
+	 */
+	private final Character type;
+	
+	/**
+	 * Quantity of portion.
+	 */
+	private final Integer portionQuantity;
+	
+	/**
+	 * Observation.
+	 */
+	private final String observation;
+	
+	/**
+	 * Constructor, used by JPQL constructor expressions.
+	 * 
+	 * @param orderId Id of order.
+	 * @param ingredientId Id of customized ingredient.
+	 * @param type Type of customization.
+	 * @param portionQuantity Quantity of portion.
+	 * @param observation Observation.
+	 */
+	public OrderCustomizationRow(Long orderId, Long ingredientId, Character type, Integer portionQuantity,
+			String observation) {
+		this.orderId = orderId;
+		this.ingredientId = ingredientId;
+		this.type = type;
+		this.portionQuantity = portionQuantity;
+		this.observation = observation;
+	}
+	
+	/**
+	 * Get id of order.
+	 * 
+	 * @return Id of order.
+	 */
+	public Long getOrderId() {
+		return orderId;
+	}
+	
+	/**
+	 * Get id of customized ingredient.
+	 * 
+	 * @return Id of customized ingredient.
+	 */
+	public Long getIngredientId() {
+		return ingredientId;
+	}
+	
+	/**
+	 * Build a detached order customization from the row.
+	 * 
+	 * @return Order customization.
+	 */
+	public OrderCustomization toOrderCustomization() {
+		OrderCustomization orderCustomization = new OrderCustomization();
+		
+		orderCustomization.setType(type);
+		orderCustomization.setPortionQuantity(portionQuantity);
+		orderCustomization.setObservation(observation);
+		
+		return orderCustomization;
+	}
+	
+	/**
+	 * Put customized ingredients from rows into the customization maps of their orders.
+	 * 
+	 * @param orderMap Map of orders, using order id as key.
+	 * @param orderCustomizationRowList List of rows.
+	 */
+	public static void putInto(Map<Long, Order> orderMap, List<OrderCustomizationRow> orderCustomizationRowList) {
+		for (OrderCustomizationRow orderCustomizationRow : orderCustomizationRowList) {
+			orderMap.get(orderCustomizationRow.orderId).getOrderCustomizationMap().put(orderCustomizationRow.ingredientId,
+					orderCustomizationRow.toOrderCustomization());
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,336 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.dto;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.pizzaordering.order.entity.OrderCustomization;
+
+/**
+ * Compact table of customized ingredients of an order, keyed by primitive ingredient id with open addressing and
+ * 		linear probing. Ingredient id and a long packing type and quantity of portion are interleaved on a single
+ * 		array, and observations, mostly absent, are only allocated once one is put. Slots are read by index from 0 to capacity, skipping unused ones,
+ * 		so nothing is boxed or allocated on iteration.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public final class OrderCustomizationTable implements Serializable {
+	
+	/**
+	 * Serial version UID for serialization.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Minimum quantity of slots.
+	 */
+	private static final int MIN_CAPACITY = 4;
+	
+	/**
+	 * Flag of a slot in use.
+	 */
+	private static final long FLAG_USED = 1L << 62;
+	
+	/**
+	 * Flag of a type present, packed on bits 32 to 47.
+	 */
+	private static final long FLAG_TYPE = 1L << 49;
+	
+	/**
+	 * Flag of a quantity of portion present, packed on bits 0 to 31.
+	 */
+	private static final long FLAG_PORTION_QUANTITY = 1L << 48;
+	
+	/**
+	 * Ingredient id of every slot at even indexes, followed by its flags, type and quantity of portion, 0 for an
+	 * 		unused slot.
+	 */
+	private long[] entries;
+	
+	/**
+	 * Observation of every slot, null until an observation is put.
+	 */
+	private String[] observations;
+	
+	/**
+	 * Quantity of slots in use.
+	 */
+	private int size;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param expectedSize Quantity of customized ingredients expected, so the table is never more than three quarters
+	 * 		full without growing.
+	 */
+	public OrderCustomizationTable(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		
+		while (capacity * 3 < expectedSize * 4) {
+			capacity <<= 1;
+		}
+		
+		entries = new long[capacity * 2];
+	}
+	
+	/**
+	 * Build the table of a map of order customizations.
+	 * 
+	 * @param orderCustomizationMap Map of order customizations, using ingredient id as key.
+	 * @return Table of customized ingredients.
+	 */
+	public static OrderCustomizationTable of(Map<Long, OrderCustomization> orderCustomizationMap) {
+		OrderCustomizationTable orderCustomizationTable = new OrderCustomizationTable(orderCustomizationMap.size());
+		OrderCustomization orderCustomization = null;
+		
+		for (Map.Entry<Long, OrderCustomization> entry : orderCustomizationMap.entrySet()) {
+			orderCustomization = entry.getValue();
+			
+			orderCustomizationTable.put(entry.getKey(), orderCustomization.getType(),
+					orderCustomization.getPortionQuantity(), orderCustomization.getObservation());
+		}
+		
+		return orderCustomizationTable;
+	}
+	
+	/**
+	 * Build detached order customizations of the table, without composite ids, as loaded from database.
+	 * 
+	 * @return Map of order customizations, using ingredient id as key.
+	 */
+	public Map<Long, OrderCustomization> toOrderCustomizationMap() {
+		Map<Long, OrderCustomization> orderCustomizationMap = new HashMap<Long, OrderCustomization>(size * 2);
+		OrderCustomization orderCustomization = null;
+		
+		for (int slot = 0; slot < capacity(); slot++) {
+			if (isUsed(slot)) {
+				orderCustomization = new OrderCustomization();
+				orderCustomization.setType(getType(slot));
+				orderCustomization.setPortionQuantity(getPortionQuantity(slot));
+				orderCustomization.setObservation(getObservation(slot));
+				
+				orderCustomizationMap.put(entries[slot * 2], orderCustomization);
+			}
+		}
+		
+		return orderCustomizationMap;
+	}
+	
+	/**
+	 * Put a customized ingredient, replacing the one of the same ingredient id.
+	 * 
+	 * @param ingredientId Ingredient id.
+	 * @param type Type of customization, or null.
+	 * @param portionQuantity Quantity of portion, or null.
+	 * @param observation Observation, or null.
+	 */
+	public void put(long ingredientId, Character type, Integer portionQuantity, String observation) {
+		int slot = 0;
+		
+		if ((size + 1) * 4 > capacity() * 3) {
+			resize(capacity() * 2);
+		}
+		
+		slot = findSlot(ingredientId);
+		
+		if (!isUsed(slot)) {
+			entries[slot * 2] = ingredientId;
+			size++;
+		}
+		
+		entries[slot * 2 + 1] = FLAG_USED
+				| (type == null ? 0L : FLAG_TYPE | (long) type.charValue() << 32)
+				| (portionQuantity == null ? 0L : FLAG_PORTION_QUANTITY | portionQuantity & 0xFFFFFFFFL);
+		
+		if (observation != null && observations == null) {
+			observations = new String[capacity()];
+		}
+		
+		if (observations != null) {
+			observations[slot] = observation;
+		}
+	}
+	
+	/**
+	 * Remove every customized ingredient, keeping the slots allocated so the table can be reused.
+	 */
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(entries, 0L);
+			
+			if (observations != null) {
+				Arrays.fill(observations, null);
+			}
+			
+			size = 0;
+		}
+	}
+	
+	/**
+	 * Get quantity of customized ingredients.
+	 * 
+	 * @return Quantity of customized ingredients.
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Get quantity of slots, the bound of slot indexes.
+	 * 
+	 * @return Quantity of slots.
+	 */
+	public int capacity() {
+		return entries.length / 2;
+	}
+	
+	/**
+	 * Find the slot of an ingredient id.
+	 * 
+	 * @param ingredientId Ingredient id.
+	 * @return Slot of the ingredient id, or -1 when it is not in the table.
+	 */
+	public int indexOf(long ingredientId) {
+		int slot = findSlot(ingredientId);
+		
+		return isUsed(slot) ? slot : -1;
+	}
+	
+	/**
+	 * Get slots in use sorted by ingredient id.
+	 * 
+	 * @return Slots in use sorted by ingredient id.
+	 */
+	public int[] sortedSlots() {
+		long[] sortedIngredientIds = new long[size];
+		int[] slots = new int[size];
+		int i = 0;
+		
+		for (int slot = 0; slot < capacity(); slot++) {
+			if (isUsed(slot)) {
+				sortedIngredientIds[i++] = entries[slot * 2];
+			}
+		}
+		
+		Arrays.sort(sortedIngredientIds);
+		
+		for (i = 0; i < size; i++) {
+			slots[i] = findSlot(sortedIngredientIds[i]);
+		}
+		
+		return slots;
+	}
+	
+	/**
+	 * Check whether a slot is in use.
+	 * 
+	 * @param slot Slot, from 0 to capacity.
+	 * @return True when the slot holds a customized ingredient.
+	 */
+	public boolean isUsed(int slot) {
+		return entries[slot * 2 + 1] != 0L;
+	}
+	
+	/**
+	 * Get ingredient id of a slot in use.
+	 * 
+	 * @param slot Slot in use.
+	 * @return Ingredient id.
+	 */
+	public long getIngredientId(int slot) {
+		return entries[slot * 2];
+	}
+	
+	/**
+	 * Get type of customization of a slot in use, boxed from the cache of Character for ASCII types.
+	 * 
+	 * @param slot Slot in use.
+	 * @return Type of customization, or null.
+	 */
+	public Character getType(int slot) {
+		long value = entries[slot * 2 + 1];
+		
+		return (value & FLAG_TYPE) == 0L ? null : Character.valueOf((char) (value >>> 32));
+	}
+	
+	/**
+	 * Get quantity of portion of a slot in use, boxed from the cache of Integer for small quantities.
+	 * 
+	 * @param slot Slot in use.
+	 * @return Quantity of portion, or null.
+	 */
+	public Integer getPortionQuantity(int slot) {
+		long value = entries[slot * 2 + 1];
+		
+		return (value & FLAG_PORTION_QUANTITY) == 0L ? null : Integer.valueOf((int) value);
+	}
+	
+	/**
+	 * Get observation of a slot in use.
+	 * 
+	 * @param slot Slot in use.
+	 * @return Observation, or null.
+	 */
+	public String getObservation(int slot) {
+		return observations == null ? null : observations[slot];
+	}
+	
+	/**
+	 * Find the slot of an ingredient id, or the free slot where it would be put.
+	 * 
+	 * @param ingredientId Ingredient id.
+	 * @return Slot.
+	 */
+	private int findSlot(long ingredientId) {
+		int mask = capacity() - 1;
+		long hash = ingredientId * 0x9E3779B97F4A7C15L;
+		int slot = (int) (hash ^ hash >>> 32) & mask;
+		
+		while (isUsed(slot) && entries[slot * 2] != ingredientId) {
+			slot = slot + 1 & mask;
+		}
+		
+		return slot;
+	}
+	
+	/**
+	 * Move every customized ingredient to a table of a new capacity.
+	 * 
+	 * @param capacity New quantity of slots, a power of two.
+	 */
+	private void resize(int capacity) {
+		long[] oldEntries = entries;
+		String[] oldObservations = observations;
+		int slot = 0;
+		
+		entries = new long[capacity * 2];
+		observations = oldObservations == null ? null : new String[capacity];
+		
+		for (int oldSlot = 0; oldSlot < oldEntries.length / 2; oldSlot++) {
+			if (oldEntries[oldSlot * 2 + 1] != 0L) {
+				slot = findSlot(oldEntries[oldSlot * 2]);
+				
+				entries[slot * 2] = oldEntries[oldSlot * 2];
+				entries[slot * 2 + 1] = oldEntries[oldSlot * 2 + 1];
+				
+				if (observations != null) {
+					observations[slot] = oldObservations[oldSlot];
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
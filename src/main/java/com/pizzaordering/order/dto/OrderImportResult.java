@@ -0,0 +1,167 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.dto;
+
+import java.io.Serializable;
+
+/**
+ * Summary of a bulk import of orders.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class OrderImportResult implements Serializable {
+	
+	/**
+	 * Serial version UID for serialization.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Quantity of orders inserted.
+	 */
+	private long orderQuantity;
+	
+	/**
+	 * Quantity of order customizations inserted.
+	 */
+	private long orderCustomizationQuantity;
+	
+	/**
+	 * Quantity of orders priced on import, because no price came with them.
+	 */
+	private long pricedOrderQuantity;
+	
+	/**
+	 * Duration of the import, in milliseconds.
+	 */
+	private long elapsedMillis;
+	
+	/**
+	 * Rows inserted per second, orders and order customizations together.
+	 */
+	private long rowsPerSecond;
+	
+	/**
+	 * Constructor.
+	 */
+	public OrderImportResult() {
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param orderQuantity Quantity of orders inserted.
+	 * @param orderCustomizationQuantity Quantity of order customizations inserted.
+	 * @param pricedOrderQuantity Quantity of orders priced on import.
+	 * @param elapsedMillis Duration of the import, in milliseconds.
+	 */
+	public OrderImportResult(long orderQuantity, long orderCustomizationQuantity, long pricedOrderQuantity,
+			long elapsedMillis) {
+		this.orderQuantity = orderQuantity;
+		this.orderCustomizationQuantity = orderCustomizationQuantity;
+		this.pricedOrderQuantity = pricedOrderQuantity;
+		this.elapsedMillis = elapsedMillis;
+		this.rowsPerSecond = (orderQuantity + orderCustomizationQuantity) * 1000L / Math.max(elapsedMillis, 1L);
+	}
+	
+	/**
+	 * Get quantity of orders inserted.
+	 * 
+	 * @return Quantity of orders inserted.
+	 */
+	public long getOrderQuantity() {
+		return orderQuantity;
+	}
+	
+	/**
+	 * Set quantity of orders inserted.
+	 * 
+	 * @param orderQuantity Quantity of orders inserted.
+	 */
+	public void setOrderQuantity(long orderQuantity) {
+		this.orderQuantity = orderQuantity;
+	}
+	
+	/**
+	 * Get quantity of order customizations inserted.
+	 * 
+	 * @return Quantity of order customizations inserted.
+	 */
+	public long getOrderCustomizationQuantity() {
+		return orderCustomizationQuantity;
+	}
+	
+	/**
+	 * Set quantity of order customizations inserted.
+	 * 
+	 * @param orderCustomizationQuantity Quantity of order customizations inserted.
+	 */
+	public void setOrderCustomizationQuantity(long orderCustomizationQuantity) {
+		this.orderCustomizationQuantity = orderCustomizationQuantity;
+	}
+	
+	/**
+	 * Get quantity of orders priced on import.
+	 * 
+	 * @return Quantity of orders priced on import.
+	 */
+	public long getPricedOrderQuantity() {
+		return pricedOrderQuantity;
+	}
+	
+	/**
+	 * Set quantity of orders priced on import.
+	 * 
+	 * @param pricedOrderQuantity Quantity of orders priced on import.
+	 */
+	public void setPricedOrderQuantity(long pricedOrderQuantity) {
+		this.pricedOrderQuantity = pricedOrderQuantity;
+	}
+	
+	/**
+	 * Get duration of the import.
+	 * 
+	 * @return Duration of the import, in milliseconds.
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+	
+	/**
+	 * Set duration of the import.
+	 * 
+	 * @param elapsedMillis Duration of the import, in milliseconds.
+	 */
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+	
+	/**
+	 * Get rows inserted per second.
+	 * 
+	 * @return Rows inserted per second, orders and order customizations together.
+	 */
+	public long getRowsPerSecond() {
+		return rowsPerSecond;
+	}
+	
+	/**
+	 * Set rows inserted per second.
+	 * 
+	 * @param rowsPerSecond Rows inserted per second, orders and order customizations together.
+	 */
+	public void setRowsPerSecond(long rowsPerSecond) {
+		this.rowsPerSecond = rowsPerSecond;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Page of orders sorted by id, with the cursor to request the next page.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class OrderPage implements Serializable {
+	
+	/**
+	 * Serial version UID for serialization.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * List of orders with customized ingredients.
+	 */
+	private List<Order> orderList;
+	
+	/**
+	 * Id after which the next page starts, null when this is the last page.
+	 */
+	private Long nextAfter;
+	
+	/**
+	 * Constructor.
+	 */
+	public OrderPage() {
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param orderList List of orders with customized ingredients.
+	 * @param nextAfter Id after which the next page starts, null when this is the last page.
+	 */
+	public OrderPage(List<Order> orderList, Long nextAfter) {
+		this.orderList = orderList;
+		this.nextAfter = nextAfter;
+	}
+
+	/**
+	 * Get list of orders.
+	 * 
+	 * @return List of orders.
+	 */
+	public List<Order> getOrderList() {
+		return orderList;
+	}
+
+	/**
+	 * Set list of orders.
+	 * 
+	 * @param orderList List of orders.
+	 */
+	public void setOrderList(List<Order> orderList) {
+		this.orderList = orderList;
+	}
+
+	/**
+	 * Get id after which the next page starts.
+	 * 
+	 * @return Id after which the next page starts, null when this is the last page.
+	 */
+	public Long getNextAfter() {
+		return nextAfter;
+	}
+
+	/**
+	 * Set id after which the next page starts.
+	 * 
+	 * @param nextAfter Id after which the next page starts, null when this is the last page.
+	 */
+	public void setNextAfter(Long nextAfter) {
+		this.nextAfter = nextAfter;
+	}
+}
\ No newline at end of file
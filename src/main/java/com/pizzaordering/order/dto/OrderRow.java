@@ -0,0 +1,189 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+
+/**
+ * Flat projection of an order joined to one of its customized ingredients, read without managed entities.
+ * 		Also the line layout of CSV order imports.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class OrderRow {
+	
+	/**
+	 * Id of order.
+	 */
+	private final Long id;
+	
+	/**
+	 * Id of closed recipe.
+	 */
+	private final Integer closedRecipeId;
+	
+	/**
+	 * Size of pizza.
+	 */
+	private final Character size;
+	
+	/**
+	 * Thickness of bread.
+	 */
+	private final Character breadThickness;
+	
+	/**
+	 * Price of pizza.
+	 */
+	private final BigDecimal price;
+	
+	/**
+	 * Id of customized ingredient, null when the order has no customization.
+	 */
+	private final Long ingredientId;
+	
+	/**
+	 * Type of customization.
+	 */
+	private final Character type;
+	
+	/**
+	 * Quantity of portion.
+	 */
+	private final Integer portionQuantity;
+	
+	/**
+	 * Observation.
+	 */
+	private final String observation;
+	
+	/**
+	 * Constructor, used by JPQL constructor expressions and CSV parsing.
+	 * 
+	 * @param id Id of order.
+	 * @param closedRecipeId Id of closed recipe.
+	 * @param size Size of pizza.
+	 * @param breadThickness Thickness of bread.
+	 * @param price Price of pizza.
+	 * @param ingredientId Id of customized ingredient.
+	 * @param type Type of customization.
+	 * @param portionQuantity Quantity of portion.
+	 * @param observation Observation.
+	 */
+	@JsonCreator
+	public OrderRow(@JsonProperty("id") Long id, @JsonProperty("closedRecipeId") Integer closedRecipeId,
+			@JsonProperty("size") Character size, @JsonProperty("breadThickness") Character breadThickness,
+			@JsonProperty("price") BigDecimal price, @JsonProperty("ingredientId") Long ingredientId,
+			@JsonProperty("type") Character type, @JsonProperty("portionQuantity") Integer portionQuantity,
+			@JsonProperty("observation") String observation) {
+		this.id = id;
+		this.closedRecipeId = closedRecipeId;
+		this.size = size;
+		this.breadThickness = breadThickness;
+		this.price = price;
+		this.ingredientId = ingredientId;
+		this.type = type;
+		this.portionQuantity = portionQuantity;
+		this.observation = observation;
+	}
+	
+	/**
+	 * Constructor of a row without customized ingredient, used by JPQL constructor expressions.
+	 * 
+	 * @param id Id of order.
+	 * @param closedRecipeId Id of closed recipe.
+	 * @param size Size of pizza.
+	 * @param breadThickness Thickness of bread.
+	 * @param price Price of pizza.
+	 */
+	public OrderRow(Long id, Integer closedRecipeId, Character size, Character breadThickness, BigDecimal price) {
+		this(id, closedRecipeId, size, breadThickness, price, null, null, null, null);
+	}
+	
+	/**
+	 * Get id of order.
+	 * 
+	 * @return Id of order.
+	 */
+	public Long getId() {
+		return id;
+	}
+	
+	/**
+	 * Build a detached order from this row, with an empty map of customized ingredients.
+	 * 
+	 * @return Order without customized ingredients.
+	 */
+	public Order toOrder() {
+		Order order = new Order();
+		
+		order.setId(id);
+		order.setClosedRecipeId(closedRecipeId);
+		order.setSize(size);
+		order.setBreadThickness(breadThickness);
+		order.setPrice(price);
+		order.setOrderCustomizationMap(new HashMap<Long, OrderCustomization>());
+		
+		return order;
+	}
+	
+	/**
+	 * Put the customized ingredient of this row into an order, if the row has one.
+	 * 
+	 * @param order Order built from a row with the same order id.
+	 */
+	public void putOrderCustomizationInto(Order order) {
+		OrderCustomization orderCustomization = null;
+		
+		if (ingredientId != null) {
+			orderCustomization = new OrderCustomization();
+			orderCustomization.setType(type);
+			orderCustomization.setPortionQuantity(portionQuantity);
+			orderCustomization.setObservation(observation);
+			
+			order.getOrderCustomizationMap().put(ingredientId, orderCustomization);
+		}
+	}
+	
+	/**
+	 * Build detached orders with customized ingredients from rows sorted by order id.
+	 * 
+	 * @param orderRowList List of rows sorted by order id.
+	 * @return List of orders with customized ingredients, in the same order of the rows.
+	 */
+	public static List<Order> toOrderList(List<OrderRow> orderRowList) {
+		List<Order> orderList = new ArrayList<Order>();
+		Order order = null;
+		
+		for (OrderRow orderRow : orderRowList) {
+			if (order == null || !order.getId().equals(orderRow.id)) {
+				order = orderRow.toOrder();
+				
+				orderList.add(order);
+			}
+			
+			orderRow.putOrderCustomizationInto(order);
+		}
+		
+		return orderList;
+	}
+}
\ No newline at end of file
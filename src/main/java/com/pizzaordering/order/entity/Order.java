@@ -25,6 +25,9 @@ import javax.persistence.MapKey;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 /**
  * Order entity.
  * 
@@ -41,10 +44,19 @@ public class Order implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	/**
-	 * Id.
+	 * Id, generated by a pooled sequence (table backed on databases without sequences) so that Hibernate
+	 * 		can batch order insertions instead of executing each one immediately to get the key, with the bucket
+	 * 		of the order, which chooses its shard, encoded in its lowest digits.
 	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ord_order_sequence")
+	@GenericGenerator(name = "ord_order_sequence", strategy = "com.pizzaordering.order.data.OrderIdGenerator",
+			parameters = {
+					@Parameter(name = "sequence_name", value = "ord_order_sequence"),
+					@Parameter(name = "initial_value", value = "1000"),
+					@Parameter(name = "increment_size", value = "50"),
+					@Parameter(name = "optimizer", value = "pooled-lo")
+			})
 	private Long id;
 	
 	/**
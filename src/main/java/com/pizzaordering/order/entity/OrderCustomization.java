@@ -16,7 +16,12 @@ import java.io.Serializable;
 
 import javax.persistence.EmbeddedId;
 import javax.persistence.Entity;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
 import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -28,7 +33,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  */
 @Entity
 @Table(name = "ord_order_customization")
-public class OrderCustomization implements Serializable {
+public class OrderCustomization implements Serializable, Persistable<OrderCustomizationId> {
 	
 	/**
 	 * Serial version UID for serialization.
@@ -57,6 +62,14 @@ public class OrderCustomization implements Serializable {
 	 */
 	private String observation;
 	
+	/**
+	 * Flag of order customization not yet saved on database. As the composite id is always filled before saving,
+	 * 		it tells the repository to insert directly instead of merging, which would select every row first.
+	 */
+	@Transient
+	@JsonIgnore
+	private boolean newOrderCustomization = true;
+	
 	/**
 	 * Constructor.
 	 */
@@ -135,6 +148,37 @@ public class OrderCustomization implements Serializable {
 		this.observation = observation;
 	}
 
+	/**
+	 * Get composite id of order customization.
+	 * 
+	 * @return Composite id of order customization.
+	 */
+	@Override
+	@JsonIgnore
+	public OrderCustomizationId getId() {
+		return orderCustomizationId;
+	}
+
+	/**
+	 * Check if order customization is not yet saved on database.
+	 * 
+	 * @return True if order customization is not yet saved on database.
+	 */
+	@Override
+	@JsonIgnore
+	public boolean isNew() {
+		return newOrderCustomization;
+	}
+
+	/**
+	 * Mark order customization as saved on database after it is loaded or inserted.
+	 */
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		newOrderCustomization = false;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -0,0 +1,200 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.entity;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Order idempotency key entity, recording which order was added by the first request carrying a key, so retries
+ * 		of the same request return that order instead of adding it again.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Entity
+@Table(name = "ord_order_idempotency_key")
+public class OrderIdempotencyKey implements Serializable, Persistable<String> {
+	
+	/**
+	 * Serial version UID for serialization.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Idempotency key sent by the client.
+	 */
+	@Id
+	@Column(length = 255)
+	private String idempotencyKey;
+	
+	/**
+	 * Id of order added by the first request.
+	 */
+	@Column(nullable = false)
+	private Long orderId;
+	
+	/**
+	 * SHA-256 of the first request body, to tell a retry from a different request reusing the key.
+	 */
+	@Column(nullable = false, length = 64)
+	private String requestHash;
+	
+	/**
+	 * Date after which the key is forgotten.
+	 */
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(nullable = false)
+	private Date expirationDate;
+	
+	/**
+	 * Flag of key not yet saved on database, telling the repository to insert directly instead of merging, so a
+	 * 		concurrent request with the same key fails on the primary key.
+	 */
+	@Transient
+	private boolean newOrderIdempotencyKey = true;
+	
+	/**
+	 * Constructor.
+	 */
+	public OrderIdempotencyKey() {
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param idempotencyKey Idempotency key sent by the client.
+	 * @param orderId Id of order added by the first request.
+	 * @param requestHash SHA-256 of the first request body.
+	 * @param expirationDate Date after which the key is forgotten.
+	 */
+	public OrderIdempotencyKey(String idempotencyKey, Long orderId, String requestHash, Date expirationDate) {
+		this.idempotencyKey = idempotencyKey;
+		this.orderId = orderId;
+		this.requestHash = requestHash;
+		this.expirationDate = expirationDate;
+	}
+	
+	/**
+	 * Get idempotency key.
+	 * 
+	 * @return Idempotency key.
+	 */
+	public String getIdempotencyKey() {
+		return idempotencyKey;
+	}
+	
+	/**
+	 * Set idempotency key.
+	 * 
+	 * @param idempotencyKey Idempotency key.
+	 */
+	public void setIdempotencyKey(String idempotencyKey) {
+		this.idempotencyKey = idempotencyKey;
+	}
+	
+	/**
+	 * Get id of order added by the first request.
+	 * 
+	 * @return Id of order.
+	 */
+	public Long getOrderId() {
+		return orderId;
+	}
+	
+	/**
+	 * Set id of order added by the first request.
+	 * 
+	 * @param orderId Id of order.
+	 */
+	public void setOrderId(Long orderId) {
+		this.orderId = orderId;
+	}
+	
+	/**
+	 * Get SHA-256 of the first request body.
+	 * 
+	 * @return SHA-256 of the first request body, in hexadecimal.
+	 */
+	public String getRequestHash() {
+		return requestHash;
+	}
+	
+	/**
+	 * Set SHA-256 of the first request body.
+	 * 
+	 * @param requestHash SHA-256 of the first request body, in hexadecimal.
+	 */
+	public void setRequestHash(String requestHash) {
+		this.requestHash = requestHash;
+	}
+	
+	/**
+	 * Get date after which the key is forgotten.
+	 * 
+	 * @return Date after which the key is forgotten.
+	 */
+	public Date getExpirationDate() {
+		return expirationDate;
+	}
+	
+	/**
+	 * Set date after which the key is forgotten.
+	 * 
+	 * @param expirationDate Date after which the key is forgotten.
+	 */
+	public void setExpirationDate(Date expirationDate) {
+		this.expirationDate = expirationDate;
+	}
+	
+	/**
+	 * Get idempotency key, as id of the entity.
+	 * 
+	 * @return Idempotency key.
+	 */
+	@Override
+	public String getId() {
+		return idempotencyKey;
+	}
+	
+	/**
+	 * Tell whether the key is not yet saved on database.
+	 * 
+	 * @return True when the key is not yet saved on database.
+	 */
+	@Override
+	public boolean isNew() {
+		return newOrderIdempotencyKey;
+	}
+	
+	/**
+	 * Mark key as saved on database after it is loaded or inserted.
+	 */
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		newOrderIdempotencyKey = false;
+	}
+}
\ No newline at end of file
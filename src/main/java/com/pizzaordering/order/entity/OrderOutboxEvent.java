@@ -0,0 +1,272 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.entity;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+/**
+ * Order outbox event entity, saved in the same transaction of the order change and dispatched later to
+ * 		ingredient resource.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Entity
+@Table(name = "ord_order_outbox_event")
+public class OrderOutboxEvent implements Serializable {
+	
+	/**
+	 * Serial version UID for serialization.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Type of event for reversing order ingredients from inventory.
+	 */
+	public static final Character TYPE_REVERSE_ORDER_INGREDIENTS = 'R';
+	
+	/**
+	 * Status of event waiting to be dispatched.
+	 */
+	public static final Character STATUS_PENDING = 'P';
+	
+	/**
+	 * Status of event which exhausted its dispatch attempts or was refused by ingredient resource, kept aside for
+	 * 		inspection and never dispatched again.
+	 */
+	public static final Character STATUS_FAILED = 'F';
+	
+	/**
+	 * Id, generated by a pooled sequence shared by every shard.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ord_order_outbox_event_sequence")
+	@GenericGenerator(name = "ord_order_outbox_event_sequence",
+			strategy = "com.pizzaordering.order.data.ShardSequenceGenerator",
+			parameters = {
+					@Parameter(name = "sequence_name", value = "ord_order_outbox_event_sequence"),
+					@Parameter(name = "increment_size", value = "50"),
+					@Parameter(name = "optimizer", value = "pooled-lo")
+			})
+	private Long id;
+	
+	/**
+	 * Type of event.
+	 */
+	@Column(nullable = false)
+	private Character type;
+	
+	/**
+	 * Status of event.
+	 */
+	@Column(nullable = false)
+	private Character status;
+	
+	/**
+	 * Order serialized as JSON, as sent to ingredient resource.
+	 */
+	@Lob
+	@Column(nullable = false)
+	private String payload;
+	
+	/**
+	 * Date of creation.
+	 */
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(nullable = false)
+	private Date creationDate;
+	
+	/**
+	 * Date of next dispatch attempt.
+	 */
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(nullable = false)
+	private Date nextAttemptDate;
+	
+	/**
+	 * Quantity of failed dispatch attempts.
+	 */
+	@Column(nullable = false)
+	private Integer attemptQuantity;
+	
+	/**
+	 * Token of the dispatch which claimed the event, held until its next attempt date, or null when the event was
+	 * 		never claimed or was released.
+	 */
+	@Column(length = 36)
+	private String claimToken;
+	
+	/**
+	 * Constructor.
+	 */
+	public OrderOutboxEvent() {
+	}
+	
+	/**
+	 * Get id of event.
+	 * 
+	 * @return Id of event.
+	 */
+	public Long getId() {
+		return id;
+	}
+	
+	/**
+	 * Set id of event.
+	 * 
+	 * @param id Id of event.
+	 */
+	public void setId(Long id) {
+		this.id = id;
+	}
+	
+	/**
+	 * Get type of event.
+	 * 
+	 * @return Type of event.
+	 */
+	public Character getType() {
+		return type;
+	}
+	
+	/**
+	 * Set type of event.
+	 * 
+	 * @param type Type of event.
+	 */
+	public void setType(Character type) {
+		this.type = type;
+	}
+	
+	/**
+	 * Get status of event.
+	 * 
+	 * @return Status of event.
+	 */
+	public Character getStatus() {
+		return status;
+	}
+	
+	/**
+	 * Set status of event.
+	 * 
+	 * @param status Status of event.
+	 */
+	public void setStatus(Character status) {
+		this.status = status;
+	}
+	
+	/**
+	 * Get order serialized as JSON.
+	 * 
+	 * @return Order serialized as JSON.
+	 */
+	public String getPayload() {
+		return payload;
+	}
+	
+	/**
+	 * Set order serialized as JSON.
+	 * 
+	 * @param payload Order serialized as JSON.
+	 */
+	public void setPayload(String payload) {
+		this.payload = payload;
+	}
+	
+	/**
+	 * Get date of creation.
+	 * 
+	 * @return Date of creation.
+	 */
+	public Date getCreationDate() {
+		return creationDate;
+	}
+	
+	/**
+	 * Set date of creation.
+	 * 
+	 * @param creationDate Date of creation.
+	 */
+	public void setCreationDate(Date creationDate) {
+		this.creationDate = creationDate;
+	}
+	
+	/**
+	 * Get date of next dispatch attempt.
+	 * 
+	 * @return Date of next dispatch attempt.
+	 */
+	public Date getNextAttemptDate() {
+		return nextAttemptDate;
+	}
+	
+	/**
+	 * Set date of next dispatch attempt.
+	 * 
+	 * @param nextAttemptDate Date of next dispatch attempt.
+	 */
+	public void setNextAttemptDate(Date nextAttemptDate) {
+		this.nextAttemptDate = nextAttemptDate;
+	}
+	
+	/**
+	 * Get quantity of failed dispatch attempts.
+	 * 
+	 * @return Quantity of failed dispatch attempts.
+	 */
+	public Integer getAttemptQuantity() {
+		return attemptQuantity;
+	}
+	
+	/**
+	 * Set quantity of failed dispatch attempts.
+	 * 
+	 * @param attemptQuantity Quantity of failed dispatch attempts.
+	 */
+	public void setAttemptQuantity(Integer attemptQuantity) {
+		this.attemptQuantity = attemptQuantity;
+	}
+	
+	/**
+	 * Get token of the dispatch which claimed the event.
+	 * 
+	 * @return Token of the dispatch which claimed the event.
+	 */
+	public String getClaimToken() {
+		return claimToken;
+	}
+	
+	/**
+	 * Set token of the dispatch which claimed the event.
+	 * 
+	 * @param claimToken Token of the dispatch which claimed the event.
+	 */
+	public void setClaimToken(String claimToken) {
+		this.claimToken = claimToken;
+	}
+}
\ No newline at end of file
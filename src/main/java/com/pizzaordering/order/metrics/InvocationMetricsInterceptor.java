@@ -0,0 +1,172 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Interceptor timing every invocation of a bean with a percentile histogram by method and outcome, and gauging
+ * 		invocations in flight. Meters are registered on the first invocation, once the registry is available.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class InvocationMetricsInterceptor implements MethodInterceptor {
+	
+	/**
+	 * Index of the timer of successful invocations.
+	 */
+	private static final int SUCCESS = 0;
+	
+	/**
+	 * Index of the timer of failed invocations.
+	 */
+	private static final int ERROR = 1;
+	
+	/**
+	 * Provider of the meter registry.
+	 */
+	private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+	
+	/**
+	 * Prefix of the names of meters.
+	 */
+	private final String name;
+	
+	/**
+	 * Tags of every meter.
+	 */
+	private final Tags tags;
+	
+	/**
+	 * Quantity of invocations in flight.
+	 */
+	private final AtomicInteger activeCount = new AtomicInteger();
+	
+	/**
+	 * Timers of successful and failed invocations, by method.
+	 */
+	private final Map<Method, Timer[]> timerMap = new ConcurrentHashMap<Method, Timer[]>();
+	
+	/**
+	 * Meter registry, resolved on the first invocation.
+	 */
+	private volatile MeterRegistry meterRegistry;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param meterRegistryProvider Provider of the meter registry.
+	 * @param name Prefix of the names of meters.
+	 * @param tags Tags of every meter.
+	 */
+	public InvocationMetricsInterceptor(ObjectProvider<MeterRegistry> meterRegistryProvider, String name, Tags tags) {
+		this.meterRegistryProvider = meterRegistryProvider;
+		this.name = name;
+		this.tags = tags;
+	}
+	
+	/*
+	 * > Proceed untimed for methods of Object or when there is no registry.
+	 * > Time the invocation on the timer of its method and outcome, counting it as in flight meanwhile.
+	 */
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		MeterRegistry currentMeterRegistry = getMeterRegistry();
+		Timer[] timers = null;
+		Object result = null;
+		long startNanos = 0L;
+		
+		if (currentMeterRegistry == null || invocation.getMethod().getDeclaringClass() == Object.class) {
+			return invocation.proceed();
+		}
+		
+		timers = timerMap.computeIfAbsent(invocation.getMethod(), method -> new Timer[] {
+				newTimer(currentMeterRegistry, method, "success"), newTimer(currentMeterRegistry, method, "error")});
+		
+		activeCount.incrementAndGet();
+		startNanos = System.nanoTime();
+		
+		try {
+			result = invocation.proceed();
+			
+			timers[SUCCESS].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+			
+			return result;
+		} catch (Throwable e) {
+			timers[ERROR].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+			
+			throw e;
+		} finally {
+			activeCount.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Get the meter registry, registering the gauge of invocations in flight once it is resolved.
+	 * 
+	 * @return Meter registry, or null when there is none.
+	 */
+	private MeterRegistry getMeterRegistry() {
+		MeterRegistry currentMeterRegistry = meterRegistry;
+		
+		if (currentMeterRegistry == null) {
+			synchronized (this) {
+				if (meterRegistry == null) {
+					meterRegistry = meterRegistryProvider.getIfAvailable();
+					
+					if (meterRegistry != null) {
+						Gauge.builder(name + ".active", activeCount, AtomicInteger::get)
+								.tags(tags)
+								.description("Invocations in flight")
+								.register(meterRegistry);
+					}
+				}
+				
+				currentMeterRegistry = meterRegistry;
+			}
+		}
+		
+		return currentMeterRegistry;
+	}
+	
+	/**
+	 * Build the timer of a method and outcome.
+	 * 
+	 * @param meterRegistry Meter registry.
+	 * @param method Method invoked.
+	 * @param outcome Outcome of invocations, success or error.
+	 * @return Timer registered.
+	 */
+	private Timer newTimer(MeterRegistry meterRegistry, Method method, String outcome) {
+		return Timer.builder(name + ".invocations")
+				.tags(tags)
+				.tag("method", method.getName())
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+}
\ No newline at end of file
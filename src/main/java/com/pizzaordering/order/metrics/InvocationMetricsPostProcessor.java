@@ -0,0 +1,85 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.metrics;
+
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import com.pizzaordering.order.service.IngredientClientService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Post processor timing invocations of repositories, tagged by bean name, and of ingredient client service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Component
+public class InvocationMetricsPostProcessor implements BeanPostProcessor {
+	
+	/**
+	 * Prefix of the names of meters of repositories.
+	 */
+	public static final String NAME_REPOSITORY = "order.repository";
+	
+	/**
+	 * Prefix of the names of meters of ingredient client service layer.
+	 */
+	public static final String NAME_INGREDIENT_CLIENT = "order.ingredient.client";
+	
+	/**
+	 * Provider of the meter registry, resolved lazily so the registry is not created as early as this processor.
+	 */
+	private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param meterRegistryProvider Provider of the meter registry.
+	 */
+	public InvocationMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+		this.meterRegistryProvider = meterRegistryProvider;
+	}
+	
+	/*
+	 * > Add the interceptor first on the proxy of a repository, so it times the whole invocation.
+	 * > Wrap ingredient client service layer on a proxy with the interceptor.
+	 */
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		ProxyFactory proxyFactory = null;
+		
+		if (bean instanceof Repository && bean instanceof Advised) {
+			((Advised) bean).addAdvice(0, new InvocationMetricsInterceptor(meterRegistryProvider, NAME_REPOSITORY,
+					Tags.of("repository", beanName)));
+			
+			return bean;
+		}
+		
+		if (bean instanceof IngredientClientService) {
+			proxyFactory = new ProxyFactory(bean);
+			proxyFactory.addAdvice(new InvocationMetricsInterceptor(meterRegistryProvider, NAME_INGREDIENT_CLIENT,
+					Tags.empty()));
+			
+			return proxyFactory.getProxy();
+		}
+		
+		return bean;
+	}
+}
\ No newline at end of file
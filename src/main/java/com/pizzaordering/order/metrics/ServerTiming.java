@@ -0,0 +1,185 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Timings of the phases of the request handled by the current thread, sent back on the Server-Timing header.
+ * 		Recording is a no-op outside of a request, so services record phases unconditionally.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public final class ServerTiming {
+	
+	/**
+	 * Name of the response header.
+	 */
+	public static final String HEADER_SERVER_TIMING = "Server-Timing";
+	
+	/**
+	 * Name of the phase of the whole request handled so far.
+	 */
+	public static final String PHASE_APP = "app";
+	
+	/**
+	 * Timings of the request handled by the current thread.
+	 */
+	private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<ServerTiming>();
+	
+	/**
+	 * Time the request started, in nanoseconds.
+	 */
+	private final long startNanos;
+	
+	/**
+	 * Duration of every phase, summed when a phase is recorded more than once, in nanoseconds.
+	 */
+	private final Map<String, Long> phaseNanosMap = new LinkedHashMap<String, Long>();
+	
+	/**
+	 * Constructor.
+	 */
+	private ServerTiming() {
+		startNanos = System.nanoTime();
+	}
+	
+	/**
+	 * Start timing the request handled by the current thread.
+	 * 
+	 * @return Timings of the request.
+	 */
+	public static ServerTiming start() {
+		ServerTiming serverTiming = new ServerTiming();
+		
+		CURRENT.set(serverTiming);
+		
+		return serverTiming;
+	}
+	
+	/**
+	 * Stop timing the request handled by the current thread.
+	 */
+	public static void stop() {
+		CURRENT.remove();
+	}
+	
+	/**
+	 * Get timings of the request handled by the current thread.
+	 * 
+	 * @return Timings of the request, or null outside of a request.
+	 */
+	public static ServerTiming current() {
+		return CURRENT.get();
+	}
+	
+	/**
+	 * Record a phase of the request handled by the current thread, from its start until now.
+	 * 
+	 * @param phase Name of the phase.
+	 * @param phaseStartNanos Time the phase started, in nanoseconds.
+	 */
+	public static void record(String phase, long phaseStartNanos) {
+		ServerTiming serverTiming = CURRENT.get();
+		
+		if (serverTiming != null) {
+			serverTiming.phaseNanosMap.merge(phase, System.nanoTime() - phaseStartNanos, Long::sum);
+		}
+	}
+	
+	/**
+	 * Record the commit of the current transaction as a phase of the request handled by the current thread, from
+	 * 		before commit, where pending insertions are flushed, until completion.
+	 * 
+	 * @param phase Name of the phase.
+	 */
+	public static void recordCommit(String phase) {
+		ServerTiming serverTiming = CURRENT.get();
+		
+		if (serverTiming == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			
+			/**
+			 * Time the commit started, in nanoseconds.
+			 */
+			private long commitStartNanos;
+			
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				commitStartNanos = System.nanoTime();
+			}
+			
+			@Override
+			public void afterCompletion(int status) {
+				if (commitStartNanos != 0L) {
+					serverTiming.phaseNanosMap.merge(phase, System.nanoTime() - commitStartNanos, Long::sum);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Get time elapsed since the request started.
+	 * 
+	 * @return Time elapsed, in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return System.nanoTime() - startNanos;
+	}
+	
+	/**
+	 * Get duration of every phase recorded.
+	 * 
+	 * @return Map of durations in nanoseconds, using name of the phase as key.
+	 */
+	public Map<String, Long> getPhaseNanosMap() {
+		return phaseNanosMap;
+	}
+	
+	/**
+	 * Format timings as the value of the Server-Timing header, in milliseconds, ending with the whole request
+	 * 		handled so far.
+	 * 
+	 * @return Value of the header, such as "price;dur=1.20, commit;dur=0.35, app;dur=2.10".
+	 */
+	public String toHeaderValue() {
+		StringBuilder headerValue = new StringBuilder(128);
+		
+		for (Map.Entry<String, Long> entry : phaseNanosMap.entrySet()) {
+			appendMetric(headerValue, entry.getKey(), entry.getValue()).append(", ");
+		}
+		
+		return appendMetric(headerValue, PHASE_APP, getElapsedNanos()).toString();
+	}
+	
+	/**
+	 * Append a metric of the Server-Timing header.
+	 * 
+	 * @param headerValue Value of the header being built.
+	 * @param phase Name of the phase.
+	 * @param nanos Duration, in nanoseconds.
+	 * @return Value of the header being built.
+	 */
+	private static StringBuilder appendMetric(StringBuilder headerValue, String phase, long nanos) {
+		return headerValue.append(phase).append(";dur=").append(String.format(Locale.ROOT, "%.2f", nanos / 1e6));
+	}
+}
\ No newline at end of file
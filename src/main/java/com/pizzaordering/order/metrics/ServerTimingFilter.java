@@ -0,0 +1,136 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Filter timing every request. Phases recorded by services are sent on the Server-Timing header, set by
+ * 		{@link ServerTimingResponseBodyAdvice} before a body is written or here when there is no body, and requests
+ * 		slower than the threshold are logged as a single line of key value pairs. Asynchronous requests are logged
+ * 		once completed, without the header, since their phases run on other threads.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+	
+	/**
+	 * Logger of slow requests.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ServerTimingFilter.class);
+	
+	/**
+	 * Minimum duration of a request to be logged, in nanoseconds, negative to log none.
+	 */
+	private final long logThresholdNanos;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param logThresholdMillis Minimum duration of a request to be logged, in milliseconds, negative to log none.
+	 */
+	public ServerTimingFilter(@Value("${order.server-timing.log-threshold-millis:-1}") long logThresholdMillis) {
+		logThresholdNanos = logThresholdMillis < 0 ? -1L : logThresholdMillis * 1000000L;
+	}
+	
+	/*
+	 * > Start timing the request.
+	 * > Set the header once the request is handled, unless a body was already written or the request went
+	 * 		asynchronous.
+	 * > Log the request when slower than the threshold, once completed when asynchronous.
+	 */
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		ServerTiming serverTiming = ServerTiming.start();
+		boolean asyncStarted = false;
+		
+		try {
+			filterChain.doFilter(request, response);
+			
+			asyncStarted = isAsyncStarted(request);
+			
+			if (!asyncStarted && !response.isCommitted()
+					&& !response.containsHeader(ServerTiming.HEADER_SERVER_TIMING)) {
+				response.setHeader(ServerTiming.HEADER_SERVER_TIMING, serverTiming.toHeaderValue());
+			}
+		} finally {
+			ServerTiming.stop();
+			
+			if (!asyncStarted) {
+				logSlowRequest(request, response, serverTiming);
+			} else if (logThresholdNanos >= 0) {
+				request.getAsyncContext().addListener(new AsyncListener() {
+					@Override
+					public void onComplete(AsyncEvent event) {
+						logSlowRequest(request, response, serverTiming);
+					}
+					
+					@Override
+					public void onTimeout(AsyncEvent event) {
+					}
+					
+					@Override
+					public void onError(AsyncEvent event) {
+					}
+					
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+					}
+				});
+			}
+		}
+	}
+	
+	/**
+	 * Log a request as a single line of key value pairs when slower than the threshold.
+	 * 
+	 * @param request HTTP request.
+	 * @param response HTTP response.
+	 * @param serverTiming Timings of the request.
+	 */
+	private void logSlowRequest(HttpServletRequest request, HttpServletResponse response, ServerTiming serverTiming) {
+		long elapsedNanos = serverTiming.getElapsedNanos();
+		StringBuilder event = null;
+		
+		if (logThresholdNanos >= 0 && elapsedNanos >= logThresholdNanos) {
+			event = new StringBuilder(256)
+					.append("event=slow_request method=").append(request.getMethod())
+					.append(" uri=").append(request.getRequestURI())
+					.append(" status=").append(response.getStatus())
+					.append(" ").append(ServerTiming.PHASE_APP).append("_ms=").append(elapsedNanos / 1000000L);
+			
+			for (Map.Entry<String, Long> entry : serverTiming.getPhaseNanosMap().entrySet()) {
+				event.append(" ").append(entry.getKey()).append("_ms=").append(entry.getValue() / 1000000L);
+			}
+			
+			LOGGER.warn(event.toString());
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.metrics;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Advice setting the Server-Timing header right before a response body is written, when headers can still be set.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@ControllerAdvice
+public class ServerTimingResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+	
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+	
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		ServerTiming serverTiming = ServerTiming.current();
+		
+		if (serverTiming != null) {
+			response.getHeaders().set(ServerTiming.HEADER_SERVER_TIMING, serverTiming.toHeaderValue());
+		}
+		
+		return body;
+	}
+}
\ No newline at end of file
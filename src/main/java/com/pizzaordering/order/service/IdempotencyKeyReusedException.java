@@ -0,0 +1,41 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception of an idempotency key already used by a request with a different body, answered with
+ * 		422 Unprocessable Entity.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends RuntimeException {
+	
+	/**
+	 * Serial version UID for serialization.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param idempotencyKey Idempotency key reused.
+	 */
+	public IdempotencyKeyReusedException(String idempotencyKey) {
+		super("Idempotency key already used by a different request: " + idempotencyKey);
+	}
+}
\ No newline at end of file
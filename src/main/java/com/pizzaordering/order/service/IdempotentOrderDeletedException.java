@@ -0,0 +1,41 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception of a request retried with an idempotency key whose order was deleted since the first request,
+ * 		answered with 410 Gone.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@ResponseStatus(HttpStatus.GONE)
+public class IdempotentOrderDeletedException extends RuntimeException {
+	
+	/**
+	 * Serial version UID for serialization.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param idempotencyKey Idempotency key of the request.
+	 * @param orderId Id of the order added by the first request.
+	 */
+	public IdempotentOrderDeletedException(String idempotencyKey, Long orderId) {
+		super("Order " + orderId + " added with idempotency key " + idempotencyKey + " was deleted");
+	}
+}
\ No newline at end of file
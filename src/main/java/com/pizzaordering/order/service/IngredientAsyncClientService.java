@@ -0,0 +1,55 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Interface of asynchronous ingredient client service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface IngredientAsyncClientService {
+	
+	/**
+	 * Operation for calculating the price of an order with customized ingredients consuming ingredient
+	 * 		resource via HTTP REST without blocking the calling thread.
+	 * 
+	 * @param order Order with customized ingredients to be calculated.
+	 * @return Future of the price of the order with customized ingredients.
+	 */
+	public CompletableFuture<BigDecimal> calculateOrderPrice(Order order);
+	
+	/**
+	 * Operation for calculating the prices of a list of orders with customized ingredients in a single call
+	 * 		consuming ingredient resource via HTTP REST without blocking the calling thread.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be calculated.
+	 * @return Future of the list of prices in the same order of the list of orders.
+	 */
+	public CompletableFuture<List<BigDecimal>> calculateOrderPriceList(List<Order> orderList);
+	
+	/**
+	 * Operation for reversing ingredients from inventory of a canceled order with customized ingredients
+	 * 		consuming ingredient resource via HTTP REST without blocking the calling thread.
+	 * 
+	 * @param order Order with customized ingredients to be reversed.
+	 * @return Future completed when ingredients are reversed.
+	 */
+	public CompletableFuture<Void> reverseOrderIngredients(Order order);
+}
\ No newline at end of file
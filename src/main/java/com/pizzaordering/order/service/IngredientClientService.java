@@ -13,6 +13,7 @@
 package com.pizzaordering.order.service;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import com.pizzaordering.order.entity.Order;
 
@@ -24,6 +25,11 @@ import com.pizzaordering.order.entity.Order;
  */
 public interface IngredientClientService {
 	
+	/**
+	 * Content type of Smile, the binary encoding of the Jackson data model, accepted before JSON.
+	 */
+	public static final String CONTENT_TYPE_SMILE = "application/x-jackson-smile";
+	
 	/**
 	 * Operation for calculating the price of an order with customized ingredients consuming ingredient
 	 * 		resource via HTTP REST.
@@ -33,6 +39,15 @@ public interface IngredientClientService {
 	 */
 	public BigDecimal calculateOrderPrice(Order order);
 	
+	/**
+	 * Operation for calculating the prices of a list of orders with customized ingredients in a single call
+	 * 		consuming ingredient resource via HTTP REST.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be calculated.
+	 * @return List of prices in the same order of the list of orders.
+	 */
+	public List<BigDecimal> calculateOrderPriceList(List<Order> orderList);
+	
 	/**
 	 * Operation for reversing ingredients from inventory of a canceled order with customized ingredients
 	 * 		consuming ingredient resource via HTTP REST.
@@ -40,4 +55,12 @@ public interface IngredientClientService {
 	 * @param order Order with customized ingredients to be reversed.
 	 */
 	public void reverseOrderIngredients(Order order);
+	
+	/**
+	 * Operation for reversing ingredients from inventory of a list of canceled orders with customized ingredients
+	 * 		in a single call consuming ingredient resource via HTTP REST.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be reversed.
+	 */
+	public void reverseOrderIngredientsList(List<Order> orderList);
 }
\ No newline at end of file
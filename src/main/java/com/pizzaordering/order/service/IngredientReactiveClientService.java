@@ -0,0 +1,56 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.pizzaordering.order.entity.Order;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Interface of reactive ingredient client service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface IngredientReactiveClientService {
+	
+	/**
+	 * Operation for calculating the price of an order with customized ingredients consuming ingredient
+	 * 		resource via HTTP REST without blocking, once subscribed.
+	 * 
+	 * @param order Order with customized ingredients to be calculated.
+	 * @return Price of the order with customized ingredients.
+	 */
+	public Mono<BigDecimal> calculateOrderPrice(Order order);
+	
+	/**
+	 * Operation for calculating the prices of a list of orders with customized ingredients in a single call
+	 * 		consuming ingredient resource via HTTP REST without blocking, once subscribed.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be calculated.
+	 * @return List of prices in the same order of the list of orders.
+	 */
+	public Mono<List<BigDecimal>> calculateOrderPriceList(List<Order> orderList);
+	
+	/**
+	 * Operation for reversing ingredients from inventory of a canceled order with customized ingredients
+	 * 		consuming ingredient resource via HTTP REST without blocking, once subscribed.
+	 * 
+	 * @param order Order with customized ingredients to be reversed.
+	 * @return Completion when ingredients are reversed.
+	 */
+	public Mono<Void> reverseOrderIngredients(Order order);
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception of an asynchronous order operation rejected because the queue of its pool of threads is full, or of
+ * 		an order price rejected because the queue of price batches is full, answered with 503 Service Unavailable.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OrderAsyncRejectedException extends RuntimeException {
+	
+	/**
+	 * Serial version UID for serialization.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param poolName Name of the pool of threads, or of the queue, which is full.
+	 */
+	public OrderAsyncRejectedException(String poolName) {
+		super("Queue of " + poolName + " is full");
+	}
+}
\ No newline at end of file
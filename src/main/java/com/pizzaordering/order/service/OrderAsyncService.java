@@ -0,0 +1,65 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Interface of asynchronous order service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderAsyncService {
+	
+	/**
+	 * Operation for adding an order with customized ingredients without blocking the calling thread, pricing and
+	 * 		saving it on bounded pools of threads of their own.
+	 * 
+	 * @param order Order with customized ingredients to be added on database.
+	 * @return Future of the order with customized ingredients added on database.
+	 * @throws OrderAsyncRejectedException When the queue of pricing is full.
+	 */
+	public CompletableFuture<Order> addOrder(Order order);
+	
+	/**
+	 * Operation for adding an order with customized ingredients once per idempotency key without blocking the
+	 * 		calling thread, pricing and saving it on bounded pools of threads of their own.
+	 * 
+	 * @param idempotencyKey Idempotency key, unique per order submission.
+	 * @param order Order with customized ingredients to be added on database.
+	 * @return Future of the order with customized ingredients added on database by the first request of the key.
+	 * @throws OrderAsyncRejectedException When the queue of pricing is full.
+	 */
+	public CompletableFuture<Order> addOrder(String idempotencyKey, Order order);
+	
+	/**
+	 * Operation for deleting an order with customized ingredients without blocking the calling thread, on the
+	 * 		bounded pool of threads of persistence.
+	 * 
+	 * @param id Id of order with customized ingredients to be deleted from database.
+	 * @return Future completed when the order is deleted.
+	 * @throws OrderAsyncRejectedException When the queue of persistence is full.
+	 */
+	public CompletableFuture<Void> deleteOrder(Long id);
+	
+	/**
+	 * Operation for getting the statistics of the pools of threads.
+	 * 
+	 * @return Map of statistics, using statistic name as key.
+	 */
+	public Map<String, Number> getStatistics();
+}
\ No newline at end of file
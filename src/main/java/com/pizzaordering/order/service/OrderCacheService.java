@@ -0,0 +1,61 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import java.util.Map;
+
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Interface of order cache service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderCacheService {
+	
+	/**
+	 * Operation for getting an order with customized ingredients from cache, loading it from database when it
+	 * 		is not cached yet.
+	 * 
+	 * @param id Id of order with customized ingredients.
+	 * @return Order with customized ingredients.
+	 */
+	public Order getOrder(Long id);
+	
+	/**
+	 * Operation for caching an order with customized ingredients once the current transaction commits.
+	 * 
+	 * @param order Order with customized ingredients added on database.
+	 */
+	public void putOrder(Order order);
+	
+	/**
+	 * Operation for discarding a cached order, now and once the current transaction commits.
+	 * 
+	 * @param id Id of order with customized ingredients.
+	 */
+	public void invalidateOrder(Long id);
+	
+	/**
+	 * Operation for discarding every cached order.
+	 */
+	public void invalidateAll();
+	
+	/**
+	 * Operation for getting the statistics of the cache.
+	 * 
+	 * @return Map of statistics, using statistic name as key.
+	 */
+	public Map<String, Number> getStatistics();
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.service;
+
+import java.util.Map;
+
+/**
+ * Interface of order concurrency limit service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderConcurrencyLimitService {
+	
+	/**
+	 * Operation for admitting a request, unless the requests in flight already reach the limit. Writes are limited
+	 * 		to a share of the limit, so the rest is kept for reads.
+	 * 
+	 * @param write Whether the request writes orders.
+	 * @return Whether the request is admitted, to be released once it ends.
+	 */
+	public boolean tryAcquire(boolean write);
+	
+	/**
+	 * Operation for releasing an admitted request, adapting the limit to the latency observed, which is compared
+	 * 		with the latency of requests of the same priority only.
+	 * 
+	 * @param write Whether the request writes orders, as when admitted.
+	 * @param latencyNanos Latency of the request, in nanoseconds.
+	 */
+	public void release(boolean write, long latencyNanos);
+	
+	/**
+	 * Operation for releasing an admitted request whose latency says nothing about queueing, as it depends on its
+	 * 		size, leaving the limit as is.
+	 */
+	public void release();
+	
+	/**
+	 * Operation for getting the statistics of the limit.
+	 * 
+	 * @return Map of statistics, using statistic name as key.
+	 */
+	public Map<String, Number> getStatistics();
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Interface of order idempotency service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderIdempotencyService {
+	
+	/**
+	 * Operation for adding an order with customized ingredients once per idempotency key. A retry with the same
+	 * 		key and body returns the order added by the first request, without pricing or saving it again.
+	 * 
+	 * @param idempotencyKey Idempotency key sent by the client.
+	 * @param order Order with customized ingredients to be inserted on database.
+	 * @return Order with customized ingredients inserted on database by the first request with the key.
+	 * @throws IdempotencyKeyReusedException When the key was used by a request with a different body.
+	 * @throws IdempotentOrderDeletedException When the order added with the key was deleted since.
+	 */
+	public Order addOrder(String idempotencyKey, Order order);
+	
+	/**
+	 * Operation for deleting expired keys from database.
+	 * 
+	 * @return Quantity of keys deleted.
+	 */
+	public int purgeExpired();
+}
\ No newline at end of file
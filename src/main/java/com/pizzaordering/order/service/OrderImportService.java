@@ -0,0 +1,49 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.pizzaordering.order.dto.OrderImportResult;
+
+/**
+ * Interface of order import service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderImportService {
+	
+	/**
+	 * Format of newline delimited JSON, one order with customized ingredients per line.
+	 */
+	public static final String FORMAT_NDJSON = "ndjson";
+	
+	/**
+	 * Format of CSV with header, one order customization per line and consecutive lines of the same order id
+	 * 		grouped in one order.
+	 */
+	public static final String FORMAT_CSV = "csv";
+	
+	/**
+	 * Operation for importing historical orders with customized ingredients in bulk, parsed incrementally from
+	 * 		a stream and inserted in chunks, each in its own transaction.
+	 * 
+	 * @param inputStream Stream of orders, not closed by the import.
+	 * @param format Format of the stream, ndjson or csv.
+	 * @return Summary of the import.
+	 * @throws IOException When the stream cannot be read or parsed.
+	 */
+	public OrderImportResult importOrders(InputStream inputStream, String format) throws IOException;
+}
\ No newline at end of file
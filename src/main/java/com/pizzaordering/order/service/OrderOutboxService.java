@@ -0,0 +1,47 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import java.util.Map;
+
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Interface of order outbox service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderOutboxService {
+	
+	/**
+	 * Operation for adding an event to reverse ingredients of an order, in the transaction of the caller.
+	 * 
+	 * @param order Order with customized ingredients to be reversed.
+	 */
+	public void addReverseOrderIngredientsEvent(Order order);
+	
+	/**
+	 * Operation for dispatching a batch of pending events of every shard to ingredient resource.
+	 * 
+	 * @return Quantity of events dispatched.
+	 */
+	public int dispatch();
+	
+	/**
+	 * Operation for getting the statistics of the outbox.
+	 * 
+	 * @return Map of statistics, using statistic name as key.
+	 */
+	public Map<String, Number> getStatistics();
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Interface of order price batch service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderPriceBatchService {
+	
+	/**
+	 * Operation for calculating the price of an order with customized ingredients together with the orders of
+	 * 		concurrent callers, in a single call to calculate order price list through ingredient client service.
+	 * 
+	 * @param order Order with customized ingredients to be calculated.
+	 * @return Price of the order with customized ingredients.
+	 */
+	public BigDecimal calculateOrderPrice(Order order);
+	
+	/**
+	 * Operation for getting the statistics of batches, with histograms of batch size and of time waited before
+	 * 		the batch is sent.
+	 * 
+	 * @return Map of statistics, using statistic name as key.
+	 */
+	public Map<String, Number> getStatistics();
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Interface of order price cache service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderPriceCacheService {
+	
+	/**
+	 * Operation for getting the price of an order with customized ingredients from cache, calculating it
+	 * 		through ingredient client service when it is not cached yet.
+	 * 
+	 * @param order Order with customized ingredients to be calculated.
+	 * @return Price of the order with customized ingredients.
+	 */
+	public BigDecimal calculateOrderPrice(Order order);
+	
+	/**
+	 * Operation for getting the prices of a list of orders with customized ingredients from cache, calculating
+	 * 		the ones not cached yet in a single call through ingredient client service.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be calculated.
+	 * @return List of prices in the same order of the list of orders.
+	 */
+	public List<BigDecimal> calculateOrderPriceList(List<Order> orderList);
+	
+	/**
+	 * Operation for getting the price of an order with customized ingredients from cache, without calculating it,
+	 * 		so callers pricing without blocking make the call of their own on a miss.
+	 * 
+	 * @param order Order with customized ingredients.
+	 * @return Price of the order with customized ingredients, or null when it is not known locally.
+	 */
+	public BigDecimal getOrderPrice(Order order);
+	
+	/**
+	 * Operation for caching the price of an order with customized ingredients calculated by the caller.
+	 * 
+	 * @param order Order with customized ingredients.
+	 * @param price Price of the order with customized ingredients.
+	 */
+	public void putOrderPrice(Order order, BigDecimal price);
+	
+	/**
+	 * Operation for invalidating every cached price, used when ingredient prices change.
+	 */
+	public void invalidateAll();
+	
+	/**
+	 * Operation for getting the statistics of the cache.
+	 * 
+	 * @return Map of statistics, using statistic name as key.
+	 */
+	public Map<String, Number> getStatistics();
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Interface of order price single flight service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderPriceSingleFlightService {
+	
+	/**
+	 * Operation for calculating the price of an order with customized ingredients through ingredient client
+	 * 		service, sharing the call already in flight for an order with the same price signature, if any.
+	 * 
+	 * @param order Order with customized ingredients to be calculated.
+	 * @return Price of the order with customized ingredients.
+	 */
+	public BigDecimal calculateOrderPrice(Order order);
+	
+	/**
+	 * Operation for getting the statistics of calls made and collapsed.
+	 * 
+	 * @return Map of statistics, using statistic name as key.
+	 */
+	public Map<String, Number> getStatistics();
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.pizzaordering.order.dto.OrderPage;
+import com.pizzaordering.order.entity.Order;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Interface of reactive order service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderReactiveService {
+	
+	/**
+	 * Operation for getting the price of an order with customized ingredients locally, or calculating it
+	 * 		consuming ingredient resource without blocking.
+	 * 
+	 * @param order Order with customized ingredients to be calculated.
+	 * @return Price of the order with customized ingredients.
+	 */
+	public Mono<BigDecimal> calculateOrderPrice(Order order);
+	
+	/**
+	 * Operation for getting the prices of a list of orders with customized ingredients locally, calculating the
+	 * 		ones not known in a single call consuming ingredient resource without blocking.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be calculated.
+	 * @return List of prices in the same order of the list of orders.
+	 */
+	public Mono<List<BigDecimal>> calculateOrderPriceList(List<Order> orderList);
+	
+	/**
+	 * Operation for adding an order with customized ingredients.
+	 * 
+	 * @param order Order with customized ingredients to be added on database.
+	 * @return Order with customized ingredients added on database.
+	 */
+	public Mono<Order> addOrder(Order order);
+	
+	/**
+	 * Operation for adding an order with customized ingredients once per idempotency key.
+	 * 
+	 * @param idempotencyKey Idempotency key, unique per order submission.
+	 * @param order Order with customized ingredients to be added on database.
+	 * @return Order with customized ingredients added on database by the first request of the key.
+	 */
+	public Mono<Order> addOrder(String idempotencyKey, Order order);
+	
+	/**
+	 * Operation for adding a list of orders with customized ingredients at once.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be added on database.
+	 * @return List of orders with customized ingredients added on database.
+	 */
+	public Mono<List<Order>> addOrderList(List<Order> orderList);
+	
+	/**
+	 * Operation for getting an order with customized ingredients.
+	 * 
+	 * @param id Id of order with customized ingredients to be gotten from database.
+	 * @return Order with customized ingredients gotten from database.
+	 */
+	public Mono<Order> getOrder(Long id);
+	
+	/**
+	 * Operation for getting a page of orders with customized ingredients sorted by id.
+	 * 
+	 * @param after Id after which the page starts.
+	 * @param limit Maximum quantity of orders on the page.
+	 * @return Page of orders with customized ingredients and cursor of the next page.
+	 */
+	public Mono<OrderPage> getOrderPage(Long after, int limit);
+	
+	/**
+	 * Operation for exporting every order with customized ingredients as lines of newline delimited JSON, read
+	 * 		from database in chunks only as fast as they are requested.
+	 * 
+	 * @return Lines of JSON, one order per line.
+	 */
+	public Flux<String> exportOrders();
+	
+	/**
+	 * Operation for deleting an order with customized ingredients.
+	 * 
+	 * @param id Id of order with customized ingredients to be deleted from database.
+	 * @return Completion when the order is deleted.
+	 */
+	public Mono<Void> deleteOrder(Long id);
+}
\ No newline at end of file
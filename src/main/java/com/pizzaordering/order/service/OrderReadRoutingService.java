@@ -0,0 +1,67 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.service;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Interface of order read routing service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderReadRoutingService {
+	
+	/**
+	 * Operation for running a read in a read-only transaction on a read replica, or on the primary database when
+	 * 		there is no replica. Reads joining a running transaction use its connection.
+	 * 
+	 * @param read Read to be run.
+	 * @return Result of the read.
+	 */
+	public <T> T readFromReplica(Supplier<T> read);
+	
+	/**
+	 * Operation for running a read in a read-only transaction on the primary database.
+	 * 
+	 * @param read Read to be run.
+	 * @return Result of the read.
+	 */
+	public <T> T readFromPrimary(Supplier<T> read);
+	
+	/**
+	 * Operation for recording that an order was added or deleted on the primary database, so it is read from the
+	 * 		primary database for a short window from its commit, until replicas are expected to have caught up. The
+	 * 		client of the request being handled, if any, is handed the end of the window too, so other nodes honor it.
+	 * 
+	 * @param id Id of order.
+	 */
+	public void recordWrite(Long id);
+	
+	/**
+	 * Operation for checking whether any order in a range of ids was written within the window, or the client of
+	 * 		the request being handled wrote within the window, so a read of the range on a replica may miss it.
+	 * 
+	 * @param afterId Id of order before the range.
+	 * @param untilId Id of last order of the range, or null for no upper bound.
+	 * @return Whether any order of the range was written within the window.
+	 */
+	public boolean isWrittenRecently(Long afterId, Long untilId);
+	
+	/**
+	 * Operation for getting the statistics of read routing and of the pool of every database.
+	 * 
+	 * @return Map of statistics, using statistic name as key.
+	 */
+	public Map<String, Number> getStatistics();
+}
\ No newline at end of file
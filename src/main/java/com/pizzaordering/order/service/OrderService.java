@@ -12,6 +12,11 @@
 
 package com.pizzaordering.order.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.pizzaordering.order.dto.OrderPage;
 import com.pizzaordering.order.entity.Order;
 
 /**
@@ -30,6 +35,22 @@ public interface OrderService {
 	 */
 	public Order addOrder(Order order);
 	
+	/**
+	 * Operation for adding an order with customized ingredients already priced.
+	 * 
+	 * @param order Order with customized ingredients and price to be added on database.
+	 * @return Order with customized ingredients added on database.
+	 */
+	public Order addPricedOrder(Order order);
+	
+	/**
+	 * Operation for adding a list of orders with customized ingredients at once.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be added on database.
+	 * @return List of orders with customized ingredients added on database.
+	 */
+	public List<Order> addOrderList(List<Order> orderList);
+	
 	/**
 	 * Operation for getting an order with customized ingredients.
 	 * 
@@ -38,6 +59,24 @@ public interface OrderService {
 	 */
 	public Order getOrder(Long id);
 	
+	/**
+	 * Operation for getting a page of orders with customized ingredients sorted by id.
+	 * 
+	 * @param after Id after which the page starts.
+	 * @param limit Maximum quantity of orders on the page.
+	 * @return Page of orders with customized ingredients and cursor of the next page.
+	 */
+	public OrderPage getOrderPage(Long after, int limit);
+	
+	/**
+	 * Operation for exporting every order with customized ingredients as newline delimited JSON, one order per
+	 * 		line, streamed from database with constant memory.
+	 * 
+	 * @param outputStream Output stream to write orders to.
+	 * @throws IOException When orders cannot be written to the output stream.
+	 */
+	public void exportOrders(OutputStream outputStream) throws IOException;
+	
 	/**
 	 * Operation for deleting an order with customized ingredients.
 	 * 
@@ -0,0 +1,103 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Interface of order shard service layer.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public interface OrderShardService {
+	
+	/**
+	 * Operation for running a write of new orders on the shard of a bucket picked at random, so new orders spread
+	 * 		evenly over shards, or on the bucket already routed by the caller.
+	 * 
+	 * @param operation Operation to be run, beginning its transactions within it.
+	 * @return Result of the operation.
+	 */
+	public <T> T routeToNewOrders(Supplier<T> operation);
+	
+	/**
+	 * Operation for running a read or write of an order on its shard, which follows from its id. While a
+	 * 		rebalance is pending or running, the operation is run again on the other shards when it does not find the
+	 * 		order on its shard, as the order may not be moved yet.
+	 * 
+	 * @param id Id of order.
+	 * @param operation Operation to be run, beginning its transactions within it.
+	 * @return Result of the operation.
+	 */
+	public <T> T routeToOrder(Long id, Supplier<T> operation);
+	
+	/**
+	 * Operation for running a read or write of an idempotency key on its shard, which follows from a hash of the
+	 * 		key. The order added with the key goes to the same bucket, so both are saved in a single transaction.
+	 * 
+	 * @param idempotencyKey Idempotency key sent by the client.
+	 * @param operation Operation to be run, beginning its transactions within it.
+	 * @return Result of the operation.
+	 */
+	public <T> T routeToIdempotencyKey(String idempotencyKey, Supplier<T> operation);
+	
+	/**
+	 * Operation for running an operation on a shard.
+	 * 
+	 * @param shard Shard, from 0.
+	 * @param operation Operation to be run, beginning its transactions within it.
+	 * @return Result of the operation.
+	 */
+	public <T> T routeToShard(int shard, Supplier<T> operation);
+	
+	/**
+	 * Operation for running an operation on every shard, one after another.
+	 * 
+	 * @param operation Operation to be run, beginning its transactions within it.
+	 * @return List of results of the operation, by shard.
+	 */
+	public <T> List<T> routeToEveryShard(Supplier<T> operation);
+	
+	/**
+	 * Operation for getting the quantity of shards.
+	 * 
+	 * @return Quantity of shards.
+	 */
+	public int getShardCount();
+	
+	/**
+	 * Operation for getting the shard of an order, which follows from its id.
+	 * 
+	 * @param id Id of order.
+	 * @return Shard, from 0.
+	 */
+	public int getShard(Long id);
+	
+	/**
+	 * Operation for moving orders with their customized ingredients, and idempotency keys, left on a shard which
+	 * 		no longer owns their bucket, as after shards are added, to the shard which owns it. Orders are moved in
+	 * 		chunks, inserted on their shard before being deleted from the former one, so a failed run can be run again.
+	 * 
+	 * @return Map of statistics of the run, using statistic name as key.
+	 */
+	public Map<String, Number> rebalance();
+	
+	/**
+	 * Operation for getting the statistics of shards.
+	 * 
+	 * @return Map of statistics, using statistic name as key.
+	 */
+	public Map<String, Number> getStatistics();
+}
\ No newline at end of file
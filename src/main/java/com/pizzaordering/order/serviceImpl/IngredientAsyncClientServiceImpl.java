@@ -0,0 +1,74 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.IngredientAsyncClientService;
+import com.pizzaordering.order.service.IngredientReactiveClientService;
+
+/**
+ * Implementation of asynchronous ingredient client service layer interface, subscribing to the calls of the
+ * 		reactive ingredient client service layer, so both share its pool of keep-alive connections.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class IngredientAsyncClientServiceImpl implements IngredientAsyncClientService {
+	
+	/**
+	 * Interface of reactive ingredient client service layer.
+	 */
+	@Autowired
+	IngredientReactiveClientService ingredientReactiveClientService;
+	
+	/**
+	 * Consume ingredient resource sending order with customized ingredients to be calculated.
+	 * 
+	 * @param order Order with customized ingredients to be calculated.
+	 * @return Future of the price of the order with customized ingredients.
+	 */
+	@Override
+	public CompletableFuture<BigDecimal> calculateOrderPrice(Order order) {
+		return ingredientReactiveClientService.calculateOrderPrice(order).toFuture();
+	}
+	
+	/**
+	 * Consume ingredient resource sending list of orders with customized ingredients to be calculated.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be calculated.
+	 * @return Future of the list of prices in the same order of the list of orders.
+	 */
+	@Override
+	public CompletableFuture<List<BigDecimal>> calculateOrderPriceList(List<Order> orderList) {
+		return ingredientReactiveClientService.calculateOrderPriceList(orderList).toFuture();
+	}
+	
+	/**
+	 * Consume ingredient resource sending order with customized ingredients to be reversed.
+	 * 
+	 * @param order Order with customized ingredients to be reversed.
+	 * @return Future completed when ingredients are reversed.
+	 */
+	@Override
+	public CompletableFuture<Void> reverseOrderIngredients(Order order) {
+		return ingredientReactiveClientService.reverseOrderIngredients(order).toFuture();
+	}
+}
\ No newline at end of file
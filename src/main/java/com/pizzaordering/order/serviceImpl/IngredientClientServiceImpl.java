@@ -13,15 +13,24 @@
 package com.pizzaordering.order.serviceImpl;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import com.pizzaordering.order.entity.Order;
 import com.pizzaordering.order.service.IngredientClientService;
 
 /**
- * Implementation of ingredient client service layer interface.
+ * Implementation of ingredient client service layer interface. Orders are sent in the configured content type,
+ * 		JSON or Smile, and responses are accepted as Smile first and JSON otherwise.
  * 
  * @author Rafael Lima Costa
  *
@@ -30,24 +39,59 @@ import com.pizzaordering.order.service.IngredientClientService;
 public class IngredientClientServiceImpl implements IngredientClientService {
 	
 	/**
-	 * URI of ingredient resource.
+	 * URI of calculate order price operation.
 	 */
-	private static final String URI_INGREDIENT_RESOURCE = "http://localhost:8081/ingredients";
+	private static final String URI_CALCULATE_ORDER_PRICE = "/calculateOrderPrice";
 	
 	/**
-	 * URI of calculate order price operation.
+	 * URI of calculate order price list operation.
 	 */
-	private static final String URI_CALCULATE_ORDER_PRICE = "/calculateOrderPrice";
+	private static final String URI_CALCULATE_ORDER_PRICE_LIST = "/calculateOrderPriceList";
 	
 	/**
 	 * URI of reverse order ingredients operation.
 	 */
 	private static final String URI_REVERSE_ORDER_INGREDIENTS = "/reverseOrderIngredients";
 	
+	/**
+	 * URI of reverse order ingredients list operation.
+	 */
+	private static final String URI_REVERSE_ORDER_INGREDIENTS_LIST = "/reverseOrderIngredientsList";
+	
 	/**
 	 * Spring implementation for HTTP RESTful resources consummation.
 	 */
-	private RestTemplate restTemplate = new RestTemplate();
+	private final RestTemplate restTemplate;
+	
+	/**
+	 * Headers of requests, with content type of orders sent and content types accepted.
+	 */
+	private final HttpHeaders httpHeaders;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param restTemplateBuilder Spring builder of HTTP RESTful resources consummation implementation.
+	 * @param baseUrl URL of ingredient resource.
+	 * @param connectTimeoutMillis Maximum time to connect to ingredient resource, in milliseconds.
+	 * @param readTimeoutMillis Maximum time to wait for a response of ingredient resource, in milliseconds.
+	 * @param contentType Content type of orders sent to ingredient resource, JSON or Smile.
+	 */
+	public IngredientClientServiceImpl(RestTemplateBuilder restTemplateBuilder,
+			@Value("${ingredient.client.base-url:http://localhost:8081/ingredients}") String baseUrl,
+			@Value("${ingredient.client.connect-timeout-millis:1000}") int connectTimeoutMillis,
+			@Value("${ingredient.client.read-timeout-millis:5000}") int readTimeoutMillis,
+			@Value("${ingredient.client.content-type:application/json}") String contentType) {
+		restTemplate = restTemplateBuilder
+				.rootUri(baseUrl)
+				.setConnectTimeout(connectTimeoutMillis)
+				.setReadTimeout(readTimeoutMillis)
+				.build();
+		
+		httpHeaders = new HttpHeaders();
+		httpHeaders.setContentType(MediaType.valueOf(contentType));
+		httpHeaders.setAccept(Arrays.asList(MediaType.valueOf(CONTENT_TYPE_SMILE), MediaType.APPLICATION_JSON));
+	}
 	
 	/**
 	 * Consume ingredient resource sending order with customized ingredients to be calculated.
@@ -57,7 +101,21 @@ public class IngredientClientServiceImpl implements IngredientClientService {
 	 */
 	@Override
 	public BigDecimal calculateOrderPrice(Order order) {
-		return restTemplate.postForObject(URI_INGREDIENT_RESOURCE + URI_CALCULATE_ORDER_PRICE, order, BigDecimal.class);
+		return restTemplate.postForObject(URI_CALCULATE_ORDER_PRICE, new HttpEntity<Order>(order, httpHeaders),
+				BigDecimal.class);
+	}
+	
+	/**
+	 * Consume ingredient resource sending list of orders with customized ingredients to be calculated.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be calculated.
+	 * @return List of prices in the same order of the list of orders.
+	 * @throws RestClientException When ingredient resource does not return one price per order.
+	 */
+	@Override
+	public List<BigDecimal> calculateOrderPriceList(List<Order> orderList) {
+		return toPriceList(restTemplate.postForObject(URI_CALCULATE_ORDER_PRICE_LIST,
+				new HttpEntity<List<Order>>(orderList, httpHeaders), BigDecimal[].class), orderList.size());
 	}
 	
 	/**
@@ -67,6 +125,34 @@ public class IngredientClientServiceImpl implements IngredientClientService {
 	 */
 	@Override
 	public void reverseOrderIngredients(Order order) {
-		restTemplate.put(URI_INGREDIENT_RESOURCE + URI_REVERSE_ORDER_INGREDIENTS, order);
+		restTemplate.put(URI_REVERSE_ORDER_INGREDIENTS, new HttpEntity<Order>(order, httpHeaders));
+	}
+	
+	/**
+	 * Consume ingredient resource sending list of orders with customized ingredients to be reversed.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be reversed.
+	 */
+	@Override
+	public void reverseOrderIngredientsList(List<Order> orderList) {
+		restTemplate.put(URI_REVERSE_ORDER_INGREDIENTS_LIST, new HttpEntity<List<Order>>(orderList, httpHeaders));
+	}
+	
+	/**
+	 * Check that ingredient resource returned one price per order sent, as a shorter or longer list would price
+	 * 		orders with the prices of others.
+	 * 
+	 * @param priceArray Prices returned by ingredient resource.
+	 * @param orderQuantity Quantity of orders sent.
+	 * @return List of prices in the same order of the list of orders.
+	 * @throws RestClientException When ingredient resource does not return one price per order.
+	 */
+	static List<BigDecimal> toPriceList(BigDecimal[] priceArray, int orderQuantity) {
+		if (priceArray == null || priceArray.length != orderQuantity) {
+			throw new RestClientException("Ingredient resource returned " + (priceArray == null ? 0 : priceArray.length)
+					+ " prices for " + orderQuantity + " orders");
+		}
+		
+		return Arrays.asList(priceArray);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.IngredientClientService;
+import com.pizzaordering.order.service.IngredientReactiveClientService;
+
+import io.netty.channel.ChannelOption;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.resources.PoolResources;
+
+/**
+ * Implementation of reactive ingredient client service layer interface, over a fixed pool of keep-alive
+ * 		connections of a non-blocking HTTP client. Orders are sent in the configured content type, JSON or Smile, and
+ * 		responses are accepted as Smile first and JSON otherwise.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class IngredientReactiveClientServiceImpl implements IngredientReactiveClientService {
+	
+	/**
+	 * URI of calculate order price operation.
+	 */
+	private static final String URI_CALCULATE_ORDER_PRICE = "/calculateOrderPrice";
+	
+	/**
+	 * URI of calculate order price list operation.
+	 */
+	private static final String URI_CALCULATE_ORDER_PRICE_LIST = "/calculateOrderPriceList";
+	
+	/**
+	 * URI of reverse order ingredients operation.
+	 */
+	private static final String URI_REVERSE_ORDER_INGREDIENTS = "/reverseOrderIngredients";
+	
+	/**
+	 * Spring non-blocking implementation for HTTP RESTful resources consummation.
+	 */
+	private final WebClient webClient;
+	
+	/**
+	 * Maximum time to wait for a response of ingredient resource.
+	 */
+	private final Duration readTimeout;
+	
+	/**
+	 * Content type of orders sent to ingredient resource.
+	 */
+	private final MediaType contentType;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param baseUrl URL of ingredient resource.
+	 * @param maxConnections Maximum quantity of pooled connections to ingredient resource.
+	 * @param connectTimeoutMillis Maximum time to connect to ingredient resource, in milliseconds.
+	 * @param readTimeoutMillis Maximum time to wait for a response of ingredient resource, in milliseconds.
+	 * @param contentType Content type of orders sent to ingredient resource, JSON or Smile.
+	 */
+	public IngredientReactiveClientServiceImpl(
+			@Value("${ingredient.client.base-url:http://localhost:8081/ingredients}") String baseUrl,
+			@Value("${ingredient.client.max-connections:200}") int maxConnections,
+			@Value("${ingredient.client.connect-timeout-millis:1000}") int connectTimeoutMillis,
+			@Value("${ingredient.client.read-timeout-millis:5000}") long readTimeoutMillis,
+			@Value("${ingredient.client.content-type:application/json}") String contentType) {
+		webClient = WebClient.builder()
+				.baseUrl(baseUrl)
+				.clientConnector(new ReactorClientHttpConnector(options -> options
+						.poolResources(PoolResources.fixed("ingredient-client", maxConnections))
+						.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)))
+				.defaultHeader(HttpHeaders.ACCEPT, IngredientClientService.CONTENT_TYPE_SMILE,
+						MediaType.APPLICATION_JSON_VALUE)
+				.build();
+		readTimeout = Duration.ofMillis(readTimeoutMillis);
+		this.contentType = MediaType.valueOf(contentType);
+	}
+	
+	/**
+	 * Consume ingredient resource sending order with customized ingredients to be calculated.
+	 * 
+	 * @param order Order with customized ingredients to be calculated.
+	 * @return Price of the order with customized ingredients.
+	 */
+	@Override
+	public Mono<BigDecimal> calculateOrderPrice(Order order) {
+		return webClient.post()
+				.uri(URI_CALCULATE_ORDER_PRICE)
+				.contentType(contentType)
+				.body(BodyInserters.fromObject(order))
+				.retrieve()
+				.bodyToMono(BigDecimal.class)
+				.timeout(readTimeout);
+	}
+	
+	/**
+	 * Consume ingredient resource sending list of orders with customized ingredients to be calculated.
+	 * 
+	 * @param orderList List of orders with customized ingredients to be calculated.
+	 * @return List of prices in the same order of the list of orders.
+	 */
+	@Override
+	public Mono<List<BigDecimal>> calculateOrderPriceList(List<Order> orderList) {
+		return webClient.post()
+				.uri(URI_CALCULATE_ORDER_PRICE_LIST)
+				.contentType(contentType)
+				.body(BodyInserters.fromObject(orderList))
+				.retrieve()
+				.bodyToMono(BigDecimal[].class)
+				.map(priceArray -> IngredientClientServiceImpl.toPriceList(priceArray, orderList.size()))
+				.timeout(readTimeout);
+	}
+	
+	/**
+	 * Consume ingredient resource sending order with customized ingredients to be reversed.
+	 * 
+	 * @param order Order with customized ingredients to be reversed.
+	 * @return Completion when ingredients are reversed.
+	 */
+	@Override
+	public Mono<Void> reverseOrderIngredients(Order order) {
+		return webClient.put()
+				.uri(URI_REVERSE_ORDER_INGREDIENTS)
+				.contentType(contentType)
+				.body(BodyInserters.fromObject(order))
+				.retrieve()
+				.bodyToMono(Void.class)
+				.timeout(readTimeout);
+	}
+}
\ No newline at end of file
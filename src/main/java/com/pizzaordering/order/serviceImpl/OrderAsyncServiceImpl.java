@@ -0,0 +1,209 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.OrderAsyncRejectedException;
+import com.pizzaordering.order.service.OrderAsyncService;
+import com.pizzaordering.order.service.OrderIdempotencyService;
+import com.pizzaordering.order.service.OrderPriceCacheService;
+import com.pizzaordering.order.service.OrderService;
+
+/**
+ * Implementation of asynchronous order service layer interface. Pricing, which may wait on ingredient resource,
+ * 		and persistence, which holds a database connection, run on fixed pools of threads of their own with bounded
+ * 		queues, so request threads are released right away and a full queue is rejected instead of piling up.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class OrderAsyncServiceImpl implements OrderAsyncService {
+	
+	/**
+	 * Name of the pool of threads of pricing.
+	 */
+	private static final String POOL_PRICE = "price";
+	
+	/**
+	 * Name of the pool of threads of persistence.
+	 */
+	private static final String POOL_PERSISTENCE = "persistence";
+	
+	/**
+	 * Interface of order price cache service layer.
+	 */
+	@Autowired
+	OrderPriceCacheService orderPriceCacheService;
+	
+	/**
+	 * Interface of order service layer.
+	 */
+	@Autowired
+	OrderService orderService;
+	
+	/**
+	 * Interface of order idempotency service layer.
+	 */
+	@Autowired
+	OrderIdempotencyService orderIdempotencyService;
+	
+	/**
+	 * Pool of threads of pricing.
+	 */
+	private final ThreadPoolExecutor priceExecutor;
+	
+	/**
+	 * Pool of threads of persistence.
+	 */
+	private final ThreadPoolExecutor persistenceExecutor;
+	
+	/**
+	 * Quantity of tasks rejected by the pool of threads of pricing.
+	 */
+	private final AtomicLong priceRejectedCount = new AtomicLong();
+	
+	/**
+	 * Quantity of tasks rejected by the pool of threads of persistence.
+	 */
+	private final AtomicLong persistenceRejectedCount = new AtomicLong();
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param priceThreads Quantity of threads pricing orders, the maximum quantity of prices in flight.
+	 * @param priceQueueCapacity Maximum quantity of orders waiting to be priced.
+	 * @param persistenceThreads Quantity of threads saving and deleting orders, at most the size of the pool of
+	 * 		database connections.
+	 * @param persistenceQueueCapacity Maximum quantity of orders waiting to be saved or deleted.
+	 */
+	public OrderAsyncServiceImpl(@Value("${order.async.price-threads:64}") int priceThreads,
+			@Value("${order.async.price-queue-capacity:1000}") int priceQueueCapacity,
+			@Value("${order.async.persistence-threads:10}") int persistenceThreads,
+			@Value("${order.async.persistence-queue-capacity:1000}") int persistenceQueueCapacity) {
+		priceExecutor = newExecutor(POOL_PRICE, priceThreads, priceQueueCapacity, priceRejectedCount);
+		persistenceExecutor = newExecutor(POOL_PERSISTENCE, persistenceThreads, persistenceQueueCapacity,
+				persistenceRejectedCount);
+	}
+	
+	/*
+	 * > Price order on the pool of pricing, from cache or consuming ingredient resource via HTTP REST.
+	 * > Save priced order on the pool of persistence.
+	 */
+	@Override
+	public CompletableFuture<Order> addOrder(Order order) {
+		return CompletableFuture.supplyAsync(() -> orderPriceCacheService.calculateOrderPrice(order), priceExecutor)
+				.thenApplyAsync(price -> {
+					order.setPrice(price);
+					
+					return orderService.addPricedOrder(order);
+				}, persistenceExecutor);
+	}
+	
+	/*
+	 * > Price order on the pool of pricing, so its price is cached once the order is added.
+	 * > Add order once per idempotency key on the pool of persistence.
+	 */
+	@Override
+	public CompletableFuture<Order> addOrder(String idempotencyKey, Order order) {
+		return CompletableFuture.supplyAsync(() -> orderPriceCacheService.calculateOrderPrice(order), priceExecutor)
+				.thenApplyAsync(price -> orderIdempotencyService.addOrder(idempotencyKey, order), persistenceExecutor);
+	}
+	
+	/*
+	 * Delete order on the pool of persistence, where its event to reverse ingredients is added to outbox.
+	 */
+	@Override
+	public CompletableFuture<Void> deleteOrder(Long id) {
+		return CompletableFuture.runAsync(() -> orderService.deleteOrder(id), persistenceExecutor);
+	}
+	
+	/*
+	 * Return active, queued, completed and rejected tasks of every pool of threads.
+	 */
+	@Override
+	public Map<String, Number> getStatistics() {
+		Map<String, Number> statistics = new LinkedHashMap<String, Number>();
+		
+		putStatistics(statistics, POOL_PRICE, priceExecutor, priceRejectedCount);
+		putStatistics(statistics, POOL_PERSISTENCE, persistenceExecutor, persistenceRejectedCount);
+		
+		return statistics;
+	}
+	
+	/**
+	 * Stop the pools of threads once queued tasks are done.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		priceExecutor.shutdown();
+		persistenceExecutor.shutdown();
+	}
+	
+	/**
+	 * Build a fixed pool of daemon threads with a bounded queue, rejecting tasks when the queue is full.
+	 * 
+	 * @param poolName Name of the pool of threads.
+	 * @param threads Quantity of threads.
+	 * @param queueCapacity Maximum quantity of tasks waiting for a thread.
+	 * @param rejectedCount Quantity of tasks rejected.
+	 * @return Pool of threads.
+	 */
+	private static ThreadPoolExecutor newExecutor(String poolName, int threads, int queueCapacity,
+			AtomicLong rejectedCount) {
+		AtomicInteger threadCount = new AtomicInteger();
+		
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "order-async-" + poolName + "-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					
+					return thread;
+				}, (runnable, executor) -> {
+					rejectedCount.incrementAndGet();
+					
+					throw new OrderAsyncRejectedException(poolName);
+				});
+	}
+	
+	/**
+	 * Put the statistics of a pool of threads.
+	 * 
+	 * @param statistics Map of statistics, using statistic name as key.
+	 * @param poolName Name of the pool of threads, prefix of its statistics.
+	 * @param executor Pool of threads.
+	 * @param rejectedCount Quantity of tasks rejected.
+	 */
+	private static void putStatistics(Map<String, Number> statistics, String poolName, ThreadPoolExecutor executor,
+			AtomicLong rejectedCount) {
+		statistics.put(poolName + "ActiveCount", executor.getActiveCount());
+		statistics.put(poolName + "QueuedCount", executor.getQueue().size());
+		statistics.put(poolName + "CompletedCount", executor.getCompletedTaskCount());
+		statistics.put(poolName + "RejectedCount", rejectedCount.get());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pizzaordering.order.data.OrderRepository;
+import com.pizzaordering.order.dto.CompactOrder;
+import com.pizzaordering.order.dto.OrderRow;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.OrderCacheService;
+
+/**
+ * Implementation of order cache service layer interface, keeping orders by id on a bounded cache with time
+ * 		to live. Orders are cached in their compact representation with their customized ingredients already
+ * 		loaded, so they take less heap and are handed over as detached entities rendered without a database session.
+ * 		The cache is local to every node and a delete only invalidates the node serving it, so other nodes may
+ * 		serve a deleted order until it expires there: the time to live is kept short to bound that staleness.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class OrderCacheServiceImpl implements OrderCacheService {
+	
+	/**
+	 * Interface of order repository layer.
+	 */
+	@Autowired
+	OrderRepository orderRepository;
+	
+	/**
+	 * Cache of compact orders, using order id as key.
+	 */
+	private final Cache<Long, CompactOrder> orderCache;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param maximumSize Maximum quantity of cached orders.
+	 * @param expireAfterWriteSeconds Time to live of a cached order, in seconds.
+	 */
+	public OrderCacheServiceImpl(@Value("${order.cache.maximum-size:10000}") long maximumSize,
+			@Value("${order.cache.expire-after-write-seconds:10}") long expireAfterWriteSeconds) {
+		orderCache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+				.recordStats()
+				.build();
+	}
+	
+	/*
+	 * Return order from cache, loading it and its customized ingredients from database on miss in a single join
+	 * 		query projected into detached entities, and converting it back to a detached entity.
+	 */
+	@Override
+	public Order getOrder(Long id) {
+		return orderCache.get(id, key -> CompactOrder.of(OrderRow.toOrderList(
+				orderRepository.findOrderRowListById(key)).stream().findFirst().get())).toOrder();
+	}
+	
+	/*
+	 * Convert order to its compact representation right away and cache it after commit, or right away when there
+	 * 		is no transaction.
+	 */
+	@Override
+	public void putOrder(Order order) {
+		CompactOrder compactOrder = CompactOrder.of(order);
+		
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					orderCache.put(compactOrder.getId(), compactOrder);
+				}
+			});
+		} else {
+			orderCache.put(compactOrder.getId(), compactOrder);
+		}
+	}
+	
+	/*
+	 * Discard order now and again after commit, so a concurrent miss cannot cache it back before the delete
+	 * 		is visible.
+	 */
+	@Override
+	public void invalidateOrder(Long id) {
+		orderCache.invalidate(id);
+		
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					orderCache.invalidate(id);
+				}
+			});
+		}
+	}
+	
+	/*
+	 * Discard every cached order.
+	 */
+	@Override
+	public void invalidateAll() {
+		orderCache.invalidateAll();
+	}
+	
+	/*
+	 * Return hit, miss and eviction statistics and current size of cache.
+	 */
+	@Override
+	public Map<String, Number> getStatistics() {
+		CacheStats cacheStats = orderCache.stats();
+		Map<String, Number> statistics = new LinkedHashMap<String, Number>();
+		
+		statistics.put("size", orderCache.estimatedSize());
+		statistics.put("hitCount", cacheStats.hitCount());
+		statistics.put("missCount", cacheStats.missCount());
+		statistics.put("hitRate", cacheStats.hitRate());
+		statistics.put("evictionCount", cacheStats.evictionCount());
+		
+		return statistics;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,270 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.serviceImpl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.pizzaordering.order.service.OrderConcurrencyLimitService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Implementation of order concurrency limit service layer interface. The limit follows the gradient between the
+ * 		long term latency, taken as the latency with no queueing, and the short term latency: it grows while they
+ * 		are about the same and shrinks as soon as requests queue up and the short term latency rises, so excess
+ * 		requests are rejected at once instead of piling up on threads and connections. Reads and writes keep their
+ * 		own latencies, so a shift in the mix of requests is not taken for queueing.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class OrderConcurrencyLimitServiceImpl implements OrderConcurrencyLimitService {
+	
+	/**
+	 * Quantity of latencies averaged by the long term latency.
+	 */
+	private static final int LONG_WINDOW = 600;
+	
+	/**
+	 * Quantity of latencies averaged by the short term latency.
+	 */
+	private static final int SHORT_WINDOW = 10;
+	
+	/**
+	 * Ratio of short term to long term latency tolerated before the limit shrinks.
+	 */
+	private static final double LATENCY_TOLERANCE = 1.5;
+	
+	/**
+	 * Weight of every new limit over the current one.
+	 */
+	private static final double SMOOTHING = 0.2;
+	
+	/**
+	 * Flag of the limit, every request being admitted when disabled.
+	 */
+	private final boolean enabled;
+	
+	/**
+	 * Minimum limit.
+	 */
+	private final int minLimit;
+	
+	/**
+	 * Maximum limit.
+	 */
+	private final int maxLimit;
+	
+	/**
+	 * Share of the limit taken by writes, from 0 to 1.
+	 */
+	private final double writeRatio;
+	
+	/**
+	 * Quantity of admitted requests in flight.
+	 */
+	private final AtomicInteger inFlight = new AtomicInteger();
+	
+	/**
+	 * Counter of reads rejected.
+	 */
+	private final Counter rejectedReadCounter;
+	
+	/**
+	 * Counter of writes rejected.
+	 */
+	private final Counter rejectedWriteCounter;
+	
+	/**
+	 * Current limit of requests in flight.
+	 */
+	private volatile double limit;
+	
+	/**
+	 * Latencies of reads, guarded by this.
+	 */
+	private final LatencyEstimate readLatencyEstimate = new LatencyEstimate();
+	
+	/**
+	 * Latencies of writes, guarded by this.
+	 */
+	private final LatencyEstimate writeLatencyEstimate = new LatencyEstimate();
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param meterRegistry Registry of meters.
+	 * @param enabled Flag of the limit.
+	 * @param initialLimit Limit before any latency is observed.
+	 * @param minLimit Minimum limit.
+	 * @param maxLimit Maximum limit.
+	 * @param writeRatio Share of the limit taken by writes, from 0 to 1.
+	 */
+	public OrderConcurrencyLimitServiceImpl(MeterRegistry meterRegistry,
+			@Value("${order.concurrency-limit.enabled:true}") boolean enabled,
+			@Value("${order.concurrency-limit.initial-limit:20}") int initialLimit,
+			@Value("${order.concurrency-limit.min-limit:4}") int minLimit,
+			@Value("${order.concurrency-limit.max-limit:200}") int maxLimit,
+			@Value("${order.concurrency-limit.write-ratio:0.8}") double writeRatio) {
+		this.enabled = enabled;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.writeRatio = writeRatio;
+		this.limit = initialLimit;
+		
+		Gauge.builder("order.concurrency.limit", this, limiter -> limiter.limit)
+				.description("Limit of order requests in flight")
+				.register(meterRegistry);
+		Gauge.builder("order.concurrency.in.flight", inFlight, AtomicInteger::get)
+				.description("Order requests in flight")
+				.register(meterRegistry);
+		rejectedReadCounter = Counter.builder("order.concurrency.rejected")
+				.tag("priority", "read")
+				.description("Order requests rejected by the limit")
+				.register(meterRegistry);
+		rejectedWriteCounter = Counter.builder("order.concurrency.rejected")
+				.tag("priority", "write")
+				.description("Order requests rejected by the limit")
+				.register(meterRegistry);
+	}
+	
+	/*
+	 * > Admit the request when the requests in flight are below the limit, or below its share of writes for a write.
+	 * > Count the request as rejected otherwise.
+	 */
+	@Override
+	public boolean tryAcquire(boolean write) {
+		int current = 0;
+		int allowed = write ? (int) Math.max(1.0, Math.floor(limit * writeRatio)) : (int) Math.floor(limit);
+		
+		do {
+			current = inFlight.get();
+			
+			if (enabled && current >= allowed) {
+				(write ? rejectedWriteCounter : rejectedReadCounter).increment();
+				
+				return false;
+			}
+		} while (!inFlight.compareAndSet(current, current + 1));
+		
+		return true;
+	}
+	
+	/*
+	 * > Average the latency into the latencies of its priority.
+	 * > Leave the limit as is while less than half of it is in use, as latency then says nothing about it.
+	 * > Otherwise move it towards the limit scaled by the gradient between latencies of the priority, from 0.5 to 1,
+	 * 		plus the square root of the limit as headroom to grow while latency holds.
+	 */
+	@Override
+	public void release(boolean write, long latencyNanos) {
+		int current = inFlight.getAndDecrement();
+		LatencyEstimate latencyEstimate = write ? writeLatencyEstimate : readLatencyEstimate;
+		double gradient = 0.0;
+		double newLimit = 0.0;
+		
+		synchronized (this) {
+			latencyEstimate.add(latencyNanos);
+			
+			if (current * 2 < limit) {
+				return;
+			}
+			
+			gradient = Math.max(0.5, Math.min(1.0, LATENCY_TOLERANCE * latencyEstimate.longLatencyNanos
+					/ latencyEstimate.shortLatencyNanos));
+			newLimit = limit * gradient + Math.sqrt(limit);
+			
+			limit = Math.max(minLimit, Math.min(maxLimit, limit * (1.0 - SMOOTHING) + newLimit * SMOOTHING));
+		}
+	}
+	
+	/*
+	 * Release the request only.
+	 */
+	@Override
+	public void release() {
+		inFlight.decrementAndGet();
+	}
+	
+	/*
+	 * Return current limit and its share of writes, requests in flight, latencies and rejection counters.
+	 */
+	@Override
+	public Map<String, Number> getStatistics() {
+		Map<String, Number> statistics = new LinkedHashMap<String, Number>();
+		
+		statistics.put("limit", (int) Math.floor(limit));
+		statistics.put("writeLimit", (int) Math.max(1.0, Math.floor(limit * writeRatio)));
+		statistics.put("inFlight", inFlight.get());
+		
+		synchronized (this) {
+			statistics.put("readLongLatencyMillis",
+					TimeUnit.NANOSECONDS.toMillis((long) readLatencyEstimate.longLatencyNanos));
+			statistics.put("readShortLatencyMillis",
+					TimeUnit.NANOSECONDS.toMillis((long) readLatencyEstimate.shortLatencyNanos));
+			statistics.put("writeLongLatencyMillis",
+					TimeUnit.NANOSECONDS.toMillis((long) writeLatencyEstimate.longLatencyNanos));
+			statistics.put("writeShortLatencyMillis",
+					TimeUnit.NANOSECONDS.toMillis((long) writeLatencyEstimate.shortLatencyNanos));
+		}
+		
+		statistics.put("rejectedReadCount", (long) rejectedReadCounter.count());
+		statistics.put("rejectedWriteCount", (long) rejectedWriteCounter.count());
+		
+		return statistics;
+	}
+	
+	/**
+	 * Long term and short term latencies of requests of a priority.
+	 */
+	private static class LatencyEstimate {
+		
+		/**
+		 * Long term latency, in nanoseconds.
+		 */
+		private double longLatencyNanos;
+		
+		/**
+		 * Short term latency, in nanoseconds.
+		 */
+		private double shortLatencyNanos;
+		
+		/**
+		 * Average a latency into the short term and long term latencies, pulling the long term one down while it is
+		 * 		far above the short term one, so it recovers quickly after a slowdown.
+		 * 
+		 * @param latencyNanos Latency of a request, in nanoseconds.
+		 */
+		private void add(long latencyNanos) {
+			if (longLatencyNanos == 0.0) {
+				longLatencyNanos = latencyNanos;
+				shortLatencyNanos = latencyNanos;
+			} else {
+				longLatencyNanos += (latencyNanos - longLatencyNanos) * 2.0 / (LONG_WINDOW + 1);
+				shortLatencyNanos += (latencyNanos - shortLatencyNanos) * 2.0 / (SHORT_WINDOW + 1);
+			}
+			
+			if (longLatencyNanos > shortLatencyNanos * 2.0) {
+				longLatencyNanos *= 0.95;
+			}
+		}
+	}
+}
\ No newline at end of file
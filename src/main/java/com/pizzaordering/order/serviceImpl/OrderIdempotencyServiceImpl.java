@@ -0,0 +1,291 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pizzaordering.order.data.OrderIdempotencyKeyRepository;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderIdempotencyKey;
+import com.pizzaordering.order.metrics.ServerTiming;
+import com.pizzaordering.order.service.IdempotencyKeyReusedException;
+import com.pizzaordering.order.service.IdempotentOrderDeletedException;
+import com.pizzaordering.order.service.OrderCacheService;
+import com.pizzaordering.order.service.OrderIdempotencyService;
+import com.pizzaordering.order.service.OrderPriceCacheService;
+import com.pizzaordering.order.service.OrderService;
+import com.pizzaordering.order.service.OrderShardService;
+
+/**
+ * Implementation of order idempotency service layer interface. Keys are looked up on a bounded in memory index
+ * 		first and on database next, and saved on database in the transaction which adds the order, so a key is
+ * 		never recorded for an order rolled back.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class OrderIdempotencyServiceImpl implements OrderIdempotencyService {
+	
+	/**
+	 * Digits of hexadecimal hashes.
+	 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	
+	/**
+	 * Name of the pricing phase on the Server-Timing header.
+	 */
+	private static final String PHASE_PRICE = "price";
+	
+	/**
+	 * Interface of order service layer.
+	 */
+	@Autowired
+	OrderService orderService;
+	
+	/**
+	 * Interface of order cache service layer.
+	 */
+	@Autowired
+	OrderCacheService orderCacheService;
+	
+	/**
+	 * Interface of order price cache service layer.
+	 */
+	@Autowired
+	OrderPriceCacheService orderPriceCacheService;
+	
+	/**
+	 * Interface of order shard service layer.
+	 */
+	@Autowired
+	OrderShardService orderShardService;
+	
+	/**
+	 * Interface of order idempotency key repository layer.
+	 */
+	@Autowired
+	OrderIdempotencyKeyRepository orderIdempotencyKeyRepository;
+	
+	/**
+	 * JSON mapper of orders, used to hash request bodies.
+	 */
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	/**
+	 * Template of transactions adding an order and its key.
+	 */
+	private final TransactionTemplate transactionTemplate;
+	
+	/**
+	 * In memory index of keys, using idempotency key as key.
+	 */
+	private final Cache<String, OrderIdempotencyKey> orderIdempotencyKeyCache;
+	
+	/**
+	 * Time to live of a key, in milliseconds.
+	 */
+	private final long expireAfterMillis;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param transactionManager Transaction manager of the order database.
+	 * @param maximumSize Maximum quantity of keys kept in memory.
+	 * @param expireAfterSeconds Time to live of a key, in seconds.
+	 */
+	public OrderIdempotencyServiceImpl(PlatformTransactionManager transactionManager,
+			@Value("${order.idempotency.maximum-size:100000}") long maximumSize,
+			@Value("${order.idempotency.expire-after-seconds:86400}") long expireAfterSeconds) {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		orderIdempotencyKeyCache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterSeconds, TimeUnit.SECONDS)
+				.build();
+		expireAfterMillis = TimeUnit.SECONDS.toMillis(expireAfterSeconds);
+	}
+	
+	/*
+	 * > Return the cached order of a known key, checking that the body is the same of the first request.
+	 * > Otherwise price the order before any transaction is opened, then add the priced order and save its key in
+	 * 		one transaction, indexing the key in memory after commit.
+	 * > When a concurrent request with the same key commits first, the primary key of the key fails the
+	 * 		transaction, and the order of the winner is returned.
+	 * > Everything runs on the shard of the key, where the order is added too.
+	 */
+	@Override
+	public Order addOrder(String idempotencyKey, Order order) {
+		return orderShardService.routeToIdempotencyKey(idempotencyKey, () -> addOrderOnShard(idempotencyKey, order));
+	}
+	
+	/**
+	 * Delete expired keys from database of every shard periodically. Expired keys in memory are evicted by the
+	 * 		index itself.
+	 */
+	@Override
+	@Scheduled(initialDelayString = "${order.idempotency.purge-delay-millis:3600000}",
+			fixedDelayString = "${order.idempotency.purge-delay-millis:3600000}")
+	public int purgeExpired() {
+		Date now = new Date();
+		
+		return orderShardService.routeToEveryShard(() -> orderIdempotencyKeyRepository.deleteByExpirationDateBefore(now))
+				.stream().mapToInt(Integer::intValue).sum();
+	}
+	
+	/**
+	 * Add an order with its key on the routed shard, or return the order of a known key.
+	 * 
+	 * @param idempotencyKey Idempotency key sent by the client.
+	 * @param order Order with customized ingredients.
+	 * @return Order with customized ingredients, added by this request or by the first one with the key.
+	 * @throws IdempotencyKeyReusedException When the key was used by a request with a different body.
+	 * @throws IdempotentOrderDeletedException When the order added with the key was deleted since.
+	 */
+	private Order addOrderOnShard(String idempotencyKey, Order order) {
+		String requestHash = hash(order);
+		OrderIdempotencyKey orderIdempotencyKey = findOrderIdempotencyKey(idempotencyKey, requestHash);
+		long phaseStartNanos = 0L;
+		
+		if (orderIdempotencyKey != null) {
+			return getOrder(orderIdempotencyKey);
+		}
+		
+		phaseStartNanos = System.nanoTime();
+		
+		order.setPrice(orderPriceCacheService.calculateOrderPrice(order));
+		
+		ServerTiming.record(PHASE_PRICE, phaseStartNanos);
+		
+		try {
+			return transactionTemplate.execute(status -> {
+				Order orderAdded = orderService.addPricedOrder(order);
+				OrderIdempotencyKey orderIdempotencyKeyAdded = new OrderIdempotencyKey(idempotencyKey,
+						orderAdded.getId(), requestHash, new Date(System.currentTimeMillis() + expireAfterMillis));
+				
+				orderIdempotencyKeyRepository.save(orderIdempotencyKeyAdded);
+				
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+					@Override
+					public void afterCommit() {
+						orderIdempotencyKeyCache.put(idempotencyKey, orderIdempotencyKeyAdded);
+					}
+				});
+				
+				return orderAdded;
+			});
+		} catch (DataIntegrityViolationException e) {
+			orderIdempotencyKey = findOrderIdempotencyKey(idempotencyKey, requestHash);
+			
+			if (orderIdempotencyKey == null) {
+				throw e;
+			}
+			
+			return getOrder(orderIdempotencyKey);
+		}
+	}
+	
+	/**
+	 * Get the order added with a key, as it is now.
+	 * 
+	 * @param orderIdempotencyKey Key found.
+	 * @return Order with customized ingredients.
+	 * @throws IdempotentOrderDeletedException When the order was deleted since it was added.
+	 */
+	private Order getOrder(OrderIdempotencyKey orderIdempotencyKey) {
+		try {
+			return orderCacheService.getOrder(orderIdempotencyKey.getOrderId());
+		} catch (NoSuchElementException e) {
+			throw new IdempotentOrderDeletedException(orderIdempotencyKey.getIdempotencyKey(),
+					orderIdempotencyKey.getOrderId());
+		}
+	}
+	
+	/**
+	 * Find a key not expired yet, in memory first and on database next, deleting it from database when it is
+	 * 		expired but not purged yet so it can be used again.
+	 * 
+	 * @param idempotencyKey Idempotency key sent by the client.
+	 * @param requestHash SHA-256 of the request body.
+	 * @return Key found, or null when the key is unknown or expired.
+	 * @throws IdempotencyKeyReusedException When the key was used by a request with a different body.
+	 */
+	private OrderIdempotencyKey findOrderIdempotencyKey(String idempotencyKey, String requestHash) {
+		OrderIdempotencyKey orderIdempotencyKey = orderIdempotencyKeyCache.getIfPresent(idempotencyKey);
+		
+		if (orderIdempotencyKey == null) {
+			orderIdempotencyKey = orderIdempotencyKeyRepository.findById(idempotencyKey).orElse(null);
+			
+			if (orderIdempotencyKey != null && !orderIdempotencyKey.getExpirationDate().after(new Date())) {
+				orderIdempotencyKeyRepository.delete(orderIdempotencyKey);
+				
+				orderIdempotencyKey = null;
+			} else if (orderIdempotencyKey != null) {
+				orderIdempotencyKeyCache.put(idempotencyKey, orderIdempotencyKey);
+			}
+		}
+		
+		if (orderIdempotencyKey != null && !orderIdempotencyKey.getRequestHash().equals(requestHash)) {
+			throw new IdempotencyKeyReusedException(idempotencyKey);
+		}
+		
+		return orderIdempotencyKey;
+	}
+	
+	/**
+	 * Hash an order as received, before it is priced and saved.
+	 * 
+	 * @param order Order with customized ingredients.
+	 * @return SHA-256 of the order serialized as JSON, in hexadecimal.
+	 */
+	private String hash(Order order) {
+		byte[] digest = null;
+		char[] hex = null;
+		
+		try {
+			digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(order));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		
+		hex = new char[digest.length * 2];
+		
+		for (int i = 0; i < digest.length; i++) {
+			hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+			hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+		}
+		
+		return new String(hex);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,316 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.pizzaordering.order.dto.OrderImportResult;
+import com.pizzaordering.order.dto.OrderRow;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+import com.pizzaordering.order.entity.OrderCustomizationId;
+import com.pizzaordering.order.service.OrderImportService;
+import com.pizzaordering.order.service.OrderPriceCacheService;
+import com.pizzaordering.order.service.OrderShardService;
+
+/**
+ * Implementation of order import service layer interface. Orders are parsed one at a time and inserted in chunks,
+ * 		each chunk in its own transaction, as large JDBC batches, clearing the persistence context after every
+ * 		chunk so memory stays constant regardless of the size of the import.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class OrderImportServiceImpl implements OrderImportService {
+	
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderImportServiceImpl.class);
+	
+	/**
+	 * CSV mapper of order rows.
+	 */
+	private static final CsvMapper CSV_MAPPER = (CsvMapper) new CsvMapper()
+			.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+	
+	/**
+	 * CSV schema of order rows, column names taken from the header and empty columns read as null.
+	 */
+	private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema().withHeader().withNullValue("");
+	
+	/**
+	 * Interface of order price cache service layer.
+	 */
+	@Autowired
+	OrderPriceCacheService orderPriceCacheService;
+	
+	/**
+	 * Interface of order shard service layer.
+	 */
+	@Autowired
+	OrderShardService orderShardService;
+	
+	/**
+	 * JSON mapper of orders.
+	 */
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	/**
+	 * JPA entity manager of the current chunk transaction.
+	 */
+	@PersistenceContext
+	EntityManager entityManager;
+	
+	/**
+	 * Template of chunk transactions.
+	 */
+	private final TransactionTemplate transactionTemplate;
+	
+	/**
+	 * Quantity of orders inserted in each transaction.
+	 */
+	@Value("${order.import.chunk-size:1000}")
+	int chunkSize;
+	
+	/**
+	 * Quantity of statements sent to database in each JDBC batch during imports.
+	 */
+	@Value("${order.import.jdbc-batch-size:500}")
+	int jdbcBatchSize;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param transactionManager Transaction manager of the order database.
+	 */
+	public OrderImportServiceImpl(PlatformTransactionManager transactionManager) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+	
+	/*
+	 * > Parse orders incrementally from the stream.
+	 * > Price, in a single call per chunk, only the orders which came without price.
+	 * > Insert every chunk in its own transaction and log progress in rows per second.
+	 */
+	@Override
+	public OrderImportResult importOrders(InputStream inputStream, String format) throws IOException {
+		long startMillis = System.currentTimeMillis();
+		long orderQuantity = 0L;
+		long orderCustomizationQuantity = 0L;
+		long pricedOrderQuantity = 0L;
+		Iterator<Order> orderIterator = null;
+		List<Order> orderList = new ArrayList<Order>(chunkSize);
+		OrderImportResult orderImportResult = null;
+		
+		if (FORMAT_CSV.equalsIgnoreCase(format)) {
+			orderIterator = new OrderRowGroupingIterator(CSV_MAPPER.readerFor(OrderRow.class).with(CSV_SCHEMA)
+					.readValues(createParser(CSV_MAPPER, inputStream)));
+		} else if (FORMAT_NDJSON.equalsIgnoreCase(format)) {
+			orderIterator = objectMapper.readerFor(Order.class).readValues(createParser(objectMapper, inputStream));
+		} else {
+			throw new IllegalArgumentException("Unsupported order import format: " + format);
+		}
+		
+		while (orderIterator.hasNext()) {
+			orderList.add(orderIterator.next());
+			
+			if (orderList.size() == chunkSize || !orderIterator.hasNext()) {
+				pricedOrderQuantity += priceChunk(orderList);
+				orderCustomizationQuantity += insertChunk(orderList);
+				orderQuantity += orderList.size();
+				
+				orderList.clear();
+				
+				orderImportResult = new OrderImportResult(orderQuantity, orderCustomizationQuantity, pricedOrderQuantity,
+						System.currentTimeMillis() - startMillis);
+				
+				LOGGER.info("Imported " + orderQuantity + " orders and " + orderCustomizationQuantity
+						+ " order customizations, " + orderImportResult.getRowsPerSecond() + " rows/sec");
+			}
+		}
+		
+		return new OrderImportResult(orderQuantity, orderCustomizationQuantity, pricedOrderQuantity,
+				System.currentTimeMillis() - startMillis);
+	}
+	
+	/**
+	 * Create a parser which leaves the stream open once parsing ends.
+	 * 
+	 * @param mapper Mapper of the format of the stream.
+	 * @param inputStream Stream of orders.
+	 * @return Parser of the stream.
+	 * @throws IOException When the stream cannot be read.
+	 */
+	private JsonParser createParser(ObjectMapper mapper, InputStream inputStream) throws IOException {
+		JsonParser jsonParser = mapper.getFactory().createParser(inputStream);
+		
+		jsonParser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+		
+		if (mapper instanceof CsvMapper) {
+			jsonParser.setSchema(CSV_SCHEMA);
+		}
+		
+		return jsonParser;
+	}
+	
+	/**
+	 * Price the orders of a chunk which came without price, through order price cache service in a single call.
+	 * 
+	 * @param orderList List of orders of the chunk.
+	 * @return Quantity of orders priced.
+	 */
+	private int priceChunk(List<Order> orderList) {
+		List<Order> orderUnpricedList = new ArrayList<Order>();
+		List<BigDecimal> priceList = null;
+		
+		for (Order order : orderList) {
+			if (order.getPrice() == null) {
+				orderUnpricedList.add(order);
+			}
+		}
+		
+		if (!orderUnpricedList.isEmpty()) {
+			priceList = orderPriceCacheService.calculateOrderPriceList(orderUnpricedList);
+			
+			for (int i = 0; i < orderUnpricedList.size(); i++) {
+				orderUnpricedList.get(i).setPrice(priceList.get(i));
+			}
+		}
+		
+		return orderUnpricedList.size();
+	}
+	
+	/**
+	 * Insert the orders of a chunk and their customizations in a single transaction, sent to database as JDBC
+	 * 		batches once the persistence context is flushed, and clear the persistence context afterwards. The whole
+	 * 		chunk goes to the shard of a bucket picked at random.
+	 * 
+	 * @param orderList List of orders of the chunk.
+	 * @return Quantity of order customizations inserted.
+	 */
+	private int insertChunk(List<Order> orderList) {
+		return orderShardService.routeToNewOrders(() -> transactionTemplate.execute(status -> {
+			int orderCustomizationQuantity = 0;
+			Map<Long, OrderCustomization> orderCustomizationMap = null;
+			OrderCustomization orderCustomization = null;
+			
+			entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+			
+			for (Order order : orderList) {
+				orderCustomizationMap = order.getOrderCustomizationMap();
+				
+				order.setId(null);
+				order.setOrderCustomizationMap(null);
+				
+				entityManager.persist(order);
+				
+				if (orderCustomizationMap != null) {
+					for (Long ingredientId : orderCustomizationMap.keySet()) {
+						orderCustomization = orderCustomizationMap.get(ingredientId);
+						orderCustomization.setOrderCustomizationId(new OrderCustomizationId());
+						orderCustomization.getOrderCustomizationId().setIngredientId(ingredientId);
+						orderCustomization.getOrderCustomizationId().setOrder(order);
+						
+						entityManager.persist(orderCustomization);
+					}
+					
+					orderCustomizationQuantity += orderCustomizationMap.size();
+				}
+			}
+			
+			entityManager.flush();
+			entityManager.clear();
+			
+			return orderCustomizationQuantity;
+		}));
+	}
+	
+	/**
+	 * Iterator of orders built from CSV rows, grouping consecutive rows of the same order id in one order.
+	 */
+	private static class OrderRowGroupingIterator implements Iterator<Order> {
+		
+		/**
+		 * Iterator of parsed rows.
+		 */
+		private final MappingIterator<OrderRow> orderRowIterator;
+		
+		/**
+		 * First row of the next order, already read from the stream.
+		 */
+		private OrderRow nextOrderRow;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param orderRowIterator Iterator of parsed rows.
+		 */
+		OrderRowGroupingIterator(MappingIterator<OrderRow> orderRowIterator) {
+			this.orderRowIterator = orderRowIterator;
+			this.nextOrderRow = orderRowIterator.hasNext() ? orderRowIterator.next() : null;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return nextOrderRow != null;
+		}
+		
+		@Override
+		public Order next() {
+			Order order = null;
+			
+			if (nextOrderRow == null) {
+				throw new NoSuchElementException();
+			}
+			
+			order = nextOrderRow.toOrder();
+			
+			do {
+				nextOrderRow.putOrderCustomizationInto(order);
+				
+				nextOrderRow = orderRowIterator.hasNext() ? orderRowIterator.next() : null;
+			} while (nextOrderRow != null && Objects.equals(order.getId(), nextOrderRow.getId()));
+			
+			return order;
+		}
+	}
+}
\ No newline at end of file
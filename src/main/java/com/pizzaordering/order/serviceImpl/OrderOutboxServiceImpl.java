@@ -0,0 +1,390 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaordering.order.data.OrderOutboxEventRepository;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderOutboxEvent;
+import com.pizzaordering.order.service.IngredientClientService;
+import com.pizzaordering.order.service.OrderOutboxService;
+import com.pizzaordering.order.service.OrderShardService;
+
+/**
+ * Implementation of order outbox service layer interface. Events are written in the transaction of the order
+ * 		change, on the shard of the order, and dispatched in batches of every shard by a scheduled task. A batch is
+ * 		claimed under a lease before it is sent, so nodes never dispatch the same events at once. Failed events are
+ * 		retried one by one with exponential backoff until their attempts are exhausted, and then kept as failed.
+ * 		Events are released only while still claimed by the dispatch, so a dispatch which outlived its lease leaves
+ * 		them to the one which took them over.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class OrderOutboxServiceImpl implements OrderOutboxService {
+	
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderOutboxServiceImpl.class);
+	
+	/**
+	 * Interface of ingredient client service layer.
+	 */
+	@Autowired
+	IngredientClientService ingredientClientService;
+	
+	/**
+	 * Interface of order outbox event repository layer.
+	 */
+	@Autowired
+	OrderOutboxEventRepository orderOutboxEventRepository;
+	
+	/**
+	 * Interface of order shard service layer.
+	 */
+	@Autowired
+	OrderShardService orderShardService;
+	
+	/**
+	 * JSON mapper of orders.
+	 */
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	/**
+	 * Maximum quantity of events dispatched in a single call.
+	 */
+	@Value("${order.outbox.batch-size:100}")
+	int batchSize;
+	
+	/**
+	 * Delay before the first retry of a failed batch, in milliseconds, doubled on every attempt.
+	 */
+	@Value("${order.outbox.retry-delay-millis:1000}")
+	long retryDelayMillis;
+	
+	/**
+	 * Maximum delay between retries, in milliseconds.
+	 */
+	@Value("${order.outbox.max-retry-delay-millis:300000}")
+	long maxRetryDelayMillis;
+	
+	/**
+	 * Maximum quantity of dispatch attempts of an event before it is kept as failed.
+	 */
+	@Value("${order.outbox.max-attempts:10}")
+	int maxAttempts;
+	
+	/**
+	 * Time a batch stays claimed by a dispatch, in milliseconds, after which a dispatch which never finished is
+	 * 		taken over by another one.
+	 */
+	@Value("${order.outbox.lease-millis:60000}")
+	long leaseMillis;
+	
+	/**
+	 * Quantity of events dispatched.
+	 */
+	private final AtomicLong dispatchedCount = new AtomicLong();
+	
+	/**
+	 * Quantity of failed dispatch attempts.
+	 */
+	private final AtomicLong failedAttemptCount = new AtomicLong();
+	
+	/**
+	 * Quantity of events whose lease was lost before they were released.
+	 */
+	private final AtomicLong lostLeaseCount = new AtomicLong();
+	
+	/**
+	 * Time between creation and dispatch of the oldest event of the last dispatched batch, in milliseconds.
+	 */
+	private final AtomicLong lastDispatchLagMillis = new AtomicLong();
+	
+	/*
+	 * Save event with order serialized as JSON, joining the transaction which changes the order.
+	 */
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void addReverseOrderIngredientsEvent(Order order) {
+		OrderOutboxEvent orderOutboxEvent = new OrderOutboxEvent();
+		Date now = new Date();
+		
+		try {
+			orderOutboxEvent.setPayload(objectMapper.writeValueAsString(order));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		orderOutboxEvent.setType(OrderOutboxEvent.TYPE_REVERSE_ORDER_INGREDIENTS);
+		orderOutboxEvent.setStatus(OrderOutboxEvent.STATUS_PENDING);
+		orderOutboxEvent.setCreationDate(now);
+		orderOutboxEvent.setNextAttemptDate(now);
+		orderOutboxEvent.setAttemptQuantity(0);
+		
+		orderOutboxEventRepository.save(orderOutboxEvent);
+	}
+	
+	/*
+	 * Dispatch a batch of events of every shard.
+	 */
+	@Override
+	public int dispatch() {
+		return orderShardService.routeToEveryShard(this::dispatchShard).stream().mapToInt(Integer::intValue).sum();
+	}
+	
+	/**
+	 * Dispatch pending events of every shard periodically, batch after batch while full batches are found.
+	 */
+	@Scheduled(initialDelayString = "${order.outbox.dispatch-delay-millis:1000}",
+			fixedDelayString = "${order.outbox.dispatch-delay-millis:1000}")
+	public void dispatchPending() {
+		for (int shard = 0; shard < orderShardService.getShardCount(); shard++) {
+			while (orderShardService.routeToShard(shard, this::dispatchShard) == batchSize) {
+			}
+		}
+	}
+	
+	/*
+	 * Return backlog depth and age of oldest pending event, and quantity of failed events, over every shard, dispatch
+	 * 		lag and dispatch counters.
+	 */
+	@Override
+	public Map<String, Number> getStatistics() {
+		Map<String, Number> statistics = new LinkedHashMap<String, Number>();
+		Date oldestCreationDate = orderShardService.routeToEveryShard(() -> orderOutboxEventRepository
+				.findFirstByStatusOrderByIdAsc(OrderOutboxEvent.STATUS_PENDING)).stream().filter(Objects::nonNull)
+				.map(OrderOutboxEvent::getCreationDate).min(Date::compareTo).orElse(null);
+		
+		statistics.put("backlogDepth", countByStatus(OrderOutboxEvent.STATUS_PENDING));
+		statistics.put("failedEventCount", countByStatus(OrderOutboxEvent.STATUS_FAILED));
+		statistics.put("oldestEventAgeMillis", oldestCreationDate == null ? 0L
+				: System.currentTimeMillis() - oldestCreationDate.getTime());
+		statistics.put("lastDispatchLagMillis", lastDispatchLagMillis.get());
+		statistics.put("dispatchedCount", dispatchedCount.get());
+		statistics.put("failedAttemptCount", failedAttemptCount.get());
+		statistics.put("lostLeaseCount", lostLeaseCount.get());
+		
+		return statistics;
+	}
+	
+	/**
+	 * Dispatch a batch of events of the routed shard:
+	 * 
+	 * > Find a batch of pending events ready to be dispatched, and claim them under a lease, skipping those claimed
+	 * 		meanwhile by another dispatch.
+	 * > Reverse ingredients of all orders of the batch in a single call consuming ingredient resource via HTTP REST.
+	 * > When the call fails, reverse ingredients order by order, so a single bad event does not hold the batch.
+	 * > Delete dispatched events, and release the others for a retry with exponential backoff, or keep them as
+	 * 		failed when they cannot be read, are refused by ingredient resource or exhausted their attempts, as long
+	 * 		as they are still claimed by the dispatch.
+	 * 
+	 * @return Quantity of events dispatched.
+	 */
+	private int dispatchShard() {
+		Date now = new Date();
+		String claimToken = UUID.randomUUID().toString();
+		List<Long> idList = null;
+		List<OrderOutboxEvent> orderOutboxEventList = null;
+		Map<OrderOutboxEvent, Order> orderMap = new LinkedHashMap<OrderOutboxEvent, Order>();
+		List<OrderOutboxEvent> orderOutboxEventDispatchedList = new ArrayList<OrderOutboxEvent>();
+		List<OrderOutboxEvent> orderOutboxEventReleasedList = new ArrayList<OrderOutboxEvent>();
+		
+		idList = orderOutboxEventRepository.findIdListByStatusAndNextAttemptDate(OrderOutboxEvent.STATUS_PENDING, now,
+				PageRequest.of(0, batchSize));
+		
+		if (idList.isEmpty() || orderOutboxEventRepository.claimByIdList(claimToken,
+				new Date(now.getTime() + leaseMillis), idList, OrderOutboxEvent.STATUS_PENDING, now) == 0) {
+			return 0;
+		}
+		
+		orderOutboxEventList = orderOutboxEventRepository.findByClaimTokenOrderByIdAsc(claimToken);
+		
+		for (OrderOutboxEvent orderOutboxEvent : orderOutboxEventList) {
+			try {
+				orderMap.put(orderOutboxEvent, objectMapper.readValue(orderOutboxEvent.getPayload(), Order.class));
+			} catch (IOException e) {
+				LOGGER.error("Failed to read order outbox event " + orderOutboxEvent.getId(), e);
+				
+				release(orderOutboxEvent, now, true);
+				orderOutboxEventReleasedList.add(orderOutboxEvent);
+			}
+		}
+		
+		try {
+			if (!orderMap.isEmpty()) {
+				ingredientClientService.reverseOrderIngredientsList(new ArrayList<Order>(orderMap.values()));
+			}
+			
+			orderOutboxEventDispatchedList.addAll(orderMap.keySet());
+		} catch (Exception e) {
+			LOGGER.warn("Failed to dispatch " + orderMap.size() + " order outbox events at once", e);
+			
+			failedAttemptCount.incrementAndGet();
+			
+			dispatchOneByOne(orderMap, now, orderOutboxEventDispatchedList, orderOutboxEventReleasedList);
+		}
+		
+		if (!orderOutboxEventDispatchedList.isEmpty()) {
+			orderOutboxEventRepository.deleteByIdList(orderOutboxEventDispatchedList.stream()
+					.map(OrderOutboxEvent::getId).collect(Collectors.toList()));
+			
+			dispatchedCount.addAndGet(orderOutboxEventDispatchedList.size());
+			lastDispatchLagMillis.set(System.currentTimeMillis()
+					- orderOutboxEventDispatchedList.get(0).getCreationDate().getTime());
+		}
+		
+		if (!orderOutboxEventReleasedList.isEmpty()) {
+			releaseClaimed(claimToken, orderOutboxEventReleasedList);
+		}
+		
+		return orderOutboxEventDispatchedList.size();
+	}
+	
+	/**
+	 * Reverse ingredients of the orders of a failed batch one by one, consuming ingredient resource via HTTP REST.
+	 * 		An event refused by ingredient resource is kept as failed at once. Once a call fails otherwise, ingredient
+	 * 		resource is taken as unavailable and the remaining events are released for a retry without being sent.
+	 * 
+	 * @param orderMap Map of orders of the batch, using event as key.
+	 * @param now Date of the dispatch.
+	 * @param orderOutboxEventDispatchedList List where events dispatched are added.
+	 * @param orderOutboxEventReleasedList List where events released or failed are added.
+	 */
+	private void dispatchOneByOne(Map<OrderOutboxEvent, Order> orderMap, Date now,
+			List<OrderOutboxEvent> orderOutboxEventDispatchedList, List<OrderOutboxEvent> orderOutboxEventReleasedList) {
+		boolean available = true;
+		
+		for (Map.Entry<OrderOutboxEvent, Order> entry : orderMap.entrySet()) {
+			if (!available) {
+				release(entry.getKey(), now, false);
+				orderOutboxEventReleasedList.add(entry.getKey());
+				
+				continue;
+			}
+			
+			try {
+				ingredientClientService.reverseOrderIngredients(entry.getValue());
+				
+				orderOutboxEventDispatchedList.add(entry.getKey());
+			} catch (HttpClientErrorException e) {
+				LOGGER.error("Ingredient resource refused order outbox event " + entry.getKey().getId(), e);
+				
+				release(entry.getKey(), now, true);
+				orderOutboxEventReleasedList.add(entry.getKey());
+			} catch (Exception e) {
+				LOGGER.warn("Failed to dispatch order outbox event " + entry.getKey().getId(), e);
+				
+				available = false;
+				
+				release(entry.getKey(), now, false);
+				orderOutboxEventReleasedList.add(entry.getKey());
+			}
+		}
+	}
+	
+	/**
+	 * Release a claimed event which was not dispatched, counting the attempt, for a retry after exponential backoff,
+	 * 		or as failed when it is not to be retried or it exhausted its attempts.
+	 * 
+	 * @param orderOutboxEvent Event claimed.
+	 * @param now Date of the dispatch.
+	 * @param failed Whether the event is not to be retried.
+	 */
+	private void release(OrderOutboxEvent orderOutboxEvent, Date now, boolean failed) {
+		long delayMillis = 0L;
+		
+		orderOutboxEvent.setAttemptQuantity(orderOutboxEvent.getAttemptQuantity() + 1);
+		orderOutboxEvent.setClaimToken(null);
+		
+		if (failed || orderOutboxEvent.getAttemptQuantity() >= maxAttempts) {
+			LOGGER.error("Order outbox event " + orderOutboxEvent.getId() + " failed after "
+					+ orderOutboxEvent.getAttemptQuantity() + " attempts");
+			
+			orderOutboxEvent.setStatus(OrderOutboxEvent.STATUS_FAILED);
+			orderOutboxEvent.setNextAttemptDate(now);
+			
+			return;
+		}
+		
+		delayMillis = Math.min(retryDelayMillis << Math.min(orderOutboxEvent.getAttemptQuantity() - 1, 30),
+				maxRetryDelayMillis);
+		
+		orderOutboxEvent.setNextAttemptDate(new Date(now.getTime() + delayMillis));
+	}
+	
+	/**
+	 * Write released events in a statement per status, attempt quantity and next attempt date, only those still
+	 * 		claimed by the dispatch. Events not written lost their lease to another dispatch, which owns them now.
+	 * 
+	 * @param claimToken Token of the dispatch.
+	 * @param orderOutboxEventReleasedList List of events released or failed.
+	 */
+	private void releaseClaimed(String claimToken, List<OrderOutboxEvent> orderOutboxEventReleasedList) {
+		Map<List<Object>, List<Long>> idListMap = orderOutboxEventReleasedList.stream().collect(Collectors.groupingBy(
+				orderOutboxEvent -> Arrays.<Object>asList(orderOutboxEvent.getStatus(),
+						orderOutboxEvent.getAttemptQuantity(), orderOutboxEvent.getNextAttemptDate()),
+				LinkedHashMap::new, Collectors.mapping(OrderOutboxEvent::getId, Collectors.toList())));
+		int releasedQuantity = 0;
+		
+		for (Map.Entry<List<Object>, List<Long>> entry : idListMap.entrySet()) {
+			releasedQuantity += orderOutboxEventRepository.releaseByIdList(claimToken, entry.getValue(),
+					(Character) entry.getKey().get(0), (Integer) entry.getKey().get(1), (Date) entry.getKey().get(2));
+		}
+		
+		if (releasedQuantity < orderOutboxEventReleasedList.size()) {
+			LOGGER.warn("Lease of " + (orderOutboxEventReleasedList.size() - releasedQuantity)
+					+ " order outbox events was lost before they were released");
+			
+			lostLeaseCount.addAndGet(orderOutboxEventReleasedList.size() - releasedQuantity);
+		}
+	}
+	
+	/**
+	 * Count events of a status over every shard.
+	 * 
+	 * @param status Status of events.
+	 * @return Quantity of events of the status.
+	 */
+	private long countByStatus(Character status) {
+		return orderShardService.routeToEveryShard(() -> orderOutboxEventRepository.countByStatus(status)).stream()
+				.mapToLong(Long::longValue).sum();
+	}
+}
\ No newline at end of file
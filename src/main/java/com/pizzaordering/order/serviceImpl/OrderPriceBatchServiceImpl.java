@@ -0,0 +1,423 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.IngredientClientService;
+import com.pizzaordering.order.service.OrderAsyncRejectedException;
+import com.pizzaordering.order.service.OrderPriceBatchService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Implementation of order price batch service layer interface. Callers queue their orders and wait; a collector
+ * 		thread takes the first queued order, keeps collecting until the window closes or the batch is full, and
+ * 		hands the batch to a bounded pool which sends it in a single call and fans prices back out to the callers.
+ * 		Callers are rejected when the queue of orders or the queue of batches is full, and wait for their price up
+ * 		to a timeout. With an empty window, the default, every order is priced on its own call.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class OrderPriceBatchServiceImpl implements OrderPriceBatchService {
+	
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderPriceBatchServiceImpl.class);
+	
+	/**
+	 * Name of the queue of orders, on rejections.
+	 */
+	private static final String QUEUE_PENDING_PRICE = "order price batch";
+	
+	/**
+	 * Name of the pool of senders, on rejections.
+	 */
+	private static final String POOL_SENDER = "order price batch sender";
+	
+	/**
+	 * Interface of ingredient client service layer.
+	 */
+	private final IngredientClientService ingredientClientService;
+	
+	/**
+	 * Time to collect orders after the first one of a batch, in nanoseconds.
+	 */
+	private final long windowNanos;
+	
+	/**
+	 * Maximum quantity of orders of a batch.
+	 */
+	private final int maxBatchSize;
+	
+	/**
+	 * Maximum time a caller waits for its price, in milliseconds.
+	 */
+	private final long waitTimeoutMillis;
+	
+	/**
+	 * Orders waiting to be collected into a batch, bounded.
+	 */
+	private final BlockingQueue<PendingPrice> pendingPriceQueue;
+	
+	/**
+	 * Thread collecting queued orders into batches.
+	 */
+	private final Thread collectorThread;
+	
+	/**
+	 * Pool of threads sending batches, bounding the quantity of batches in flight and of batches waiting for a
+	 * 		thread.
+	 */
+	private final ThreadPoolExecutor senderExecutor;
+	
+	/**
+	 * Summary of quantity of orders per batch.
+	 */
+	private final DistributionSummary batchSizeSummary;
+	
+	/**
+	 * Timer of time waited by an order from being queued until its batch is sent.
+	 */
+	private final Timer waitTimer;
+	
+	/**
+	 * Whether the service was shut down, rejecting further orders.
+	 */
+	private volatile boolean shutdown;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param ingredientClientService Interface of ingredient client service layer.
+	 * @param meterRegistry Meter registry.
+	 * @param windowMillis Time to collect orders after the first one of a batch, in milliseconds, 0 to disable
+	 * 		batching.
+	 * @param maxBatchSize Maximum quantity of orders of a batch.
+	 * @param maxConcurrentBatches Maximum quantity of batches in flight, and of batches waiting for a sender.
+	 * @param maxQueued Maximum quantity of orders waiting to be collected into a batch.
+	 * @param waitTimeoutMillis Maximum time a caller waits for its price, in milliseconds.
+	 */
+	public OrderPriceBatchServiceImpl(IngredientClientService ingredientClientService, MeterRegistry meterRegistry,
+			@Value("${order.price-batch.window-millis:0}") long windowMillis,
+			@Value("${order.price-batch.max-size:50}") int maxBatchSize,
+			@Value("${order.price-batch.max-concurrent-batches:8}") int maxConcurrentBatches,
+			@Value("${order.price-batch.max-queued:1000}") int maxQueued,
+			@Value("${order.price-batch.wait-timeout-millis:10000}") long waitTimeoutMillis) {
+		AtomicInteger senderThreadCount = new AtomicInteger();
+		
+		this.ingredientClientService = ingredientClientService;
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+		this.maxBatchSize = maxBatchSize;
+		this.waitTimeoutMillis = waitTimeoutMillis;
+		
+		pendingPriceQueue = new ArrayBlockingQueue<PendingPrice>(maxQueued);
+		batchSizeSummary = DistributionSummary.builder("order.price.batch.size")
+				.description("Orders per batch sent to ingredient resource")
+				.publishPercentileHistogram()
+				.maximumExpectedValue((long) maxBatchSize)
+				.register(meterRegistry);
+		waitTimer = Timer.builder("order.price.batch.wait")
+				.description("Time waited by an order from being queued until its batch is sent")
+				.publishPercentileHistogram()
+				.maximumExpectedValue(Duration.ofMillis(Math.max(windowMillis, 1L) * 10))
+				.register(meterRegistry);
+		
+		Gauge.builder("order.price.batch.queued", pendingPriceQueue, BlockingQueue::size)
+				.description("Orders waiting to be collected into a batch")
+				.register(meterRegistry);
+		
+		if (windowMillis > 0) {
+			senderExecutor = new ThreadPoolExecutor(maxConcurrentBatches, maxConcurrentBatches, 0L,
+					TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(maxConcurrentBatches), runnable -> {
+						Thread thread = new Thread(runnable, "order-price-batch-sender-"
+								+ senderThreadCount.incrementAndGet());
+						thread.setDaemon(true);
+						
+						return thread;
+					});
+			
+			collectorThread = new Thread(this::collect, "order-price-batch-collector");
+			collectorThread.setDaemon(true);
+			collectorThread.start();
+		} else {
+			senderExecutor = null;
+			collectorThread = null;
+		}
+	}
+	
+	/*
+	 * > Price the order on its own call when batching is disabled.
+	 * > Otherwise queue the order, unless the queue is full, and wait for the price fanned out from its batch up to
+	 * 		the wait timeout.
+	 */
+	@Override
+	public BigDecimal calculateOrderPrice(Order order) {
+		PendingPrice pendingPrice = null;
+		
+		if (collectorThread == null) {
+			return ingredientClientService.calculateOrderPrice(order);
+		}
+		
+		pendingPrice = new PendingPrice(order);
+		
+		if (shutdown || !pendingPriceQueue.offer(pendingPrice)) {
+			throw new OrderAsyncRejectedException(QUEUE_PENDING_PRICE);
+		}
+		
+		try {
+			return pendingPrice.future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			
+			throw new IllegalStateException(e.getCause());
+		} catch (TimeoutException e) {
+			throw new ResourceAccessException("Order price batch did not complete within " + waitTimeoutMillis + " ms");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			
+			throw new ResourceAccessException("Interrupted while waiting for order price batch");
+		}
+	}
+	
+	/*
+	 * Return orders still queued, and count, sum and maximum of batch size and of time waited before the batch is
+	 * 		sent, as recorded on their meters.
+	 */
+	@Override
+	public Map<String, Number> getStatistics() {
+		Map<String, Number> statistics = new LinkedHashMap<String, Number>();
+		
+		statistics.put("queuedCount", pendingPriceQueue.size());
+		statistics.put("batchSizeCount", batchSizeSummary.count());
+		statistics.put("batchSizeSum", (long) batchSizeSummary.totalAmount());
+		statistics.put("batchSizeMax", (long) batchSizeSummary.max());
+		statistics.put("waitMicrosCount", waitTimer.count());
+		statistics.put("waitMicrosSum", (long) waitTimer.totalTime(TimeUnit.MICROSECONDS));
+		statistics.put("waitMicrosMax", (long) waitTimer.max(TimeUnit.MICROSECONDS));
+		
+		return statistics;
+	}
+	
+	/**
+	 * Stop collecting and sending batches, failing every order still queued or collected and every batch not sent
+	 * 		yet, so no caller is left waiting.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		List<PendingPrice> pendingPriceList = new ArrayList<PendingPrice>();
+		
+		if (collectorThread == null) {
+			return;
+		}
+		
+		shutdown = true;
+		
+		collectorThread.interrupt();
+		
+		try {
+			collectorThread.join(TimeUnit.SECONDS.toMillis(1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		
+		for (Runnable runnable : senderExecutor.shutdownNow()) {
+			pendingPriceList.addAll(((BatchSender) runnable).batch);
+		}
+		
+		pendingPriceQueue.drainTo(pendingPriceList);
+		
+		fail(pendingPriceList, new OrderAsyncRejectedException(QUEUE_PENDING_PRICE));
+	}
+	
+	/**
+	 * Collect queued orders into batches until interrupted: block for the first order of a batch, then take
+	 * 		further orders until the window closes or the batch is full.
+	 */
+	private void collect() {
+		List<PendingPrice> batch = null;
+		PendingPrice pendingPrice = null;
+		long deadline = 0L;
+		long remainingNanos = 0L;
+		
+		try {
+			while (true) {
+				batch = new ArrayList<PendingPrice>(maxBatchSize);
+				batch.add(pendingPriceQueue.take());
+				
+				deadline = System.nanoTime() + windowNanos;
+				
+				while (batch.size() < maxBatchSize && (remainingNanos = deadline - System.nanoTime()) > 0) {
+					pendingPrice = pendingPriceQueue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+					
+					if (pendingPrice == null) {
+						break;
+					}
+					
+					batch.add(pendingPrice);
+					pendingPriceQueue.drainTo(batch, maxBatchSize - batch.size());
+				}
+				
+				send(batch);
+				
+				batch = null;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			
+			if (batch != null) {
+				fail(batch, new OrderAsyncRejectedException(QUEUE_PENDING_PRICE));
+			}
+		}
+	}
+	
+	/**
+	 * Send a batch on the pool of senders, failing it at once when every sender is busy and the queue of batches is
+	 * 		full.
+	 * 
+	 * @param batch List of queued orders of the batch.
+	 */
+	private void send(List<PendingPrice> batch) {
+		long now = System.nanoTime();
+		
+		batchSizeSummary.record(batch.size());
+		
+		for (PendingPrice pendingPrice : batch) {
+			waitTimer.record(now - pendingPrice.queuedNanos, TimeUnit.NANOSECONDS);
+		}
+		
+		try {
+			senderExecutor.execute(new BatchSender(batch));
+		} catch (RejectedExecutionException e) {
+			fail(batch, new OrderAsyncRejectedException(POOL_SENDER));
+		}
+	}
+	
+	/**
+	 * Complete every waiting caller of a list of queued orders with a failure.
+	 * 
+	 * @param pendingPriceList List of queued orders.
+	 * @param e Failure.
+	 */
+	private static void fail(List<PendingPrice> pendingPriceList, Throwable e) {
+		for (PendingPrice pendingPrice : pendingPriceList) {
+			pendingPrice.future.completeExceptionally(e);
+		}
+	}
+	
+	/**
+	 * Task of the pool of senders sending a batch in a single call to calculate order price list, completing every
+	 * 		waiting caller with its price or with the failure of the call.
+	 */
+	private class BatchSender implements Runnable {
+		
+		/**
+		 * List of queued orders of the batch.
+		 */
+		private final List<PendingPrice> batch;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param batch List of queued orders of the batch.
+		 */
+		BatchSender(List<PendingPrice> batch) {
+			this.batch = batch;
+		}
+		
+		@Override
+		public void run() {
+			List<Order> orderList = new ArrayList<Order>(batch.size());
+			List<BigDecimal> priceList = null;
+			
+			for (PendingPrice pendingPrice : batch) {
+				orderList.add(pendingPrice.order);
+			}
+			
+			try {
+				priceList = ingredientClientService.calculateOrderPriceList(orderList);
+				
+				for (int i = 0; i < batch.size(); i++) {
+					batch.get(i).future.complete(priceList.get(i));
+				}
+			} catch (Throwable e) {
+				LOGGER.warn("Failed to price a batch of " + batch.size() + " orders", e);
+				
+				fail(batch, e);
+			}
+		}
+	}
+	
+	/**
+	 * Order queued to be priced, with the future of its price.
+	 */
+	private static class PendingPrice {
+		
+		/**
+		 * Order with customized ingredients to be calculated.
+		 */
+		private final Order order;
+		
+		/**
+		 * Future of the price of the order.
+		 */
+		private final CompletableFuture<BigDecimal> future = new CompletableFuture<BigDecimal>();
+		
+		/**
+		 * Time the order was queued, in nanoseconds.
+		 */
+		private final long queuedNanos = System.nanoTime();
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param order Order with customized ingredients to be calculated.
+		 */
+		PendingPrice(Order order) {
+			this.order = order;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,194 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.IngredientClientService;
+import com.pizzaordering.order.service.OrderPriceCacheService;
+import com.pizzaordering.order.service.OrderPriceSingleFlightService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Implementation of order price cache service layer interface, keeping prices by order price signature on a
+ * 		bounded cache with time to live, whose statistics are published as cache meters named order.price.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class OrderPriceCacheServiceImpl implements OrderPriceCacheService {
+	
+	/**
+	 * Interface of ingredient client service layer.
+	 */
+	@Autowired
+	IngredientClientService ingredientClientService;
+	
+	/**
+	 * Interface of order price single flight service layer.
+	 */
+	@Autowired
+	OrderPriceSingleFlightService orderPriceSingleFlightService;
+	
+	/**
+	 * Cache of prices, using order price signature as key.
+	 */
+	private final Cache<String, BigDecimal> priceCache;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param meterRegistry Registry of meters.
+	 * @param maximumSize Maximum quantity of cached prices.
+	 * @param expireAfterWriteSeconds Time to live of a cached price, in seconds.
+	 */
+	public OrderPriceCacheServiceImpl(MeterRegistry meterRegistry,
+			@Value("${order.price-cache.maximum-size:10000}") long maximumSize,
+			@Value("${order.price-cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds) {
+		priceCache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+				.recordStats()
+				.<String, BigDecimal>build(), "order.price");
+	}
+	
+	/*
+	 * Return price from cache, calculating it on miss through the single flight service, so concurrent misses of
+	 * 		the same signature share one call without holding a lock of the cache while it is in flight.
+	 */
+	@Override
+	public BigDecimal calculateOrderPrice(Order order) {
+		String signature = OrderPriceSignature.of(order);
+		BigDecimal price = priceCache.getIfPresent(signature);
+		
+		if (price == null) {
+			price = orderPriceSingleFlightService.calculateOrderPrice(order);
+			
+			if (price != null) {
+				priceCache.put(signature, price);
+			}
+		}
+		
+		return price;
+	}
+	
+	/*
+	 * > Return prices from cache.
+	 * > Calculate prices of missed orders in a single call consuming ingredient resource via HTTP REST.
+	 * > Cache calculated prices.
+	 */
+	@Override
+	public List<BigDecimal> calculateOrderPriceList(List<Order> orderList) {
+		List<BigDecimal> priceList = new ArrayList<BigDecimal>(orderList.size());
+		Map<String, List<Integer>> missedIndexMap = new LinkedHashMap<String, List<Integer>>();
+		List<Order> missedOrderList = new ArrayList<Order>();
+		List<BigDecimal> missedPriceList = null;
+		String signature = null;
+		BigDecimal price = null;
+		int i = 0;
+		
+		for (Order order : orderList) {
+			signature = OrderPriceSignature.of(order);
+			price = priceCache.getIfPresent(signature);
+			
+			priceList.add(price);
+			
+			if (price == null) {
+				if (!missedIndexMap.containsKey(signature)) {
+					missedIndexMap.put(signature, new ArrayList<Integer>());
+					missedOrderList.add(order);
+				}
+				
+				missedIndexMap.get(signature).add(i);
+			}
+			
+			i++;
+		}
+		
+		if (!missedOrderList.isEmpty()) {
+			missedPriceList = ingredientClientService.calculateOrderPriceList(missedOrderList);
+			
+			i = 0;
+			
+			for (Map.Entry<String, List<Integer>> entry : missedIndexMap.entrySet()) {
+				price = missedPriceList.get(i++);
+				
+				priceCache.put(entry.getKey(), price);
+				
+				for (Integer index : entry.getValue()) {
+					priceList.set(index, price);
+				}
+			}
+		}
+		
+		return priceList;
+	}
+	
+	/*
+	 * Return price from cache without calculating it.
+	 */
+	@Override
+	public BigDecimal getOrderPrice(Order order) {
+		return priceCache.getIfPresent(OrderPriceSignature.of(order));
+	}
+	
+	/*
+	 * Cache price by order price signature.
+	 */
+	@Override
+	public void putOrderPrice(Order order, BigDecimal price) {
+		priceCache.put(OrderPriceSignature.of(order), price);
+	}
+	
+	/*
+	 * Discard every cached price.
+	 */
+	@Override
+	public void invalidateAll() {
+		priceCache.invalidateAll();
+	}
+	
+	/*
+	 * Return hit, miss and eviction statistics and current size of cache, kept besides the cache meters for the
+	 * 		clients of the orders endpoint.
+	 */
+	@Override
+	public Map<String, Number> getStatistics() {
+		CacheStats cacheStats = priceCache.stats();
+		Map<String, Number> statistics = new LinkedHashMap<String, Number>();
+		
+		statistics.put("size", priceCache.estimatedSize());
+		statistics.put("hitCount", cacheStats.hitCount());
+		statistics.put("missCount", cacheStats.missCount());
+		statistics.put("hitRate", cacheStats.hitRate());
+		statistics.put("evictionCount", cacheStats.evictionCount());
+		
+		return statistics;
+	}
+}
\ No newline at end of file
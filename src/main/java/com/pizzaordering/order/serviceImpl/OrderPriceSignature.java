@@ -0,0 +1,73 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import com.pizzaordering.order.dto.OrderCustomizationTable;
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Canonical signature of everything that affects the price of an order: closed recipe, size, thickness of bread
+ * 		and customized ingredients sorted by ingredient id. Observations do not affect the price and are left out.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public final class OrderPriceSignature {
+	
+	/**
+	 * Constructor.
+	 */
+	private OrderPriceSignature() {
+	}
+	
+	/**
+	 * Build the price signature of an order.
+	 * 
+	 * @param order Order with customized ingredients.
+	 * @return Price signature of the order.
+	 */
+	public static String of(Order order) {
+		return of(order.getClosedRecipeId(), order.getSize(), order.getBreadThickness(),
+				order.getOrderCustomizationMap() == null ? null
+						: OrderCustomizationTable.of(order.getOrderCustomizationMap()));
+	}
+	
+	/**
+	 * Build the price signature of the fields of an order, walking customized ingredients on the slots of their
+	 * 		table sorted by ingredient id, without boxing ingredient ids or copying entries into a sorted map.
+	 * 
+	 * @param closedRecipeId Closed recipe id.
+	 * @param size Size.
+	 * @param breadThickness Thickness of bread.
+	 * @param orderCustomizationTable Table of customized ingredients, or null.
+	 * @return Price signature of the order.
+	 */
+	private static String of(Integer closedRecipeId, Character size, Character breadThickness,
+			OrderCustomizationTable orderCustomizationTable) {
+		StringBuilder signature = new StringBuilder(64);
+		
+		signature.append(closedRecipeId).append('|')
+				.append(size).append('|')
+				.append(breadThickness);
+		
+		if (orderCustomizationTable != null) {
+			for (int slot : orderCustomizationTable.sortedSlots()) {
+				signature.append('|').append(orderCustomizationTable.getIngredientId(slot))
+						.append(':').append(orderCustomizationTable.getType(slot))
+						.append(':').append(orderCustomizationTable.getPortionQuantity(slot));
+			}
+		}
+		
+		return signature.toString();
+	}
+}
\ No newline at end of file
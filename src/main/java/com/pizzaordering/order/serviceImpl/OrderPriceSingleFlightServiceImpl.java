@@ -0,0 +1,148 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.OrderPriceBatchService;
+import com.pizzaordering.order.service.OrderPriceSingleFlightService;
+
+/**
+ * Implementation of order price single flight service layer interface. The first caller of a price signature
+ * 		makes the call through the batch service and every concurrent caller of the same signature waits for its
+ * 		result, or its failure, instead of making a call of its own, for a bounded time. Nothing is kept once the
+ * 		call completes.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class OrderPriceSingleFlightServiceImpl implements OrderPriceSingleFlightService {
+	
+	/**
+	 * Interface of order price batch service layer.
+	 */
+	@Autowired
+	OrderPriceBatchService orderPriceBatchService;
+	
+	/**
+	 * Maximum time a caller waits for the call in flight of its price signature, in milliseconds.
+	 */
+	@Value("${order.price-single-flight.wait-timeout-millis:10000}")
+	long waitTimeoutMillis;
+	
+	/**
+	 * Calls in flight, using order price signature as key.
+	 */
+	private final ConcurrentMap<String, CompletableFuture<BigDecimal>> inFlightMap =
+			new ConcurrentHashMap<String, CompletableFuture<BigDecimal>>();
+	
+	/**
+	 * Quantity of calls made, one per price signature in flight.
+	 */
+	private final AtomicLong callCount = new AtomicLong();
+	
+	/**
+	 * Quantity of calls collapsed into a call already in flight.
+	 */
+	private final AtomicLong collapsedCount = new AtomicLong();
+	
+	/*
+	 * > Join the call in flight for the same price signature, if any, waiting for it up to the wait timeout.
+	 * > Otherwise register a call, make it through the batch service and share its outcome, whatever is thrown, so
+	 * 		no caller joined is left waiting.
+	 */
+	@Override
+	public BigDecimal calculateOrderPrice(Order order) {
+		String signature = OrderPriceSignature.of(order);
+		CompletableFuture<BigDecimal> future = new CompletableFuture<BigDecimal>();
+		CompletableFuture<BigDecimal> inFlightFuture = inFlightMap.putIfAbsent(signature, future);
+		
+		if (inFlightFuture != null) {
+			collapsedCount.incrementAndGet();
+			
+			return await(inFlightFuture);
+		}
+		
+		callCount.incrementAndGet();
+		
+		try {
+			future.complete(orderPriceBatchService.calculateOrderPrice(order));
+		} catch (Throwable e) {
+			future.completeExceptionally(e);
+			
+			throw e;
+		} finally {
+			inFlightMap.remove(signature, future);
+		}
+		
+		return future.getNow(null);
+	}
+	
+	/**
+	 * Wait for the outcome of a call in flight, up to the wait timeout.
+	 * 
+	 * @param inFlightFuture Future of the call in flight.
+	 * @return Price of the call.
+	 * @throws ResourceAccessException When the call does not complete within the wait timeout.
+	 */
+	private BigDecimal await(CompletableFuture<BigDecimal> inFlightFuture) {
+		try {
+			return inFlightFuture.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			
+			throw new IllegalStateException(e.getCause());
+		} catch (TimeoutException e) {
+			throw new ResourceAccessException("Price call in flight did not complete within " + waitTimeoutMillis
+					+ " ms");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			
+			throw new ResourceAccessException("Interrupted while waiting for price call in flight");
+		}
+	}
+	
+	/*
+	 * Return calls made, calls collapsed and calls in flight.
+	 */
+	@Override
+	public Map<String, Number> getStatistics() {
+		Map<String, Number> statistics = new LinkedHashMap<String, Number>();
+		
+		statistics.put("callCount", callCount.get());
+		statistics.put("collapsedCount", collapsedCount.get());
+		statistics.put("inFlightCount", inFlightMap.size());
+		
+		return statistics;
+	}
+}
\ No newline at end of file
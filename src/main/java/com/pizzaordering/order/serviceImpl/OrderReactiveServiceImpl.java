@@ -0,0 +1,358 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order.serviceImpl;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaordering.order.data.OrderRepository;
+import com.pizzaordering.order.dto.CompactOrder;
+import com.pizzaordering.order.dto.OrderPage;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.IngredientReactiveClientService;
+import com.pizzaordering.order.service.OrderAsyncRejectedException;
+import com.pizzaordering.order.service.OrderIdempotencyService;
+import com.pizzaordering.order.service.OrderPriceCacheService;
+import com.pizzaordering.order.service.OrderReadRoutingService;
+import com.pizzaordering.order.service.OrderReactiveService;
+import com.pizzaordering.order.service.OrderService;
+import com.pizzaordering.order.service.OrderShardService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Implementation of reactive order service layer interface, created on the reactive runtime only. Orders waiting
+ * 		on ingredient resource hold no thread: prices known locally are taken from the cache, and the others are
+ * 		calculated by the reactive ingredient client, one call per price signature in flight.
+ * 		Database access goes through the same JPA and JDBC repositories of the servlet runtime, which block, so it
+ * 		runs on a fixed pool of threads sized to the pool of database connections, with a bounded queue answered
+ * 		with 503 Service Unavailable when full.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class OrderReactiveServiceImpl implements OrderReactiveService {
+	
+	/**
+	 * Name of the pool of threads of persistence.
+	 */
+	private static final String POOL_PERSISTENCE = "reactive persistence";
+	
+	/**
+	 * Interface of reactive ingredient client service layer.
+	 */
+	@Autowired
+	IngredientReactiveClientService ingredientReactiveClientService;
+	
+	/**
+	 * Interface of order price cache service layer.
+	 */
+	@Autowired
+	OrderPriceCacheService orderPriceCacheService;
+	
+	/**
+	 * Interface of order service layer.
+	 */
+	@Autowired
+	OrderService orderService;
+	
+	/**
+	 * Interface of order idempotency service layer.
+	 */
+	@Autowired
+	OrderIdempotencyService orderIdempotencyService;
+	
+	/**
+	 * Interface of order repository layer.
+	 */
+	@Autowired
+	OrderRepository orderRepository;
+	
+	/**
+	 * Interface of order read routing service layer.
+	 */
+	@Autowired
+	OrderReadRoutingService orderReadRoutingService;
+	
+	/**
+	 * Interface of order shard service layer.
+	 */
+	@Autowired
+	OrderShardService orderShardService;
+	
+	/**
+	 * JSON mapper of orders.
+	 */
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	/**
+	 * Maximum quantity of orders read from database at once by an export.
+	 */
+	@Value("${order.reactive.export-chunk-size:1000}")
+	int exportChunkSize;
+	
+	/**
+	 * Calls of ingredient resource in flight, using order price signature as key.
+	 */
+	private final ConcurrentMap<String, Mono<BigDecimal>> inFlightMap = new ConcurrentHashMap<String, Mono<BigDecimal>>();
+	
+	/**
+	 * Scheduler of database access, over the pool of threads of persistence.
+	 */
+	private final Scheduler persistenceScheduler;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param persistenceThreads Quantity of threads accessing database, at most the size of the pool of database
+	 * 		connections.
+	 * @param persistenceQueueCapacity Maximum quantity of database accesses waiting for a thread.
+	 */
+	public OrderReactiveServiceImpl(@Value("${order.reactive.persistence-threads:10}") int persistenceThreads,
+			@Value("${order.reactive.persistence-queue-capacity:1000}") int persistenceQueueCapacity) {
+		AtomicInteger threadCount = new AtomicInteger();
+		
+		persistenceScheduler = Schedulers.fromExecutorService(new ThreadPoolExecutor(persistenceThreads,
+				persistenceThreads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(persistenceQueueCapacity),
+				runnable -> {
+					Thread thread = new Thread(runnable, "order-reactive-persistence-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					
+					return thread;
+				}));
+	}
+	
+	/*
+	 * > Return price from cache.
+	 * > Otherwise join the call in flight for the same price signature, or make one consuming ingredient resource,
+	 * 		caching its price and sharing its outcome with every subscriber.
+	 */
+	@Override
+	public Mono<BigDecimal> calculateOrderPrice(Order order) {
+		return Mono.defer(() -> {
+			BigDecimal price = orderPriceCacheService.getOrderPrice(order);
+			
+			if (price != null) {
+				return Mono.just(price);
+			}
+			
+			return inFlightMap.computeIfAbsent(OrderPriceSignature.of(order), signature ->
+					ingredientReactiveClientService.calculateOrderPrice(order)
+							.doOnNext(calculatedPrice -> orderPriceCacheService.putOrderPrice(order, calculatedPrice))
+							.doFinally(signalType -> inFlightMap.remove(signature))
+							.cache());
+		});
+	}
+	
+	/*
+	 * > Return prices from cache.
+	 * > Calculate prices of missed orders in a single call consuming ingredient resource, caching them.
+	 */
+	@Override
+	public Mono<List<BigDecimal>> calculateOrderPriceList(List<Order> orderList) {
+		return Mono.defer(() -> {
+			List<BigDecimal> priceList = new ArrayList<BigDecimal>(orderList.size());
+			List<Integer> missedIndexList = new ArrayList<Integer>();
+			List<Order> missedOrderList = new ArrayList<Order>();
+			BigDecimal price = null;
+			
+			for (Order order : orderList) {
+				price = orderPriceCacheService.getOrderPrice(order);
+				
+				if (price == null) {
+					missedIndexList.add(priceList.size());
+					missedOrderList.add(order);
+				}
+				
+				priceList.add(price);
+			}
+			
+			if (missedOrderList.isEmpty()) {
+				return Mono.just(priceList);
+			}
+			
+			return ingredientReactiveClientService.calculateOrderPriceList(missedOrderList).map(missedPriceList -> {
+				for (int i = 0; i < missedPriceList.size(); i++) {
+					orderPriceCacheService.putOrderPrice(missedOrderList.get(i), missedPriceList.get(i));
+					priceList.set(missedIndexList.get(i), missedPriceList.get(i));
+				}
+				
+				return priceList;
+			});
+		});
+	}
+	
+	/*
+	 * > Calculate order price without blocking.
+	 * > Save priced order with its customized ingredients on the pool of persistence.
+	 */
+	@Override
+	public Mono<Order> addOrder(Order order) {
+		return calculateOrderPrice(order).flatMap(price -> {
+			order.setPrice(price);
+			
+			return persist(() -> orderService.addPricedOrder(order));
+		});
+	}
+	
+	/*
+	 * > Calculate order price without blocking, so it is known locally once the order is added.
+	 * > Add order once per idempotency key on the pool of persistence.
+	 */
+	@Override
+	public Mono<Order> addOrder(String idempotencyKey, Order order) {
+		return calculateOrderPrice(order).then(persist(() -> orderIdempotencyService.addOrder(idempotencyKey, order)));
+	}
+	
+	/*
+	 * > Calculate prices of all orders without blocking, so they are known locally once orders are added.
+	 * > Add all orders at once on the pool of persistence.
+	 */
+	@Override
+	public Mono<List<Order>> addOrderList(List<Order> orderList) {
+		return calculateOrderPriceList(orderList).then(persist(() -> orderService.addOrderList(orderList)));
+	}
+	
+	/*
+	 * Get order from cache, or from database on the pool of persistence.
+	 */
+	@Override
+	public Mono<Order> getOrder(Long id) {
+		return persist(() -> orderService.getOrder(id));
+	}
+	
+	/*
+	 * Get page of orders on the pool of persistence.
+	 */
+	@Override
+	public Mono<OrderPage> getOrderPage(Long after, int limit) {
+		return persist(() -> orderService.getOrderPage(after, limit));
+	}
+	
+	/*
+	 * > Read orders with customized ingredients from a replica of every shard, shard after shard, in chunks after the
+	 * 		last id read, each one on the pool of persistence, so no thread nor cursor is held between chunks.
+	 * > Read the next chunk only once the previous one was requested downstream, and stop reading when cancelled.
+	 */
+	@Override
+	public Flux<String> exportOrders() {
+		return Flux.range(0, orderShardService.getShardCount()).concatMap(this::exportShard, 1);
+	}
+	
+	/*
+	 * Delete order on the pool of persistence, where its event to reverse ingredients is added to outbox.
+	 */
+	@Override
+	public Mono<Void> deleteOrder(Long id) {
+		return persist(() -> {
+			orderService.deleteOrder(id);
+			
+			return null;
+		}).then();
+	}
+	
+	/**
+	 * Stop the pool of threads of persistence.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		persistenceScheduler.dispose();
+	}
+	
+	/**
+	 * Export orders of a shard chunk after chunk, until a chunk is not full. Orders written meanwhile after the last
+	 * 		id read are exported too, so the export is not a snapshot.
+	 * 
+	 * @param shard Shard of orders.
+	 * @return Lines of JSON, one order per line.
+	 */
+	private Flux<String> exportShard(int shard) {
+		return Flux.defer(() -> {
+			AtomicLong after = new AtomicLong();
+			Callable<List<String>> chunkReader = () -> orderShardService.routeToShard(shard,
+					() -> orderReadRoutingService.readFromReplica(() -> {
+						List<String> lineList = new ArrayList<String>(exportChunkSize);
+						
+						orderRepository.readOrderChunk(after.get(), exportChunkSize, compactOrder -> {
+							lineList.add(toJsonLine(compactOrder));
+							after.set(compactOrder.getId());
+						});
+						
+						return lineList;
+					}));
+			
+			return persist(chunkReader).expand(lineList -> lineList.size() < exportChunkSize ? Mono.empty()
+					: persist(chunkReader));
+		}).concatMapIterable(lineList -> lineList, 1);
+	}
+	
+	/**
+	 * Write an order as a line of JSON.
+	 * 
+	 * @param compactOrder Order with customized ingredients.
+	 * @return Line of JSON.
+	 */
+	private String toJsonLine(CompactOrder compactOrder) {
+		StringWriter writer = new StringWriter(256);
+		
+		try (JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(writer)) {
+			compactOrder.writeJson(jsonGenerator);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		return writer.append('\n').toString();
+	}
+	
+	/**
+	 * Run a database access on the pool of persistence, answered with 503 Service Unavailable when its queue is full.
+	 * 
+	 * @param <T> Type of the result.
+	 * @param callable Database access, returning null for no result.
+	 * @return Result of the database access.
+	 */
+	private <T> Mono<T> persist(Callable<T> callable) {
+		return Mono.fromCallable(callable)
+				.subscribeOn(persistenceScheduler)
+				.onErrorMap(RejectedExecutionException.class, e -> new OrderAsyncRejectedException(POOL_PERSISTENCE));
+	}
+}
\ No newline at end of file
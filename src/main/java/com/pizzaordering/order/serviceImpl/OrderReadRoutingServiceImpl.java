@@ -0,0 +1,293 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.serviceImpl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import com.pizzaordering.order.data.OrderRoutingDataSource;
+import com.pizzaordering.order.service.OrderReadRoutingService;
+
+/**
+ * Implementation of order read routing service layer interface. Reads are routed to replicas, except reads of
+ * 		orders written within a short window, which go to the primary database so a client reads its own writes
+ * 		while replicas catch up. The window starts once the write commits. Writes are remembered by the node which
+ * 		made them, and by the client through a cookie holding the end of its window as set by the writer, so a
+ * 		client whose next request lands on another node reads every order from the primary database until then.
+ * 		Nodes compare that end with their own clock, extended by a tolerance of clock skew, so clocks of nodes must
+ * 		agree within that tolerance. Clients which drop the cookie, and writes made off a servlet request, as on
+ * 		asynchronous or reactive operations, only get the guarantee from the node which made the write.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class OrderReadRoutingServiceImpl implements OrderReadRoutingService {
+	
+	/**
+	 * Name of the cookie holding the end of the window of the last write of the client, in milliseconds.
+	 */
+	public static final String COOKIE_STICKY_UNTIL = "orderStickyUntil";
+	
+	/**
+	 * Routing data source of orders.
+	 */
+	@Autowired
+	OrderRoutingDataSource orderRoutingDataSource;
+	
+	/**
+	 * Window after a write during which the order is read from the primary database, in milliseconds.
+	 */
+	@Value("${order.read-routing.sticky-millis:1000}")
+	long stickyMillis;
+	
+	/**
+	 * Clock skew between nodes tolerated when comparing the end of the window set by another node, in milliseconds.
+	 */
+	@Value("${order.read-routing.clock-skew-millis:1000}")
+	long clockSkewMillis;
+	
+	/**
+	 * Template of read-only transactions.
+	 */
+	private final TransactionTemplate readOnlyTransactionTemplate;
+	
+	/**
+	 * Time of the last write of orders written within the window, in milliseconds, using order id as key.
+	 */
+	private final ConcurrentSkipListMap<Long, Long> writeMillisMap = new ConcurrentSkipListMap<Long, Long>();
+	
+	/**
+	 * Quantity of reads routed to replicas.
+	 */
+	private final AtomicLong replicaReadCount = new AtomicLong();
+	
+	/**
+	 * Quantity of reads routed to the primary database.
+	 */
+	private final AtomicLong primaryReadCount = new AtomicLong();
+	
+	/**
+	 * Quantity of checks which found an order written within the window.
+	 */
+	private final AtomicLong stickyHitCount = new AtomicLong();
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param transactionManager Transaction manager of the order database.
+	 */
+	public OrderReadRoutingServiceImpl(PlatformTransactionManager transactionManager) {
+		readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+		readOnlyTransactionTemplate.setReadOnly(true);
+	}
+	
+	/*
+	 * Run read on a replica.
+	 */
+	@Override
+	public <T> T readFromReplica(Supplier<T> read) {
+		return read(true, read);
+	}
+	
+	/*
+	 * Run read on the primary database.
+	 */
+	@Override
+	public <T> T readFromPrimary(Supplier<T> read) {
+		return read(false, read);
+	}
+	
+	/*
+	 * > Record time of write now, only when there is any replica to be stale, and again once the write commits,
+	 * 		so the window is not shortened by the commit.
+	 * > Hand the end of the window to the client as a cookie once the write commits, once per request.
+	 */
+	@Override
+	public void recordWrite(Long id) {
+		ServletRequestAttributes requestAttributes = getRequestAttributes();
+		
+		if (!orderRoutingDataSource.hasReplicas()) {
+			return;
+		}
+		
+		writeMillisMap.put(id, System.currentTimeMillis());
+		
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					recordCommit(id, requestAttributes);
+				}
+			});
+		} else {
+			recordCommit(id, requestAttributes);
+		}
+	}
+	
+	/*
+	 * > Take every order as written recently when the client wrote within the window, on this node or another one,
+	 * 		tolerating the clock skew between the node which wrote and this one.
+	 * > Otherwise look for an order of the range written within the window on this node, skipping those already out
+	 * 		of it.
+	 */
+	@Override
+	public boolean isWrittenRecently(Long afterId, Long untilId) {
+		long windowStartMillis = System.currentTimeMillis() - stickyMillis;
+		ConcurrentNavigableMap<Long, Long> rangeWriteMillisMap = untilId == null
+				? writeMillisMap.tailMap(afterId, false) : writeMillisMap.subMap(afterId, false, untilId, true);
+		
+		if (orderRoutingDataSource.hasReplicas()
+				&& getClientStickyUntilMillis() + clockSkewMillis >= System.currentTimeMillis()) {
+			stickyHitCount.incrementAndGet();
+			
+			return true;
+		}
+		
+		for (Long writeMillis : rangeWriteMillisMap.values()) {
+			if (writeMillis >= windowStartMillis) {
+				stickyHitCount.incrementAndGet();
+				
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Forget writes out of the window periodically.
+	 */
+	@Scheduled(fixedDelayString = "${order.read-routing.sticky-millis:1000}")
+	public void purgeWrites() {
+		long windowStartMillis = System.currentTimeMillis() - stickyMillis;
+		
+		writeMillisMap.values().removeIf(writeMillis -> writeMillis < windowStartMillis);
+	}
+	
+	/*
+	 * Return read routing counters, quantity of orders in the window and statistics of every pool.
+	 */
+	@Override
+	public Map<String, Number> getStatistics() {
+		Map<String, Number> statistics = new LinkedHashMap<String, Number>();
+		
+		statistics.put("replicaReadCount", replicaReadCount.get());
+		statistics.put("primaryReadCount", primaryReadCount.get());
+		statistics.put("stickyHitCount", stickyHitCount.get());
+		statistics.put("stickyOrderCount", writeMillisMap.size());
+		statistics.putAll(orderRoutingDataSource.getPoolStatistics());
+		
+		return statistics;
+	}
+	
+	/**
+	 * Get the attributes of the servlet request being handled by the current thread.
+	 * 
+	 * @return Attributes of the request, or null off a servlet request.
+	 */
+	private ServletRequestAttributes getRequestAttributes() {
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		
+		return requestAttributes instanceof ServletRequestAttributes ? (ServletRequestAttributes) requestAttributes
+				: null;
+	}
+	
+	/**
+	 * Record the commit of a write, starting its window, and hand the end of the window to the client of the
+	 * 		request, if any and unless already handed, as a cookie living as long as the window and the clock skew.
+	 * 
+	 * @param id Id of order.
+	 * @param requestAttributes Attributes of the request which wrote, or null off a servlet request.
+	 */
+	private void recordCommit(Long id, ServletRequestAttributes requestAttributes) {
+		long commitMillis = System.currentTimeMillis();
+		HttpServletResponse response = requestAttributes == null ? null : requestAttributes.getResponse();
+		Cookie cookie = null;
+		
+		writeMillisMap.put(id, commitMillis);
+		
+		if (response == null || response.isCommitted()
+				|| requestAttributes.getAttribute(COOKIE_STICKY_UNTIL, RequestAttributes.SCOPE_REQUEST) != null) {
+			return;
+		}
+		
+		cookie = new Cookie(COOKIE_STICKY_UNTIL, Long.toString(commitMillis + stickyMillis));
+		cookie.setPath("/");
+		cookie.setMaxAge((int) Math.max(TimeUnit.MILLISECONDS.toSeconds(stickyMillis + clockSkewMillis + 999L), 1L));
+		cookie.setHttpOnly(true);
+		
+		response.addCookie(cookie);
+		requestAttributes.setAttribute(COOKIE_STICKY_UNTIL, commitMillis, RequestAttributes.SCOPE_REQUEST);
+	}
+	
+	/**
+	 * Get the end of the window of the last write of the client, as set by the node which wrote, from its cookie.
+	 * 
+	 * @return End of the window of the last write of the client, in milliseconds, or 0 when it is unknown.
+	 */
+	private long getClientStickyUntilMillis() {
+		ServletRequestAttributes requestAttributes = getRequestAttributes();
+		Cookie cookie = requestAttributes == null ? null : WebUtils.getCookie(requestAttributes.getRequest(),
+				COOKIE_STICKY_UNTIL);
+		
+		if (cookie == null) {
+			return 0L;
+		}
+		
+		try {
+			return Long.parseLong(cookie.getValue());
+		} catch (NumberFormatException e) {
+			return 0L;
+		}
+	}
+	
+	/**
+	 * Run a read in a read-only transaction routed to a replica or to the primary database. A read joining a running
+	 * 		transaction is run as is, since the transaction may already hold a connection of the primary database
+	 * 		and may write once the read ends.
+	 * 
+	 * @param replicaRead Whether the read is routed to a replica.
+	 * @param read Read to be run.
+	 * @return Result of the read.
+	 */
+	private <T> T read(boolean replicaRead, Supplier<T> read) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return read.get();
+		}
+		
+		(replicaRead && orderRoutingDataSource.hasReplicas() ? replicaReadCount : primaryReadCount).incrementAndGet();
+		
+		return orderRoutingDataSource.route(replicaRead, () -> readOnlyTransactionTemplate.execute(status -> read.get()));
+	}
+}
\ No newline at end of file
@@ -12,18 +12,50 @@
 
 package com.pizzaordering.order.serviceImpl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pizzaordering.order.data.OrderCustomizationRepository;
 import com.pizzaordering.order.data.OrderRepository;
+import com.pizzaordering.order.dto.OrderCustomizationRow;
+import com.pizzaordering.order.dto.OrderPage;
+import com.pizzaordering.order.dto.OrderRow;
 import com.pizzaordering.order.entity.Order;
 import com.pizzaordering.order.entity.OrderCustomization;
 import com.pizzaordering.order.entity.OrderCustomizationId;
-import com.pizzaordering.order.service.IngredientClientService;
+import com.pizzaordering.order.metrics.ServerTiming;
+import com.pizzaordering.order.service.OrderCacheService;
+import com.pizzaordering.order.service.OrderOutboxService;
+import com.pizzaordering.order.service.OrderPriceCacheService;
+import com.pizzaordering.order.service.OrderReadRoutingService;
 import com.pizzaordering.order.service.OrderService;
+import com.pizzaordering.order.service.OrderShardService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * Implementation of order service layer interface.
@@ -35,10 +67,60 @@ import com.pizzaordering.order.service.OrderService;
 public class OrderServiceImpl implements OrderService {
 	
 	/**
-	 * Interface of ingredient client service layer.
+	 * Name of the phase of pricing orders.
+	 */
+	private static final String PHASE_PRICE = "price";
+	
+	/**
+	 * Name of the phase of saving orders.
+	 */
+	private static final String PHASE_ORDER_SAVE = "orderSave";
+	
+	/**
+	 * Name of the phase of saving order customizations.
+	 */
+	private static final String PHASE_CUSTOMIZATION_SAVE = "customizationSave";
+	
+	/**
+	 * Name of the phase of committing, where batched insertions are flushed.
+	 */
+	private static final String PHASE_COMMIT = "commit";
+	
+	/**
+	 * Interface of order price cache service layer.
+	 */
+	@Autowired
+	OrderPriceCacheService orderPriceCacheService;
+	
+	/**
+	 * Interface of order cache service layer.
+	 */
+	@Autowired
+	OrderCacheService orderCacheService;
+	
+	/**
+	 * Interface of order outbox service layer.
+	 */
+	@Autowired
+	OrderOutboxService orderOutboxService;
+	
+	/**
+	 * Interface of order read routing service layer.
+	 */
+	@Autowired
+	OrderReadRoutingService orderReadRoutingService;
+	
+	/**
+	 * Interface of order shard service layer.
 	 */
 	@Autowired
-	IngredientClientService ingredientClientService;
+	OrderShardService orderShardService;
+	
+	/**
+	 * Template of transactions, begun once the shard of the orders is routed.
+	 */
+	@Autowired
+	TransactionTemplate transactionTemplate;
 	
 	/**
 	 * Interface of order repository layer.
@@ -52,57 +134,413 @@ public class OrderServiceImpl implements OrderService {
 	@Autowired
 	OrderCustomizationRepository orderCustomizationRepository;
 	
+	/**
+	 * JSON mapper of orders.
+	 */
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	/**
+	 * Registry of meters.
+	 */
+	@Autowired
+	MeterRegistry meterRegistry;
+	
+	/**
+	 * Maximum quantity of orders on a page.
+	 */
+	@Value("${order.page.max-limit:500}")
+	int maxPageLimit;
+	
+	/**
+	 * Counter of orders created.
+	 */
+	private Counter orderCreatedCounter;
+	
+	/**
+	 * Counter of orders deleted.
+	 */
+	private Counter orderDeletedCounter;
+	
+	/**
+	 * Distribution of quantity of customized ingredients per order created.
+	 */
+	private DistributionSummary orderCustomizationSummary;
+	
+	/**
+	 * Register counters of orders created and deleted and distribution of customized ingredients per order.
+	 */
+	@PostConstruct
+	public void registerMeters() {
+		orderCreatedCounter = Counter.builder("order.created")
+				.description("Orders created")
+				.register(meterRegistry);
+		orderDeletedCounter = Counter.builder("order.deleted")
+				.description("Orders deleted")
+				.register(meterRegistry);
+		orderCustomizationSummary = DistributionSummary.builder("order.customizations")
+				.description("Customized ingredients per order created")
+				.register(meterRegistry);
+	}
+	
 	/*
-	 * > Calculate order price consuming ingredient resource via HTTP REST.
-	 * > Save order on database.
-	 * > Fill order customization composite keys with order id returned from order database insertion
-	 * 		and ingredient id which came from request as map key.
-	 * > Save order customizations on database.
+	 * > Calculate order price from cache or consuming ingredient resource via HTTP REST, before any transaction is
+	 * 		opened, so no database connection is held while the ingredient resource answers.
+	 * > Save priced order with its customized ingredients in one transaction.
+	 * > Pricing and the commit are recorded as phases of the request on the Server-Timing header.
+	 * > The order goes to the shard of a bucket picked at random, unless the caller already routed one.
 	 */
 	@Override
 	public Order addOrder(Order order) {
+		long phaseStartNanos = System.nanoTime();
+		
+		order.setPrice(orderPriceCacheService.calculateOrderPrice(order));
+		
+		ServerTiming.record(PHASE_PRICE, phaseStartNanos);
+		
+		return addPricedOrder(order);
+	}
+	
+	/*
+	 * Save order already priced with its customized ingredients in one transaction, with no remote call held in it.
+	 */
+	@Override
+	public Order addPricedOrder(Order order) {
+		return orderShardService.routeToNewOrders(() -> transactionTemplate.execute(status -> {
+			ServerTiming.recordCommit(PHASE_COMMIT);
+			
+			return saveOrder(order);
+		}));
+	}
+	
+	/*
+	 * > Calculate prices of all orders from cache or in a single call consuming ingredient resource via HTTP REST,
+	 * 		before any transaction is opened.
+	 * > Save all orders in one transaction on the shard of a bucket picked at random, unless the caller already
+	 * 		routed one, so a batch is never split among shards.
+	 */
+	@Override
+	public List<Order> addOrderList(List<Order> orderList) {
+		List<BigDecimal> priceList = null;
+		long phaseStartNanos = System.nanoTime();
+		
+		priceList = orderPriceCacheService.calculateOrderPriceList(orderList);
+		
+		ServerTiming.record(PHASE_PRICE, phaseStartNanos);
+		
+		for (int i = 0; i < orderList.size(); i++) {
+			orderList.get(i).setPrice(priceList.get(i));
+		}
+		
+		return orderShardService.routeToNewOrders(() -> transactionTemplate.execute(status -> saveOrderList(orderList)));
+	}
+	
+	/*
+	 * Return order from cache, or on cache miss from a replica of its shard, or from the primary database of its
+	 * 		shard when the order was written within the read-your-writes window.
+	 */
+	@Override
+	public Order getOrder(Long id) {
+		return orderShardService.routeToOrder(id, () -> readOrder(id));
+	}
+	
+	/*
+	 * > Read a page of every shard from a replica and merge them by id.
+	 * > Read them again from primary databases when any order of the range of the page was written within the
+	 * 		read-your-writes window, since replicas may not have it yet.
+	 */
+	@Override
+	public OrderPage getOrderPage(Long after, int limit) {
+		OrderPage orderPage = readOrderPage(after, limit, true);
+		
+		if (orderReadRoutingService.isWrittenRecently(after, orderPage.getNextAfter())) {
+			orderPage = readOrderPage(after, limit, false);
+		}
+		
+		return orderPage;
+	}
+	
+	/*
+	 * > Stream orders with customized ingredients from a replica of every shard through a server side cursor,
+	 * 		shard after shard, so orders are sorted by id within a shard only.
+	 * > Write every order as a JSON line as soon as it is read, straight from its compact representation.
+	 */
+	@Override
+	public void exportOrders(OutputStream outputStream) throws IOException {
+		JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(outputStream);
+		
+		jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		
+		try {
+			orderShardService.routeToEveryShard(() -> orderReadRoutingService.readFromReplica(() -> {
+				orderRepository.streamOrders(compactOrder -> {
+					try {
+						compactOrder.writeJson(jsonGenerator);
+						jsonGenerator.writeRaw('\n');
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+				
+				return null;
+			}));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		
+		jsonGenerator.close();
+	}
+	
+	/*
+	 * > Lock the order, so a rebalance does not move it meanwhile, failing when it no longer exists.
+	 * > Add event to reverse order ingredients from inventory to outbox, dispatched later to ingredient resource.
+	 * > Delete order from database in the same transaction, on the shard of the order, where the event is kept too.
+	 * > Discard cached order and read it from the primary database within the read-your-writes window.
+	 * > Count the order deleted once committed.
+	 */
+	@Override
+	public void deleteOrder(Long id) {
+		orderShardService.routeToOrder(id, () -> transactionTemplate.execute(status -> {
+			if (orderRepository.lockOrderIdList(Collections.singletonList(id)).isEmpty()) {
+				throw new NoSuchElementException("No order " + id);
+			}
+			
+			orderCacheService.invalidateOrder(id);
+			
+			orderOutboxService.addReverseOrderIngredientsEvent(orderRepository.findWithOrderCustomizationMapById(id)
+					.get());
+			
+			orderRepository.deleteById(id);
+			
+			orderReadRoutingService.recordWrite(id);
+			
+			afterCommit(orderDeletedCounter::increment);
+			
+			return null;
+		}));
+	}
+	
+	/**
+	 * Read an order from cache, or on cache miss from a replica of the routed shard, or from its primary database
+	 * 		when the order was written within the read-your-writes window.
+	 * 
+	 * @param id Id of order.
+	 * @return Order with customized ingredients.
+	 * @throws NoSuchElementException When the routed shard does not have the order.
+	 */
+	private Order readOrder(Long id) {
+		if (orderReadRoutingService.isWrittenRecently(id - 1, id)) {
+			return orderReadRoutingService.readFromPrimary(() -> orderCacheService.getOrder(id));
+		}
+		
+		return orderReadRoutingService.readFromReplica(() -> orderCacheService.getOrder(id));
+	}
+	
+	/**
+	 * Read a page of orders after the given id from every shard:
+	 * 
+	 * > Read a page of the same limit from every shard, from a replica or from the primary database.
+	 * > Merge the pages by id and keep the first orders up to the limit.
+	 * > Return the id of the last order as cursor of the next page when the page is full.
+	 * 
+	 * @param after Id of order before the page.
+	 * @param limit Maximum quantity of orders on the page.
+	 * @param replicaRead Whether pages are read from replicas.
+	 * @return Page of orders with customized ingredients.
+	 */
+	private OrderPage readOrderPage(Long after, int limit, boolean replicaRead) {
+		List<Order> orderList = new ArrayList<Order>();
+		int pageLimit = Math.max(1, Math.min(limit, maxPageLimit));
+		Supplier<List<Order>> read = () -> readOrderList(after, pageLimit);
+		
+		orderShardService.routeToEveryShard(() -> replicaRead ? orderReadRoutingService.readFromReplica(read)
+				: orderReadRoutingService.readFromPrimary(read)).forEach(orderList::addAll);
+		
+		orderList.sort(Comparator.comparing(Order::getId));
+		
+		if (orderList.size() > pageLimit) {
+			orderList = new ArrayList<Order>(orderList.subList(0, pageLimit));
+		}
+		
+		return new OrderPage(orderList, orderList.size() == pageLimit ? orderList.get(orderList.size() - 1).getId()
+				: null);
+	}
+	
+	/**
+	 * Save a list of orders already priced, in the transaction of the caller:
+	 * 
+	 * > Save all orders on database.
+	 * > Fill order customization composite keys of every order with its order id and ingredient id.
+	 * > Save order customizations of all orders on database at once.
+	 * > Cache orders once saved and read them from the primary database within the read-your-writes window.
+	 * > Count the orders created once committed, so rolled back saves are not counted.
+	 * 
+	 * @param orderList List of orders with customized ingredients.
+	 * @return List of orders with customized ingredients saved on database.
+	 */
+	private List<Order> saveOrderList(List<Order> orderList) {
+		List<Map<Long, OrderCustomization>> orderCustomizationMapList = new ArrayList<Map<Long, OrderCustomization>>();
+		List<OrderCustomization> orderCustomizationList = new ArrayList<OrderCustomization>();
+		List<Order> orderSavedList = new ArrayList<Order>();
+		Order order = null;
 		Map<Long, OrderCustomization> orderCustomizationMap = null;
-		OrderCustomization orderCustomization = null;
+		long phaseStartNanos = 0L;
 		
-		order.setPrice(ingredientClientService.calculateOrderPrice(order));
+		ServerTiming.recordCommit(PHASE_COMMIT);
 		
-		orderCustomizationMap = order.getOrderCustomizationMap();
+		for (int i = 0; i < orderList.size(); i++) {
+			order = orderList.get(i);
+			
+			orderCustomizationMapList.add(order.getOrderCustomizationMap());
+			order.setOrderCustomizationMap(null);
+		}
+		
+		phaseStartNanos = System.nanoTime();
+		
+		orderRepository.saveAll(orderList).forEach(orderSavedList::add);
+		
+		ServerTiming.record(PHASE_ORDER_SAVE, phaseStartNanos);
+		
+		for (int i = 0; i < orderSavedList.size(); i++) {
+			order = orderSavedList.get(i);
+			orderCustomizationMap = orderCustomizationMapList.get(i);
+			
+			if (orderCustomizationMap != null) {
+				fillOrderCustomizationIds(order, orderCustomizationMap);
+				
+				orderCustomizationList.addAll(orderCustomizationMap.values());
+				
+				order.setOrderCustomizationMap(orderCustomizationMap);
+			}
+		}
+		
+		if (!orderCustomizationList.isEmpty()) {
+			phaseStartNanos = System.nanoTime();
+			
+			orderCustomizationRepository.saveAll(orderCustomizationList);
+			
+			ServerTiming.record(PHASE_CUSTOMIZATION_SAVE, phaseStartNanos);
+		}
+		
+		orderSavedList.forEach(orderCacheService::putOrder);
+		orderSavedList.forEach(orderSaved -> orderReadRoutingService.recordWrite(orderSaved.getId()));
+		
+		afterCommit(() -> {
+			orderCreatedCounter.increment(orderSavedList.size());
+			orderCustomizationMapList.forEach(map -> orderCustomizationSummary.record(map == null ? 0 : map.size()));
+		});
+		
+		return orderSavedList;
+	}
+	
+	/**
+	 * Read orders after the given id from the routed shard:
+	 * 
+	 * > Get orders after the given id from database.
+	 * > Get customized ingredients of all orders read from database in a single query.
+	 * 
+	 * @param after Id of order before the orders.
+	 * @param limit Maximum quantity of orders.
+	 * @return List of orders with customized ingredients.
+	 */
+	private List<Order> readOrderList(Long after, int limit) {
+		Map<Long, Order> orderMap = new LinkedHashMap<Long, Order>();
+		List<Order> orderList = null;
+		
+		orderList = OrderRow.toOrderList(orderRepository.findOrderRowListByIdGreaterThan(after, PageRequest.of(0, limit)));
+		
+		if (orderList.isEmpty()) {
+			return orderList;
+		}
+		
+		orderList.forEach(order -> orderMap.put(order.getId(), order));
+		
+		OrderCustomizationRow.putInto(orderMap,
+				orderCustomizationRepository.findOrderCustomizationRowListByOrderIdIn(orderMap.keySet()));
+		
+		return orderList;
+	}
+	
+	/**
+	 * Save a priced order, in the transaction of the caller:
+	 * 
+	 * > Save order on database.
+	 * > Fill order customization composite keys with order id returned from order database insertion
+	 * 		and ingredient id which came from request as map key.
+	 * > Save order customizations on database.
+	 * > Cache order once saved and read it from the primary database within the read-your-writes window.
+	 * > Count the order created once committed, so rolled back saves are not counted.
+	 * > The order and its customizations are flushed together as batched insertions on commit.
+	 * > Every step is recorded as a phase of the request on the Server-Timing header.
+	 * 
+	 * @param order Priced order with customized ingredients.
+	 * @return Order with customized ingredients saved on database.
+	 */
+	private Order saveOrder(Order order) {
+		Map<Long, OrderCustomization> orderCustomizationMap = order.getOrderCustomizationMap();
+		long phaseStartNanos = System.nanoTime();
 		
 		order.setOrderCustomizationMap(null);
 		order = orderRepository.save(order);
 		
+		ServerTiming.record(PHASE_ORDER_SAVE, phaseStartNanos);
+		
 		if (orderCustomizationMap != null) {
-			for (Long ingredientId : orderCustomizationMap.keySet()) {
-				orderCustomization = orderCustomizationMap.get(ingredientId);
-				orderCustomization.setOrderCustomizationId(new OrderCustomizationId());
-				orderCustomization.getOrderCustomizationId().setIngredientId(ingredientId);
-				orderCustomization.getOrderCustomizationId().setOrder(order);
-			}
+			fillOrderCustomizationIds(order, orderCustomizationMap);
+			
+			phaseStartNanos = System.nanoTime();
 			
 			orderCustomizationRepository.saveAll(orderCustomizationMap.values());
 			
+			ServerTiming.record(PHASE_CUSTOMIZATION_SAVE, phaseStartNanos);
+			
 			order.setOrderCustomizationMap(orderCustomizationMap);
 		}
 		
+		orderCacheService.putOrder(order);
+		orderReadRoutingService.recordWrite(order.getId());
+		
+		afterCommit(() -> {
+			orderCreatedCounter.increment();
+			orderCustomizationSummary.record(orderCustomizationMap == null ? 0 : orderCustomizationMap.size());
+		});
+		
 		return order;
 	}
 	
-	/*
-	 * Return order from database.
+	/**
+	 * Fill order customization composite keys with order id and ingredient id which came from request as map key.
+	 * 
+	 * @param order Order saved on database.
+	 * @param orderCustomizationMap Map of order customization ingredients of the order.
 	 */
-	@Override
-	public Order getOrder(Long id) {
-		return orderRepository.findById(id).get();
+	private void fillOrderCustomizationIds(Order order, Map<Long, OrderCustomization> orderCustomizationMap) {
+		OrderCustomization orderCustomization = null;
+		
+		for (Long ingredientId : orderCustomizationMap.keySet()) {
+			orderCustomization = orderCustomizationMap.get(ingredientId);
+			orderCustomization.setOrderCustomizationId(new OrderCustomizationId());
+			orderCustomization.getOrderCustomizationId().setIngredientId(ingredientId);
+			orderCustomization.getOrderCustomizationId().setOrder(order);
+		}
 	}
 	
-	/*
-	 * > Reverse order ingredients from inventory consuming ingredient resource via HTTP REST.
-	 * > Delete order from database.
+	/**
+	 * Run an action once the transaction of the caller commits, or at once outside a transaction, the same way
+	 * 		orders are cached, so meters of writes leave out writes rolled back.
+	 * 
+	 * @param action Action to be run.
 	 */
-	@Override
-	public void deleteOrder(Long id) {
-		ingredientClientService.reverseOrderIngredients(orderRepository.findById(id).get());
-		
-		orderRepository.deleteById(id);
+	private static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
 	}
 }
\ No newline at end of file
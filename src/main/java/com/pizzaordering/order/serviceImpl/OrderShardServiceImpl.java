@@ -0,0 +1,488 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pizzaordering.order.data.OrderCustomizationRepository;
+import com.pizzaordering.order.data.OrderIdempotencyKeyRepository;
+import com.pizzaordering.order.data.OrderRepository;
+import com.pizzaordering.order.data.OrderRoutingDataSource;
+import com.pizzaordering.order.dto.OrderCustomizationRow;
+import com.pizzaordering.order.dto.OrderRow;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderIdempotencyKey;
+import com.pizzaordering.order.service.OrderShardService;
+
+/**
+ * Implementation of order shard service layer interface. Orders are spread over buckets encoded in their ids, and
+ * 		every shard owns a contiguous range of buckets, so reads and writes of an order go straight to its shard and
+ * 		only listings visit every shard. Orders missing on their shard are looked up on the other shards only while
+ * 		a rebalance is pending, as marked on nodes started after shards were added until they run a rebalance, or
+ * 		while one is running.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@Service
+public class OrderShardServiceImpl implements OrderShardService {
+	
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderShardServiceImpl.class);
+	
+	/**
+	 * Routing data source of orders.
+	 */
+	@Autowired
+	OrderRoutingDataSource orderRoutingDataSource;
+	
+	/**
+	 * Interface of order repository layer.
+	 */
+	@Autowired
+	OrderRepository orderRepository;
+	
+	/**
+	 * Interface of order customization repository layer.
+	 */
+	@Autowired
+	OrderCustomizationRepository orderCustomizationRepository;
+	
+	/**
+	 * Interface of order idempotency key repository layer.
+	 */
+	@Autowired
+	OrderIdempotencyKeyRepository orderIdempotencyKeyRepository;
+	
+	/**
+	 * Quantity of orders read, and moved at most, in each transaction of a rebalance.
+	 */
+	@Value("${order.sharding.rebalance-chunk-size:1000}")
+	int rebalanceChunkSize;
+	
+	/**
+	 * Whether a rebalance is pending, as shards were added, until a rebalance is completed by this node.
+	 */
+	@Value("${order.sharding.rebalancing:false}")
+	volatile boolean rebalancing;
+	
+	/**
+	 * Template of transactions.
+	 */
+	private final TransactionTemplate transactionTemplate;
+	
+	/**
+	 * Template of read-only transactions.
+	 */
+	private final TransactionTemplate readOnlyTransactionTemplate;
+	
+	/**
+	 * Template of transactions suspending the transaction of the caller, as writes on a shard other than the one
+	 * 		of the caller.
+	 */
+	private final TransactionTemplate requiresNewTransactionTemplate;
+	
+	/**
+	 * Quantity of orders moved by rebalances.
+	 */
+	private final AtomicLong movedOrderCount = new AtomicLong();
+	
+	/**
+	 * Quantity of idempotency keys moved by rebalances.
+	 */
+	private final AtomicLong movedIdempotencyKeyCount = new AtomicLong();
+	
+	/**
+	 * Quantity of rebalances running.
+	 */
+	private final AtomicInteger runningRebalanceCount = new AtomicInteger();
+	
+	/**
+	 * Quantity of orders found on a shard other than their own while a rebalance was pending or running.
+	 */
+	private final AtomicLong otherShardHitCount = new AtomicLong();
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param transactionManager Transaction manager of the order database.
+	 */
+	public OrderShardServiceImpl(PlatformTransactionManager transactionManager) {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+		readOnlyTransactionTemplate.setReadOnly(true);
+		requiresNewTransactionTemplate = new TransactionTemplate(transactionManager);
+		requiresNewTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+	
+	/*
+	 * Keep the bucket routed by the caller, or pick one at random.
+	 */
+	@Override
+	public <T> T routeToNewOrders(Supplier<T> operation) {
+		if (OrderRoutingDataSource.getCurrentBucket() != null) {
+			return operation.get();
+		}
+		
+		return orderRoutingDataSource.routeToBucket(ThreadLocalRandom.current()
+				.nextInt(OrderRoutingDataSource.BUCKET_COUNT), operation);
+	}
+	
+	/*
+	 * > Route to the bucket encoded in the id.
+	 * > Run the operation on the other shards when it does not find the order, only while a rebalance is pending or
+	 * 		running, so misses cost a single shard otherwise.
+	 * > Run it again on the shard of the order when no other shard has it, as a rebalance may have moved it there
+	 * 		meanwhile.
+	 */
+	@Override
+	public <T> T routeToOrder(Long id, Supplier<T> operation) {
+		int shard = getShard(id);
+		T result = null;
+		
+		try {
+			return orderRoutingDataSource.routeToBucket(OrderRoutingDataSource.getBucket(id), operation);
+		} catch (NoSuchElementException e) {
+			if (!isRebalancing()) {
+				throw e;
+			}
+			
+			for (int otherShard = 0; otherShard < getShardCount(); otherShard++) {
+				if (otherShard == shard) {
+					continue;
+				}
+				
+				try {
+					result = routeToShard(otherShard, operation);
+				} catch (NoSuchElementException otherShardException) {
+					continue;
+				}
+				
+				otherShardHitCount.incrementAndGet();
+				
+				return result;
+			}
+			
+			return orderRoutingDataSource.routeToBucket(OrderRoutingDataSource.getBucket(id), operation);
+		}
+	}
+	
+	/*
+	 * Route to the bucket given by the hash of the key.
+	 */
+	@Override
+	public <T> T routeToIdempotencyKey(String idempotencyKey, Supplier<T> operation) {
+		return orderRoutingDataSource.routeToBucket(getBucket(idempotencyKey), operation);
+	}
+	
+	/*
+	 * Route to the first bucket of the shard.
+	 */
+	@Override
+	public <T> T routeToShard(int shard, Supplier<T> operation) {
+		return orderRoutingDataSource.routeToShard(shard, operation);
+	}
+	
+	/*
+	 * Run operation on every shard in order.
+	 */
+	@Override
+	public <T> List<T> routeToEveryShard(Supplier<T> operation) {
+		List<T> resultList = new ArrayList<T>(getShardCount());
+		
+		for (int shard = 0; shard < getShardCount(); shard++) {
+			resultList.add(orderRoutingDataSource.routeToShard(shard, operation));
+		}
+		
+		return resultList;
+	}
+	
+	/*
+	 * Return quantity of shards configured.
+	 */
+	@Override
+	public int getShardCount() {
+		return orderRoutingDataSource.getShardCount();
+	}
+	
+	/*
+	 * Return shard which owns the bucket encoded in the id.
+	 */
+	@Override
+	public int getShard(Long id) {
+		return orderRoutingDataSource.getShard(OrderRoutingDataSource.getBucket(id));
+	}
+	
+	/*
+	 * > Mark a rebalance as running, so orders not moved yet are looked up on the other shards.
+	 * > Page through orders of every shard by id, one chunk per read-only transaction.
+	 * > Move orders of every chunk owned by another shard, with their customized ingredients.
+	 * > Page through idempotency keys of every shard, moving those owned by another shard.
+	 * > Clear the pending rebalance once completed.
+	 */
+	@Override
+	public Map<String, Number> rebalance() {
+		Map<String, Number> statistics = new LinkedHashMap<String, Number>();
+		long startMillis = System.currentTimeMillis();
+		long orderQuantity = 0L;
+		long idempotencyKeyQuantity = 0L;
+		
+		runningRebalanceCount.incrementAndGet();
+		
+		try {
+			for (int shard = 0; shard < getShardCount(); shard++) {
+				orderQuantity += rebalanceOrders(shard);
+				idempotencyKeyQuantity += rebalanceIdempotencyKeys(shard);
+			}
+			
+			rebalancing = false;
+		} finally {
+			runningRebalanceCount.decrementAndGet();
+		}
+		
+		movedOrderCount.addAndGet(orderQuantity);
+		movedIdempotencyKeyCount.addAndGet(idempotencyKeyQuantity);
+		
+		LOGGER.info("Rebalanced " + orderQuantity + " orders and " + idempotencyKeyQuantity + " idempotency keys over "
+				+ getShardCount() + " shards");
+		
+		statistics.put("movedOrderQuantity", orderQuantity);
+		statistics.put("movedIdempotencyKeyQuantity", idempotencyKeyQuantity);
+		statistics.put("elapsedMillis", System.currentTimeMillis() - startMillis);
+		
+		return statistics;
+	}
+	
+	/*
+	 * Return quantity of shards, and of buckets and orders of every shard, whether a rebalance is pending or running,
+	 * 		quantity of rows moved by rebalances and of orders found on other shards meanwhile.
+	 */
+	@Override
+	public Map<String, Number> getStatistics() {
+		Map<String, Number> statistics = new LinkedHashMap<String, Number>();
+		List<Long> orderCountList = routeToEveryShard(orderRepository::count);
+		int bucketQuantity = 0;
+		
+		statistics.put("shardCount", getShardCount());
+		
+		for (int shard = 0; shard < getShardCount(); shard++) {
+			bucketQuantity = 0;
+			
+			for (int bucket = 0; bucket < OrderRoutingDataSource.BUCKET_COUNT; bucket++) {
+				bucketQuantity += orderRoutingDataSource.getShard(bucket) == shard ? 1 : 0;
+			}
+			
+			statistics.put("shard-" + shard + ".bucketCount", bucketQuantity);
+			statistics.put("shard-" + shard + ".orderCount", orderCountList.get(shard));
+		}
+		
+		statistics.put("rebalancing", isRebalancing() ? 1 : 0);
+		statistics.put("movedOrderCount", movedOrderCount.get());
+		statistics.put("movedIdempotencyKeyCount", movedIdempotencyKeyCount.get());
+		statistics.put("otherShardHitCount", otherShardHitCount.get());
+		
+		return statistics;
+	}
+	
+	/**
+	 * Move orders of a shard owned by other shards, chunk by chunk:
+	 * 
+	 * > Read a chunk of orders after the last one read.
+	 * > Move the orders of the chunk owned by other shards.
+	 * 
+	 * @param shard Shard, from 0.
+	 * @return Quantity of orders moved.
+	 */
+	private long rebalanceOrders(int shard) {
+		List<Order> orderList = null;
+		Map<Long, Order> orderMovedMap = new LinkedHashMap<Long, Order>();
+		Long after = Long.MIN_VALUE;
+		long orderQuantity = 0L;
+		
+		do {
+			final Long chunkAfter = after;
+			
+			orderList = routeToShard(shard, () -> readOnlyTransactionTemplate.execute(status -> OrderRow.toOrderList(
+					orderRepository.findOrderRowListByIdGreaterThan(chunkAfter, PageRequest.of(0, rebalanceChunkSize)))));
+			
+			if (orderList.isEmpty()) {
+				break;
+			}
+			
+			after = orderList.get(orderList.size() - 1).getId();
+			
+			orderMovedMap.clear();
+			orderList.stream().filter(order -> getShard(order.getId()) != shard)
+					.forEach(order -> orderMovedMap.put(order.getId(), order));
+			
+			if (orderMovedMap.isEmpty()) {
+				continue;
+			}
+			
+			orderQuantity += routeToShard(shard, () -> transactionTemplate.execute(status -> moveOrders(orderMovedMap)));
+		} while (orderList.size() == rebalanceChunkSize);
+		
+		return orderQuantity;
+	}
+	
+	/**
+	 * Move orders from the shard of the transaction of the caller to the shards which own them:
+	 * 
+	 * > Lock the orders until the transaction ends, leaving out those deleted since they were read, so none is
+	 * 		deleted while it is copied and brought back on its shard.
+	 * > Read customized ingredients of the orders locked.
+	 * > Insert them on their shard in transactions of their own, replacing copies left by a failed run.
+	 * > Delete them from this shard, failing the transaction unless every order locked is deleted.
+	 * 
+	 * @param orderMovedMap Map of orders to be moved, using order id as key, left with the orders moved.
+	 * @return Quantity of orders moved.
+	 */
+	private int moveOrders(Map<Long, Order> orderMovedMap) {
+		Map<Integer, List<Order>> orderMovedListMap = null;
+		int deletedQuantity = 0;
+		
+		orderMovedMap.keySet().retainAll(orderRepository.lockOrderIdList(orderMovedMap.keySet()));
+		
+		if (orderMovedMap.isEmpty()) {
+			return 0;
+		}
+		
+		OrderCustomizationRow.putInto(orderMovedMap,
+				orderCustomizationRepository.findOrderCustomizationRowListByOrderIdIn(orderMovedMap.keySet()));
+		
+		orderMovedListMap = orderMovedMap.values().stream()
+				.collect(Collectors.groupingBy(order -> getShard(order.getId())));
+		
+		orderMovedListMap.forEach((targetShard, orderMovedList) -> routeToShard(targetShard,
+				() -> requiresNewTransactionTemplate.execute(status -> {
+					orderRepository.deleteOrderList(orderMovedList.stream().map(Order::getId)
+							.collect(Collectors.toList()));
+					orderRepository.insertOrderList(orderMovedList);
+					
+					return null;
+				})));
+		
+		deletedQuantity = orderRepository.deleteOrderList(orderMovedMap.keySet());
+		
+		if (deletedQuantity != orderMovedMap.size()) {
+			throw new IllegalStateException("Deleted " + deletedQuantity + " of " + orderMovedMap.size()
+					+ " orders locked to be moved");
+		}
+		
+		return deletedQuantity;
+	}
+	
+	/**
+	 * Move idempotency keys of a shard owned by other shards, chunk by chunk:
+	 * 
+	 * > Read a chunk of idempotency keys after the last one read.
+	 * > Save keys of the chunk owned by other shards on their shard, unless a failed run already did, then delete
+	 * 		them from this shard.
+	 * 
+	 * @param shard Shard, from 0.
+	 * @return Quantity of idempotency keys moved.
+	 */
+	private long rebalanceIdempotencyKeys(int shard) {
+		List<OrderIdempotencyKey> orderIdempotencyKeyList = null;
+		String after = "";
+		long idempotencyKeyQuantity = 0L;
+		
+		do {
+			final String chunkAfter = after;
+			
+			orderIdempotencyKeyList = routeToShard(shard, () -> readOnlyTransactionTemplate.execute(status ->
+					orderIdempotencyKeyRepository.findByIdempotencyKeyGreaterThanOrderByIdempotencyKeyAsc(chunkAfter,
+							PageRequest.of(0, rebalanceChunkSize))));
+			
+			if (orderIdempotencyKeyList.isEmpty()) {
+				break;
+			}
+			
+			after = orderIdempotencyKeyList.get(orderIdempotencyKeyList.size() - 1).getIdempotencyKey();
+			
+			for (OrderIdempotencyKey orderIdempotencyKey : orderIdempotencyKeyList) {
+				if (orderRoutingDataSource.getShard(getBucket(orderIdempotencyKey.getIdempotencyKey())) != shard) {
+					moveIdempotencyKey(shard, orderIdempotencyKey);
+					
+					idempotencyKeyQuantity++;
+				}
+			}
+		} while (orderIdempotencyKeyList.size() == rebalanceChunkSize);
+		
+		return idempotencyKeyQuantity;
+	}
+	
+	/**
+	 * Move an idempotency key to its shard, saving it there unless a failed run already did, then deleting it from
+	 * 		the shard it was left on.
+	 * 
+	 * @param shard Shard the key was left on, from 0.
+	 * @param orderIdempotencyKey Idempotency key to be moved.
+	 */
+	private void moveIdempotencyKey(int shard, OrderIdempotencyKey orderIdempotencyKey) {
+		routeToIdempotencyKey(orderIdempotencyKey.getIdempotencyKey(), () -> transactionTemplate.execute(status -> {
+			if (!orderIdempotencyKeyRepository.existsById(orderIdempotencyKey.getIdempotencyKey())) {
+				orderIdempotencyKeyRepository.save(new OrderIdempotencyKey(orderIdempotencyKey.getIdempotencyKey(),
+						orderIdempotencyKey.getOrderId(), orderIdempotencyKey.getRequestHash(),
+						orderIdempotencyKey.getExpirationDate()));
+			}
+			
+			return null;
+		}));
+		
+		routeToShard(shard, () -> transactionTemplate.execute(status -> {
+			orderIdempotencyKeyRepository.deleteById(orderIdempotencyKey.getIdempotencyKey());
+			
+			return null;
+		}));
+	}
+	
+	/**
+	 * Check whether a rebalance is pending or running, so orders may be left on a shard other than their own.
+	 * 
+	 * @return Whether a rebalance is pending or running.
+	 */
+	private boolean isRebalancing() {
+		return rebalancing || runningRebalanceCount.get() > 0;
+	}
+	
+	/**
+	 * Get the bucket of an idempotency key from its hash.
+	 * 
+	 * @param idempotencyKey Idempotency key sent by the client.
+	 * @return Bucket of the key and of the order added with it.
+	 */
+	private static int getBucket(String idempotencyKey) {
+		return Math.floorMod(idempotencyKey.hashCode(), OrderRoutingDataSource.BUCKET_COUNT);
+	}
+}
\ No newline at end of file
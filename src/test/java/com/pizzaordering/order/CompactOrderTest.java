@@ -0,0 +1,157 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaordering.order.dto.CompactOrder;
+import com.pizzaordering.order.dto.OrderCustomizationTable;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+
+/**
+ * Unit test of compact order, checking that it converts and renders as the order entity it is built from.
+ * 		Retained heap of both representations is compared by the benchmarks of the benchmark profile.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class CompactOrderTest {
+	
+	/**
+	 * Quantity of customized ingredients of each order.
+	 */
+	private static final int ORDER_CUSTOMIZATION_QUANTITY = 5;
+	
+	/**
+	 * Test conversion of compact order:
+	 * 
+	 * > Convert orders with and without customized ingredients, with null fields, to compact orders and back.
+	 * > Test that converted orders are the same and that compact orders are written as JSON as the entities.
+	 * > Test that a table grows past its expected size and finds every ingredient id, negative ones included.
+	 */
+	@Test
+	public void compactOrderConversionTest() throws Exception {
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		List<Order> orderList = new ArrayList<Order>();
+		Order order = null;
+		Order orderConverted = null;
+		StringWriter writer = null;
+		JsonGenerator jsonGenerator = null;
+		OrderCustomizationTable orderCustomizationTable = new OrderCustomizationTable(1);
+		
+		// Input.
+		orderList.add(newOrder(1L));
+		orderList.add(new Order());
+		
+		order = newOrder(2L);
+		order.setClosedRecipeId(null);
+		order.getOrderCustomizationMap().get(1L).setType(null);
+		order.getOrderCustomizationMap().get(2L).setPortionQuantity(null);
+		order.getOrderCustomizationMap().get(3L).setObservation(null);
+		orderList.add(order);
+		
+		order = newOrder(3L);
+		order.setOrderCustomizationMap(new HashMap<Long, OrderCustomization>());
+		orderList.add(order);
+		
+		for (Order orderInput : orderList) {
+			orderConverted = CompactOrder.of(orderInput).toOrder();
+			writer = new StringWriter();
+			jsonGenerator = objectMapper.getFactory().createGenerator(writer);
+			
+			CompactOrder.of(orderInput).writeJson(jsonGenerator);
+			jsonGenerator.close();
+			
+			// Output.
+			assertThat(orderConverted.getId()).isEqualTo(orderInput.getId());
+			assertThat(orderConverted.getClosedRecipeId()).isEqualTo(orderInput.getClosedRecipeId());
+			assertThat(orderConverted.getSize()).isEqualTo(orderInput.getSize());
+			assertThat(orderConverted.getBreadThickness()).isEqualTo(orderInput.getBreadThickness());
+			assertThat(orderConverted.getPrice()).isEqualTo(orderInput.getPrice());
+			assertThat(objectMapper.readTree(objectMapper.writeValueAsString(orderConverted)))
+					.isEqualTo(objectMapper.readTree(objectMapper.writeValueAsString(orderInput)));
+			assertThat(objectMapper.readTree(writer.toString()))
+					.isEqualTo(objectMapper.readTree(objectMapper.writeValueAsString(orderInput)));
+		}
+		
+		for (long ingredientId = -50L; ingredientId <= 50L; ingredientId++) {
+			orderCustomizationTable.put(ingredientId * 1024L, 'A', (int) ingredientId, null);
+		}
+		
+		orderCustomizationTable.put(0L, 'R', 7, "Replaced.");
+		
+		assertThat(orderCustomizationTable.size()).isEqualTo(101);
+		assertThat(orderCustomizationTable.capacity() * 3).isGreaterThanOrEqualTo(101 * 4);
+		
+		for (long ingredientId = -50L; ingredientId <= 50L; ingredientId++) {
+			assertThat(orderCustomizationTable.indexOf(ingredientId * 1024L)).isNotNegative();
+		}
+		
+		assertThat(orderCustomizationTable.indexOf(1L)).isEqualTo(-1);
+		assertThat(orderCustomizationTable.getType(orderCustomizationTable.indexOf(0L))).isEqualTo('R');
+		assertThat(orderCustomizationTable.getPortionQuantity(orderCustomizationTable.indexOf(-50L * 1024L)))
+				.isEqualTo(-50);
+		assertThat(orderCustomizationTable.getIngredientId(orderCustomizationTable.sortedSlots()[0]))
+				.isEqualTo(-50L * 1024L);
+		assertThat(orderCustomizationTable.toOrderCustomizationMap().get(0L).getObservation()).isEqualTo("Replaced.");
+		
+		orderCustomizationTable.clear();
+		
+		assertThat(orderCustomizationTable.size()).isZero();
+		assertThat(orderCustomizationTable.indexOf(0L)).isEqualTo(-1);
+	}
+	
+	/**
+	 * Build a new priced order with customized ingredients, as loaded from database.
+	 * 
+	 * @param id Id of order.
+	 * @return Order.
+	 */
+	private static Order newOrder(long id) {
+		Order order = new Order();
+		OrderCustomization orderCustomization = null;
+		Map<Long, OrderCustomization> orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+		
+		order.setId(1000L + id);
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		order.setPrice(new BigDecimal("12.50"));
+		
+		for (long ingredientId = 1L; ingredientId <= ORDER_CUSTOMIZATION_QUANTITY; ingredientId++) {
+			orderCustomization = new OrderCustomization();
+			orderCustomization.setType('A');
+			orderCustomization.setPortionQuantity(2);
+			orderCustomization.setObservation(ingredientId == 1L ? "Benchmark." : null);
+			
+			orderCustomizationMap.put(ingredientId, orderCustomization);
+		}
+		
+		order.setOrderCustomizationMap(orderCustomizationMap);
+		
+		return order;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,217 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.IngredientAsyncClientService;
+import com.pizzaordering.order.serviceImpl.IngredientAsyncClientServiceImpl;
+import com.pizzaordering.order.serviceImpl.IngredientReactiveClientServiceImpl;
+
+import io.netty.channel.ConnectTimeoutException;
+
+/**
+ * Test of asynchronous ingredient client service layer against the in-process stub of ingredient resource, over
+ * 		the fixed pool of connections of the reactive client.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class IngredientAsyncClientServiceTest {
+	
+	/**
+	 * Latency of every call of the stub, in milliseconds.
+	 */
+	private static final int INGREDIENT_LATENCY_MILLIS = 200;
+	
+	/**
+	 * Maximum quantity of pooled connections of the client.
+	 */
+	private static final int MAX_CONNECTIONS = 2;
+	
+	/**
+	 * Maximum time to connect to ingredient resource, in milliseconds.
+	 */
+	private static final int CONNECT_TIMEOUT_MILLIS = 200;
+	
+	/**
+	 * Stub of ingredient resource.
+	 */
+	IngredientStubServer ingredientStubServer;
+	
+	/**
+	 * Start the stub.
+	 */
+	@Before
+	public void setUp() throws Exception {
+		ingredientStubServer = new IngredientStubServer(
+				new IngredientStubServer.LatencyDistribution("fixed:" + INGREDIENT_LATENCY_MILLIS));
+	}
+	
+	/**
+	 * Stop the stub.
+	 */
+	@After
+	public void tearDown() {
+		ingredientStubServer.stop();
+	}
+	
+	/**
+	 * Test calculate order price operation once the pool of connections is exhausted:
+	 * 
+	 * > Price three times as many orders at once as there are pooled connections, with a read timeout long enough.
+	 * > Test that every order is priced, that the stub never handles more calls at once than pooled connections,
+	 * 		and that calls waiting for a connection take as many rounds of latency as the pool needs.
+	 */
+	@Test
+	public void poolExhaustionTest() throws Exception {
+		IngredientAsyncClientService ingredientAsyncClientService = createClient(ingredientStubServer.getBaseUrl(),
+				5000);
+		List<CompletableFuture<BigDecimal>> futureList = new ArrayList<CompletableFuture<BigDecimal>>();
+		long startNanos = 0L;
+		
+		// Input.
+		ingredientAsyncClientService.calculateOrderPrice(createOrder()).get(5, TimeUnit.SECONDS);
+		
+		startNanos = System.nanoTime();
+		
+		for (int i = 0; i < MAX_CONNECTIONS * 3; i++) {
+			futureList.add(ingredientAsyncClientService.calculateOrderPrice(createOrder()));
+		}
+		
+		// Test.
+		for (CompletableFuture<BigDecimal> future : futureList) {
+			assertThat(future.get(5, TimeUnit.SECONDS)).isEqualByComparingTo("12.50");
+		}
+		
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+				.isGreaterThanOrEqualTo(INGREDIENT_LATENCY_MILLIS * 3 - 50);
+		assertThat(ingredientStubServer.getMaxCallsInFlight()).isEqualTo(MAX_CONNECTIONS);
+	}
+	
+	/**
+	 * Test read timeout of calculate order price operation:
+	 * 
+	 * > Price an order with a read timeout shorter than the latency of the stub.
+	 * > Test that the future fails with a timeout once the read timeout elapses, before the stub answers.
+	 */
+	@Test
+	public void readTimeoutTest() {
+		IngredientAsyncClientService ingredientAsyncClientService = createClient(ingredientStubServer.getBaseUrl(),
+				INGREDIENT_LATENCY_MILLIS / 4);
+		
+		// Test.
+		assertThatThrownBy(() -> ingredientAsyncClientService.calculateOrderPrice(createOrder())
+				.get(INGREDIENT_LATENCY_MILLIS, TimeUnit.MILLISECONDS))
+				.isInstanceOf(ExecutionException.class).hasCauseInstanceOf(TimeoutException.class);
+	}
+	
+	/**
+	 * Test connect timeout of calculate order price operation:
+	 * 
+	 * > Fill the accept queue of a socket which never accepts, so further connections are never established.
+	 * > Price an order against the socket with a read timeout far longer than the connect timeout.
+	 * > Test that the future fails with a connect timeout, well before the read timeout.
+	 */
+	@Test
+	public void connectTimeoutTest() throws Exception {
+		List<Socket> socketList = new ArrayList<Socket>();
+		Socket socket = null;
+		
+		try (ServerSocket serverSocket = new ServerSocket(0, 1)) {
+			// Input.
+			do {
+				socket = new Socket();
+				socketList.add(socket);
+			} while (connect(socket, serverSocket.getLocalPort()) && socketList.size() < 8);
+			
+			// Test.
+			assertThatThrownBy(() -> createClient("http://localhost:" + serverSocket.getLocalPort() + "/ingredients",
+					10000).calculateOrderPrice(createOrder()).get(5, TimeUnit.SECONDS))
+					.isInstanceOf(ExecutionException.class).hasCauseInstanceOf(ConnectTimeoutException.class);
+		} finally {
+			for (Socket socketConnected : socketList) {
+				socketConnected.close();
+			}
+		}
+	}
+	
+	/**
+	 * Connect a socket to a local port within the connect timeout.
+	 * 
+	 * @param socket Socket.
+	 * @param port Local port.
+	 * @return Whether the socket connected, or false when the accept queue of the port is full.
+	 * @throws IOException When the socket cannot connect for another reason.
+	 */
+	private boolean connect(Socket socket, int port) throws IOException {
+		try {
+			socket.connect(new InetSocketAddress("localhost", port), CONNECT_TIMEOUT_MILLIS);
+			
+			return true;
+		} catch (SocketTimeoutException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Create the asynchronous client over a reactive client of its own pool of connections.
+	 * 
+	 * @param baseUrl URL of ingredient resource.
+	 * @param readTimeoutMillis Maximum time to wait for a response of ingredient resource, in milliseconds.
+	 * @return Asynchronous ingredient client service.
+	 */
+	private IngredientAsyncClientService createClient(String baseUrl, long readTimeoutMillis) {
+		IngredientAsyncClientService ingredientAsyncClientService = new IngredientAsyncClientServiceImpl();
+		
+		ReflectionTestUtils.setField(ingredientAsyncClientService, "ingredientReactiveClientService",
+				new IngredientReactiveClientServiceImpl(baseUrl, MAX_CONNECTIONS, CONNECT_TIMEOUT_MILLIS,
+						readTimeoutMillis, MediaType.APPLICATION_JSON_VALUE));
+		
+		return ingredientAsyncClientService;
+	}
+	
+	/**
+	 * Create an order with no customized ingredients.
+	 * 
+	 * @return Order.
+	 */
+	private Order createOrder() {
+		Order order = new Order();
+		
+		order.setSize('M');
+		order.setBreadThickness('S');
+		
+		return order;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClientException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+import com.pizzaordering.order.metrics.InvocationMetricsPostProcessor;
+import com.pizzaordering.order.service.IngredientClientService;
+import com.pizzaordering.order.serviceImpl.IngredientClientServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test of ingredient client service layer against a mocked ingredient resource.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class IngredientClientServiceTest {
+	
+	/**
+	 * Mocked ingredient resource, bound to the rest template of the client once it is built.
+	 */
+	MockRestServiceServer mockRestServiceServer;
+	
+	/**
+	 * Test calculate order price operation with Smile as content type:
+	 * 
+	 * > Send an order with customized ingredients to the mocked ingredient resource.
+	 * > Test that the order is sent as Smile, that Smile is accepted before JSON, and that the Smile price is read.
+	 */
+	@Test
+	public void calculateOrderPriceSmileTest() throws Exception {
+		ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+		IngredientClientService ingredientClientService = null;
+		Order order = null;
+		OrderCustomization orderCustomization = null;
+		Map<Long, OrderCustomization> orderCustomizationMap = null;
+		
+		// Input.
+		ingredientClientService = new IngredientClientServiceImpl(new RestTemplateBuilder()
+				.additionalCustomizers(restTemplate -> mockRestServiceServer = MockRestServiceServer.bindTo(restTemplate)
+						.build()), "http://ingredients", 1000, 1000, IngredientClientService.CONTENT_TYPE_SMILE);
+		
+		order = new Order();
+		order.setSize('M');
+		order.setBreadThickness('S');
+		
+		orderCustomization = new OrderCustomization();
+		orderCustomization.setType('A');
+		orderCustomization.setPortionQuantity(2);
+		
+		orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+		orderCustomizationMap.put(1L, orderCustomization);
+		
+		order.setOrderCustomizationMap(orderCustomizationMap);
+		
+		mockRestServiceServer.expect(requestTo("http://ingredients/calculateOrderPrice"))
+				.andExpect(method(HttpMethod.POST))
+				.andExpect(content().contentType(IngredientClientService.CONTENT_TYPE_SMILE))
+				.andExpect(content().bytes(smileMapper.writeValueAsBytes(order)))
+				.andExpect(header("Accept", IngredientClientService.CONTENT_TYPE_SMILE + ", " + MediaType.APPLICATION_JSON_VALUE))
+				.andRespond(withSuccess(smileMapper.writeValueAsBytes(new BigDecimal("12.50")),
+						MediaType.valueOf(IngredientClientService.CONTENT_TYPE_SMILE)));
+		
+		// Test.
+		assertThat(ingredientClientService.calculateOrderPrice(order)).isEqualByComparingTo("12.50");
+		
+		mockRestServiceServer.verify();
+	}
+	
+	/**
+	 * Test metrics of ingredient client service layer:
+	 * 
+	 * > Wrap the client with the metrics post processor and price an order on the mocked ingredient resource.
+	 * > Test that the invocation is timed by method and outcome and that nothing is left in flight.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void calculateOrderPriceMetricsTest() {
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ObjectProvider<MeterRegistry> meterRegistryProvider = Mockito.mock(ObjectProvider.class);
+		IngredientClientService ingredientClientService = null;
+		Order order = new Order();
+		
+		// Input.
+		Mockito.when(meterRegistryProvider.getIfAvailable()).thenReturn(meterRegistry);
+		
+		ingredientClientService = (IngredientClientService) new InvocationMetricsPostProcessor(meterRegistryProvider)
+				.postProcessAfterInitialization(new IngredientClientServiceImpl(new RestTemplateBuilder()
+						.additionalCustomizers(restTemplate -> mockRestServiceServer = MockRestServiceServer
+								.bindTo(restTemplate).build()), "http://ingredients", 1000, 1000,
+						MediaType.APPLICATION_JSON_VALUE), "ingredientClientServiceImpl");
+		
+		order.setSize('M');
+		order.setBreadThickness('S');
+		
+		mockRestServiceServer.expect(requestTo("http://ingredients/calculateOrderPrice"))
+				.andRespond(withSuccess("12.50", MediaType.APPLICATION_JSON));
+		
+		// Test.
+		assertThat(ingredientClientService.calculateOrderPrice(order)).isEqualByComparingTo("12.50");
+		assertThat(meterRegistry.get(InvocationMetricsPostProcessor.NAME_INGREDIENT_CLIENT + ".invocations")
+				.tag("method", "calculateOrderPrice").tag("outcome", "success").timer().count()).isEqualTo(1L);
+		assertThat(meterRegistry.get(InvocationMetricsPostProcessor.NAME_INGREDIENT_CLIENT + ".active").gauge()
+				.value()).isEqualTo(0.0);
+	}
+	
+	/**
+	 * Test calculate order price list operation when ingredient resource does not return one price per order:
+	 * 
+	 * > Send two orders to the mocked ingredient resource, which returns a single price.
+	 * > Test that the list is rejected with the quantities instead of pricing orders with the prices of others.
+	 */
+	@Test
+	public void calculateOrderPriceListSizeTest() {
+		IngredientClientService ingredientClientService = new IngredientClientServiceImpl(new RestTemplateBuilder()
+				.additionalCustomizers(restTemplate -> mockRestServiceServer = MockRestServiceServer.bindTo(restTemplate)
+						.build()), "http://ingredients", 1000, 1000, MediaType.APPLICATION_JSON_VALUE);
+		Order order = new Order();
+		
+		// Input.
+		order.setSize('M');
+		order.setBreadThickness('S');
+		
+		mockRestServiceServer.expect(requestTo("http://ingredients/calculateOrderPriceList"))
+				.andExpect(method(HttpMethod.POST))
+				.andRespond(withSuccess("[12.50]", MediaType.APPLICATION_JSON));
+		
+		// Test.
+		assertThatThrownBy(() -> ingredientClientService.calculateOrderPriceList(Arrays.asList(order, order)))
+				.isInstanceOf(RestClientException.class).hasMessage("Ingredient resource returned 1 prices for 2 orders");
+		
+		mockRestServiceServer.verify();
+	}
+}
\ No newline at end of file
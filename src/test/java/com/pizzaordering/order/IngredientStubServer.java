@@ -0,0 +1,238 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process stub of ingredient resource over the HTTP server of the JDK. Every order is priced at a fixed price
+ * 		and every call answers after a delay drawn from a latency distribution.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+class IngredientStubServer {
+	
+	/**
+	 * Price of every order, as JSON.
+	 */
+	private static final String PRICE_JSON = "12.50";
+	
+	/**
+	 * JSON mapper of requests.
+	 */
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	
+	/**
+	 * Distribution of latency of every call.
+	 */
+	private final LatencyDistribution latencyDistribution;
+	
+	/**
+	 * HTTP server of the JDK.
+	 */
+	private final HttpServer httpServer;
+	
+	/**
+	 * Pool of threads handling calls, unbounded so latency of a call never delays another.
+	 */
+	private final ExecutorService executorService;
+	
+	/**
+	 * Quantity of calls being handled.
+	 */
+	private final AtomicInteger callsInFlight = new AtomicInteger();
+	
+	/**
+	 * Highest quantity of calls handled at once since the server started.
+	 */
+	private final AtomicInteger maxCallsInFlight = new AtomicInteger();
+	
+	/**
+	 * Constructor, starting the server on an ephemeral port.
+	 * 
+	 * @param latencyDistribution Distribution of latency of every call.
+	 */
+	IngredientStubServer(LatencyDistribution latencyDistribution) throws IOException {
+		this.latencyDistribution = latencyDistribution;
+		
+		executorService = Executors.newCachedThreadPool();
+		
+		httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		httpServer.createContext("/ingredients", this::handle);
+		httpServer.setExecutor(executorService);
+		httpServer.start();
+	}
+	
+	/**
+	 * Get URL of the stub, to be used as URL of ingredient resource.
+	 * 
+	 * @return URL of the stub.
+	 */
+	String getBaseUrl() {
+		return "http://localhost:" + httpServer.getAddress().getPort() + "/ingredients";
+	}
+	
+	/**
+	 * Get highest quantity of calls handled at once since the server started.
+	 * 
+	 * @return Highest quantity of calls handled at once.
+	 */
+	int getMaxCallsInFlight() {
+		return maxCallsInFlight.get();
+	}
+	
+	/**
+	 * Stop the server.
+	 */
+	void stop() {
+		httpServer.stop(0);
+		executorService.shutdownNow();
+	}
+	
+	/**
+	 * Handle a call after the latency drawn, tracking the quantity of calls handled at once:
+	 * 
+	 * > Price an order or every order of a list.
+	 * > Accept reversal of ingredients.
+	 * > Answer not found otherwise.
+	 * 
+	 * @param httpExchange Call.
+	 */
+	private void handle(HttpExchange httpExchange) throws IOException {
+		String path = httpExchange.getRequestURI().getPath();
+		String priceListJson = null;
+		byte[] body = null;
+		int status = 200;
+		
+		maxCallsInFlight.accumulateAndGet(callsInFlight.incrementAndGet(), Math::max);
+		
+		try (InputStream inputStream = httpExchange.getRequestBody()) {
+			if (path.endsWith("/calculateOrderPriceList")) {
+				priceListJson = "[" + String.join(",", Collections.nCopies(objectMapper.readValue(inputStream,
+						List.class).size(), PRICE_JSON)) + "]";
+				body = priceListJson.getBytes(StandardCharsets.UTF_8);
+			} else if (path.endsWith("/calculateOrderPrice")) {
+				body = PRICE_JSON.getBytes(StandardCharsets.UTF_8);
+			} else if (path.contains("/reverseOrderIngredients")) {
+				body = new byte[0];
+			} else {
+				status = 404;
+				body = new byte[0];
+			}
+			
+			TimeUnit.MICROSECONDS.sleep(latencyDistribution.nextMicros());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			callsInFlight.decrementAndGet();
+		}
+		
+		httpExchange.getResponseHeaders().set("Content-Type", "application/json");
+		httpExchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+		
+		try (OutputStream outputStream = httpExchange.getResponseBody()) {
+			outputStream.write(body);
+		}
+	}
+	
+	/**
+	 * Distribution of latency, given as type and parameters in milliseconds separated by colons:
+	 * 
+	 * > fixed:MILLIS
+	 * > uniform:MIN:MAX
+	 * > exponential:MEAN
+	 * > lognormal:MEDIAN:SIGMA, with a long tail for sigma around 1
+	 */
+	static class LatencyDistribution {
+		
+		/**
+		 * Type of distribution.
+		 */
+		private final String type;
+		
+		/**
+		 * Parameters of distribution.
+		 */
+		private final double[] parameters;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param specification Type and parameters separated by colons.
+		 */
+		LatencyDistribution(String specification) {
+			String[] tokens = specification.trim().toLowerCase(Locale.ROOT).split(":");
+			
+			type = tokens[0];
+			parameters = new double[tokens.length - 1];
+			
+			for (int i = 1; i < tokens.length; i++) {
+				parameters[i - 1] = Double.parseDouble(tokens[i]);
+			}
+			
+			if (!type.matches("fixed|uniform|exponential|lognormal")
+					|| parameters.length != (type.matches("uniform|lognormal") ? 2 : 1)) {
+				throw new IllegalArgumentException("Invalid latency distribution " + specification + ".");
+			}
+		}
+		
+		/**
+		 * Draw a latency.
+		 * 
+		 * @return Latency, in microseconds.
+		 */
+		long nextMicros() {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			double millis = 0;
+			
+			switch (type) {
+			case "fixed":
+				millis = parameters[0];
+				break;
+			case "uniform":
+				millis = parameters[0] + random.nextDouble() * (parameters[1] - parameters[0]);
+				break;
+			case "exponential":
+				millis = -parameters[0] * Math.log(1 - random.nextDouble());
+				break;
+			default:
+				millis = parameters[0] * Math.exp(parameters[1] * random.nextGaussian());
+			}
+			
+			return (long) (millis * 1000);
+		}
+		
+		@Override
+		public String toString() {
+			return type + Arrays.toString(parameters);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,234 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.pizzaordering.order.entity.Order;
+
+/**
+ * Throughput test of adding orders synchronously and asynchronously, on few request threads and an in-process stub
+ * 		of ingredient resource answering with injected latency. Clients send orders back to back (closed loop), every
+ * 		order of a new recipe so prices are never cached, and the rate of orders added is compared. Settings come
+ * 		from system properties:
+ * 
+ * > throughput.clients: quantity of clients, default 32.
+ * > throughput.request-threads: maximum quantity of request threads of the server, default 4.
+ * > throughput.warmup-seconds: duration of the warmup of each mode, not recorded, default 1.
+ * > throughput.duration-seconds: duration of the measurement of each mode, default 4.
+ * > throughput.ingredient-latency: latency distribution of ingredient resource, default fixed:100.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(initializers = OrderAsyncThroughputTest.IngredientStubInitializer.class)
+public class OrderAsyncThroughputTest {
+	
+	/**
+	 * Logger of throughput test results.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderAsyncThroughputTest.class);
+	
+	/**
+	 * Quantity of clients.
+	 */
+	private static final int CLIENTS = Integer.getInteger("throughput.clients", 32);
+	
+	/**
+	 * Maximum quantity of request threads of the server.
+	 */
+	private static final int REQUEST_THREADS = Integer.getInteger("throughput.request-threads", 4);
+	
+	/**
+	 * Duration of the warmup of each mode, in seconds.
+	 */
+	private static final int WARMUP_SECONDS = Integer.getInteger("throughput.warmup-seconds", 1);
+	
+	/**
+	 * Duration of the measurement of each mode, in seconds.
+	 */
+	private static final int DURATION_SECONDS = Integer.getInteger("throughput.duration-seconds", 4);
+	
+	/**
+	 * Latency distribution of ingredient resource.
+	 */
+	private static final String INGREDIENT_LATENCY = System.getProperty("throughput.ingredient-latency",
+			"fixed:100");
+	
+	/**
+	 * Stub of ingredient resource, started before the application.
+	 */
+	static IngredientStubServer ingredientStubServer;
+	
+	/**
+	 * HTTP client of the application.
+	 */
+	@Autowired
+	TestRestTemplate testRestTemplate;
+	
+	/**
+	 * Closed recipe id of the next order, unique so no price is cached.
+	 */
+	private final AtomicInteger closedRecipeIdSequence = new AtomicInteger();
+	
+	/**
+	 * Stop the stub of ingredient resource.
+	 */
+	@AfterClass
+	public static void stopIngredientStubServer() {
+		if (ingredientStubServer != null) {
+			ingredientStubServer.stop();
+		}
+	}
+	
+	/**
+	 * Throughput test of add order operation:
+	 * 
+	 * > Send orders to the synchronous and asynchronous endpoints during the warmup, then during the measurement.
+	 * > Report orders added per second of each mode.
+	 * > Test that every order was added and that the asynchronous mode adds more orders per second, since request
+	 * 		threads are not held while ingredient resource answers.
+	 */
+	@Test
+	public void addOrderThroughputTest() throws Exception {
+		double syncThroughput = 0D;
+		double asyncThroughput = 0D;
+		
+		// Input.
+		run("/orders", WARMUP_SECONDS);
+		run("/orders/async", WARMUP_SECONDS);
+		
+		syncThroughput = run("/orders", DURATION_SECONDS);
+		asyncThroughput = run("/orders/async", DURATION_SECONDS);
+		
+		// Test.
+		LOGGER.info(String.format("Add order with %d clients, %d request threads, ingredient latency %s:"
+				+ " sync=%.1f orders/s async=%.1f orders/s (x%.1f)", CLIENTS, REQUEST_THREADS,
+				new IngredientStubServer.LatencyDistribution(INGREDIENT_LATENCY), syncThroughput, asyncThroughput,
+				asyncThroughput / syncThroughput));
+		
+		assertThat(asyncThroughput).isGreaterThan(syncThroughput);
+	}
+	
+	/**
+	 * Send orders back to back from every client during a period.
+	 * 
+	 * @param uri URI of add order operation.
+	 * @param seconds Duration, in seconds.
+	 * @return Orders added per second.
+	 */
+	private double run(String uri, int seconds) throws Exception {
+		ExecutorService executorService = Executors.newFixedThreadPool(CLIENTS);
+		List<Future<?>> futureList = new ArrayList<Future<?>>();
+		AtomicLong addedCount = new AtomicLong();
+		AtomicLong errorCount = new AtomicLong();
+		long startNanos = System.nanoTime();
+		long endNanos = startNanos + TimeUnit.SECONDS.toNanos(seconds);
+		
+		for (int i = 0; i < CLIENTS; i++) {
+			futureList.add(executorService.submit(() -> {
+				ResponseEntity<Order> responseEntity = null;
+				
+				while (System.nanoTime() < endNanos) {
+					responseEntity = testRestTemplate.postForEntity(uri, newOrder(), Order.class);
+					
+					if (responseEntity.getStatusCode().is2xxSuccessful()) {
+						addedCount.incrementAndGet();
+					} else {
+						LOGGER.warn(uri + " answered " + responseEntity.getStatusCode());
+						
+						errorCount.incrementAndGet();
+					}
+				}
+			}));
+		}
+		
+		for (Future<?> future : futureList) {
+			future.get();
+		}
+		
+		executorService.shutdown();
+		
+		assertThat(errorCount.get()).isEqualTo(0L);
+		
+		return addedCount.get() * 1e9 / (System.nanoTime() - startNanos);
+	}
+	
+	/**
+	 * Build a new order of a recipe never priced before.
+	 * 
+	 * @return New order.
+	 */
+	private Order newOrder() {
+		Order order = new Order();
+		
+		order.setClosedRecipeId(closedRecipeIdSequence.incrementAndGet());
+		order.setSize('M');
+		order.setBreadThickness('S');
+		
+		return order;
+	}
+	
+	/**
+	 * Start the stub of ingredient resource before the application and point the application to it, with few
+	 * 		request threads, on a database of its own so orders of the test do not reach other tests.
+	 */
+	static class IngredientStubInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+		
+		@Override
+		public void initialize(ConfigurableApplicationContext applicationContext) {
+			try {
+				ingredientStubServer = new IngredientStubServer(
+						new IngredientStubServer.LatencyDistribution(INGREDIENT_LATENCY));
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			
+			System.setProperty("http.maxConnections", String.valueOf(CLIENTS));
+			
+			TestPropertyValues.of("ingredient.client.base-url=" + ingredientStubServer.getBaseUrl(),
+					"server.tomcat.max-threads=" + REQUEST_THREADS,
+					"spring.datasource.url=jdbc:h2:mem:db_pizza_ordering_orders_throughput;MODE=MySQL;"
+							+ "DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+					.applyTo(applicationContext);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,250 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.pizzaordering.order.controller.OrderConcurrencyLimitFilter;
+import com.pizzaordering.order.serviceImpl.OrderConcurrencyLimitServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit test of order concurrency limit service layer and of the filter applying it in front of order resource.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class OrderConcurrencyLimitServiceTest {
+	
+	/**
+	 * Registry of meters of the limit.
+	 */
+	MeterRegistry meterRegistry;
+	
+	/**
+	 * Build the registry of meters.
+	 */
+	@Before
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+	
+	/**
+	 * Test try acquire method with reads and writes:
+	 * 
+	 * > Admit writes until their share of the limit is in flight, then reads until the limit is.
+	 * > Test that the next write and read are rejected and counted, and that a disabled limit admits both.
+	 */
+	@Test
+	public void tryAcquirePriorityTest() {
+		OrderConcurrencyLimitServiceImpl orderConcurrencyLimitService = new OrderConcurrencyLimitServiceImpl(
+				meterRegistry, true, 10, 1, 100, 0.5);
+		
+		// Input.
+		for (int i = 0; i < 5; i++) {
+			assertThat(orderConcurrencyLimitService.tryAcquire(true)).isTrue();
+		}
+		
+		// Test.
+		assertThat(orderConcurrencyLimitService.tryAcquire(true)).isFalse();
+		
+		for (int i = 0; i < 5; i++) {
+			assertThat(orderConcurrencyLimitService.tryAcquire(false)).isTrue();
+		}
+		
+		assertThat(orderConcurrencyLimitService.tryAcquire(false)).isFalse();
+		assertThat(orderConcurrencyLimitService.getStatistics().get("inFlight")).isEqualTo(10);
+		assertThat(orderConcurrencyLimitService.getStatistics().get("rejectedReadCount")).isEqualTo(1L);
+		assertThat(orderConcurrencyLimitService.getStatistics().get("rejectedWriteCount")).isEqualTo(1L);
+		assertThat(meterRegistry.get("order.concurrency.in.flight").gauge().value()).isEqualTo(10.0);
+		assertThat(meterRegistry.get("order.concurrency.limit").gauge().value()).isEqualTo(10.0);
+		assertThat(meterRegistry.get("order.concurrency.rejected").tag("priority", "write").counter().count())
+				.isEqualTo(1.0);
+		
+		orderConcurrencyLimitService = new OrderConcurrencyLimitServiceImpl(new SimpleMeterRegistry(), false, 1, 1, 1,
+				0.5);
+		
+		assertThat(orderConcurrencyLimitService.tryAcquire(true)).isTrue();
+		assertThat(orderConcurrencyLimitService.tryAcquire(true)).isTrue();
+	}
+	
+	/**
+	 * Test release method with changes of latency:
+	 * 
+	 * > Fill the limit round after round while latency holds, then while it rises tenfold, then once it is back.
+	 * > Test that the limit grows, then shrinks, without going below its minimum, then grows again.
+	 */
+	@Test
+	public void releaseAdaptiveLimitTest() {
+		OrderConcurrencyLimitServiceImpl orderConcurrencyLimitService = new OrderConcurrencyLimitServiceImpl(
+				meterRegistry, true, 20, 4, 200, 0.8);
+		int limitFast = 0;
+		int limitSlow = 0;
+		
+		// Input.
+		for (int i = 0; i < 20; i++) {
+			fillLimit(orderConcurrencyLimitService, false, 10L);
+		}
+		
+		limitFast = orderConcurrencyLimitService.getStatistics().get("limit").intValue();
+		
+		for (int i = 0; i < 3; i++) {
+			fillLimit(orderConcurrencyLimitService, false, 100L);
+		}
+		
+		limitSlow = orderConcurrencyLimitService.getStatistics().get("limit").intValue();
+		
+		for (int i = 0; i < 20; i++) {
+			fillLimit(orderConcurrencyLimitService, false, 10L);
+		}
+		
+		// Test.
+		assertThat(limitFast).isGreaterThan(20);
+		assertThat(limitSlow).isLessThan(limitFast / 2).isGreaterThanOrEqualTo(4);
+		assertThat(orderConcurrencyLimitService.getStatistics().get("limit").intValue()).isGreaterThan(limitSlow);
+		assertThat(orderConcurrencyLimitService.getStatistics().get("inFlight")).isEqualTo(0);
+	}
+	
+	/**
+	 * Test release method with reads and writes of different latencies:
+	 * 
+	 * > Fill the limit round after round with fast reads, then with writes ten times slower.
+	 * > Test that the limit keeps growing, as writes are compared with writes only, and that latencies of reads and
+	 * 		writes are reported apart.
+	 */
+	@Test
+	public void releasePriorityLatencyTest() {
+		OrderConcurrencyLimitServiceImpl orderConcurrencyLimitService = new OrderConcurrencyLimitServiceImpl(
+				meterRegistry, true, 20, 4, 100000, 0.8);
+		int limitRead = 0;
+		
+		// Input.
+		for (int i = 0; i < 3; i++) {
+			fillLimit(orderConcurrencyLimitService, false, 10L);
+		}
+		
+		limitRead = orderConcurrencyLimitService.getStatistics().get("limit").intValue();
+		
+		for (int i = 0; i < 3; i++) {
+			fillLimit(orderConcurrencyLimitService, true, 100L);
+		}
+		
+		// Test.
+		assertThat(orderConcurrencyLimitService.getStatistics().get("limit").intValue()).isGreaterThan(limitRead);
+		assertThat(orderConcurrencyLimitService.getStatistics().get("readShortLatencyMillis")).isEqualTo(10L);
+		assertThat(orderConcurrencyLimitService.getStatistics().get("writeShortLatencyMillis")).isEqualTo(100L);
+	}
+	
+	/**
+	 * Test the filter of order resource with its limit of writes in flight:
+	 * 
+	 * > Hold the only write allowed, then send a write, a read and an asynchronous write.
+	 * > Test that the write is rejected with 503 and Retry-After without being handled, and that the read and the
+	 * 		asynchronous write are handled and released.
+	 * > Release the write held and send a slow batch.
+	 * > Test that the batch is handled and released without its latency being sampled.
+	 */
+	@Test
+	public void filterTest() throws Exception {
+		OrderConcurrencyLimitServiceImpl orderConcurrencyLimitService = new OrderConcurrencyLimitServiceImpl(
+				meterRegistry, true, 2, 1, 100, 0.5);
+		OrderConcurrencyLimitFilter orderConcurrencyLimitFilter = new OrderConcurrencyLimitFilter(
+				orderConcurrencyLimitService, 3);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain filterChain = new MockFilterChain();
+		
+		// Input.
+		orderConcurrencyLimitService.tryAcquire(true);
+		
+		orderConcurrencyLimitFilter.doFilter(new MockHttpServletRequest("POST", "/orders"), response, filterChain);
+		
+		// Test.
+		assertThat(response.getStatus()).isEqualTo(503);
+		assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+		assertThat(filterChain.getRequest()).isNull();
+		
+		response = new MockHttpServletResponse();
+		filterChain = new MockFilterChain();
+		
+		orderConcurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/orders/1"), response, filterChain);
+		
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(filterChain.getRequest()).isNotNull();
+		
+		response = new MockHttpServletResponse();
+		filterChain = new MockFilterChain();
+		
+		orderConcurrencyLimitFilter.doFilter(new MockHttpServletRequest("POST", "/orders/async"), response, filterChain);
+		
+		assertThat(filterChain.getRequest()).isNotNull();
+		assertThat(orderConcurrencyLimitService.getStatistics().get("inFlight")).isEqualTo(1);
+		
+		orderConcurrencyLimitService.release();
+		
+		response = new MockHttpServletResponse();
+		filterChain = new MockFilterChain(new HttpServlet() {
+			
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected void service(HttpServletRequest request, HttpServletResponse response) {
+				try {
+					Thread.sleep(5L);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		
+		orderConcurrencyLimitFilter.doFilter(new MockHttpServletRequest("POST", "/orders/batch"), response, filterChain);
+		
+		assertThat(filterChain.getRequest()).isNotNull();
+		assertThat(orderConcurrencyLimitService.getStatistics().get("inFlight")).isEqualTo(0);
+		assertThat(orderConcurrencyLimitService.getStatistics().get("writeLongLatencyMillis")).isEqualTo(0L);
+	}
+	
+	/**
+	 * Admit requests until the limit, or its share of writes, is in flight, then release all of them with the same
+	 * 		latency.
+	 * 
+	 * @param orderConcurrencyLimitService Limit under test.
+	 * @param write Whether requests are writes.
+	 * @param latencyMillis Latency of every request, in milliseconds.
+	 */
+	private void fillLimit(OrderConcurrencyLimitServiceImpl orderConcurrencyLimitService, boolean write,
+			long latencyMillis) {
+		int admittedQuantity = 0;
+		
+		while (orderConcurrencyLimitService.tryAcquire(write)) {
+			admittedQuantity++;
+		}
+		
+		for (int i = 0; i < admittedQuantity; i++) {
+			orderConcurrencyLimitService.release(write, TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,653 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaordering.order.dto.OrderImportResult;
+import com.pizzaordering.order.dto.OrderPage;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+import com.pizzaordering.order.metrics.ServerTiming;
+import com.pizzaordering.order.service.IngredientClientService;
+import com.pizzaordering.order.service.OrderCacheService;
+import com.pizzaordering.order.service.OrderService;
+
+/**
+ * Integration test of order resource on embedded database.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OrderControllerTest {
+	
+	/**
+	 * Spring MVC test client.
+	 */
+	@Autowired
+	MockMvc mockMvc;
+	
+	/**
+	 * Interface of order service layer.
+	 */
+	@Autowired
+	OrderService orderService;
+	
+	/**
+	 * Interface of order cache service layer.
+	 */
+	@Autowired
+	OrderCacheService orderCacheService;
+	
+	/**
+	 * JSON mapper of responses.
+	 */
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	/**
+	 * JPA entity manager factory, unwrapped to get Hibernate statistics.
+	 */
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+	
+	/**
+	 * Interface of ingredient client service layer mocked.
+	 */
+	@MockBean
+	IngredientClientService ingredientClientService;
+	
+	/**
+	 * Mock pricing calls with a fixed price per order.
+	 */
+	@Before
+	public void mockIngredientClientService() {
+		Mockito.when(ingredientClientService.calculateOrderPrice(Mockito.any(Order.class))).thenReturn(BigDecimal.TEN);
+		Mockito.when(ingredientClientService.calculateOrderPriceList(Mockito.anyList())).thenAnswer(invocation ->
+				Collections.nCopies(invocation.<List<?>>getArgument(0).size(), BigDecimal.TEN));
+	}
+	
+	/**
+	 * Test get order operation when the order is not cached:
+	 * 
+	 * > Add an order with customized ingredients on database.
+	 * > Test that the order and its customized ingredients are read in a single statement.
+	 */
+	@Test
+	public void getOrderStatementCountTest() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Order order = null;
+		OrderCustomization orderCustomization = null;
+		Map<Long, OrderCustomization> orderCustomizationMap = null;
+		
+		// Input.
+		order = new Order();
+		order.setSize('M');
+		order.setBreadThickness('S');
+		
+		orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+		
+		for (long ingredientId = 1L; ingredientId <= 3L; ingredientId++) {
+			orderCustomization = new OrderCustomization();
+			orderCustomization.setType('A');
+			orderCustomization.setPortionQuantity(2);
+			orderCustomization.setObservation("Statement count.");
+			
+			orderCustomizationMap.put(ingredientId, orderCustomization);
+		}
+		
+		order.setOrderCustomizationMap(orderCustomizationMap);
+		order = orderService.addOrder(order);
+		
+		orderCacheService.invalidateAll();
+		statistics.clear();
+		
+		// Test.
+		mockMvc.perform(get("/orders/" + order.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(order.getId()))
+				.andExpect(jsonPath("$.orderCustomizationMap.length()").value(3))
+				.andExpect(jsonPath("$.orderCustomizationMap.2.portionQuantity").value(2));
+		
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1L);
+	}
+	
+	/**
+	 * Test list orders operation paging through every order:
+	 * 
+	 * > Add orders with customized ingredients on database.
+	 * > Test that following the cursor returns every order once, sorted by id, with its customized ingredients.
+	 * > Test that every page is read in two statements, one for orders and one for their customized ingredients.
+	 */
+	@Test
+	public void getOrderPageTest() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		List<Long> orderIdList = new ArrayList<Long>();
+		List<Long> orderIdPagedList = new ArrayList<Long>();
+		Order order = null;
+		OrderCustomization orderCustomization = null;
+		Map<Long, OrderCustomization> orderCustomizationMap = null;
+		OrderPage orderPage = null;
+		Long after = 0L;
+		
+		// Input.
+		for (int i = 0; i < 5; i++) {
+			order = new Order();
+			order.setSize('M');
+			order.setBreadThickness('S');
+			
+			orderCustomization = new OrderCustomization();
+			orderCustomization.setType('A');
+			orderCustomization.setPortionQuantity(i + 1);
+			orderCustomization.setObservation("Page.");
+			
+			orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+			orderCustomizationMap.put(1L, orderCustomization);
+			
+			order.setOrderCustomizationMap(orderCustomizationMap);
+			orderIdList.add(orderService.addOrder(order).getId());
+		}
+		
+		// Test.
+		while (after != null) {
+			statistics.clear();
+			
+			orderPage = objectMapper.readValue(mockMvc.perform(get("/orders").param("after", after.toString()).param("limit", "2"))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString(), OrderPage.class);
+			
+			for (Order orderPaged : orderPage.getOrderList()) {
+				assertThat(orderPaged.getId()).isGreaterThan(after);
+				
+				if (orderIdList.contains(orderPaged.getId())) {
+					assertThat(orderPaged.getOrderCustomizationMap()).containsOnlyKeys(1L);
+				}
+				
+				orderIdPagedList.add(orderPaged.getId());
+			}
+			
+			assertThat(statistics.getPrepareStatementCount()).isEqualTo(orderPage.getOrderList().isEmpty() ? 1L : 2L);
+			
+			after = orderPage.getNextAfter();
+		}
+		
+		assertThat(orderIdPagedList).containsAll(orderIdList).doesNotHaveDuplicates().isSorted();
+	}
+	
+	/**
+	 * Test export orders operation, plain and compressed:
+	 * 
+	 * > Add an order with customized ingredients on database.
+	 * > Test that every line is an order, sorted by id, and that the added order comes with its customized ingredients.
+	 */
+	@Test
+	public void exportOrdersTest() throws Exception {
+		Order order = null;
+		OrderCustomization orderCustomization = null;
+		Map<Long, OrderCustomization> orderCustomizationMap = null;
+		byte[] content = null;
+		BufferedReader reader = null;
+		String line = null;
+		Order orderExported = null;
+		Order orderExportedAdded = null;
+		Long lastId = null;
+		
+		// Input.
+		order = new Order();
+		order.setClosedRecipeId(2);
+		order.setSize('B');
+		order.setBreadThickness('M');
+		
+		orderCustomization = new OrderCustomization();
+		orderCustomization.setType('R');
+		orderCustomization.setPortionQuantity(1);
+		orderCustomization.setObservation("Export.");
+		
+		orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+		orderCustomizationMap.put(7L, orderCustomization);
+		
+		order.setOrderCustomizationMap(orderCustomizationMap);
+		order = orderService.addOrder(order);
+		
+		// Test.
+		for (boolean gzip : new boolean[] { false, true }) {
+			content = mockMvc.perform(get("/orders/export").param("gzip", String.valueOf(gzip)))
+					.andExpect(status().isOk())
+					.andExpect(header().string("Content-Type", "application/x-ndjson"))
+					.andReturn().getResponse().getContentAsByteArray();
+			
+			reader = new BufferedReader(new InputStreamReader(gzip ? new GZIPInputStream(new ByteArrayInputStream(content))
+					: new ByteArrayInputStream(content), StandardCharsets.UTF_8));
+			lastId = 0L;
+			orderExportedAdded = null;
+			
+			while ((line = reader.readLine()) != null) {
+				orderExported = objectMapper.readValue(line, Order.class);
+				
+				assertThat(orderExported.getId()).isGreaterThan(lastId);
+				
+				if (orderExported.getId().equals(order.getId())) {
+					orderExportedAdded = orderExported;
+				}
+				
+				lastId = orderExported.getId();
+			}
+			
+			assertThat(orderExportedAdded).isNotNull();
+			assertThat(orderExportedAdded.getClosedRecipeId()).isEqualTo(2);
+			assertThat(orderExportedAdded.getSize()).isEqualTo('B');
+			assertThat(orderExportedAdded.getOrderCustomizationMap()).containsOnlyKeys(7L);
+			assertThat(orderExportedAdded.getOrderCustomizationMap().get(7L).getObservation()).isEqualTo("Export.");
+		}
+	}
+	
+	/**
+	 * Test import orders operation, from newline delimited JSON and from CSV:
+	 * 
+	 * > Import orders, some with price and some without, in chunks smaller than the import.
+	 * > Test that every order and customized ingredient is inserted, with CSV lines of the same order grouped.
+	 * > Test that only orders without price are priced, and that supplied prices are kept.
+	 */
+	@Test
+	public void importOrdersTest() throws Exception {
+		OrderImportResult orderImportResult = null;
+		List<Order> orderImportedList = new ArrayList<Order>();
+		OrderPage orderPage = null;
+		Long after = 0L;
+		
+		// Test.
+		orderImportResult = objectMapper.readValue(mockMvc.perform(post("/orders/import").param("format", "ndjson")
+				.content("{\"size\":\"M\",\"breadThickness\":\"S\",\"price\":7.50,\"orderCustomizationMap\":"
+						+ "{\"1\":{\"type\":\"A\",\"portionQuantity\":1,\"observation\":\"Import JSON.\"}}}\n"
+						+ "{\"closedRecipeId\":1,\"size\":\"B\",\"breadThickness\":\"M\",\"orderCustomizationMap\":"
+						+ "{\"2\":{\"type\":\"R\",\"portionQuantity\":1,\"observation\":\"Import JSON.\"}}}\n"
+						+ "{\"size\":\"S\",\"breadThickness\":\"M\",\"price\":5.00,\"orderCustomizationMap\":"
+						+ "{\"3\":{\"type\":\"A\",\"portionQuantity\":2,\"observation\":\"Import JSON.\"}}}\n"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(), OrderImportResult.class);
+		
+		assertThat(orderImportResult.getOrderQuantity()).isEqualTo(3L);
+		assertThat(orderImportResult.getOrderCustomizationQuantity()).isEqualTo(3L);
+		assertThat(orderImportResult.getPricedOrderQuantity()).isEqualTo(1L);
+		
+		orderImportResult = objectMapper.readValue(mockMvc.perform(post("/orders/import").param("format", "csv")
+				.content("id,closedRecipeId,size,breadThickness,price,ingredientId,type,portionQuantity,observation\n"
+						+ "10,,M,S,9.25,4,A,1,Import CSV.\n"
+						+ "10,,M,S,9.25,5,R,1,Import CSV.\n"
+						+ "11,2,B,M,,6,A,3,Import CSV.\n"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(), OrderImportResult.class);
+		
+		assertThat(orderImportResult.getOrderQuantity()).isEqualTo(2L);
+		assertThat(orderImportResult.getOrderCustomizationQuantity()).isEqualTo(3L);
+		assertThat(orderImportResult.getPricedOrderQuantity()).isEqualTo(1L);
+		
+		while (after != null) {
+			orderPage = orderService.getOrderPage(after, 500);
+			
+			for (Order order : orderPage.getOrderList()) {
+				if (order.getOrderCustomizationMap().values().stream()
+						.anyMatch(orderCustomization -> orderCustomization.getObservation().startsWith("Import"))) {
+					orderImportedList.add(order);
+				}
+			}
+			
+			after = orderPage.getNextAfter();
+		}
+		
+		assertThat(orderImportedList).extracting(order -> order.getOrderCustomizationMap().size())
+				.containsExactly(1, 1, 1, 2, 1);
+		assertThat(orderImportedList).extracting(order -> order.getPrice().setScale(2))
+				.containsExactly(new BigDecimal("7.50"), BigDecimal.TEN.setScale(2), new BigDecimal("5.00"),
+						new BigDecimal("9.25"), BigDecimal.TEN.setScale(2));
+		assertThat(orderImportedList.get(3).getOrderCustomizationMap()).containsOnlyKeys(4L, 5L);
+	}
+	
+	/**
+	 * Test add order operation exchanging Smile instead of JSON:
+	 * 
+	 * > Send an order with customized ingredients as Smile, accepting Smile.
+	 * > Test that the response is Smile and reads back to the saved order.
+	 */
+	@Test
+	public void addOrderSmileTest() throws Exception {
+		ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+		Order order = null;
+		OrderCustomization orderCustomization = null;
+		Map<Long, OrderCustomization> orderCustomizationMap = null;
+		Order orderAdded = null;
+		
+		// Input.
+		order = new Order();
+		order.setSize('M');
+		order.setBreadThickness('S');
+		
+		orderCustomization = new OrderCustomization();
+		orderCustomization.setType('A');
+		orderCustomization.setPortionQuantity(1);
+		orderCustomization.setObservation("Smile.");
+		
+		orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+		orderCustomizationMap.put(3L, orderCustomization);
+		
+		order.setOrderCustomizationMap(orderCustomizationMap);
+		
+		// Test.
+		orderAdded = smileMapper.readValue(mockMvc.perform(post("/orders")
+				.contentType(IngredientClientService.CONTENT_TYPE_SMILE)
+				.accept(IngredientClientService.CONTENT_TYPE_SMILE)
+				.content(smileMapper.writeValueAsBytes(order)))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(IngredientClientService.CONTENT_TYPE_SMILE))
+				.andReturn().getResponse().getContentAsByteArray(), Order.class);
+		
+		assertThat(orderAdded.getId()).isNotNull();
+		assertThat(orderAdded.getPrice()).isEqualByComparingTo(BigDecimal.TEN);
+		assertThat(orderAdded.getOrderCustomizationMap()).containsOnlyKeys(3L);
+		assertThat(orderAdded.getOrderCustomizationMap().get(3L).getObservation()).isEqualTo("Smile.");
+	}
+	
+	/**
+	 * Test add order operation reporting its phases:
+	 * 
+	 * > Send an order with customized ingredients.
+	 * > Test that the Server-Timing header has pricing, both saves, the commit and the whole request, in order.
+	 */
+	@Test
+	public void addOrderServerTimingTest() throws Exception {
+		Order order = new Order();
+		OrderCustomization orderCustomization = new OrderCustomization();
+		String serverTiming = null;
+		
+		// Input.
+		order.setClosedRecipeId(2);
+		order.setSize('B');
+		order.setBreadThickness('M');
+		
+		orderCustomization.setType('A');
+		orderCustomization.setPortionQuantity(1);
+		
+		order.setOrderCustomizationMap(Collections.singletonMap(4L, orderCustomization));
+		
+		// Test.
+		serverTiming = mockMvc.perform(post("/orders")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsBytes(order)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(ServerTiming.HEADER_SERVER_TIMING);
+		
+		assertThat(serverTiming).matches("price;dur=[0-9.]+, orderSave;dur=[0-9.]+, customizationSave;dur=[0-9.]+, "
+				+ "commit;dur=[0-9.]+, app;dur=[0-9.]+");
+	}
+	
+	/**
+	 * Test metrics exposed for Prometheus:
+	 * 
+	 * > Send an order with customized ingredients.
+	 * > Test that the scrape has histograms of the endpoint and the repositories, counters of orders and gauges of
+	 * 		the connection pool.
+	 */
+	@Test
+	public void getPrometheusMetricsTest() throws Exception {
+		Order order = new Order();
+		OrderCustomization orderCustomization = new OrderCustomization();
+		String scrape = null;
+		
+		// Input.
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		
+		orderCustomization.setType('A');
+		orderCustomization.setPortionQuantity(2);
+		
+		order.setOrderCustomizationMap(Collections.singletonMap(3L, orderCustomization));
+		
+		mockMvc.perform(post("/orders")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsBytes(order)))
+				.andExpect(status().isOk());
+		
+		// Test.
+		scrape = mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		
+		assertThat(scrape)
+				.contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"POST\",status=\"200\",uri=\"/orders\"")
+				.contains("order_repository_invocations_seconds_bucket{method=\"save\",outcome=\"success\","
+						+ "repository=\"orderRepository\"")
+				.contains("order_repository_active{repository=\"orderCustomizationRepository\",}")
+				.contains("order_created_total")
+				.contains("order_customizations_sum")
+				.contains("hikaricp_connections_active");
+	}
+	
+	/**
+	 * Test statistics of order components exposed on the orders actuator endpoint:
+	 * 
+	 * > Get statistics of every component, and of the outbox alone.
+	 * > Test that every component is listed, that an unknown component is not found and that only caches are
+	 * 		invalidated.
+	 */
+	@Test
+	public void getOrderEndpointTest() throws Exception {
+		// Test.
+		mockMvc.perform(get("/actuator/orders"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.cache.hitCount").isNumber())
+				.andExpect(jsonPath("$.outbox.backlogDepth").isNumber())
+				.andExpect(jsonPath("$.shards").exists())
+				.andExpect(jsonPath("$.concurrencyLimit").exists());
+		
+		mockMvc.perform(get("/actuator/orders/outbox"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.failedEventCount").isNumber());
+		
+		mockMvc.perform(get("/actuator/orders/unknown"))
+				.andExpect(status().isNotFound());
+		
+		mockMvc.perform(delete("/actuator/orders/priceCache"))
+				.andExpect(status().isOk());
+		
+		mockMvc.perform(delete("/actuator/orders/outbox"))
+				.andExpect(status().isNotFound());
+	}
+	
+	/**
+	 * Test add order operation retried with the same idempotency key:
+	 * 
+	 * > Send an order with an idempotency key, and send it again with the same key.
+	 * > Test that the retry returns the same order without pricing it or touching the database.
+	 * > Test that the same key with a different order is rejected.
+	 * > Delete the order and test that a retry with the same key answers the order is gone.
+	 */
+	@Test
+	public void addOrderIdempotencyTest() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		String idempotencyKey = "idempotency-" + System.nanoTime();
+		String body = "{\"size\":\"M\",\"breadThickness\":\"S\",\"orderCustomizationMap\":"
+				+ "{\"8\":{\"type\":\"A\",\"portionQuantity\":3,\"observation\":\"Idempotency.\"}}}";
+		Order orderAdded = null;
+		Order orderRetried = null;
+		
+		// Test.
+		orderAdded = objectMapper.readValue(mockMvc.perform(post("/orders").header("Idempotency-Key", idempotencyKey)
+				.contentType("application/json").content(body))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(), Order.class);
+		
+		Mockito.clearInvocations(ingredientClientService);
+		statistics.clear();
+		
+		orderRetried = objectMapper.readValue(mockMvc.perform(post("/orders").header("Idempotency-Key", idempotencyKey)
+				.contentType("application/json").content(body))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(), Order.class);
+		
+		assertThat(orderRetried.getId()).isEqualTo(orderAdded.getId());
+		assertThat(orderRetried.getOrderCustomizationMap()).containsOnlyKeys(8L);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(0L);
+		Mockito.verifyZeroInteractions(ingredientClientService);
+		
+		mockMvc.perform(post("/orders").header("Idempotency-Key", idempotencyKey)
+				.contentType("application/json").content(body.replace("\"M\"", "\"B\"")))
+				.andExpect(status().isUnprocessableEntity());
+		
+		mockMvc.perform(delete("/orders/" + orderAdded.getId()))
+				.andExpect(status().isOk());
+		
+		mockMvc.perform(post("/orders").header("Idempotency-Key", idempotencyKey)
+				.contentType("application/json").content(body))
+				.andExpect(status().isGone());
+	}
+	
+	/**
+	 * Test add order operation in asynchronous mode retried with the same idempotency key:
+	 * 
+	 * > Send an order asynchronously with an idempotency key, and send it again with the same key.
+	 * > Test that the retry completes with the same order.
+	 * > Test that the same key with a different order is rejected once the request completes.
+	 */
+	@Test
+	public void addOrderAsyncIdempotencyTest() throws Exception {
+		String idempotencyKey = "idempotency-async-" + System.nanoTime();
+		String body = "{\"closedRecipeId\":3,\"size\":\"M\",\"breadThickness\":\"S\"}";
+		MvcResult mvcResult = null;
+		Order orderAdded = null;
+		Order orderRetried = null;
+		
+		// Test.
+		mvcResult = mockMvc.perform(post("/orders/async").header("Idempotency-Key", idempotencyKey)
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		orderAdded = objectMapper.readValue(mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(), Order.class);
+		
+		mvcResult = mockMvc.perform(post("/orders/async").header("Idempotency-Key", idempotencyKey)
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		orderRetried = objectMapper.readValue(mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(), Order.class);
+		
+		assertThat(orderRetried.getId()).isEqualTo(orderAdded.getId());
+		
+		mvcResult = mockMvc.perform(post("/orders/async").header("Idempotency-Key", idempotencyKey)
+				.contentType(MediaType.APPLICATION_JSON).content(body.replace("\"M\"", "\"B\"")))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isUnprocessableEntity());
+	}
+	
+	/**
+	 * Test add and delete order operations in asynchronous mode:
+	 * 
+	 * > Send an order with customized ingredients, which goes asynchronous and completes with the priced order.
+	 * > Test that the order is added without a Server-Timing header, since its phases run on other threads.
+	 * > Delete the order asynchronously and test that it is gone.
+	 */
+	@Test
+	public void addOrderAsyncTest() throws Exception {
+		Order order = new Order();
+		OrderCustomization orderCustomization = new OrderCustomization();
+		MvcResult mvcResult = null;
+		Order orderAdded = null;
+		
+		// Input.
+		order.setClosedRecipeId(3);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		
+		orderCustomization.setType('A');
+		orderCustomization.setPortionQuantity(2);
+		
+		order.setOrderCustomizationMap(Collections.singletonMap(5L, orderCustomization));
+		
+		// Test.
+		mvcResult = mockMvc.perform(post("/orders/async")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsBytes(order)))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		orderAdded = objectMapper.readValue(mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(ServerTiming.HEADER_SERVER_TIMING))
+				.andReturn().getResponse().getContentAsString(), Order.class);
+		
+		assertThat(orderAdded.getId()).isNotNull();
+		assertThat(orderAdded.getPrice()).isEqualByComparingTo(BigDecimal.TEN);
+		assertThat(orderAdded.getOrderCustomizationMap()).containsOnlyKeys(5L);
+		
+		mvcResult = mockMvc.perform(delete("/orders/async/{id}", orderAdded.getId()))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk());
+		
+		assertThat(orderService.getOrderPage(orderAdded.getId() - 1, 1).getOrderList()).extracting(Order::getId)
+				.doesNotContain(orderAdded.getId());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,475 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+
+/**
+ * Load test of order resource on embedded database and an in-process stub of ingredient resource. Requests are
+ * 		sent at a fixed rate whatever the responses take (open loop), and response time is measured from the time a
+ * 		request was due rather than the time it was sent, so stalls are not hidden by coordinated omission. Settings
+ * 		come from system properties:
+ * 
+ * > load.rate: requests per second, default 50.
+ * > load.warmup-seconds: duration of the warmup, not recorded, default 2.
+ * > load.duration-seconds: duration of the measurement, default 5.
+ * > load.mix: weights of POST, GET and DELETE, default 30:50:20.
+ * > load.max-concurrency: maximum quantity of requests in flight, default 64.
+ * > load.ingredient-latency: latency distribution of ingredient resource, default exponential:5.
+ * 
+ * Percentile distributions are written on target/load-test, one file per operation.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(initializers = OrderLoadTest.IngredientStubInitializer.class)
+public class OrderLoadTest {
+	
+	/**
+	 * Logger of load test results.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderLoadTest.class);
+	
+	/**
+	 * Highest response time tracked by histograms, in microseconds.
+	 */
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+	
+	/**
+	 * Quantity of recent orders kept to be read.
+	 */
+	private static final int READABLE_ID_CAPACITY = 4096;
+	
+	/**
+	 * Requests per second.
+	 */
+	private static final int RATE = Integer.getInteger("load.rate", 50);
+	
+	/**
+	 * Duration of the warmup, in seconds.
+	 */
+	private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 2);
+	
+	/**
+	 * Duration of the measurement, in seconds.
+	 */
+	private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 5);
+	
+	/**
+	 * Weights of POST, GET and DELETE.
+	 */
+	private static final String MIX = System.getProperty("load.mix", "30:50:20");
+	
+	/**
+	 * Maximum quantity of requests in flight.
+	 */
+	private static final int MAX_CONCURRENCY = Integer.getInteger("load.max-concurrency", 64);
+	
+	/**
+	 * Latency distribution of ingredient resource.
+	 */
+	private static final String INGREDIENT_LATENCY = System.getProperty("load.ingredient-latency", "exponential:5");
+	
+	/**
+	 * Stub of ingredient resource, started before the application.
+	 */
+	static IngredientStubServer ingredientStubServer;
+	
+	/**
+	 * HTTP client of the application.
+	 */
+	@Autowired
+	TestRestTemplate testRestTemplate;
+	
+	/**
+	 * Histograms of response time, from the time a request was due, by operation, in microseconds.
+	 */
+	private final Map<Operation, Histogram> responseHistogramMap = new EnumMap<Operation, Histogram>(Operation.class);
+	
+	/**
+	 * Histograms of service time, from the time a request was sent, by operation, in microseconds.
+	 */
+	private final Map<Operation, Histogram> serviceHistogramMap = new EnumMap<Operation, Histogram>(Operation.class);
+	
+	/**
+	 * Quantity of failed requests.
+	 */
+	private final AtomicLong errorCount = new AtomicLong();
+	
+	/**
+	 * Ring of ids of recent orders which are read but never deleted.
+	 */
+	private final AtomicLongArray readableIdRing = new AtomicLongArray(READABLE_ID_CAPACITY);
+	
+	/**
+	 * Quantity of ids written on the ring.
+	 */
+	private final AtomicLong readableIdCount = new AtomicLong();
+	
+	/**
+	 * Ids of orders to be deleted.
+	 */
+	private final Queue<Long> deletableIdQueue = new ConcurrentLinkedQueue<Long>();
+	
+	/**
+	 * Operations sent.
+	 */
+	enum Operation {
+		POST, GET, DELETE
+	}
+	
+	/**
+	 * Stop the stub of ingredient resource.
+	 */
+	@AfterClass
+	public static void stopIngredientStubServer() {
+		if (ingredientStubServer != null) {
+			ingredientStubServer.stop();
+		}
+	}
+	
+	/**
+	 * Load test of order resource:
+	 * 
+	 * > Send the mix of requests at the rate during the warmup, then discard what was recorded.
+	 * > Send the mix of requests at the rate during the measurement.
+	 * > Report percentiles of response and service time by operation.
+	 * > Test that every request succeeded.
+	 */
+	@Test
+	public void loadTest() throws Exception {
+		for (Operation operation : Operation.values()) {
+			responseHistogramMap.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+			serviceHistogramMap.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+		}
+		
+		// Input.
+		run(WARMUP_SECONDS);
+		
+		for (Operation operation : Operation.values()) {
+			responseHistogramMap.get(operation).reset();
+			serviceHistogramMap.get(operation).reset();
+		}
+		
+		errorCount.set(0L);
+		
+		run(DURATION_SECONDS);
+		
+		// Test.
+		report();
+		
+		assertThat(errorCount.get()).isEqualTo(0L);
+		assertThat(responseHistogramMap.values().stream().mapToLong(Histogram::getTotalCount).sum())
+				.isEqualTo((long) RATE * DURATION_SECONDS);
+	}
+	
+	/**
+	 * Send requests at the rate during a period, each one due at its slot whether previous ones are done or not,
+	 * 		and wait for the last ones to finish.
+	 * 
+	 * @param seconds Duration, in seconds.
+	 */
+	private void run(int seconds) throws Exception {
+		ExecutorService executorService = Executors.newFixedThreadPool(MAX_CONCURRENCY);
+		List<Future<?>> futureList = new ArrayList<Future<?>>();
+		int[] weights = parseMix();
+		long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+		long requestQuantity = (long) RATE * seconds;
+		long startNanos = System.nanoTime();
+		long dueNanos = 0L;
+		Operation operation = null;
+		Long id = null;
+		
+		for (long i = 0; i < requestQuantity; i++) {
+			dueNanos = startNanos + i * intervalNanos;
+			
+			while (System.nanoTime() < dueNanos) {
+				LockSupport.parkNanos(dueNanos - System.nanoTime());
+			}
+			
+			operation = chooseOperation(weights);
+			id = null;
+			
+			if (operation == Operation.GET) {
+				id = chooseReadableId();
+			} else if (operation == Operation.DELETE) {
+				id = deletableIdQueue.poll();
+			}
+			
+			futureList.add(executorService.submit(newRequest(operation, id, dueNanos)));
+		}
+		
+		for (Future<?> future : futureList) {
+			future.get();
+		}
+		
+		executorService.shutdown();
+	}
+	
+	/**
+	 * Build a request recording its response and service time:
+	 * 
+	 * > POST a new order, keeping its id to be read or deleted.
+	 * > GET an order never deleted.
+	 * > DELETE an order never read.
+	 * 
+	 * @param operation Operation chosen.
+	 * @param id Id of the order to GET or DELETE, taken when the operation was chosen so no two requests race for
+	 * 		it.
+	 * @param dueNanos Time the request is due, in nanoseconds.
+	 * @return Request.
+	 */
+	private Runnable newRequest(Operation operation, Long id, long dueNanos) {
+		return () -> {
+			long sentNanos = System.nanoTime();
+			long endNanos = 0L;
+			ResponseEntity<?> responseEntity = null;
+			Order order = null;
+			
+			try {
+				switch (operation) {
+				case GET:
+					responseEntity = testRestTemplate.getForEntity("/orders/{id}", Order.class, id);
+					break;
+				case DELETE:
+					responseEntity = testRestTemplate.exchange("/orders/{id}", HttpMethod.DELETE, null, Void.class, id);
+					break;
+				default:
+					responseEntity = testRestTemplate.postForEntity("/orders", newOrder(), Order.class);
+					order = (Order) responseEntity.getBody();
+					
+					if (order != null && order.getId() != null) {
+						keepId(order.getId());
+					}
+				}
+				
+				if (!responseEntity.getStatusCode().is2xxSuccessful()) {
+					LOGGER.warn(operation + " answered " + responseEntity.getStatusCode());
+					
+					errorCount.incrementAndGet();
+				}
+			} catch (RuntimeException e) {
+				LOGGER.warn(operation + " failed", e);
+				
+				errorCount.incrementAndGet();
+			}
+			
+			endNanos = System.nanoTime();
+			
+			responseHistogramMap.get(operation).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(endNanos - dueNanos),
+					HIGHEST_TRACKABLE_MICROS));
+			serviceHistogramMap.get(operation).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(endNanos - sentNanos),
+					HIGHEST_TRACKABLE_MICROS));
+		};
+	}
+	
+	/**
+	 * Choose an operation by the weights of the mix, falling back to POST while there is no order to GET or DELETE.
+	 * 		Only the driver thread takes ids to DELETE, so an id seen here is still there when taken.
+	 * 
+	 * @param weights Weights of POST, GET and DELETE.
+	 * @return Operation chosen.
+	 */
+	private Operation chooseOperation(int[] weights) {
+		int draw = ThreadLocalRandom.current().nextInt(weights[0] + weights[1] + weights[2]);
+		
+		if (draw < weights[0]) {
+			return Operation.POST;
+		} else if (draw < weights[0] + weights[1]) {
+			return readableIdCount.get() == 0 ? Operation.POST : Operation.GET;
+		} else {
+			return deletableIdQueue.isEmpty() ? Operation.POST : Operation.DELETE;
+		}
+	}
+	
+	/**
+	 * Keep the id of a new order to be deleted or read, in the proportion of DELETE to GET of the mix.
+	 * 
+	 * @param id Id of the order.
+	 */
+	private void keepId(Long id) {
+		int[] weights = parseMix();
+		
+		if (ThreadLocalRandom.current().nextInt(weights[1] + weights[2]) < weights[2]) {
+			deletableIdQueue.offer(id);
+		} else {
+			readableIdRing.set((int) (readableIdCount.getAndIncrement() % READABLE_ID_CAPACITY), id);
+		}
+	}
+	
+	/**
+	 * Choose one of the recent orders never deleted.
+	 * 
+	 * @return Id of the order.
+	 */
+	private long chooseReadableId() {
+		long count = Math.min(readableIdCount.get(), READABLE_ID_CAPACITY);
+		long id = 0L;
+		
+		while (id == 0L) {
+			id = readableIdRing.get(ThreadLocalRandom.current().nextInt((int) count));
+		}
+		
+		return id;
+	}
+	
+	/**
+	 * Build a new order of a random recipe, size and thickness with up to three added ingredients.
+	 * 
+	 * @return New order.
+	 */
+	private Order newOrder() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Order order = new Order();
+		Map<Long, OrderCustomization> orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+		OrderCustomization orderCustomization = null;
+		
+		order.setClosedRecipeId(1 + random.nextInt(100));
+		order.setSize(random.nextBoolean() ? 'M' : 'B');
+		order.setBreadThickness(random.nextBoolean() ? 'S' : 'M');
+		
+		for (int i = random.nextInt(4); i > 0; i--) {
+			orderCustomization = new OrderCustomization();
+			orderCustomization.setType('A');
+			orderCustomization.setPortionQuantity(1 + random.nextInt(3));
+			
+			orderCustomizationMap.put(1L + random.nextInt(20), orderCustomization);
+		}
+		
+		order.setOrderCustomizationMap(orderCustomizationMap);
+		
+		return order;
+	}
+	
+	/**
+	 * Parse the weights of the mix.
+	 * 
+	 * @return Weights of POST, GET and DELETE.
+	 */
+	private int[] parseMix() {
+		String[] tokens = MIX.split(":");
+		
+		return new int[] {Integer.parseInt(tokens[0]), Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2])};
+	}
+	
+	/**
+	 * Log percentiles of response and service time by operation, in milliseconds, and write percentile
+	 * 		distributions of response time on target/load-test.
+	 */
+	private void report() throws FileNotFoundException {
+		File directory = new File("target/load-test");
+		Histogram responseHistogram = null;
+		Histogram serviceHistogram = null;
+		
+		directory.mkdirs();
+		
+		LOGGER.info(String.format("Load test at %d requests/s for %ds, mix %s, ingredient latency %s", RATE,
+				DURATION_SECONDS, MIX, new IngredientStubServer.LatencyDistribution(INGREDIENT_LATENCY)));
+		
+		for (Operation operation : Operation.values()) {
+			responseHistogram = responseHistogramMap.get(operation);
+			serviceHistogram = serviceHistogramMap.get(operation);
+			
+			LOGGER.info(String.format("%-6s count=%d response p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f"
+					+ " | service p50=%.2f p99=%.2f max=%.2f (ms)", operation, responseHistogram.getTotalCount(),
+					percentileMillis(responseHistogram, 50), percentileMillis(responseHistogram, 90),
+					percentileMillis(responseHistogram, 99), percentileMillis(responseHistogram, 99.9),
+					responseHistogram.getMaxValue() / 1000.0, percentileMillis(serviceHistogram, 50),
+					percentileMillis(serviceHistogram, 99), serviceHistogram.getMaxValue() / 1000.0));
+			
+			try (PrintStream printStream = new PrintStream(new File(directory,
+					operation.name().toLowerCase() + ".hgrm"))) {
+				responseHistogram.outputPercentileDistribution(printStream, 1000.0);
+			}
+		}
+	}
+	
+	/**
+	 * Get a percentile of a histogram in milliseconds.
+	 * 
+	 * @param histogram Histogram in microseconds.
+	 * @param percentile Percentile.
+	 * @return Value at the percentile, in milliseconds.
+	 */
+	private double percentileMillis(Histogram histogram, double percentile) {
+		return histogram.getValueAtPercentile(percentile) / 1000.0;
+	}
+	
+	/**
+	 * Start the stub of ingredient resource before the application and point the application to it, on a database
+	 * 		of its own so orders of the load do not reach other tests.
+	 */
+	static class IngredientStubInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+		
+		@Override
+		public void initialize(ConfigurableApplicationContext applicationContext) {
+			try {
+				ingredientStubServer = new IngredientStubServer(
+						new IngredientStubServer.LatencyDistribution(INGREDIENT_LATENCY));
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			
+			System.setProperty("http.maxConnections", String.valueOf(MAX_CONCURRENCY));
+			
+			TestPropertyValues.of("ingredient.client.base-url=" + ingredientStubServer.getBaseUrl(),
+					"spring.datasource.url=jdbc:h2:mem:db_pizza_ordering_orders_load;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+							+ "DB_CLOSE_ON_EXIT=FALSE")
+					.applyTo(applicationContext);
+		}
+	}
+}
\ No newline at end of file
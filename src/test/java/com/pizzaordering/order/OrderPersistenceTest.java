@@ -0,0 +1,177 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+import com.pizzaordering.order.service.IngredientClientService;
+import com.pizzaordering.order.service.OrderService;
+
+/**
+ * Unit test of order persistence on embedded database, checking that orders are saved in a single transaction
+ * 		each by add order and with batched statements by add order list, and read back the same. Throughput of the
+ * 		persistence paths is compared by the benchmarks of the benchmark profile.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class OrderPersistenceTest {
+	
+	/**
+	 * Quantity of orders saved on each scenario.
+	 */
+	private static final int ORDER_QUANTITY = 100;
+	
+	/**
+	 * Quantity of customized ingredients of each order.
+	 */
+	private static final int ORDER_CUSTOMIZATION_QUANTITY = 3;
+	
+	/**
+	 * Size of each list sent to add order list.
+	 */
+	private static final int ORDER_LIST_SIZE = 50;
+	
+	/**
+	 * Interface of order service layer.
+	 */
+	@Autowired
+	OrderService orderService;
+	
+	/**
+	 * JPA entity manager factory, unwrapped to get Hibernate statistics.
+	 */
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+	
+	/**
+	 * Interface of ingredient client service layer mocked.
+	 */
+	@MockBean
+	IngredientClientService ingredientClientService;
+	
+	/**
+	 * Mock pricing calls with a fixed price per order.
+	 */
+	@Before
+	public void mockIngredientClientService() {
+		Mockito.when(ingredientClientService.calculateOrderPrice(Mockito.any(Order.class))).thenReturn(BigDecimal.TEN);
+		Mockito.when(ingredientClientService.calculateOrderPriceList(Mockito.anyList())).thenAnswer(invocation -> {
+			List<BigDecimal> priceList = new ArrayList<BigDecimal>();
+			
+			for (int i = 0; i < invocation.<List<?>>getArgument(0).size(); i++) {
+				priceList.add(BigDecimal.TEN);
+			}
+			
+			return priceList;
+		});
+	}
+	
+	/**
+	 * Test persistence paths:
+	 * 
+	 * > Save orders one by one with add order, and in lists with add order list.
+	 * > Test that add order commits a single transaction per order and add order list fewer statements than orders.
+	 * > Test that orders saved by both paths are read back with their customized ingredients.
+	 */
+	@Test
+	public void orderPersistenceTest() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		List<Order> orderList = newOrderList();
+		List<Order> orderListAdded = new ArrayList<Order>(ORDER_QUANTITY);
+		
+		// Test add order.
+		statistics.clear();
+		
+		for (Order order : orderList) {
+			orderService.addOrder(order);
+		}
+		
+		assertThat(statistics.getTransactionCount()).isEqualTo((long) ORDER_QUANTITY);
+		assertThat(orderService.getOrder(orderList.get(0).getId()).getOrderCustomizationMap())
+				.hasSize(ORDER_CUSTOMIZATION_QUANTITY);
+		
+		// Test add order list.
+		orderList = newOrderList();
+		
+		statistics.clear();
+		
+		for (int i = 0; i < orderList.size(); i += ORDER_LIST_SIZE) {
+			orderListAdded.addAll(orderService.addOrderList(new ArrayList<Order>(orderList.subList(i,
+					Math.min(i + ORDER_LIST_SIZE, orderList.size())))));
+		}
+		
+		assertThat(statistics.getPrepareStatementCount()).isLessThan((long) ORDER_QUANTITY);
+		assertThat(orderListAdded).hasSize(ORDER_QUANTITY);
+		assertThat(orderService.getOrder(orderListAdded.get(ORDER_QUANTITY - 1).getId()).getOrderCustomizationMap())
+				.hasSize(ORDER_CUSTOMIZATION_QUANTITY);
+	}
+	
+	/**
+	 * Build a new list of orders with customized ingredients.
+	 * 
+	 * @return List of orders.
+	 */
+	private List<Order> newOrderList() {
+		List<Order> orderList = new ArrayList<Order>();
+		Order order = null;
+		OrderCustomization orderCustomization = null;
+		Map<Long, OrderCustomization> orderCustomizationMap = null;
+		
+		for (int i = 0; i < ORDER_QUANTITY; i++) {
+			order = new Order();
+			order.setClosedRecipeId(1);
+			order.setSize('M');
+			order.setBreadThickness('S');
+			
+			orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+			
+			for (long ingredientId = 1L; ingredientId <= ORDER_CUSTOMIZATION_QUANTITY; ingredientId++) {
+				orderCustomization = new OrderCustomization();
+				orderCustomization.setType('A');
+				orderCustomization.setPortionQuantity(2);
+				orderCustomization.setObservation("Benchmark.");
+				
+				orderCustomizationMap.put(ingredientId, orderCustomization);
+			}
+			
+			order.setOrderCustomizationMap(orderCustomizationMap);
+			orderList.add(order);
+		}
+		
+		return orderList;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.IngredientClientService;
+import com.pizzaordering.order.service.OrderAsyncRejectedException;
+import com.pizzaordering.order.serviceImpl.OrderPriceBatchServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit test of order price batch service layer against a stub of the bulk pricing operation of ingredient
+ * 		resource.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class OrderPriceBatchServiceTest {
+	
+	/**
+	 * Quantity of concurrent callers.
+	 */
+	private static final int CALLER_QUANTITY = 20;
+	
+	/**
+	 * Maximum quantity of orders of a batch.
+	 */
+	private static final int MAX_BATCH_SIZE = 8;
+	
+	/**
+	 * Stub of ingredient client service, pricing every order of a list at ten times its closed recipe id.
+	 */
+	IngredientClientService ingredientClientService;
+	
+	/**
+	 * Order price batch service under test, with a window long enough to collect every concurrent caller.
+	 */
+	OrderPriceBatchServiceImpl orderPriceBatchService;
+	
+	/**
+	 * Executor of concurrent callers.
+	 */
+	ExecutorService executorService;
+	
+	/**
+	 * Build the stub, the service and the callers.
+	 */
+	@Before
+	public void setUp() {
+		ingredientClientService = Mockito.mock(IngredientClientService.class);
+		
+		Mockito.when(ingredientClientService.calculateOrderPriceList(Mockito.anyList())).thenAnswer(invocation -> {
+			List<BigDecimal> priceList = new ArrayList<BigDecimal>();
+			
+			for (Order order : invocation.<List<Order>>getArgument(0)) {
+				priceList.add(BigDecimal.valueOf(order.getClosedRecipeId() * 10L));
+			}
+			
+			return priceList;
+		});
+		
+		orderPriceBatchService = new OrderPriceBatchServiceImpl(ingredientClientService, new SimpleMeterRegistry(), 50L,
+				MAX_BATCH_SIZE, 2, CALLER_QUANTITY, 5000L);
+		executorService = Executors.newFixedThreadPool(CALLER_QUANTITY);
+	}
+	
+	/**
+	 * Stop the service and the callers.
+	 */
+	@After
+	public void tearDown() {
+		orderPriceBatchService.shutdown();
+		executorService.shutdown();
+	}
+	
+	/**
+	 * Test calculate order price method with concurrent callers of distinct orders:
+	 * 
+	 * > Price distinct orders concurrently.
+	 * > Test that every caller gets the price of its own order.
+	 * > Test that orders are sent in bulk calls no larger than the maximum batch size, recorded on meters.
+	 */
+	@Test
+	public void calculateOrderPriceBatchTest() throws Exception {
+		List<Future<BigDecimal>> priceFutureList = new ArrayList<Future<BigDecimal>>();
+		
+		// Test.
+		for (int i = 1; i <= CALLER_QUANTITY; i++) {
+			priceFutureList.add(executorService.submit(newPriceCall(i)));
+		}
+		
+		for (int i = 1; i <= CALLER_QUANTITY; i++) {
+			assertThat(priceFutureList.get(i - 1).get()).isEqualTo(BigDecimal.valueOf(i * 10L));
+		}
+		
+		Mockito.verify(ingredientClientService, Mockito.never()).calculateOrderPrice(Mockito.any(Order.class));
+		Mockito.verify(ingredientClientService, Mockito.atMost(CALLER_QUANTITY - 1))
+				.calculateOrderPriceList(Mockito.argThat(orderList -> orderList.size() <= MAX_BATCH_SIZE));
+		assertThat(orderPriceBatchService.getStatistics().get("batchSizeSum")).isEqualTo((long) CALLER_QUANTITY);
+		assertThat(orderPriceBatchService.getStatistics().get("batchSizeMax").longValue())
+				.isGreaterThan(1L).isLessThanOrEqualTo(MAX_BATCH_SIZE);
+		assertThat(orderPriceBatchService.getStatistics().get("waitMicrosCount")).isEqualTo((long) CALLER_QUANTITY);
+	}
+	
+	/**
+	 * Test calculate order price method when the bulk call fails:
+	 * 
+	 * > Make the stub fail.
+	 * > Test that the failure reaches the caller.
+	 */
+	@Test
+	public void calculateOrderPriceBatchFailureTest() throws Exception {
+		Mockito.when(ingredientClientService.calculateOrderPriceList(Mockito.anyList()))
+				.thenThrow(new IllegalStateException("Ingredient resource unavailable."));
+		
+		// Test.
+		assertThatThrownBy(() -> executorService.submit(newPriceCall(1)).get())
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(IllegalStateException.class);
+	}
+	
+	/**
+	 * Test calculate order price method when every sender is busy and the queue of batches is full, and shutdown
+	 * 		with callers still waiting:
+	 * 
+	 * > Hold the bulk call of a service with a single sender, a single batch queued and one order per batch.
+	 * > Price a first order, held by the sender, a second one, queued, and a third one.
+	 * > Test that the third caller is rejected at once.
+	 * > Shut the service down and test that the first and second callers fail instead of waiting.
+	 */
+	@Test
+	public void calculateOrderPriceBatchRejectionTest() throws Exception {
+		CountDownLatch releaseLatch = new CountDownLatch(1);
+		Future<BigDecimal> sentFuture = null;
+		Future<BigDecimal> queuedFuture = null;
+		
+		// Input.
+		orderPriceBatchService.shutdown();
+		orderPriceBatchService = new OrderPriceBatchServiceImpl(ingredientClientService, new SimpleMeterRegistry(), 1L,
+				1, 1, CALLER_QUANTITY, 5000L);
+		
+		Mockito.when(ingredientClientService.calculateOrderPriceList(Mockito.anyList())).thenAnswer(invocation -> {
+			releaseLatch.await();
+			
+			return Arrays.asList(BigDecimal.TEN);
+		});
+		
+		// Test.
+		sentFuture = executorService.submit(newPriceCall(1));
+		
+		Mockito.verify(ingredientClientService, Mockito.timeout(5000L)).calculateOrderPriceList(Mockito.anyList());
+		
+		queuedFuture = executorService.submit(newPriceCall(2));
+		
+		awaitWaitCount(2L);
+		
+		assertThatThrownBy(() -> executorService.submit(newPriceCall(3)).get(5, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(OrderAsyncRejectedException.class);
+		
+		orderPriceBatchService.shutdown();
+		
+		assertThatThrownBy(queuedFuture::get).isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(OrderAsyncRejectedException.class);
+		assertThatThrownBy(sentFuture::get).isInstanceOf(ExecutionException.class);
+		
+		releaseLatch.countDown();
+	}
+	
+	/**
+	 * Wait until the given quantity of orders were handed to the pool of senders, up to five seconds.
+	 * 
+	 * @param count Quantity of orders.
+	 */
+	private void awaitWaitCount(long count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000L;
+		
+		while (orderPriceBatchService.getStatistics().get("waitMicrosCount").longValue() < count
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(1L);
+		}
+	}
+	
+	/**
+	 * Build a call pricing an order of the given closed recipe.
+	 * 
+	 * @param closedRecipeId Id of closed recipe.
+	 * @return Call returning the price of the order.
+	 */
+	private Callable<BigDecimal> newPriceCall(int closedRecipeId) {
+		return () -> {
+			Order order = new Order();
+			order.setClosedRecipeId(closedRecipeId);
+			order.setSize('M');
+			order.setBreadThickness('S');
+			
+			return orderPriceBatchService.calculateOrderPrice(order);
+		};
+	}
+}
\ No newline at end of file
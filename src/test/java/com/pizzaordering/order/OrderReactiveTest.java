@@ -0,0 +1,272 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.pizzaordering.order.dto.OrderPage;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Integration test of order resource on the reactive runtime, on embedded database and an in-process stub of
+ * 		ingredient resource answering with injected latency.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.main.web-application-type=reactive",
+		"order.reactive.export-chunk-size=2"})
+@ContextConfiguration(initializers = OrderReactiveTest.IngredientStubInitializer.class)
+public class OrderReactiveTest {
+	
+	/**
+	 * Logger of test results.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderReactiveTest.class);
+	
+	/**
+	 * Latency of ingredient resource, in milliseconds.
+	 */
+	private static final int INGREDIENT_LATENCY_MILLIS = 200;
+	
+	/**
+	 * Quantity of orders waiting on pricing at once.
+	 */
+	private static final int CONCURRENT_ORDER_QUANTITY = 400;
+	
+	/**
+	 * Price of every order by the stub of ingredient resource.
+	 */
+	private static final BigDecimal STUB_PRICE = new BigDecimal("12.50");
+	
+	/**
+	 * Stub of ingredient resource, started before the application.
+	 */
+	static IngredientStubServer ingredientStubServer;
+	
+	/**
+	 * Port of the application.
+	 */
+	@LocalServerPort
+	int port;
+	
+	/**
+	 * Reactive test client of the application.
+	 */
+	WebTestClient webTestClient;
+	
+	/**
+	 * Closed recipe id of the next order, unique so no price is known locally.
+	 */
+	private final AtomicInteger closedRecipeIdSequence = new AtomicInteger(1000);
+	
+	/**
+	 * Bind the test client to the application.
+	 */
+	@Before
+	public void bindWebTestClient() {
+		webTestClient = WebTestClient.bindToServer()
+				.baseUrl("http://localhost:" + port)
+				.responseTimeout(Duration.ofSeconds(30))
+				.build();
+	}
+	
+	/**
+	 * Stop the stub of ingredient resource.
+	 */
+	@AfterClass
+	public static void stopIngredientStubServer() {
+		if (ingredientStubServer != null) {
+			ingredientStubServer.stop();
+		}
+	}
+	
+	/**
+	 * Test order operations on the reactive runtime:
+	 * 
+	 * > Add an order with customized ingredients, priced by ingredient resource, and a list of orders.
+	 * > Test that the order is read back, listed, exported over several chunks and deleted.
+	 */
+	@Test
+	public void orderOperationsTest() {
+		Order order = newOrder();
+		OrderCustomization orderCustomization = new OrderCustomization();
+		Order orderAdded = null;
+		List<Order> orderAddedList = null;
+		OrderPage orderPage = null;
+		String export = null;
+		
+		// Input.
+		orderCustomization.setType('A');
+		orderCustomization.setPortionQuantity(2);
+		orderCustomization.setObservation("Reactive.");
+		
+		order.setOrderCustomizationMap(Collections.singletonMap(6L, orderCustomization));
+		
+		// Test.
+		orderAdded = webTestClient.post().uri("/orders")
+				.contentType(MediaType.APPLICATION_JSON)
+				.syncBody(order)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(Order.class).returnResult().getResponseBody();
+		
+		assertThat(orderAdded.getId()).isNotNull();
+		assertThat(orderAdded.getPrice()).isEqualByComparingTo(STUB_PRICE);
+		assertThat(orderAdded.getOrderCustomizationMap()).containsOnlyKeys(6L);
+		
+		orderAddedList = webTestClient.post().uri("/orders/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.syncBody(new Order[] {newOrder(), newOrder()})
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(Order.class).returnResult().getResponseBody();
+		
+		assertThat(orderAddedList).extracting(Order::getPrice).usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(STUB_PRICE, STUB_PRICE);
+		
+		webTestClient.get().uri("/orders/{id}", orderAdded.getId())
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.orderCustomizationMap.6.observation").isEqualTo("Reactive.");
+		
+		orderPage = webTestClient.get().uri("/orders?after={after}&limit=10", orderAdded.getId() - 1)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(OrderPage.class).returnResult().getResponseBody();
+		
+		assertThat(orderPage.getOrderList()).extracting(Order::getId).contains(orderAdded.getId());
+		
+		export = webTestClient.get().uri("/orders/export")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType("application/x-ndjson;charset=UTF-8")
+				.expectBody(String.class).returnResult().getResponseBody();
+		
+		assertThat(export).contains("{\"id\":" + orderAdded.getId() + ",", "\"observation\":\"Reactive.\"",
+				"{\"id\":" + orderAddedList.get(0).getId() + ",", "{\"id\":" + orderAddedList.get(1).getId() + ",");
+		
+		webTestClient.delete().uri("/orders/{id}", orderAdded.getId())
+				.exchange()
+				.expectStatus().isOk();
+		
+		assertThat(webTestClient.get().uri("/orders?after={after}&limit=1", orderAdded.getId() - 1)
+				.exchange()
+				.expectBody(OrderPage.class).returnResult().getResponseBody().getOrderList())
+				.extracting(Order::getId).doesNotContain(orderAdded.getId());
+	}
+	
+	/**
+	 * Test many orders waiting on pricing at once:
+	 * 
+	 * > Send orders of recipes never priced all at once, so every one waits on ingredient resource.
+	 * > Test that every order is added, and well below the time of waves of pricing bounded by the persistence
+	 * 		threads of the application.
+	 */
+	@Test
+	public void concurrentAddOrderTest() {
+		WebClient webClient = WebClient.create("http://localhost:" + port);
+		List<Order> orderAddedList = null;
+		long startNanos = System.nanoTime();
+		long elapsedMillis = 0L;
+		
+		// Test.
+		orderAddedList = Flux.range(0, CONCURRENT_ORDER_QUANTITY)
+				.flatMap(i -> webClient.post().uri("/orders")
+						.contentType(MediaType.APPLICATION_JSON)
+						.syncBody(newOrder())
+						.retrieve()
+						.bodyToMono(Order.class), CONCURRENT_ORDER_QUANTITY)
+				.collectList()
+				.block(Duration.ofSeconds(60));
+		
+		elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+		
+		LOGGER.info(String.format("Added %d orders waiting %dms on pricing in %dms with %d live threads",
+				orderAddedList.size(), INGREDIENT_LATENCY_MILLIS, elapsedMillis, Thread.activeCount()));
+		
+		assertThat(orderAddedList).hasSize(CONCURRENT_ORDER_QUANTITY);
+		assertThat(orderAddedList).allMatch(orderAdded -> orderAdded.getId() != null
+				&& STUB_PRICE.compareTo(orderAdded.getPrice()) == 0);
+		assertThat(elapsedMillis).isLessThan(CONCURRENT_ORDER_QUANTITY * INGREDIENT_LATENCY_MILLIS / 8L);
+	}
+	
+	/**
+	 * Build a new order of a recipe never priced before.
+	 * 
+	 * @return New order.
+	 */
+	private Order newOrder() {
+		Order order = new Order();
+		
+		order.setClosedRecipeId(closedRecipeIdSequence.incrementAndGet());
+		order.setSize('M');
+		order.setBreadThickness('S');
+		
+		return order;
+	}
+	
+	/**
+	 * Start the stub of ingredient resource before the application and point the application to it, on a database
+	 * 		of its own so orders of the test do not reach other tests.
+	 */
+	static class IngredientStubInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+		
+		@Override
+		public void initialize(ConfigurableApplicationContext applicationContext) {
+			try {
+				ingredientStubServer = new IngredientStubServer(
+						new IngredientStubServer.LatencyDistribution("fixed:" + INGREDIENT_LATENCY_MILLIS));
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			
+			TestPropertyValues.of("ingredient.client.base-url=" + ingredientStubServer.getBaseUrl(),
+					"spring.datasource.url=jdbc:h2:mem:db_pizza_ordering_orders_reactive;MODE=MySQL;"
+							+ "DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+					.applyTo(applicationContext);
+		}
+	}
+}
\ No newline at end of file
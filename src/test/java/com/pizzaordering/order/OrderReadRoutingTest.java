@@ -0,0 +1,253 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.servlet.http.Cookie;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.service.OrderCacheService;
+import com.pizzaordering.order.service.OrderReadRoutingService;
+import com.pizzaordering.order.service.OrderService;
+import com.pizzaordering.order.serviceImpl.OrderReadRoutingServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Integration test of routing of order reads to a read replica, which is a second pool on the embedded database
+ * 		of the primary, so routing is observed on the connections taken from every pool.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+		"spring.datasource.url=" + OrderReadRoutingTest.DATABASE_URL,
+		"order.datasource.replica-urls=" + OrderReadRoutingTest.DATABASE_URL,
+		"order.read-routing.sticky-millis=" + OrderReadRoutingTest.STICKY_MILLIS})
+public class OrderReadRoutingTest {
+	
+	/**
+	 * JDBC URL of the embedded database, shared by the primary and the replica.
+	 */
+	static final String DATABASE_URL = "jdbc:h2:mem:db_pizza_ordering_orders_routing;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+			+ "DB_CLOSE_ON_EXIT=FALSE";
+	
+	/**
+	 * Read-your-writes window, in milliseconds.
+	 */
+	static final long STICKY_MILLIS = 1000L;
+	
+	/**
+	 * Statistic of connections taken from the pool of the primary database.
+	 */
+	private static final String PRIMARY_CONNECTION_COUNT = OrderDataSourceConfiguration.PRIMARY_POOL_NAME
+			+ ".connectionCount";
+	
+	/**
+	 * Statistic of connections taken from the pool of the replica.
+	 */
+	private static final String REPLICA_CONNECTION_COUNT = OrderDataSourceConfiguration.REPLICA_POOL_NAME_PREFIX
+			+ "1.connectionCount";
+	
+	/**
+	 * Interface of order service layer.
+	 */
+	@Autowired
+	OrderService orderService;
+	
+	/**
+	 * Interface of order cache service layer.
+	 */
+	@Autowired
+	OrderCacheService orderCacheService;
+	
+	/**
+	 * Interface of order read routing service layer.
+	 */
+	@Autowired
+	OrderReadRoutingService orderReadRoutingService;
+	
+	/**
+	 * Registry of meters.
+	 */
+	@Autowired
+	MeterRegistry meterRegistry;
+	
+	/**
+	 * Test routing of reads of an order:
+	 * 
+	 * > Add an order and read it, missing the order cache, and a page holding it within the window.
+	 * > Test that the order is read from the primary database, and that the page is read from the replica and
+	 * 		read again from the primary database.
+	 * > Read them again once the window is over, and export orders.
+	 * > Test that all of them are read from the replica only.
+	 * > Delete the order and test that a page of its range is read again from the primary database.
+	 * > Test that statistics and metrics of every pool are reported.
+	 */
+	@Test
+	public void readYourWritesTest() throws InterruptedException, IOException {
+		Order order = new Order();
+		Order orderAdded = null;
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Map<String, Number> statistics = null;
+		
+		// Input.
+		order.setClosedRecipeId(1);
+		order.setSize('L');
+		order.setBreadThickness('T');
+		order.setPrice(new BigDecimal("10.00"));
+		
+		orderAdded = orderService.addPricedOrder(order);
+		
+		// Test.
+		statistics = orderReadRoutingService.getStatistics();
+		
+		orderCacheService.invalidateOrder(orderAdded.getId());
+		
+		assertThat(orderService.getOrder(orderAdded.getId()).getPrice()).isEqualByComparingTo("10.00");
+		assertThat(connectionCountDelta(statistics, PRIMARY_CONNECTION_COUNT)).isEqualTo(1L);
+		assertThat(connectionCountDelta(statistics, REPLICA_CONNECTION_COUNT)).isEqualTo(0L);
+		
+		assertThat(orderService.getOrderPage(orderAdded.getId() - 1, 10).getOrderList()).extracting(Order::getId)
+				.containsExactly(orderAdded.getId());
+		assertThat(connectionCountDelta(statistics, PRIMARY_CONNECTION_COUNT)).isEqualTo(2L);
+		assertThat(connectionCountDelta(statistics, REPLICA_CONNECTION_COUNT)).isEqualTo(1L);
+		
+		Thread.sleep(STICKY_MILLIS * 2);
+		
+		statistics = orderReadRoutingService.getStatistics();
+		
+		orderCacheService.invalidateOrder(orderAdded.getId());
+		
+		assertThat(orderService.getOrder(orderAdded.getId()).getId()).isEqualTo(orderAdded.getId());
+		assertThat(orderService.getOrderPage(orderAdded.getId() - 1, 10).getOrderList()).hasSize(1);
+		
+		orderService.exportOrders(outputStream);
+		
+		assertThat(new String(outputStream.toByteArray(), StandardCharsets.UTF_8))
+				.contains("{\"id\":" + orderAdded.getId() + ",");
+		assertThat(connectionCountDelta(statistics, PRIMARY_CONNECTION_COUNT)).isEqualTo(0L);
+		assertThat(connectionCountDelta(statistics, REPLICA_CONNECTION_COUNT)).isEqualTo(3L);
+		
+		orderService.deleteOrder(orderAdded.getId());
+		
+		statistics = orderReadRoutingService.getStatistics();
+		
+		assertThat(orderService.getOrderPage(orderAdded.getId() - 1, 10).getOrderList()).isEmpty();
+		assertThat(connectionCountDelta(statistics, PRIMARY_CONNECTION_COUNT)).isEqualTo(1L);
+		assertThat(connectionCountDelta(statistics, REPLICA_CONNECTION_COUNT)).isEqualTo(1L);
+		
+		assertThat(orderReadRoutingService.getStatistics()).containsKeys(
+				OrderDataSourceConfiguration.PRIMARY_POOL_NAME + ".activeConnections",
+				OrderDataSourceConfiguration.REPLICA_POOL_NAME_PREFIX + "1.totalConnections");
+		assertThat(meterRegistry.find("hikaricp.connections.active")
+				.tag("pool", OrderDataSourceConfiguration.REPLICA_POOL_NAME_PREFIX + "1").gauge()).isNotNull();
+	}
+	
+	/**
+	 * Test routing of reads of a client which wrote on another node:
+	 * 
+	 * > Add an order within a request and test that the client is handed the end of the window as a cookie, living
+	 * 		as long as the window and the clock skew.
+	 * > Once the window of the node is over, read the order within a request carrying a cookie whose window is not
+	 * 		over, as if the client wrote on another node, and test that it is read from the primary database.
+	 * > Read it again within a request carrying a cookie whose window is over beyond the clock skew and test that it
+	 * 		is read from the replica.
+	 */
+	@Test
+	public void readYourWritesCookieTest() throws InterruptedException {
+		Order order = new Order();
+		Order orderAdded = null;
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Map<String, Number> statistics = null;
+		
+		// Input.
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('N');
+		order.setPrice(new BigDecimal("12.00"));
+		
+		try {
+			RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+			
+			orderAdded = orderService.addPricedOrder(order);
+			
+			// Test.
+			assertThat(response.getCookie(OrderReadRoutingServiceImpl.COOKIE_STICKY_UNTIL)).isNotNull();
+			assertThat(Long.parseLong(response.getCookie(OrderReadRoutingServiceImpl.COOKIE_STICKY_UNTIL).getValue()))
+					.isGreaterThan(System.currentTimeMillis());
+			assertThat(response.getCookie(OrderReadRoutingServiceImpl.COOKIE_STICKY_UNTIL).getMaxAge()).isEqualTo(2);
+			
+			Thread.sleep(STICKY_MILLIS * 2);
+			
+			request = new MockHttpServletRequest();
+			request.setCookies(new Cookie(OrderReadRoutingServiceImpl.COOKIE_STICKY_UNTIL,
+					Long.toString(System.currentTimeMillis() + STICKY_MILLIS)));
+			RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request,
+					new MockHttpServletResponse()));
+			
+			statistics = orderReadRoutingService.getStatistics();
+			
+			orderCacheService.invalidateOrder(orderAdded.getId());
+			
+			assertThat(orderService.getOrder(orderAdded.getId()).getId()).isEqualTo(orderAdded.getId());
+			assertThat(connectionCountDelta(statistics, PRIMARY_CONNECTION_COUNT)).isEqualTo(1L);
+			assertThat(connectionCountDelta(statistics, REPLICA_CONNECTION_COUNT)).isEqualTo(0L);
+			
+			request = new MockHttpServletRequest();
+			request.setCookies(new Cookie(OrderReadRoutingServiceImpl.COOKIE_STICKY_UNTIL,
+					Long.toString(System.currentTimeMillis() - STICKY_MILLIS * 2)));
+			RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request,
+					new MockHttpServletResponse()));
+			
+			statistics = orderReadRoutingService.getStatistics();
+			
+			orderCacheService.invalidateOrder(orderAdded.getId());
+			
+			assertThat(orderService.getOrder(orderAdded.getId()).getId()).isEqualTo(orderAdded.getId());
+			assertThat(connectionCountDelta(statistics, PRIMARY_CONNECTION_COUNT)).isEqualTo(0L);
+			assertThat(connectionCountDelta(statistics, REPLICA_CONNECTION_COUNT)).isEqualTo(1L);
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+	
+	/**
+	 * Get the quantity of connections taken from a pool since statistics were got.
+	 * 
+	 * @param statistics Statistics got before.
+	 * @param name Name of the statistic of connections taken from the pool.
+	 * @return Quantity of connections taken since.
+	 */
+	private long connectionCountDelta(Map<String, Number> statistics, String name) {
+		return orderReadRoutingService.getStatistics().get(name).longValue() - statistics.get(name).longValue();
+	}
+}
\ No newline at end of file
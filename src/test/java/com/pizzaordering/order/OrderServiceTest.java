@@ -13,27 +13,54 @@
 package com.pizzaordering.order;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 
 import com.pizzaordering.order.data.OrderCustomizationRepository;
+import com.pizzaordering.order.data.OrderOutboxEventRepository;
 import com.pizzaordering.order.data.OrderRepository;
+import com.pizzaordering.order.dto.OrderRow;
 import com.pizzaordering.order.entity.Order;
 import com.pizzaordering.order.entity.OrderCustomization;
 import com.pizzaordering.order.entity.OrderCustomizationId;
+import com.pizzaordering.order.entity.OrderOutboxEvent;
 import com.pizzaordering.order.service.IngredientClientService;
+import com.pizzaordering.order.service.OrderCacheService;
+import com.pizzaordering.order.service.OrderOutboxService;
+import com.pizzaordering.order.service.OrderPriceCacheService;
+import com.pizzaordering.order.service.OrderPriceSingleFlightService;
 import com.pizzaordering.order.service.OrderService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Unit test of order service layer.
  * 
@@ -50,6 +77,48 @@ public class OrderServiceTest {
 	@Autowired
 	OrderService orderService;
 	
+	/**
+	 * Interface of order price cache service layer.
+	 */
+	@Autowired
+	OrderPriceCacheService orderPriceCacheService;
+	
+	/**
+	 * Interface of order cache service layer.
+	 */
+	@Autowired
+	OrderCacheService orderCacheService;
+	
+	/**
+	 * Interface of order price single flight service layer.
+	 */
+	@Autowired
+	OrderPriceSingleFlightService orderPriceSingleFlightService;
+	
+	/**
+	 * Interface of order outbox service layer.
+	 */
+	@Autowired
+	OrderOutboxService orderOutboxService;
+	
+	/**
+	 * Interface of order outbox event repository layer.
+	 */
+	@Autowired
+	OrderOutboxEventRepository orderOutboxEventRepository;
+	
+	/**
+	 * Template of transactions.
+	 */
+	@Autowired
+	TransactionTemplate transactionTemplate;
+	
+	/**
+	 * Registry of meters.
+	 */
+	@Autowired
+	MeterRegistry meterRegistry;
+	
 	/**
 	 * Interface of ingredient client service layer mocked.
 	 */
@@ -68,6 +137,24 @@ public class OrderServiceTest {
 	@MockBean
 	OrderCustomizationRepository orderCustomizationRepository;
 	
+	/**
+	 * Discard prices and orders cached and events left on outbox by previous tests, so every test calls the mocked
+	 * 		services and repositories, and lock every order asked by deletes, as if it exists.
+	 */
+	@Before
+	public void resetCachesAndOutbox() {
+		orderPriceCacheService.invalidateAll();
+		orderCacheService.invalidateAll();
+		
+		while (orderOutboxService.dispatch() > 0) {
+		}
+		
+		Mockito.clearInvocations(ingredientClientService);
+		
+		Mockito.when(orderRepository.lockOrderIdList(Mockito.anyCollection()))
+				.thenAnswer(invocation -> new ArrayList<Long>(invocation.<Collection<Long>>getArgument(0)));
+	}
+	
 	/**
 	 * Test add order method when a closed recipe is used on request without customized ingredients:
 	 * 
@@ -123,6 +210,52 @@ public class OrderServiceTest {
 		assertThat(orderService.addOrder(order)).isEqualTo(orderExpected);
 	}
 	
+	/**
+	 * Test meters of added orders when the transaction saving them is rolled back:
+	 * 
+	 * > Mock database calls of this flow.
+	 * > Add an order within a transaction rolled back, then another one on its own.
+	 * > Test that only the order committed is counted.
+	 */
+	@Test
+	public void addOrderRollbackMetricsTest() {
+		Order order = new Order();
+		double createdCount = meterRegistry.get("order.created").counter().count();
+		long customizationCount = meterRegistry.get("order.customizations").summary().count();
+		
+		// Mock orderRepository.save(order) call.
+		Mockito.when(orderRepository.save(Mockito.any(Order.class))).thenAnswer(invocation -> {
+			Order orderSaved = invocation.getArgument(0);
+			
+			orderSaved.setId(1L);
+			
+			return orderSaved;
+		});
+		
+		// Input.
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		order.setPrice(BigDecimal.valueOf(30L));
+		
+		// Test.
+		transactionTemplate.execute(status -> {
+			orderService.addPricedOrder(order);
+			
+			status.setRollbackOnly();
+			
+			return null;
+		});
+		
+		assertThat(meterRegistry.get("order.created").counter().count()).isEqualTo(createdCount);
+		assertThat(meterRegistry.get("order.customizations").summary().count()).isEqualTo(customizationCount);
+		
+		orderService.addPricedOrder(order);
+		
+		assertThat(meterRegistry.get("order.created").counter().count()).isEqualTo(createdCount + 1.0);
+		assertThat(meterRegistry.get("order.customizations").summary().count()).isEqualTo(customizationCount + 1L);
+	}
+	
 	/**
 	 * Test add order method when customized ingredients are used on request without a closed recipe:
 	 * 
@@ -371,4 +504,473 @@ public class OrderServiceTest {
 		// Test.
 		assertThat(orderService.addOrder(order)).isEqualTo(orderExpected);
 	}
+	
+	/**
+	 * Test add order list method when a closed recipe order and a customized ingredients order are sent together:
+	 * 
+	 * > Mock database and external calls of this flow.
+	 * > Test method sending input and comparing returned output with expected output.
+	 */
+	@Test
+	public void addOrderListTest() {
+		Order order = null;
+		List<Order> orderList = null;
+		List<BigDecimal> priceList = Arrays.asList(BigDecimal.valueOf(30L), BigDecimal.valueOf(25L));
+		List<Order> orderSavedList = null;
+		OrderCustomization orderCustomization = null;
+		Map<Long, OrderCustomization> orderCustomizationMap = null;
+		List<OrderCustomization> orderCustomizationList = null;
+		List<Order> orderExpectedList = null;
+		
+		// Mock ingredientClientService.calculateOrderPriceList(orderList) call.
+		orderList = new ArrayList<Order>();
+		
+		order = new Order();
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		orderList.add(order);
+		
+		order = new Order();
+		order.setSize('B');
+		order.setBreadThickness('M');
+		orderList.add(order);
+		
+		Mockito.when(ingredientClientService.calculateOrderPriceList(orderList)).thenReturn(priceList);
+		
+		// Mock orderRepository.saveAll(orderList) call.
+		orderList = new ArrayList<Order>();
+		
+		order = new Order();
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		order.setPrice(priceList.get(0));
+		orderList.add(order);
+		
+		order = new Order();
+		order.setSize('B');
+		order.setBreadThickness('M');
+		order.setPrice(priceList.get(1));
+		orderList.add(order);
+		
+		orderSavedList = new ArrayList<Order>();
+		
+		order = new Order();
+		order.setId(1L);
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		order.setPrice(priceList.get(0));
+		orderSavedList.add(order);
+		
+		order = new Order();
+		order.setId(2L);
+		order.setSize('B');
+		order.setBreadThickness('M');
+		order.setPrice(priceList.get(1));
+		orderSavedList.add(order);
+		
+		Mockito.when(orderRepository.saveAll(orderList)).thenReturn(orderSavedList);
+		
+		// Mock orderCustomizationRepository.saveAll(orderCustomizationList) call.
+		orderCustomization = new OrderCustomization();
+		orderCustomization.setOrderCustomizationId(new OrderCustomizationId());
+		orderCustomization.getOrderCustomizationId().setIngredientId(1L);
+		orderCustomization.getOrderCustomizationId().setOrder(orderSavedList.get(1));
+		orderCustomization.setType('A');
+		orderCustomization.setPortionQuantity(3);
+		orderCustomization.setObservation("A little bit melted.");
+		
+		orderCustomizationList = new ArrayList<OrderCustomization>();
+		orderCustomizationList.add(orderCustomization);
+		
+		Mockito.when(orderCustomizationRepository.saveAll(orderCustomizationList)).thenReturn(orderCustomizationList);
+		
+		// Input.
+		orderList = new ArrayList<Order>();
+		
+		order = new Order();
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		orderList.add(order);
+		
+		order = new Order();
+		order.setSize('B');
+		order.setBreadThickness('M');
+		
+		orderCustomization = new OrderCustomization();
+		orderCustomization.setType('A');
+		orderCustomization.setPortionQuantity(3);
+		orderCustomization.setObservation("A little bit melted.");
+		
+		orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+		orderCustomizationMap.put(1L, orderCustomization);
+		
+		order.setOrderCustomizationMap(orderCustomizationMap);
+		orderList.add(order);
+		
+		// Output.
+		orderExpectedList = new ArrayList<Order>();
+		
+		order = new Order();
+		order.setId(1L);
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		order.setPrice(priceList.get(0));
+		orderExpectedList.add(order);
+		
+		order = new Order();
+		order.setId(2L);
+		order.setSize('B');
+		order.setBreadThickness('M');
+		order.setPrice(priceList.get(1));
+		
+		orderCustomization = new OrderCustomization();
+		orderCustomization.setOrderCustomizationId(new OrderCustomizationId());
+		orderCustomization.getOrderCustomizationId().setIngredientId(1L);
+		orderCustomization.getOrderCustomizationId().setOrder(order);
+		orderCustomization.setType('A');
+		orderCustomization.setPortionQuantity(3);
+		orderCustomization.setObservation("A little bit melted.");
+		
+		orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+		orderCustomizationMap.put(1L, orderCustomization);
+		
+		order.setOrderCustomizationMap(orderCustomizationMap);
+		orderExpectedList.add(order);
+		
+		// Test.
+		assertThat(orderService.addOrderList(orderList)).isEqualTo(orderExpectedList);
+		
+		Mockito.verify(ingredientClientService, Mockito.times(1)).calculateOrderPriceList(Mockito.anyList());
+		Mockito.verify(orderCustomizationRepository, Mockito.times(1)).saveAll(orderCustomizationList);
+	}
+	
+	/**
+	 * Test add order method when the same order is added twice:
+	 * 
+	 * > Mock database and external calls of this flow.
+	 * > Test that the second order gets its price from cache without calling ingredient client service again, and
+	 * 		that the hit is published as a cache meter.
+	 */
+	@Test
+	public void addOrderPriceCacheTest() {
+		Order order = null;
+		BigDecimal price = BigDecimal.valueOf(30L);
+		
+		// Mock ingredientClientService.calculateOrderPrice(order) call.
+		order = new Order();
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		
+		Mockito.when(ingredientClientService.calculateOrderPrice(order)).thenReturn(price);
+		
+		// Mock orderRepository.save(order) call.
+		Mockito.when(orderRepository.save(Mockito.any(Order.class))).thenAnswer(invocation -> {
+			Order orderSaved = invocation.getArgument(0);
+			
+			orderSaved.setId(1L);
+			
+			return orderSaved;
+		});
+		
+		// Test.
+		for (int i = 0; i < 2; i++) {
+			order = new Order();
+			order.setClosedRecipeId(1);
+			order.setSize('M');
+			order.setBreadThickness('S');
+			
+			orderService.addOrder(order);
+			
+			assertThat(order.getPrice()).isEqualTo(price);
+		}
+		
+		Mockito.verify(ingredientClientService, Mockito.times(1)).calculateOrderPrice(Mockito.any(Order.class));
+		assertThat(orderPriceCacheService.getStatistics().get("hitCount")).isEqualTo(1L);
+		assertThat(meterRegistry.find("cache.gets").tags("cache", "order.price", "result", "hit").functionCounter()
+				.count()).isEqualTo(1.0);
+		
+		// Test invalidation.
+		orderPriceCacheService.invalidateAll();
+		
+		order.setPrice(null);
+		orderService.addOrder(order);
+		
+		Mockito.verify(ingredientClientService, Mockito.times(2)).calculateOrderPrice(Mockito.any(Order.class));
+	}
+	
+	/**
+	 * Test delete order method:
+	 * 
+	 * > Mock database calls of this flow.
+	 * > Test that the order is deleted without calling ingredient client service.
+	 * > Test that dispatching the outbox reverses the order ingredients consuming ingredient client service.
+	 */
+	@Test
+	public void deleteOrderTest() {
+		Order order = null;
+		
+		// Mock orderRepository.findWithOrderCustomizationMapById(id) call.
+		order = new Order();
+		order.setId(1L);
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		order.setPrice(BigDecimal.valueOf(30L));
+		
+		Mockito.when(orderRepository.findWithOrderCustomizationMapById(1L)).thenReturn(Optional.of(order));
+		
+		// Test.
+		orderService.deleteOrder(1L);
+		
+		Mockito.verify(orderRepository, Mockito.times(1)).deleteById(1L);
+		Mockito.verifyZeroInteractions(ingredientClientService);
+		assertThat(orderOutboxService.getStatistics().get("backlogDepth")).isEqualTo(1L);
+		
+		// Test dispatch.
+		assertThat(orderOutboxService.dispatch()).isEqualTo(1);
+		
+		Mockito.verify(ingredientClientService, Mockito.times(1)).reverseOrderIngredientsList(Arrays.asList(order));
+		assertThat(orderOutboxService.getStatistics().get("backlogDepth")).isEqualTo(0L);
+	}
+	
+	/**
+	 * Test outbox dispatch when the batch call of two deleted orders fails:
+	 * 
+	 * > Mock database calls of this flow, and a batch call failing as if ingredient resource was unavailable.
+	 * > Mock a reversal of the first order refused by ingredient resource, and a reversal of the second one accepted.
+	 * > Test that the second event is dispatched on its own and the first one is kept as failed, out of the backlog.
+	 */
+	@Test
+	public void deleteOrderOutboxFailureTest() {
+		Order order = null;
+		Order otherOrder = null;
+		long failedEventCount = orderOutboxService.getStatistics().get("failedEventCount").longValue();
+		
+		// Mock orderRepository.findWithOrderCustomizationMapById(id) calls.
+		order = new Order();
+		order.setId(1L);
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		order.setPrice(BigDecimal.valueOf(30L));
+		
+		otherOrder = new Order();
+		otherOrder.setId(2L);
+		otherOrder.setClosedRecipeId(2);
+		otherOrder.setSize('L');
+		otherOrder.setBreadThickness('T');
+		otherOrder.setPrice(BigDecimal.valueOf(40L));
+		
+		Mockito.when(orderRepository.findWithOrderCustomizationMapById(1L)).thenReturn(Optional.of(order));
+		Mockito.when(orderRepository.findWithOrderCustomizationMapById(2L)).thenReturn(Optional.of(otherOrder));
+		
+		// Mock ingredientClientService calls.
+		Mockito.doThrow(new ResourceAccessException("Connection refused")).when(ingredientClientService)
+				.reverseOrderIngredientsList(Mockito.anyList());
+		Mockito.doThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST)).when(ingredientClientService)
+				.reverseOrderIngredients(order);
+		
+		// Test.
+		orderService.deleteOrder(1L);
+		orderService.deleteOrder(2L);
+		
+		assertThat(orderOutboxService.dispatch()).isEqualTo(1);
+		
+		Mockito.verify(ingredientClientService, Mockito.times(1)).reverseOrderIngredients(order);
+		Mockito.verify(ingredientClientService, Mockito.times(1)).reverseOrderIngredients(otherOrder);
+		assertThat(orderOutboxService.getStatistics().get("backlogDepth")).isEqualTo(0L);
+		assertThat(orderOutboxService.getStatistics().get("failedEventCount")).isEqualTo(failedEventCount + 1);
+	}
+	
+	/**
+	 * Test outbox dispatch when the lease of a batch is lost while it is sent:
+	 * 
+	 * > Mock database calls of this flow, and a batch call taking so long that another dispatch takes the event over
+	 * 		and then failing.
+	 * > Test that the event is not released by the dispatch which lost the lease, and the loss is counted.
+	 * > Test that the dispatch which took the event over owns it, and once its lease ends the event is dispatched.
+	 */
+	@Test
+	public void deleteOrderOutboxLostLeaseTest() {
+		Order order = null;
+		long lostLeaseCount = orderOutboxService.getStatistics().get("lostLeaseCount").longValue();
+		
+		// Mock orderRepository.findWithOrderCustomizationMapById(id) call.
+		order = new Order();
+		order.setId(1L);
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		order.setPrice(BigDecimal.valueOf(30L));
+		
+		Mockito.when(orderRepository.findWithOrderCustomizationMapById(1L)).thenReturn(Optional.of(order));
+		
+		// Mock ingredientClientService.reverseOrderIngredientsList(orderList) call.
+		Mockito.doAnswer(invocation -> {
+			Date takeOverDate = new Date(Long.MAX_VALUE);
+			
+			orderOutboxEventRepository.claimByIdList("takeOver", new Date(),
+					orderOutboxEventRepository.findIdListByStatusAndNextAttemptDate(OrderOutboxEvent.STATUS_PENDING,
+							takeOverDate, PageRequest.of(0, 1)), OrderOutboxEvent.STATUS_PENDING, takeOverDate);
+			
+			throw new ResourceAccessException("Read timed out");
+		}).when(ingredientClientService).reverseOrderIngredientsList(Mockito.anyList());
+		Mockito.doThrow(new ResourceAccessException("Connection refused")).when(ingredientClientService)
+				.reverseOrderIngredients(order);
+		
+		// Test.
+		orderService.deleteOrder(1L);
+		
+		assertThat(orderOutboxService.dispatch()).isEqualTo(0);
+		
+		assertThat(orderOutboxService.getStatistics().get("lostLeaseCount")).isEqualTo(lostLeaseCount + 1);
+		assertThat(orderOutboxEventRepository.findByClaimTokenOrderByIdAsc("takeOver")).hasSize(1)
+				.allMatch(orderOutboxEvent -> orderOutboxEvent.getAttemptQuantity() == 0);
+		
+		// Test dispatch once the lease of the dispatch which took the event over ends.
+		Mockito.doNothing().when(ingredientClientService).reverseOrderIngredientsList(Mockito.anyList());
+		
+		assertThat(orderOutboxService.dispatch()).isEqualTo(1);
+		assertThat(orderOutboxService.getStatistics().get("backlogDepth")).isEqualTo(0L);
+	}
+	
+	/**
+	 * Test get order method when the same order is gotten twice and then deleted:
+	 * 
+	 * > Mock database calls of this flow.
+	 * > Test that the second get comes from cache without calling order repository again.
+	 * > Test that deleting the order discards it from cache.
+	 */
+	@Test
+	public void getOrderCacheTest() {
+		Order order = null;
+		
+		// Mock orderRepository.findOrderRowListById(id) and orderRepository.findWithOrderCustomizationMapById(id) calls.
+		order = new Order();
+		order.setId(1L);
+		order.setClosedRecipeId(1);
+		order.setSize('M');
+		order.setBreadThickness('S');
+		order.setPrice(BigDecimal.valueOf(30L));
+		
+		Mockito.when(orderRepository.findOrderRowListById(1L)).thenReturn(Arrays.asList(
+				new OrderRow(1L, 1, 'M', 'S', BigDecimal.valueOf(30L), null, null, null, null)));
+		Mockito.when(orderRepository.findWithOrderCustomizationMapById(1L)).thenReturn(Optional.of(order));
+		
+		// Test.
+		assertThat(orderService.getOrder(1L)).isEqualTo(order);
+		assertThat(orderService.getOrder(1L)).isEqualTo(order);
+		
+		Mockito.verify(orderRepository, Mockito.times(1)).findOrderRowListById(1L);
+		assertThat(orderCacheService.getStatistics().get("hitCount")).isEqualTo(1L);
+		
+		// Test invalidation on delete.
+		orderService.deleteOrder(1L);
+		
+		assertThat(orderService.getOrder(1L)).isEqualTo(order);
+		
+		Mockito.verify(orderRepository, Mockito.times(2)).findOrderRowListById(1L);
+	}
+	
+	/**
+	 * Test calculate order price method when identical orders are priced concurrently:
+	 * 
+	 * > Mock external call of this flow, holding it until every other caller has joined it.
+	 * > Test that a single call is made to ingredient client service and every caller gets its price.
+	 */
+	@Test
+	public void calculateOrderPriceSingleFlightTest() throws Exception {
+		int callerQuantity = 8;
+		long collapsedCount = orderPriceSingleFlightService.getStatistics().get("collapsedCount").longValue();
+		ExecutorService executorService = Executors.newFixedThreadPool(callerQuantity);
+		List<Future<BigDecimal>> priceFutureList = new ArrayList<Future<BigDecimal>>();
+		
+		// Mock ingredientClientService.calculateOrderPrice(order) call.
+		Mockito.when(ingredientClientService.calculateOrderPrice(Mockito.any(Order.class))).thenAnswer(invocation -> {
+			long deadline = System.currentTimeMillis() + 5000L;
+			
+			while (orderPriceSingleFlightService.getStatistics().get("collapsedCount").longValue()
+					< collapsedCount + callerQuantity - 1 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(1L);
+			}
+			
+			return BigDecimal.valueOf(45L);
+		});
+		
+		// Test.
+		for (int i = 0; i < callerQuantity; i++) {
+			priceFutureList.add(executorService.submit(() -> {
+				Order order = new Order();
+				order.setClosedRecipeId(2);
+				order.setSize('B');
+				order.setBreadThickness('M');
+				
+				return orderPriceCacheService.calculateOrderPrice(order);
+			}));
+		}
+		
+		for (Future<BigDecimal> priceFuture : priceFutureList) {
+			assertThat(priceFuture.get()).isEqualTo(BigDecimal.valueOf(45L));
+		}
+		
+		executorService.shutdown();
+		
+		Mockito.verify(ingredientClientService, Mockito.times(1)).calculateOrderPrice(Mockito.any(Order.class));
+		assertThat(orderPriceSingleFlightService.getStatistics().get("collapsedCount"))
+				.isEqualTo(collapsedCount + callerQuantity - 1);
+	}
+	
+	/**
+	 * Test calculate order price method when identical orders are priced concurrently and the call fails with an
+	 * 		error:
+	 * 
+	 * > Mock external call of this flow, holding it until every other caller has joined it and throwing an error.
+	 * > Test that every caller gets the error instead of waiting for a call which never completes.
+	 */
+	@Test
+	public void calculateOrderPriceSingleFlightErrorTest() throws Exception {
+		int callerQuantity = 4;
+		long collapsedCount = orderPriceSingleFlightService.getStatistics().get("collapsedCount").longValue();
+		ExecutorService executorService = Executors.newFixedThreadPool(callerQuantity);
+		List<Future<BigDecimal>> priceFutureList = new ArrayList<Future<BigDecimal>>();
+		
+		// Mock ingredientClientService.calculateOrderPrice(order) call.
+		Mockito.when(ingredientClientService.calculateOrderPrice(Mockito.any(Order.class))).thenAnswer(invocation -> {
+			long deadline = System.currentTimeMillis() + 5000L;
+			
+			while (orderPriceSingleFlightService.getStatistics().get("collapsedCount").longValue()
+					< collapsedCount + callerQuantity - 1 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(1L);
+			}
+			
+			throw new StackOverflowError();
+		});
+		
+		// Test.
+		for (int i = 0; i < callerQuantity; i++) {
+			priceFutureList.add(executorService.submit(() -> {
+				Order order = new Order();
+				order.setClosedRecipeId(3);
+				order.setSize('B');
+				order.setBreadThickness('M');
+				
+				return orderPriceCacheService.calculateOrderPrice(order);
+			}));
+		}
+		
+		for (Future<BigDecimal> priceFuture : priceFutureList) {
+			assertThatThrownBy(() -> priceFuture.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+					.hasCauseInstanceOf(StackOverflowError.class);
+		}
+		
+		executorService.shutdown();
+		
+		assertThat(orderPriceSingleFlightService.getStatistics().get("inFlightCount")).isEqualTo(0);
+	}
 }
\ No newline at end of file
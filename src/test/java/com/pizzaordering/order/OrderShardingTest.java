@@ -0,0 +1,417 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pizzaordering.order.data.OrderRepository;
+import com.pizzaordering.order.data.OrderRoutingDataSource;
+import com.pizzaordering.order.dto.OrderPage;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+import com.pizzaordering.order.service.IngredientClientService;
+import com.pizzaordering.order.service.OrderCacheService;
+import com.pizzaordering.order.service.OrderIdempotencyService;
+import com.pizzaordering.order.service.OrderService;
+import com.pizzaordering.order.service.OrderShardService;
+
+/**
+ * Integration test of sharding of orders by id over three embedded databases, checked on every database directly.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+		"spring.datasource.url=" + OrderShardingTest.DATABASE_URL_PREFIX + "0" + OrderShardingTest.DATABASE_URL_SUFFIX,
+		"order.datasource.shards[0].url=" + OrderShardingTest.DATABASE_URL_PREFIX + "1"
+				+ OrderShardingTest.DATABASE_URL_SUFFIX,
+		"order.datasource.shards[1].url=" + OrderShardingTest.DATABASE_URL_PREFIX + "2"
+				+ OrderShardingTest.DATABASE_URL_SUFFIX,
+		"order.sharding.rebalance-chunk-size=3"})
+public class OrderShardingTest {
+	
+	/**
+	 * Beginning of the JDBC URL of the embedded database of every shard, followed by the shard.
+	 */
+	static final String DATABASE_URL_PREFIX = "jdbc:h2:mem:db_pizza_ordering_orders_shard_";
+	
+	/**
+	 * End of the JDBC URL of the embedded database of every shard.
+	 */
+	static final String DATABASE_URL_SUFFIX = ";MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+	
+	/**
+	 * Quantity of shards.
+	 */
+	private static final int SHARD_COUNT = 3;
+	
+	/**
+	 * Interface of order service layer.
+	 */
+	@Autowired
+	OrderService orderService;
+	
+	/**
+	 * Interface of order idempotency service layer.
+	 */
+	@Autowired
+	OrderIdempotencyService orderIdempotencyService;
+	
+	/**
+	 * Interface of order cache service layer.
+	 */
+	@Autowired
+	OrderCacheService orderCacheService;
+	
+	/**
+	 * Interface of order shard service layer.
+	 */
+	@Autowired
+	OrderShardService orderShardService;
+	
+	/**
+	 * Interface of order repository layer.
+	 */
+	@Autowired
+	OrderRepository orderRepository;
+	
+	/**
+	 * Template of transactions.
+	 */
+	@Autowired
+	TransactionTemplate transactionTemplate;
+	
+	/**
+	 * Interface of ingredient client service layer mocked.
+	 */
+	@MockBean
+	IngredientClientService ingredientClientService;
+	
+	/**
+	 * Mock pricing calls with a fixed price per order.
+	 */
+	@Before
+	public void mockIngredientClientService() {
+		Mockito.when(ingredientClientService.calculateOrderPrice(Mockito.any(Order.class))).thenReturn(BigDecimal.TEN);
+	}
+	
+	/**
+	 * Test routing of orders among shards:
+	 * 
+	 * > Add orders with customized ingredients.
+	 * > Test that every order and its customized ingredients are saved on the shard encoded in its id only, and that
+	 * 		every shard takes orders.
+	 * > Page through orders and test that pages of every shard are merged by id.
+	 * > Delete an order and test that it is deleted from its shard, where its outbox event is saved.
+	 */
+	@Test
+	public void shardRoutingTest() throws SQLException {
+		List<Long> orderIdList = new ArrayList<Long>();
+		List<Long> orderPagedIdList = new ArrayList<Long>();
+		int[] orderQuantityByShard = new int[SHARD_COUNT];
+		OrderPage orderPage = null;
+		Long after = null;
+		Long id = null;
+		int shard = 0;
+		
+		// Input.
+		for (int i = 0; i < 30; i++) {
+			orderIdList.add(orderService.addPricedOrder(newOrder()).getId());
+		}
+		
+		// Test.
+		assertThat(orderShardService.getShardCount()).isEqualTo(SHARD_COUNT);
+		
+		for (Long orderId : orderIdList) {
+			shard = orderShardService.getShard(orderId);
+			orderQuantityByShard[shard]++;
+			
+			for (int otherShard = 0; otherShard < SHARD_COUNT; otherShard++) {
+				assertThat(countRows(otherShard, "ord_order", "id", orderId)).isEqualTo(otherShard == shard ? 1 : 0);
+				assertThat(countRows(otherShard, "ord_order_customization", "order_id", orderId))
+						.isEqualTo(otherShard == shard ? 2 : 0);
+			}
+			
+			assertThat(orderService.getOrder(orderId).getOrderCustomizationMap()).containsOnlyKeys(1L, 2L);
+		}
+		
+		assertThat(orderQuantityByShard).doesNotContain(0);
+		
+		after = Collections.min(orderIdList) - 1;
+		
+		do {
+			orderPage = orderService.getOrderPage(after, 7);
+			orderPage.getOrderList().forEach(order -> orderPagedIdList.add(order.getId()));
+			after = orderPage.getNextAfter();
+		} while (after != null);
+		
+		Collections.sort(orderIdList);
+		
+		assertThat(orderPagedIdList).containsSubsequence(orderIdList);
+		assertThat(orderPagedIdList).isSorted();
+		
+		id = orderIdList.get(0);
+		shard = orderShardService.getShard(id);
+		
+		orderService.deleteOrder(id);
+		
+		assertThat(countRows(shard, "ord_order", "id", id)).isEqualTo(0);
+		assertThat(countRows(shard, "ord_order_outbox_event", "type", "R")).isGreaterThanOrEqualTo(1);
+	}
+	
+	/**
+	 * Test adding an order with an idempotency key:
+	 * 
+	 * > Add an order twice with the same key.
+	 * > Test that the same order is returned, and that it is saved on the shard of its key, with the key.
+	 */
+	@Test
+	public void idempotencyKeyShardTest() throws SQLException {
+		String idempotencyKey = "sharding-test-key";
+		Order orderAdded = null;
+		int shard = 0;
+		
+		// Input.
+		orderAdded = orderIdempotencyService.addOrder(idempotencyKey, newOrder());
+		
+		// Test.
+		assertThat(orderIdempotencyService.addOrder(idempotencyKey, newOrder()).getId()).isEqualTo(orderAdded.getId());
+		
+		shard = orderShardService.getShard(orderAdded.getId());
+		
+		assertThat(countRows(shard, "ord_order", "id", orderAdded.getId())).isEqualTo(1);
+		assertThat(countRows(shard, "ord_order_idempotency_key", "idempotency_key", idempotencyKey)).isEqualTo(1);
+	}
+	
+	/**
+	 * Test rebalancing of orders left on a shard which does not own their bucket:
+	 * 
+	 * > Mark a rebalance as pending, add two orders and move them to another shard, as left behind when shards are
+	 * 		added.
+	 * > Test that, as a rebalance is pending, one is still found and the other one is deleted, looking them up on
+	 * 		the other shards.
+	 * > Rebalance shards and test that the order is moved back with its customized ingredients.
+	 * > Test that orders missing on their shard are no longer looked up on the other shards, and that statistics
+	 * 		of shards are reported.
+	 */
+	@Test
+	public void rebalanceTest() throws SQLException {
+		Order orderAdded = orderService.addPricedOrder(newOrder());
+		Order orderDeleted = orderService.addPricedOrder(newOrder());
+		Long id = orderAdded.getId();
+		int shard = orderShardService.getShard(id);
+		int otherShard = (shard + 1) % SHARD_COUNT;
+		int deletedShard = orderShardService.getShard(orderDeleted.getId());
+		int deletedOtherShard = (deletedShard + 1) % SHARD_COUNT;
+		Map<String, Number> statistics = orderShardService.getStatistics();
+		int bucketQuantity = 0;
+		
+		// Input.
+		ReflectionTestUtils.setField(orderShardService, "rebalancing", true);
+		
+		moveOrder(orderAdded, shard, otherShard);
+		moveOrder(orderDeleted, deletedShard, deletedOtherShard);
+		
+		// Test.
+		assertThat(countRows(otherShard, "ord_order_customization", "order_id", id)).isEqualTo(2);
+		assertThat(orderService.getOrder(id).getOrderCustomizationMap()).containsOnlyKeys(1L, 2L);
+		
+		orderService.deleteOrder(orderDeleted.getId());
+		
+		assertThat(countRows(deletedOtherShard, "ord_order", "id", orderDeleted.getId())).isEqualTo(0);
+		assertThat(orderShardService.getStatistics().get("otherShardHitCount").longValue()
+				- statistics.get("otherShardHitCount").longValue()).isEqualTo(2L);
+		
+		statistics = orderShardService.rebalance();
+		
+		assertThat(statistics.get("movedOrderQuantity")).isEqualTo(1L);
+		assertThat(countRows(shard, "ord_order", "id", id)).isEqualTo(1);
+		assertThat(countRows(shard, "ord_order_customization", "order_id", id)).isEqualTo(2);
+		assertThat(countRows(otherShard, "ord_order", "id", id)).isEqualTo(0);
+		assertThat(countRows(otherShard, "ord_order_customization", "order_id", id)).isEqualTo(0);
+		
+		moveOrder(orderAdded, shard, otherShard);
+		
+		assertThatThrownBy(() -> orderService.getOrder(id)).isInstanceOf(NoSuchElementException.class);
+		
+		moveOrder(orderAdded, otherShard, shard);
+		
+		statistics = orderShardService.getStatistics();
+		
+		for (int i = 0; i < SHARD_COUNT; i++) {
+			bucketQuantity += statistics.get("shard-" + i + ".bucketCount").intValue();
+		}
+		
+		assertThat(statistics.get("shardCount")).isEqualTo(SHARD_COUNT);
+		assertThat(bucketQuantity).isEqualTo(OrderRoutingDataSource.BUCKET_COUNT);
+		assertThat(statistics.get("movedOrderCount").longValue()).isGreaterThanOrEqualTo(1L);
+		assertThat(statistics.get("rebalancing")).isEqualTo(0);
+	}
+	
+	/**
+	 * Move an order to another shard, as left behind when shards are added, and drop it from the order cache.
+	 * 
+	 * @param order Order with customized ingredients.
+	 * @param shard Shard of the order, from 0.
+	 * @param otherShard Shard the order is moved to, from 0.
+	 */
+	private void moveOrder(Order order, int shard, int otherShard) {
+		orderShardService.routeToShard(otherShard, () -> transactionTemplate.execute(status -> {
+			orderRepository.insertOrderList(Collections.singletonList(order));
+			
+			return null;
+		}));
+		orderShardService.routeToShard(shard, () -> transactionTemplate.execute(status -> {
+			orderRepository.deleteOrderList(Collections.singletonList(order.getId()));
+			
+			return null;
+		}));
+		
+		orderCacheService.invalidateOrder(order.getId());
+	}
+	
+	/**
+	 * Test rebalancing of an order deleted while it is moved:
+	 * 
+	 * > Add an order, move it to another shard, as left behind when shards are added, and lock it there as a delete
+	 * 		in progress does.
+	 * > Rebalance shards meanwhile, then delete the order and release the lock.
+	 * > Test that the order is not brought back on any shard once the rebalance ends.
+	 */
+	@Test
+	public void rebalanceDeleteTest() throws Exception {
+		Order orderAdded = orderService.addPricedOrder(newOrder());
+		Long id = orderAdded.getId();
+		int shard = orderShardService.getShard(id);
+		int otherShard = (shard + 1) % SHARD_COUNT;
+		CompletableFuture<Map<String, Number>> rebalanceFuture = null;
+		
+		// Input.
+		moveOrder(orderAdded, shard, otherShard);
+		
+		try (Connection connection = DriverManager.getConnection(DATABASE_URL_PREFIX + otherShard
+				+ DATABASE_URL_SUFFIX, "sa", "")) {
+			connection.setAutoCommit(false);
+			
+			try (PreparedStatement preparedStatement = connection.prepareStatement(
+					"SELECT id FROM ord_order WHERE id = ? FOR UPDATE")) {
+				preparedStatement.setLong(1, id);
+				preparedStatement.executeQuery().close();
+			}
+			
+			rebalanceFuture = CompletableFuture.supplyAsync(orderShardService::rebalance);
+			
+			Thread.sleep(200L);
+			
+			try (PreparedStatement preparedStatement = connection.prepareStatement(
+					"DELETE FROM ord_order_customization WHERE order_id = ?")) {
+				preparedStatement.setLong(1, id);
+				preparedStatement.executeUpdate();
+			}
+			
+			try (PreparedStatement preparedStatement = connection.prepareStatement(
+					"DELETE FROM ord_order WHERE id = ?")) {
+				preparedStatement.setLong(1, id);
+				preparedStatement.executeUpdate();
+			}
+			
+			connection.commit();
+		}
+		
+		rebalanceFuture.get();
+		
+		// Test.
+		assertThat(countRows(shard, "ord_order", "id", id)).isEqualTo(0);
+		assertThat(countRows(shard, "ord_order_customization", "order_id", id)).isEqualTo(0);
+		assertThat(countRows(otherShard, "ord_order", "id", id)).isEqualTo(0);
+		assertThatThrownBy(() -> orderService.getOrder(id)).isInstanceOf(NoSuchElementException.class);
+	}
+	
+	/**
+	 * Build a new order with two customized ingredients.
+	 * 
+	 * @return New order.
+	 */
+	private Order newOrder() {
+		Order order = new Order();
+		Map<Long, OrderCustomization> orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+		OrderCustomization orderCustomization = null;
+		
+		order.setClosedRecipeId(1);
+		order.setSize('L');
+		order.setBreadThickness('T');
+		order.setPrice(new BigDecimal("10.00"));
+		
+		for (long ingredientId = 1L; ingredientId <= 2L; ingredientId++) {
+			orderCustomization = new OrderCustomization();
+			orderCustomization.setType('A');
+			orderCustomization.setPortionQuantity(1);
+			
+			orderCustomizationMap.put(ingredientId, orderCustomization);
+		}
+		
+		order.setOrderCustomizationMap(orderCustomizationMap);
+		
+		return order;
+	}
+	
+	/**
+	 * Count rows of a table with a value on a column, on the database of a shard.
+	 * 
+	 * @param shard Shard, from 0.
+	 * @param table Name of the table.
+	 * @param column Name of the column.
+	 * @param value Value of the column.
+	 * @return Quantity of rows.
+	 */
+	private int countRows(int shard, String table, String column, Object value) throws SQLException {
+		try (Connection connection = DriverManager.getConnection(DATABASE_URL_PREFIX + shard + DATABASE_URL_SUFFIX,
+				"sa", "");
+				PreparedStatement preparedStatement = connection.prepareStatement("SELECT COUNT(*) FROM " + table
+						+ " WHERE " + column + " = ?")) {
+			preparedStatement.setObject(1, value);
+			
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				resultSet.next();
+				
+				return resultSet.getInt(1);
+			}
+		}
+	}
+}
\ No newline at end of file
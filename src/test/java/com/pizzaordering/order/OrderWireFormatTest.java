@@ -0,0 +1,118 @@
+/**
+ * Pizza Ordering Application
+ * 
+ * HTTP REST Microservices that handle ordering, deals and inventory
+ * 
+ * FastSpring Coding Challenge
+ * 
+ * Rafael Lima Costa
+ * March of 2018
+ * Santa Barbara, CA, USA
+ */
+
+package com.pizzaordering.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaordering.order.entity.Order;
+import com.pizzaordering.order.entity.OrderCustomization;
+
+/**
+ * Unit test of order wire formats, checking that the bodies exchanged with order and ingredient resources read
+ * 		back to the same orders as JSON and as Smile. Payload size and speed are compared by the benchmarks of the
+ * 		benchmark profile.
+ * 
+ * @author Rafael Lima Costa
+ *
+ */
+public class OrderWireFormatTest {
+	
+	/**
+	 * Quantity of orders on each body, as sent to calculate order price list.
+	 */
+	private static final int ORDER_QUANTITY = 50;
+	
+	/**
+	 * Quantity of customized ingredients of each order.
+	 */
+	private static final int ORDER_CUSTOMIZATION_QUANTITY = 3;
+	
+	/**
+	 * Type of bodies read.
+	 */
+	private static final TypeReference<List<Order>> ORDER_LIST_TYPE = new TypeReference<List<Order>>() {
+	};
+	
+	/**
+	 * Test round trip of wire formats, with mappers built as Spring builds the mappers of its message converters:
+	 * 
+	 * > Write a body of orders as JSON and as Smile and read it back.
+	 * > Test that orders read back are the same as the orders written.
+	 */
+	@Test
+	public void orderWireFormatRoundTripTest() throws Exception {
+		ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+		ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+		List<Order> orderList = newOrderList();
+		List<Order> orderReadList = null;
+		
+		for (ObjectMapper mapper : Arrays.asList(jsonMapper, smileMapper)) {
+			orderReadList = mapper.readValue(mapper.writeValueAsBytes(orderList), ORDER_LIST_TYPE);
+			
+			// Output.
+			assertThat(orderReadList).hasSize(ORDER_QUANTITY);
+			assertThat(orderReadList.get(0).getOrderCustomizationMap()).hasSize(ORDER_CUSTOMIZATION_QUANTITY);
+			assertThat(jsonMapper.<JsonNode>valueToTree(orderReadList)).isEqualTo(jsonMapper.valueToTree(orderList));
+		}
+	}
+	
+	/**
+	 * Build a new list of priced orders with customized ingredients.
+	 * 
+	 * @return List of orders.
+	 */
+	private List<Order> newOrderList() {
+		List<Order> orderList = new ArrayList<Order>();
+		Order order = null;
+		OrderCustomization orderCustomization = null;
+		Map<Long, OrderCustomization> orderCustomizationMap = null;
+		
+		for (int i = 0; i < ORDER_QUANTITY; i++) {
+			order = new Order();
+			order.setId(1000L + i);
+			order.setClosedRecipeId(1);
+			order.setSize('M');
+			order.setBreadThickness('S');
+			order.setPrice(new BigDecimal("12.50"));
+			
+			orderCustomizationMap = new HashMap<Long, OrderCustomization>();
+			
+			for (long ingredientId = 1L; ingredientId <= ORDER_CUSTOMIZATION_QUANTITY; ingredientId++) {
+				orderCustomization = new OrderCustomization();
+				orderCustomization.setType('A');
+				orderCustomization.setPortionQuantity(2);
+				orderCustomization.setObservation("Benchmark.");
+				
+				orderCustomizationMap.put(ingredientId, orderCustomization);
+			}
+			
+			order.setOrderCustomizationMap(orderCustomizationMap);
+			orderList.add(order);
+		}
+		
+		return orderList;
+	}
+}
\ No newline at end of file